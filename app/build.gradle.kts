@@ -86,6 +86,10 @@ dependencies {
     implementation(libs.lifecycle.viewmodel)
     implementation(libs.lifecycle.livedata)
     
+    // WorkManager for background agent pipelines
+    implementation("androidx.work:work-runtime:2.9.0")
+    implementation("androidx.work:work-rxjava3:2.9.0")
+    
     // DataStore for preferences
     implementation(libs.datastore.preferences)
     implementation("androidx.datastore:datastore-preferences-rxjava3:1.0.0")
@@ -2,9 +2,12 @@ package com.mit.bodhiq;
 
 import android.app.Application;
 import android.util.Log;
-import com.mit.bodhiq.utils.TextRecognitionService;
+import com.mit.bodhiq.utils.OcrImagePreprocessor;
+import com.mit.bodhiq.utils.TextRecognizerPool;
 import com.mit.bodhiq.utils.ThemeManager;
+import com.mit.bodhiq.workers.AgentPipelineScheduler;
 import dagger.hilt.android.HiltAndroidApp;
+import javax.inject.Inject;
 
 /**
  * BodhIQ Application class that serves as the entry point for dependency injection.
@@ -16,6 +19,15 @@ public class BodhIQApplication extends Application {
     
     private static final String TAG = "BodhIQApplication";
     
+    @Inject
+    AgentPipelineScheduler agentPipelineScheduler;
+    
+    @Inject
+    TextRecognizerPool textRecognizerPool;
+    
+    @Inject
+    OcrImagePreprocessor ocrImagePreprocessor;
+    
     @Override
     public void onCreate() {
         super.onCreate();
@@ -24,16 +36,22 @@ public class BodhIQApplication extends Application {
         ThemeManager themeManager = new ThemeManager(this);
         themeManager.applyTheme();
         
-        // Pre-download ML Kit text recognition model in background
+        // Warm up the shared ML Kit text recognizer in the background
         // This ensures the model is ready when user first scans a document
-        new Thread(() -> {
-            try {
-                Log.d(TAG, "Pre-downloading ML Kit text recognition model...");
-                TextRecognitionService textRecognitionService = new TextRecognitionService(this);
-                textRecognitionService.downloadModelIfNeeded();
-            } catch (Exception e) {
-                Log.e(TAG, "Error pre-downloading ML Kit model", e);
-            }
-        }).start();
+        textRecognizerPool.warmUp();
+        
+        // Resume agent pipelines that were interrupted by process death; the
+        // check runs in a worker so startup doesn't build the agent graph
+        agentPipelineScheduler.scheduleResumeInterruptedPipelines();
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Release idle recognizers and OCR buffers when the system is reclaiming memory from the app
+        if (level >= TRIM_MEMORY_COMPLETE) {
+            textRecognizerPool.trimMemory();
+            ocrImagePreprocessor.trimMemory();
+        }
     }
 }
\ No newline at end of file
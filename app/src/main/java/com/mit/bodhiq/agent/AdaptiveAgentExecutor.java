@@ -0,0 +1,162 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.database.entity.AgentResult;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Executes agents with timeouts and retries derived from their latency history
+ * instead of a fixed 30 second timeout and immediate retries.
+ * <ul>
+ *   <li>Timeout: p99 latency x {@link #TIMEOUT_P99_FACTOR}, never below twice the
+ *       agent's estimated duration and never above {@link #MAX_TIMEOUT_MS}.</li>
+ *   <li>Retries: up to {@link #MAX_RETRIES}, with exponential backoff and jitter.
+ *       Rejections by a full bulkhead are not retried.</li>
+ *   <li>Hedging: agents that opt in get a second, concurrent attempt once the first
+ *       has been running longer than their p95 latency; the first to succeed wins,
+ *       and the race only fails once both attempts have failed.</li>
+ *   <li>Isolation: every attempt runs on the agent's own bounded bulkhead.</li>
+ * </ul>
+ */
+@Singleton
+public class AdaptiveAgentExecutor {
+
+    public static final double TIMEOUT_P99_FACTOR = 2.0;
+    public static final long MAX_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+    public static final int MAX_RETRIES = 2;
+    public static final long BASE_BACKOFF_MS = 250;
+    // Percentiles are unreliable below this many samples; fall back to estimates
+    private static final int MIN_SAMPLES = 10;
+
+    private final AgentLatencyTracker latencyTracker;
+    private final AgentBulkheadRegistry bulkheads;
+
+    @Inject
+    public AdaptiveAgentExecutor(AgentLatencyTracker latencyTracker, AgentBulkheadRegistry bulkheads) {
+        this.latencyTracker = latencyTracker;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Execute an agent under its adaptive timeout, retry and hedging policy.
+     *
+     * @param agent The agent to execute
+     * @param molecule The molecule to analyze
+     * @param queryId The query ID
+     * @return Single emitting the agent's result
+     */
+    public Single<AgentResult> execute(PharmaceuticalAgent agent, String molecule, long queryId) {
+        return latencyTracker.loadHistory(agent.getAgentName())
+            .andThen(Single.defer(() -> {
+                long timeoutMs = getTimeoutMs(agent);
+                Single<AgentResult> attempt = timedAttempt(agent, molecule, queryId, timeoutMs);
+
+                if (agent.isHedgingEnabled()) {
+                    attempt = hedged(attempt, agent, molecule, queryId, timeoutMs);
+                }
+
+                return attempt.retryWhen(AdaptiveAgentExecutor::backoffWithJitter);
+            }));
+    }
+
+    /**
+     * Get the current timeout for an agent.
+     *
+     * @param agent The agent
+     * @return Timeout in milliseconds
+     */
+    public long getTimeoutMs(PharmaceuticalAgent agent) {
+        long floorMs = 2L * agent.getEstimatedDurationMs();
+        long p99 = latencyTracker.getSampleCount(agent.getAgentName()) >= MIN_SAMPLES
+            ? latencyTracker.getPercentile(agent.getAgentName(), 99)
+            : -1;
+
+        // Without enough history, allow a generous multiple of the estimate
+        long timeoutMs = p99 > 0 ? (long) (p99 * TIMEOUT_P99_FACTOR) : 3L * agent.getEstimatedDurationMs();
+        return Math.min(MAX_TIMEOUT_MS, Math.max(floorMs, timeoutMs));
+    }
+
+    /**
+     * Get how long to wait before starting a hedged attempt for an agent.
+     *
+     * @param agent The agent
+     * @return Hedge delay in milliseconds
+     */
+    public long getHedgeDelayMs(PharmaceuticalAgent agent) {
+        long p95 = latencyTracker.getSampleCount(agent.getAgentName()) >= MIN_SAMPLES
+            ? latencyTracker.getPercentile(agent.getAgentName(), 95)
+            : -1;
+        return Math.max(p95, agent.getEstimatedDurationMs());
+    }
+
+    /**
+     * Get saturation metrics of every agent bulkhead.
+     *
+     * @return Metrics per agent
+     */
+    public List<AgentBulkhead.Metrics> getBulkheadMetrics() {
+        return bulkheads.getAllMetrics();
+    }
+
+    /**
+     * Race an attempt against a delayed second attempt, taking the first success.
+     * Sources that fail turn into never() so amb() can't pick a failure while the
+     * other attempt may still succeed; the second failure is passed through.
+     */
+    private Single<AgentResult> hedged(Single<AgentResult> primary, PharmaceuticalAgent agent,
+                                       String molecule, long queryId, long timeoutMs) {
+        long hedgeDelayMs = getHedgeDelayMs(agent);
+        return Single.defer(() -> {
+            AtomicInteger failures = new AtomicInteger();
+            Single<AgentResult> hedge = Single.timer(hedgeDelayMs, TimeUnit.MILLISECONDS)
+                .flatMap(tick -> timedAttempt(agent, molecule, queryId, timeoutMs));
+            return Single.amb(Arrays.asList(
+                    primary.onErrorResumeNext(error -> failedUnlessLast(failures, error)),
+                    hedge.onErrorResumeNext(error -> failedUnlessLast(failures, error))))
+                // Each attempt has its own timeout; this bounds the race as a whole
+                .timeout(hedgeDelayMs + timeoutMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private static Single<AgentResult> failedUnlessLast(AtomicInteger failures, Throwable error) {
+        return failures.incrementAndGet() == 2 ? Single.error(error) : Single.never();
+    }
+
+    private Single<AgentResult> timedAttempt(PharmaceuticalAgent agent, String molecule,
+                                             long queryId, long timeoutMs) {
+        return Single.defer(() -> {
+            long start = System.currentTimeMillis();
+            return bulkheads.execute(agent, agent.execute(molecule, queryId))
+                .doOnSuccess(result -> latencyTracker.record(
+                    agent.getAgentName(),
+                    System.currentTimeMillis() - start
+                ));
+        })
+        .timeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static Flowable<Long> backoffWithJitter(Flowable<Throwable> errors) {
+        AtomicInteger attempts = new AtomicInteger();
+        return errors.flatMap(error -> {
+            int attempt = attempts.incrementAndGet();
+            // A full bulkhead is shedding load; retrying would only add to it
+            if (attempt > MAX_RETRIES || error instanceof AgentBulkhead.BulkheadFullException) {
+                return Flowable.<Long>error(error);
+            }
+            // "Equal jitter": half the exponential delay is fixed, half is random
+            long backoffMs = BASE_BACKOFF_MS << (attempt - 1);
+            long delayMs = backoffMs / 2 + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1);
+            return Flowable.timer(delayMs, TimeUnit.MILLISECONDS);
+        });
+    }
+}
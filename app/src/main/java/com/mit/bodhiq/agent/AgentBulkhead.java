@@ -0,0 +1,176 @@
+package com.mit.bodhiq.agent;
+
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Dedicated, bounded scheduler for one agent.
+ * At most {@code maxConcurrent} executions run at once on the bulkhead's own
+ * threads and at most {@code queueCapacity} more wait for a thread; anything
+ * beyond that is rejected immediately with a {@link BulkheadFullException}.
+ * A slow or stuck agent can therefore only exhaust its own threads, never the
+ * shared io pool used by Room, Firestore and OCR.
+ */
+public class AgentBulkhead {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String agentName;
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+
+    public AgentBulkhead(String agentName, int maxConcurrent, int queueCapacity) {
+        this.agentName = agentName;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        // Admission is bounded by tryAdmit(), so the executor queue never grows past queueCapacity
+        this.executor = new ThreadPoolExecutor(
+            this.maxConcurrent,
+            this.maxConcurrent,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new AgentThreadFactory(agentName)
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+        // Interruptible, so timed-out executions release their thread
+        this.scheduler = Schedulers.from(executor, true);
+    }
+
+    /**
+     * Run an execution on this bulkhead, or fail fast if the bulkhead is full.
+     *
+     * @param execution The work to run; it must not pick its own scheduler
+     * @return Single running the execution on the bulkhead's threads
+     */
+    public <T> Single<T> execute(Single<T> execution) {
+        return Single.defer(() -> {
+            if (!tryAdmit()) {
+                rejectedCount.incrementAndGet();
+                return Single.<T>error(new BulkheadFullException(agentName, maxConcurrent + queueCapacity));
+            }
+            return execution
+                .subscribeOn(scheduler)
+                .doFinally(() -> {
+                    admitted.decrementAndGet();
+                    completedCount.incrementAndGet();
+                });
+        });
+    }
+
+    /**
+     * Get a snapshot of the bulkhead's saturation.
+     *
+     * @return Current metrics
+     */
+    public Metrics getMetrics() {
+        return new Metrics(
+            agentName,
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            maxConcurrent,
+            queueCapacity,
+            rejectedCount.get(),
+            completedCount.get()
+        );
+    }
+
+    /**
+     * Stop accepting work and interrupt running executions.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean tryAdmit() {
+        int limit = maxConcurrent + queueCapacity;
+        while (true) {
+            int current = admitted.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (admitted.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static class AgentThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        AgentThreadFactory(String agentName) {
+            this.prefix = "agent-" + agentName.toLowerCase(Locale.ROOT).replace(' ', '-') + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            // Agents are background work; keep them below UI, OCR and chat threads
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+
+    /**
+     * Raised when an agent's bulkhead has no free thread and no free queue slot.
+     */
+    public static class BulkheadFullException extends RejectedExecutionException {
+        public BulkheadFullException(String agentName, int capacity) {
+            super("Bulkhead for " + agentName + " is full (" + capacity + " executions in flight)");
+        }
+    }
+
+    /**
+     * POJO for bulkhead saturation metrics.
+     */
+    public static class Metrics {
+        private final String agentName;
+        private final int activeThreads;
+        private final int queueDepth;
+        private final int maxConcurrent;
+        private final int queueCapacity;
+        private final long rejectedCount;
+        private final long completedCount;
+
+        public Metrics(String agentName, int activeThreads, int queueDepth, int maxConcurrent,
+                       int queueCapacity, long rejectedCount, long completedCount) {
+            this.agentName = agentName;
+            this.activeThreads = activeThreads;
+            this.queueDepth = queueDepth;
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+            this.rejectedCount = rejectedCount;
+            this.completedCount = completedCount;
+        }
+
+        public String getAgentName() { return agentName; }
+        public int getActiveThreads() { return activeThreads; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public long getRejectedCount() { return rejectedCount; }
+        public long getCompletedCount() { return completedCount; }
+
+        public double getSaturation() {
+            int capacity = maxConcurrent + queueCapacity;
+            return capacity > 0 ? (double) (activeThreads + queueDepth) / capacity * 100 : 0.0;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mit.bodhiq.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Owns one {@link AgentBulkhead} per agent, sized from the agent's declared
+ * concurrency and queue capacity.
+ */
+@Singleton
+public class AgentBulkheadRegistry {
+
+    private final ConcurrentHashMap<String, AgentBulkhead> bulkheads;
+
+    @Inject
+    public AgentBulkheadRegistry() {
+        this.bulkheads = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Run an agent's execution on its bulkhead.
+     *
+     * @param agent The agent the execution belongs to
+     * @param execution The execution to run
+     * @return Single running on the agent's bulkhead, or failing with
+     *         {@link AgentBulkhead.BulkheadFullException} if it is full
+     */
+    public <T> Single<T> execute(PharmaceuticalAgent agent, Single<T> execution) {
+        return getBulkhead(agent).execute(execution);
+    }
+
+    /**
+     * Get the bulkhead of an agent, creating it on first use.
+     *
+     * @param agent The agent
+     * @return The agent's bulkhead
+     */
+    public AgentBulkhead getBulkhead(PharmaceuticalAgent agent) {
+        return bulkheads.computeIfAbsent(agent.getAgentName(), name -> new AgentBulkhead(
+            name,
+            agent.getBulkheadConcurrency(),
+            agent.getBulkheadQueueCapacity()
+        ));
+    }
+
+    /**
+     * Get saturation metrics for every bulkhead created so far.
+     *
+     * @return Metrics per agent
+     */
+    public List<AgentBulkhead.Metrics> getAllMetrics() {
+        List<AgentBulkhead.Metrics> metrics = new ArrayList<>();
+        for (AgentBulkhead bulkhead : bulkheads.values()) {
+            metrics.add(bulkhead.getMetrics());
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,156 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.database.dao.AgentResultDao;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Tracks the latency distribution of each agent over a sliding window of recent
+ * executions. Windows are seeded once from the execution times recorded in
+ * agent_results and then updated in memory after every real run. Cache hits
+ * take ~0 ms and would drag the percentiles down, so they are never sampled:
+ * AdaptiveAgentExecutor only runs behind the result cache, and rows served
+ * from the cache are skipped when loading history.
+ */
+@Singleton
+public class AgentLatencyTracker {
+
+    public static final int WINDOW_SIZE = 100;
+
+    private final AgentResultDao agentResultDao;
+    private final ConcurrentHashMap<String, LatencyWindow> windows;
+    private final Set<String> loadedAgents;
+
+    @Inject
+    public AgentLatencyTracker(AgentResultDao agentResultDao) {
+        this.agentResultDao = agentResultDao;
+        this.windows = new ConcurrentHashMap<>();
+        this.loadedAgents = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Seed an agent's window from its recorded execution history, once per app run.
+     * The history is merged in as older than any sample recorded meanwhile, so
+     * executions finishing while it loads are kept. A failed read is retried
+     * on the next call.
+     *
+     * @param agentName Name of the agent
+     * @return Completable completing once the window is ready
+     */
+    public Completable loadHistory(String agentName) {
+        return Completable.defer(() -> {
+            if (!loadedAgents.add(agentName)) {
+                return Completable.complete();
+            }
+            return agentResultDao.getRecentExecutionTimesByAgentName(agentName, WINDOW_SIZE)
+                .doOnSuccess(samples -> getWindow(agentName).addOlder(samples))
+                .ignoreElement()
+                .doOnError(throwable -> loadedAgents.remove(agentName))
+                .onErrorComplete()
+                .subscribeOn(Schedulers.io());
+        });
+    }
+
+    /**
+     * Record the latency of a completed execution.
+     *
+     * @param agentName Name of the agent
+     * @param latencyMs Execution latency in milliseconds
+     */
+    public void record(String agentName, long latencyMs) {
+        getWindow(agentName).add(latencyMs);
+    }
+
+    /**
+     * Get a latency percentile for an agent.
+     *
+     * @param agentName Name of the agent
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in milliseconds, or -1 if no samples are available
+     */
+    public long getPercentile(String agentName, double percentile) {
+        LatencyWindow window = windows.get(agentName);
+        return window != null ? window.percentile(percentile) : -1;
+    }
+
+    /**
+     * Get the number of samples currently known for an agent.
+     *
+     * @param agentName Name of the agent
+     * @return Sample count
+     */
+    public int getSampleCount(String agentName) {
+        LatencyWindow window = windows.get(agentName);
+        return window != null ? window.size() : 0;
+    }
+
+    private LatencyWindow getWindow(String agentName) {
+        return windows.computeIfAbsent(agentName, k -> new LatencyWindow(WINDOW_SIZE));
+    }
+
+    /**
+     * Fixed-size ring buffer of latency samples.
+     */
+    static class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) {
+                size++;
+            }
+        }
+
+        /**
+         * Insert samples that are older than everything in the window.
+         *
+         * @param newestFirst Samples ordered newest first
+         */
+        synchronized void addOlder(List<Long> newestFirst) {
+            long[] recent = new long[size];
+            for (int i = 0; i < size; i++) {
+                recent[i] = samples[(next - size + i + samples.length) % samples.length];
+            }
+            next = 0;
+            size = 0;
+            // Oldest first so the newest samples survive in the ring buffer
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                add(newestFirst.get(i));
+            }
+            for (long latencyMs : recent) {
+                add(latencyMs);
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (size == 0) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            // Nearest-rank percentile
+            int rank = (int) Math.ceil(percentile / 100.0 * size);
+            return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.database.dao.AgentResultCacheDao;
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.database.entity.AgentResultCacheEntry;
+import com.mit.bodhiq.data.model.AgentStatus;
+import com.mit.bodhiq.data.provider.MockDataProvider;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Two-tier cache in front of PharmaceuticalAgent.execute.
+ * Results are keyed by agent name, agent version, molecule and the snapshot hash
+ * of the molecule's data, and are looked up first in an in-memory LRU and then
+ * in the agent_result_cache table. Each agent controls its own TTL through
+ * getResultCacheTtlMs(); agents returning 0 bypass the cache entirely.
+ */
+@Singleton
+public class AgentResultCache {
+
+    public static final int DEFAULT_MEMORY_CAPACITY = 64;
+
+    private final AgentResultCacheDao cacheDao;
+    private final MockDataProvider mockDataProvider;
+    private final Map<String, AgentResultCacheEntry> memoryCache;
+    private final ConcurrentHashMap<String, CacheCounters> countersByAgent;
+
+    @Inject
+    public AgentResultCache(AgentResultCacheDao cacheDao) {
+        this(cacheDao, DEFAULT_MEMORY_CAPACITY);
+    }
+
+    public AgentResultCache(AgentResultCacheDao cacheDao, int memoryCapacity) {
+        this.cacheDao = cacheDao;
+        this.mockDataProvider = MockDataProvider.getInstance();
+        this.countersByAgent = new ConcurrentHashMap<>();
+        this.memoryCache = new LinkedHashMap<String, AgentResultCacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AgentResultCacheEntry> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+    }
+
+    /**
+     * Execute an agent, serving its result from the cache when possible.
+     * Cache failures never fail the agent; they fall through to a real execution.
+     *
+     * @param agent The agent to execute
+     * @param molecule The molecule to analyze
+     * @param queryId The query the result belongs to
+     * @return Single emitting the (possibly cached) AgentResult for this query
+     */
+    public Single<AgentResult> execute(PharmaceuticalAgent agent, String molecule, long queryId) {
+        return execute(agent, molecule, queryId, agent.execute(molecule, queryId));
+    }
+
+    /**
+     * Serve an agent's result from the cache, falling back to the given execution
+     * on a miss. Lets callers decorate the real execution (timeouts, retries)
+     * without applying those policies to cache lookups.
+     *
+     * @param agent The agent whose result is requested
+     * @param molecule The molecule to analyze
+     * @param queryId The query the result belongs to
+     * @param execution Single performing the real agent execution on a miss
+     * @return Single emitting the (possibly cached) AgentResult for this query
+     */
+    public Single<AgentResult> execute(PharmaceuticalAgent agent, String molecule, long queryId,
+                                       Single<AgentResult> execution) {
+        long ttlMs = agent.getResultCacheTtlMs();
+        if (ttlMs <= 0) {
+            return execution;
+        }
+
+        return Single.defer(() -> {
+            String cacheKey = buildCacheKey(agent, molecule);
+            CacheCounters counters = getCounters(agent.getAgentName());
+            long startedAt = System.currentTimeMillis();
+
+            AgentResultCacheEntry memoryEntry = getFromMemory(cacheKey, startedAt);
+            if (memoryEntry != null) {
+                counters.memoryHits.incrementAndGet();
+                return Single.just(toAgentResult(memoryEntry, queryId, startedAt));
+            }
+
+            return cacheDao.getValidEntry(cacheKey, startedAt)
+                .subscribeOn(Schedulers.io())
+                .onErrorComplete()
+                .map(entry -> {
+                    counters.diskHits.incrementAndGet();
+                    putInMemory(entry);
+                    return toAgentResult(entry, queryId, startedAt);
+                })
+                .switchIfEmpty(Single.defer(() -> {
+                    counters.misses.incrementAndGet();
+                    return execution
+                        .flatMap(result -> store(cacheKey, agent, molecule, ttlMs, result)
+                            .andThen(Single.just(result)));
+                }));
+        });
+    }
+
+    /**
+     * Get cache hit/miss counts for an agent since the app started.
+     *
+     * @param agentName Name of the agent
+     * @return Snapshot of the agent's cache statistics
+     */
+    public CacheStats getStats(String agentName) {
+        CacheCounters counters = countersByAgent.get(agentName);
+        return counters != null ? counters.snapshot() : new CacheStats(0, 0, 0);
+    }
+
+    /**
+     * Get cache hit/miss counts summed over all agents.
+     *
+     * @return Snapshot of the overall cache statistics
+     */
+    public CacheStats getTotalStats() {
+        long memoryHits = 0;
+        long diskHits = 0;
+        long misses = 0;
+        for (CacheCounters counters : countersByAgent.values()) {
+            memoryHits += counters.memoryHits.get();
+            diskHits += counters.diskHits.get();
+            misses += counters.misses.get();
+        }
+        return new CacheStats(memoryHits, diskHits, misses);
+    }
+
+    /**
+     * Remove expired entries from the persistent tier.
+     *
+     * @return Completable indicating operation completion
+     */
+    public Completable pruneExpired() {
+        return cacheDao.deleteExpiredEntries(System.currentTimeMillis())
+            .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Drop every cached result from both tiers.
+     *
+     * @return Completable indicating operation completion
+     */
+    public Completable clear() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+        return cacheDao.deleteAllEntries()
+            .subscribeOn(Schedulers.io());
+    }
+
+    String buildCacheKey(PharmaceuticalAgent agent, String molecule) {
+        return agent.getAgentName() + "@" + agent.getAgentVersion()
+            + "|" + molecule.toLowerCase(Locale.ROOT)
+            + "|" + mockDataProvider.getDataSnapshotHash(molecule);
+    }
+
+    private Completable store(String cacheKey, PharmaceuticalAgent agent, String molecule,
+                              long ttlMs, AgentResult result) {
+        if (!AgentStatus.COMPLETED.name().equals(result.getStatus()) || result.getResultData() == null) {
+            return Completable.complete();
+        }
+
+        long now = System.currentTimeMillis();
+        AgentResultCacheEntry entry = new AgentResultCacheEntry(
+            cacheKey,
+            agent.getAgentName(),
+            molecule,
+            result.getResultData(),
+            now,
+            now + ttlMs
+        );
+        putInMemory(entry);
+
+        return cacheDao.upsertEntry(entry)
+            .subscribeOn(Schedulers.io())
+            .onErrorComplete();
+    }
+
+    private AgentResultCacheEntry getFromMemory(String cacheKey, long now) {
+        synchronized (memoryCache) {
+            AgentResultCacheEntry entry = memoryCache.get(cacheKey);
+            if (entry != null && entry.isExpired(now)) {
+                memoryCache.remove(cacheKey);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void putInMemory(AgentResultCacheEntry entry) {
+        synchronized (memoryCache) {
+            memoryCache.put(entry.getCacheKey(), entry);
+        }
+    }
+
+    private AgentResult toAgentResult(AgentResultCacheEntry entry, long queryId, long startedAt) {
+        long completedAt = System.currentTimeMillis();
+        AgentResult result = new AgentResult(
+            queryId,
+            entry.getAgentName(),
+            AgentStatus.COMPLETED.name(),
+            startedAt
+        );
+        result.setResultData(entry.getResultData());
+        result.setFromCache(true);
+        result.setCompletedAt(completedAt);
+        result.setExecutionTimeMs(completedAt - startedAt);
+        return result;
+    }
+
+    private CacheCounters getCounters(String agentName) {
+        return countersByAgent.computeIfAbsent(agentName, k -> new CacheCounters());
+    }
+
+    private static class CacheCounters {
+        final AtomicLong memoryHits = new AtomicLong();
+        final AtomicLong diskHits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+
+        CacheStats snapshot() {
+            return new CacheStats(memoryHits.get(), diskHits.get(), misses.get());
+        }
+    }
+
+    /**
+     * POJO for cache hit/miss statistics.
+     */
+    public static class CacheStats {
+        private final long memoryHits;
+        private final long diskHits;
+        private final long misses;
+
+        public CacheStats(long memoryHits, long diskHits, long misses) {
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+        }
+
+        public long getMemoryHits() { return memoryHits; }
+        public long getDiskHits() { return diskHits; }
+        public long getHits() { return memoryHits + diskHits; }
+        public long getMisses() { return misses; }
+
+        public double getHitRate() {
+            long total = getHits() + misses;
+            return total > 0 ? (double) getHits() / total * 100 : 0.0;
+        }
+    }
+}
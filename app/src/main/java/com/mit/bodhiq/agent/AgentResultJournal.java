@@ -0,0 +1,140 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.database.dao.AgentResultDao;
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.model.AgentStatus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Write-behind journal for agent state transitions.
+ * Transitions are recorded in memory and coalesced per (query, agent), so a
+ * PROCESSING entry that is later replaced by COMPLETED or FAILED never reaches
+ * the database. Terminal states are written in a single batch insert per flush
+ * instead of one insert and one update per agent.
+ * <p>
+ * Only terminal states are ever persisted, so after process death the
+ * database holds COMPLETED and FAILED rows and agents that were still
+ * running simply have no row. {@link #loadCheckpoint(long)} treats COMPLETED
+ * rows as the checkpoint and deletes every other row of the query (FAILED, or
+ * PROCESSING rows written by versions before the journal) so those agents
+ * run again without leaving duplicates behind.
+ */
+@Singleton
+public class AgentResultJournal {
+
+    public static final int FLUSH_RETRIES = 2;
+
+    private final AgentResultDao agentResultDao;
+    private final ConcurrentHashMap<Long, Map<String, AgentResult>> pendingByQuery;
+
+    @Inject
+    public AgentResultJournal(AgentResultDao agentResultDao) {
+        this.agentResultDao = agentResultDao;
+        this.pendingByQuery = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Record that an agent started processing. Kept in memory only.
+     *
+     * @param queryId The query ID
+     * @param agentName Name of the agent
+     * @param startedAt Start timestamp in milliseconds
+     */
+    public void recordStarted(long queryId, String agentName, long startedAt) {
+        record(new AgentResult(queryId, agentName, AgentStatus.PROCESSING.name(), startedAt));
+    }
+
+    /**
+     * Record the latest state of an agent result, replacing any earlier state
+     * recorded for the same query and agent.
+     *
+     * @param result The agent result to record
+     */
+    public void record(AgentResult result) {
+        // compute() is atomic per query, so records never race with a concurrent drain
+        pendingByQuery.compute(result.getQueryId(), (queryId, pending) -> {
+            Map<String, AgentResult> updated = pending != null ? pending : new LinkedHashMap<>();
+            updated.put(result.getAgentName(), result);
+            return updated;
+        });
+    }
+
+    /**
+     * Write all terminal (COMPLETED/FAILED) results of a query in one batch insert.
+     * Agents that are still processing stay in the journal. A failed insert is
+     * retried {@link #FLUSH_RETRIES} times; if it still fails the batch is dropped
+     * and the error fails the stage. The dropped agents have no COMPLETED row, so
+     * {@link #loadCheckpoint(long)} runs them again when the query is resumed.
+     *
+     * @param queryId The query ID
+     * @return Completable indicating flush completion
+     */
+    public Completable flush(long queryId) {
+        return Completable.defer(() -> {
+            List<AgentResult> batch = drainTerminalResults(queryId);
+            if (batch.isEmpty()) {
+                return Completable.complete();
+            }
+            // Defer so every attempt issues a new insert
+            return Completable.defer(() -> agentResultDao.insertAgentResults(batch))
+                .retry(FLUSH_RETRIES);
+        })
+        .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Drop everything recorded for a query that has not been flushed yet.
+     * Called when the query's pipeline terminates, so a cancelled or failed
+     * run doesn't leave its entries in memory.
+     *
+     * @param queryId The query ID
+     */
+    public void discard(long queryId) {
+        pendingByQuery.remove(queryId);
+    }
+
+    /**
+     * Load the checkpoint of a query: the agent results that already completed.
+     * Every non-COMPLETED row of the query is deleted first, as is any unflushed
+     * state from an earlier run in this process, so the agents that did not
+     * complete start from scratch.
+     *
+     * @param queryId The query ID
+     * @return Single emitting the completed agent results of the query
+     */
+    public Single<List<AgentResult>> loadCheckpoint(long queryId) {
+        return Completable.fromAction(() -> discard(queryId))
+            .andThen(agentResultDao.deleteIncompleteAgentResultsByQueryId(queryId))
+            .andThen(agentResultDao.getCompletedAgentResultsByQueryId(queryId).firstOrError())
+            .subscribeOn(Schedulers.io());
+    }
+
+    private List<AgentResult> drainTerminalResults(long queryId) {
+        List<AgentResult> batch = new ArrayList<>();
+        pendingByQuery.computeIfPresent(queryId, (k, pending) -> {
+            Iterator<AgentResult> iterator = pending.values().iterator();
+            while (iterator.hasNext()) {
+                AgentResult result = iterator.next();
+                if (!AgentStatus.PROCESSING.name().equals(result.getStatus())) {
+                    batch.add(result);
+                    iterator.remove();
+                }
+            }
+            return pending.isEmpty() ? null : pending;
+        });
+        return batch;
+    }
+}
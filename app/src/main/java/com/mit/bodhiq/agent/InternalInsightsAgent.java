@@ -11,7 +11,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.reactivex.rxjava3.core.Single;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Agent responsible for aggregating internal data sources and generating
@@ -20,7 +19,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @Singleton
 public class InternalInsightsAgent implements PharmaceuticalAgent {
     
-    private static final String AGENT_NAME = "Internal Insights";
+    static final String AGENT_NAME = "Internal Insights";
     private static final int EXECUTION_ORDER = 6;
     private static final int ESTIMATED_DURATION_MS = 3000; // 3 seconds
     
@@ -79,7 +78,7 @@ public class InternalInsightsAgent implements PharmaceuticalAgent {
             
             return result;
             
-        }).subscribeOn(Schedulers.io());
+        });
     }
     
     private String getMarketPositionRecommendation(MarketData marketData) {
@@ -6,11 +6,12 @@ import com.mit.bodhiq.data.model.AgentStatus;
 import com.mit.bodhiq.data.model.MarketData;
 import com.mit.bodhiq.data.provider.MockDataProvider;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.reactivex.rxjava3.core.Single;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Agent responsible for processing market insights and competitive analysis
@@ -19,9 +20,10 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @Singleton
 public class MarketInsightsAgent implements PharmaceuticalAgent {
     
-    private static final String AGENT_NAME = "Market Insights";
+    static final String AGENT_NAME = "Market Insights";
     private static final int EXECUTION_ORDER = 1;
     private static final int ESTIMATED_DURATION_MS = 3000; // 3 seconds
+    private static final long CACHE_TTL_MS = TimeUnit.HOURS.toMillis(24);
     
     private final MockDataProvider mockDataProvider;
     private final Gson gson;
@@ -60,7 +62,7 @@ public class MarketInsightsAgent implements PharmaceuticalAgent {
             
             return result;
             
-        }).subscribeOn(Schedulers.io());
+        });
     }
     
     @Override
@@ -77,4 +79,9 @@ public class MarketInsightsAgent implements PharmaceuticalAgent {
     public int getExecutionOrder() {
         return EXECUTION_ORDER;
     }
+    
+    @Override
+    public long getResultCacheTtlMs() {
+        return CACHE_TTL_MS;
+    }
 }
\ No newline at end of file
@@ -1,38 +1,57 @@
 package com.mit.bodhiq.agent;
 
-import com.mit.bodhiq.data.database.dao.AgentResultDao;
 import com.mit.bodhiq.data.database.entity.AgentResult;
 import com.mit.bodhiq.data.model.AgentStatus;
 import com.mit.bodhiq.data.model.AgentUpdate;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
 
 /**
- * Master orchestrator for sequential execution of pharmaceutical analysis agents.
+ * Master orchestrator for execution of pharmaceutical analysis agents.
+ * Agents are scheduled as a dependency graph: agents without unfinished
+ * dependencies run concurrently (up to the configured parallelism cap),
+ * so a query takes roughly as long as its longest dependency chain.
  * Manages the execution pipeline, progress tracking, and error handling for all agents.
  */
 @Singleton
 public class MasterAgent {
     
-    private final AgentResultDao agentResultDao;
+    public static final int DEFAULT_MAX_PARALLELISM = 4;
+    // Far more than the two updates per agent a query produces
+    public static final int PROGRESS_BUFFER_CAPACITY = 1024;
+    
+    private final AgentResultJournal resultJournal;
+    private final AgentResultCache resultCache;
+    private final AdaptiveAgentExecutor adaptiveExecutor;
     private final List<PharmaceuticalAgent> agents;
-    private final PublishSubject<AgentUpdate> progressSubject;
+    private final Subject<AgentUpdate> progressSubject;
+    private volatile int maxParallelism = DEFAULT_MAX_PARALLELISM;
     
     @Inject
-    public MasterAgent(AgentResultDao agentResultDao) {
-        this.agentResultDao = agentResultDao;
+    public MasterAgent(AgentResultJournal resultJournal, AgentResultCache resultCache,
+                       AdaptiveAgentExecutor adaptiveExecutor) {
+        this.resultJournal = resultJournal;
+        this.resultCache = resultCache;
+        this.adaptiveExecutor = adaptiveExecutor;
         this.agents = new ArrayList<>();
-        this.progressSubject = PublishSubject.create();
+        // Serialized because agents running in parallel report progress from different threads
+        this.progressSubject = PublishSubject.<AgentUpdate>create().toSerialized();
     }
     
     /**
@@ -48,7 +67,44 @@ public class MasterAgent {
     }
     
     /**
-     * Execute all registered agents sequentially for the given molecule and query.
+     * Set the maximum number of agents that may execute at the same time.
+     * A value of 1 restores strictly sequential execution in execution order.
+     * 
+     * @param maxParallelism Parallelism cap, must be at least 1
+     */
+    public void setMaxParallelism(int maxParallelism) {
+        if (maxParallelism < 1) {
+            throw new IllegalArgumentException("maxParallelism must be at least 1: " + maxParallelism);
+        }
+        this.maxParallelism = maxParallelism;
+    }
+    
+    /**
+     * Get the maximum number of agents that may execute at the same time.
+     * 
+     * @return Parallelism cap
+     */
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+    
+    /**
+     * Get queue depth and active-thread metrics of every agent's bulkhead.
+     * 
+     * @return Bulkhead metrics per agent
+     */
+    public List<AgentBulkhead.Metrics> getBulkheadMetrics() {
+        return adaptiveExecutor.getBulkheadMetrics();
+    }
+    
+    /**
+     * Execute all registered agents for the given molecule and query.
+     * Agents are grouped into dependency stages; every agent in a stage runs
+     * concurrently (bounded by the parallelism cap) once the previous stage
+     * has finished. The results of each stage are checkpointed in one batch
+     * before the next stage starts, so if the query already has COMPLETED agent
+     * results (e.g. after process death) those agents are replayed from the
+     * database instead of re-run.
      * Emits real-time progress updates via Flowable stream.
      * 
      * @param molecule The pharmaceutical molecule to analyze
@@ -56,8 +112,33 @@ public class MasterAgent {
      * @return Flowable stream of AgentUpdate objects for real-time progress tracking
      */
     public Flowable<AgentUpdate> executeAllAgents(String molecule, long queryId) {
-        return Flowable.fromIterable(agents)
-            .concatMapSingle(agent -> executeAgentWithProgress(agent, molecule, queryId))
+        return resultJournal.loadCheckpoint(queryId)
+            .flatMapPublisher(completedResults -> {
+                Set<String> completedAgents = new HashSet<>();
+                for (AgentResult result : completedResults) {
+                    completedAgents.add(result.getAgentName());
+                }
+                
+                Flowable<AgentUpdate> restored = Flowable.fromIterable(completedResults)
+                    .map(result -> new AgentUpdate(
+                        result.getAgentName(),
+                        AgentStatus.COMPLETED,
+                        100,
+                        result,
+                        null
+                    ))
+                    .doOnNext(progressSubject::onNext);
+                
+                int parallelism = maxParallelism;
+                Flowable<AgentUpdate> remaining = Flowable.fromIterable(buildExecutionStages(completedAgents))
+                    .concatMap(stage -> Flowable.fromIterable(stage)
+                        .flatMapSingle(agent -> executeAgentWithProgress(agent, molecule, queryId),
+                            false, parallelism)
+                        // Checkpoint the whole stage in one batch before dependents start
+                        .concatWith(resultJournal.flush(queryId)));
+                
+                return restored.concatWith(remaining);
+            })
             .subscribeOn(Schedulers.io())
             .doOnError(throwable -> {
                 // Emit error update
@@ -69,7 +150,8 @@ public class MasterAgent {
                     "Pipeline execution failed: " + throwable.getMessage()
                 );
                 progressSubject.onNext(errorUpdate);
-            });
+            })
+            .doFinally(() -> resultJournal.discard(queryId));
     }
     
     /**
@@ -83,6 +165,13 @@ public class MasterAgent {
     private Single<AgentUpdate> executeAgentWithProgress(PharmaceuticalAgent agent, 
                                                         String molecule, 
                                                         long queryId) {
+        // Defer so the start update and timestamp reflect when the agent is actually scheduled
+        return Single.defer(() -> startAgentWithProgress(agent, molecule, queryId));
+    }
+    
+    private Single<AgentUpdate> startAgentWithProgress(PharmaceuticalAgent agent, 
+                                                      String molecule, 
+                                                      long queryId) {
         // Emit starting update
         AgentUpdate startUpdate = new AgentUpdate(
             agent.getAgentName(), 
@@ -91,75 +180,138 @@ public class MasterAgent {
         );
         progressSubject.onNext(startUpdate);
         
-        // Create initial agent result record
-        AgentResult initialResult = new AgentResult(
-            queryId, 
-            agent.getAgentName(), 
-            AgentStatus.PROCESSING.name(), 
-            System.currentTimeMillis()
-        );
+        // Record the PROCESSING state in the journal; it is coalesced with the
+        // terminal state below so only one row per agent is written
+        long startedAt = System.currentTimeMillis();
+        resultJournal.recordStarted(queryId, agent.getAgentName(), startedAt);
         
-        return agentResultDao.insertAgentResult(initialResult)
-        .flatMap(resultId -> 
-            agent.execute(molecule, queryId)
-                .timeout(30, TimeUnit.SECONDS) // 30 second timeout per agent
-                .retry(2) // Retry up to 2 times on failure
-                .map(result -> {
-                    // Update the result in database
-                    result.setId(resultId);
-                    result.setCompletedAt(System.currentTimeMillis());
-                    result.setExecutionTimeMs(
-                        result.getCompletedAt() - result.getStartedAt()
-                    );
-                    agentResultDao.updateAgentResult(result).blockingAwait();
-                    
-                    // Create success update
-                    AgentUpdate successUpdate = new AgentUpdate(
-                        agent.getAgentName(),
-                        AgentStatus.COMPLETED,
-                        100,
-                        result,
-                        null
-                    );
-                    progressSubject.onNext(successUpdate);
-                    
-                    return successUpdate;
-                })
-                .onErrorReturn(throwable -> {
-                    // Handle agent failure
-                    AgentResult failedResult = new AgentResult();
-                    failedResult.setId(resultId);
-                    failedResult.setQueryId(queryId);
-                    failedResult.setAgentName(agent.getAgentName());
-                    failedResult.setStatus(AgentStatus.FAILED.name());
-                    failedResult.setErrorMessage(throwable.getMessage());
-                    failedResult.setCompletedAt(System.currentTimeMillis());
-                    
-                    agentResultDao.updateAgentResult(failedResult).blockingAwait();
-                    
-                    // Create failure update
-                    AgentUpdate failureUpdate = new AgentUpdate(
-                        agent.getAgentName(),
-                        AgentStatus.FAILED,
-                        0,
-                        failedResult,
-                        throwable.getMessage()
-                    );
-                    progressSubject.onNext(failureUpdate);
-                    
-                    return failureUpdate;
-                })
-        )
-        .subscribeOn(Schedulers.io());
+        // Timeouts, retries and hedging only apply to real executions, not cache hits
+        Single<AgentResult> execution = adaptiveExecutor.execute(agent, molecule, queryId);
+        
+        return resultCache.execute(agent, molecule, queryId, execution)
+            .map(result -> {
+                result.setCompletedAt(System.currentTimeMillis());
+                result.setExecutionTimeMs(
+                    result.getCompletedAt() - result.getStartedAt()
+                );
+                resultJournal.record(result);
+                
+                // Create success update
+                AgentUpdate successUpdate = new AgentUpdate(
+                    agent.getAgentName(),
+                    AgentStatus.COMPLETED,
+                    100,
+                    result,
+                    null
+                );
+                progressSubject.onNext(successUpdate);
+                
+                return successUpdate;
+            })
+            .onErrorReturn(throwable -> {
+                // Handle agent failure
+                AgentResult failedResult = new AgentResult(
+                    queryId,
+                    agent.getAgentName(),
+                    AgentStatus.FAILED.name(),
+                    startedAt
+                );
+                failedResult.setErrorMessage(throwable.getMessage());
+                failedResult.setCompletedAt(System.currentTimeMillis());
+                resultJournal.record(failedResult);
+                
+                // Create failure update
+                AgentUpdate failureUpdate = new AgentUpdate(
+                    agent.getAgentName(),
+                    AgentStatus.FAILED,
+                    0,
+                    failedResult,
+                    throwable.getMessage()
+                );
+                progressSubject.onNext(failureUpdate);
+                
+                return failureUpdate;
+            })
+            .subscribeOn(Schedulers.io());
+    }
+    
+    /**
+     * Group registered agents into execution stages using their declared dependencies.
+     * Each stage only contains agents whose dependencies all belong to earlier stages;
+     * within a stage agents keep their execution order. Dependencies on agents that
+     * are not registered are ignored.
+     * 
+     * @return Ordered list of stages
+     * @throws IllegalStateException if the dependencies form a cycle
+     */
+    List<List<PharmaceuticalAgent>> buildExecutionStages() {
+        return buildExecutionStages(Collections.emptySet());
+    }
+    
+    /**
+     * Group the registered agents that have not completed yet into execution stages.
+     * Completed agents are left out and count as satisfied dependencies.
+     * 
+     * @param completedAgents Names of agents whose results are already checkpointed
+     * @return Ordered list of stages
+     * @throws IllegalStateException if the dependencies form a cycle
+     */
+    List<List<PharmaceuticalAgent>> buildExecutionStages(Set<String> completedAgents) {
+        Map<String, PharmaceuticalAgent> agentsByName = new HashMap<>();
+        for (PharmaceuticalAgent agent : agents) {
+            agentsByName.put(agent.getAgentName(), agent);
+        }
+        
+        List<List<PharmaceuticalAgent>> stages = new ArrayList<>();
+        Set<String> scheduled = new HashSet<>(completedAgents);
+        List<PharmaceuticalAgent> remaining = new ArrayList<>();
+        for (PharmaceuticalAgent agent : agents) {
+            if (!completedAgents.contains(agent.getAgentName())) {
+                remaining.add(agent);
+            }
+        }
+        
+        while (!remaining.isEmpty()) {
+            List<PharmaceuticalAgent> stage = new ArrayList<>();
+            for (PharmaceuticalAgent agent : remaining) {
+                boolean ready = true;
+                for (String dependency : agent.getDependencies()) {
+                    if (agentsByName.containsKey(dependency) && !scheduled.contains(dependency)) {
+                        ready = false;
+                        break;
+                    }
+                }
+                if (ready) {
+                    stage.add(agent);
+                }
+            }
+            
+            if (stage.isEmpty()) {
+                throw new IllegalStateException("Cyclic agent dependencies among: " + remaining);
+            }
+            
+            remaining.removeAll(stage);
+            for (PharmaceuticalAgent agent : stage) {
+                scheduled.add(agent.getAgentName());
+            }
+            stages.add(stage);
+        }
+        
+        return stages;
     }
     
     /**
      * Get the progress stream for real-time updates.
+     * Every update is delivered, since each one is the start or the outcome of an agent.
+     * A subscriber that falls more than {@link #PROGRESS_BUFFER_CAPACITY} updates behind
+     * fails with a MissingBackpressureException instead of growing an unbounded buffer;
+     * use QueryRepository.getAgentProgress for the conflated per-agent state of a query.
      * 
      * @return Flowable stream of AgentUpdate objects
      */
     public Flowable<AgentUpdate> getProgressStream() {
-        return progressSubject.toFlowable(io.reactivex.rxjava3.core.BackpressureStrategy.BUFFER);
+        return progressSubject.toFlowable(BackpressureStrategy.MISSING)
+            .onBackpressureBuffer(PROGRESS_BUFFER_CAPACITY);
     }
     
     /**
@@ -173,13 +325,29 @@ public class MasterAgent {
     
     /**
      * Get the estimated total execution time for all agents.
+     * With parallel execution this is the sum of the slowest agent in each stage,
+     * i.e. the length of the longest dependency chain.
      * 
      * @return Total estimated duration in milliseconds
      */
     public int getTotalEstimatedDurationMs() {
-        return agents.stream()
-            .mapToInt(PharmaceuticalAgent::getEstimatedDurationMs)
-            .sum();
+        if (maxParallelism == 1) {
+            return agents.stream()
+                .mapToInt(PharmaceuticalAgent::getEstimatedDurationMs)
+                .sum();
+        }
+        
+        int total = 0;
+        for (List<PharmaceuticalAgent> stage : buildExecutionStages()) {
+            // Approximate stages wider than the cap as running in ceil(size / cap) rounds
+            int rounds = (stage.size() + maxParallelism - 1) / maxParallelism;
+            int slowest = stage.stream()
+                .mapToInt(PharmaceuticalAgent::getEstimatedDurationMs)
+                .max()
+                .orElse(0);
+            total += slowest * rounds;
+        }
+        return total;
     }
     
     /**
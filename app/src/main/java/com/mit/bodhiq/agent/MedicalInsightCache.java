@@ -0,0 +1,188 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.model.ChatMessage;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.UserProfile;
+import com.mit.bodhiq.utils.HashUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Bounded LRU of report analyses shared by every screen that shows insights.
+ * Entries are keyed by a fingerprint of the parameter list (name, value, unit,
+ * status) and the profile fields the analysis reads (age, gender), so changing
+ * either produces a different key. The entry last stored for a report is
+ * dropped as soon as the report is analyzed with a different fingerprint.
+ * A report is only tracked while its entry is cached, so the report index is
+ * bounded along with the LRU.
+ */
+@Singleton
+public class MedicalInsightCache {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final Map<String, Analysis> entries;
+    private final ConcurrentHashMap<String, String> fingerprintByReport;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Inject
+    public MedicalInsightCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MedicalInsightCache(int capacity) {
+        this.fingerprintByReport = new ConcurrentHashMap<>();
+        this.entries = new LinkedHashMap<String, Analysis>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Analysis> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                forgetReports(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get a cached analysis.
+     *
+     * @param fingerprint Fingerprint from {@link #fingerprint}
+     * @return The analysis, or null on a miss
+     */
+    public Analysis get(String fingerprint) {
+        Analysis analysis;
+        synchronized (entries) {
+            analysis = entries.get(fingerprint);
+        }
+        (analysis != null ? hits : misses).incrementAndGet();
+        return analysis;
+    }
+
+    /**
+     * Store the analysis of a report, replacing the report's previous analysis.
+     *
+     * @param reportId ID of the report, may be null
+     * @param fingerprint Fingerprint from {@link #fingerprint}
+     * @param analysis The analysis
+     */
+    public void put(String reportId, String fingerprint, Analysis analysis) {
+        synchronized (entries) {
+            if (reportId != null) {
+                String previous = fingerprintByReport.put(reportId, fingerprint);
+                if (previous != null && !previous.equals(fingerprint)) {
+                    removeEntry(previous);
+                }
+            }
+            entries.put(fingerprint, analysis);
+        }
+    }
+
+    /**
+     * Drop the cached analysis of a report, e.g. after it was edited or deleted.
+     *
+     * @param reportId ID of the report
+     */
+    public void invalidate(String reportId) {
+        synchronized (entries) {
+            String fingerprint = fingerprintByReport.remove(reportId);
+            if (fingerprint != null) {
+                removeEntry(fingerprint);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            fingerprintByReport.clear();
+        }
+    }
+
+    /**
+     * @return The number of reports whose analysis is currently cached
+     */
+    int getTrackedReportCount() {
+        synchronized (entries) {
+            return fingerprintByReport.size();
+        }
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+
+    // Callers hold the entries lock
+    private void removeEntry(String fingerprint) {
+        entries.remove(fingerprint);
+        forgetReports(fingerprint);
+    }
+
+    // Reports with identical parameters share a fingerprint, so drop every report mapped to it
+    private void forgetReports(String fingerprint) {
+        fingerprintByReport.values().removeIf(fingerprint::equals);
+    }
+
+    /**
+     * Stable fingerprint of everything an analysis depends on.
+     *
+     * @param parameters Parameters of the report
+     * @param userProfile Profile of the user, may be null
+     * @return Hex SHA-256 fingerprint
+     */
+    public static String fingerprint(List<MedicalParameter> parameters, UserProfile userProfile) {
+        StringBuilder canonical = new StringBuilder();
+        for (MedicalParameter param : parameters) {
+            appendField(canonical, param.getParameter());
+            appendField(canonical, param.getValue());
+            appendField(canonical, param.getUnit());
+            appendField(canonical, param.getStatus());
+        }
+        canonical.append('#');
+        appendField(canonical, userProfile != null ? userProfile.getAge() : null);
+        appendField(canonical, userProfile != null ? userProfile.getGender() : null);
+
+        return HashUtils.sha256Hex(canonical.toString());
+    }
+
+    private static void appendField(StringBuilder canonical, String value) {
+        // Length-prefixed so field boundaries can't be forged by the values themselves
+        if (value == null) {
+            canonical.append("-1:");
+        } else {
+            canonical.append(value.length()).append(':').append(value);
+        }
+    }
+
+    /**
+     * Immutable result of analyzing a report.
+     */
+    public static class Analysis {
+        private final String content;
+        private final ChatMessage.Severity severity;
+        private final boolean requiresFollowUp;
+        private final List<String> recommendations;
+
+        public Analysis(String content, ChatMessage.Severity severity, boolean requiresFollowUp,
+                        List<String> recommendations) {
+            this.content = content;
+            this.severity = severity;
+            this.requiresFollowUp = requiresFollowUp;
+            this.recommendations = Collections.unmodifiableList(new ArrayList<>(recommendations));
+        }
+
+        public String getContent() { return content; }
+        public ChatMessage.Severity getSeverity() { return severity; }
+        public boolean isRequiresFollowUp() { return requiresFollowUp; }
+        public List<String> getRecommendations() { return recommendations; }
+    }
+}
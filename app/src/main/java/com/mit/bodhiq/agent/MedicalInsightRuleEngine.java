@@ -0,0 +1,522 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.model.MedicalInsight;
+import com.mit.bodhiq.data.model.MedicalInsight.InsightType;
+import com.mit.bodhiq.data.model.MedicalInsight.RiskLevel;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.UserProfile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Declarative rules behind MedicalReportAgent's detailed insights.
+ * Rules are compiled once; each report is analyzed in a single pass where every
+ * parameter name is normalized once and dispatched straight to the rules whose
+ * keywords it contains. The rule set for a name is resolved once and kept in an
+ * index, so repeated names (the common case across reports) cost one lookup.
+ * Insights come out grouped by section in the same order as before: blood work,
+ * vital signs, metabolic, liver, kidney, thyroid.
+ * <p>
+ * A {@link Session} keeps the analysis of one report alive so that editing a
+ * single parameter only re-evaluates that parameter's rules.
+ */
+public final class MedicalInsightRuleEngine {
+
+    // Upper bound on distinct parameter names kept in the index
+    private static final int MAX_INDEXED_NAMES = 512;
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private enum Section { BLOOD_WORK, VITAL_SIGNS, METABOLIC, LIVER, KIDNEY, THYROID }
+
+    // Shared, immutable recommendation and test lists
+    private static final List<String> HEMOGLOBIN = list("Hemoglobin");
+    private static final List<String> HEMOGLOBIN_LOW_RECOMMENDATIONS = list(
+        "Increase iron-rich foods (spinach, red meat, beans)",
+        "Consider vitamin C with iron-rich meals for better absorption",
+        "Avoid tea and coffee with meals as they can inhibit iron absorption",
+        "Get adequate sleep and manage stress");
+    private static final List<String> HEMOGLOBIN_LOW_TESTS = list(
+        "Iron studies", "Vitamin B12", "Folate", "Reticulocyte count");
+    private static final List<String> HEMOGLOBIN_HIGH_RECOMMENDATIONS = list(
+        "Ensure adequate hydration",
+        "Monitor for symptoms like headaches or dizziness",
+        "Avoid smoking and excessive alcohol");
+    private static final List<String> HEMOGLOBIN_NORMAL_RECOMMENDATIONS = list(
+        "Maintain a balanced diet rich in iron",
+        "Continue regular physical activity",
+        "Stay hydrated");
+
+    private static final List<String> WHITE_BLOOD_CELLS = list("White Blood Cells");
+    private static final List<String> WBC_HIGH_RECOMMENDATIONS = list(
+        "Monitor for fever, chills, or other signs of infection",
+        "Get adequate rest and stay hydrated",
+        "Avoid contact with sick individuals",
+        "Practice good hygiene");
+    private static final List<String> WBC_HIGH_TESTS = list(
+        "Blood culture", "Complete blood count with differential");
+    private static final List<String> WBC_LOW_RECOMMENDATIONS = list(
+        "Avoid crowded places and sick individuals",
+        "Practice excellent hygiene",
+        "Eat a nutrient-rich diet",
+        "Get adequate sleep and manage stress");
+
+    private static final List<String> BLOOD_PRESSURE = list("Blood Pressure");
+    private static final List<String> BP_HIGH_RECOMMENDATIONS = list(
+        "Reduce sodium intake to less than 2,300mg per day",
+        "Engage in regular aerobic exercise (30 minutes, 5 days/week)",
+        "Maintain a healthy weight",
+        "Limit alcohol consumption",
+        "Manage stress through relaxation techniques",
+        "Quit smoking if applicable");
+    private static final List<String> BP_HIGH_TESTS = list(
+        "24-hour blood pressure monitoring", "Echocardiogram", "Kidney function tests");
+    private static final List<String> BP_LOW_RECOMMENDATIONS = list(
+        "Stay well hydrated",
+        "Rise slowly from sitting or lying positions",
+        "Wear compression stockings if recommended",
+        "Monitor for dizziness or fainting");
+
+    private static final List<String> GLUCOSE = list("Glucose");
+    private static final List<String> GLUCOSE_HIGH_RECOMMENDATIONS = list(
+        "Follow a low-carbohydrate, high-fiber diet",
+        "Engage in regular physical activity",
+        "Monitor blood glucose if you have a meter",
+        "Stay hydrated with water",
+        "Avoid sugary drinks and processed foods");
+    private static final List<String> GLUCOSE_HIGH_TESTS = list(
+        "HbA1c", "Fasting glucose", "Oral glucose tolerance test");
+
+    private static final List<String> LIVER_RECOMMENDATIONS = list(
+        "Avoid alcohol completely",
+        "Limit acetaminophen use",
+        "Maintain a healthy weight",
+        "Eat a liver-friendly diet (low fat, high antioxidants)",
+        "Stay hydrated");
+    private static final List<String> LIVER_TESTS = list(
+        "Hepatitis panel", "Ultrasound of liver", "Additional liver function tests");
+
+    private static final List<String> KIDNEY_RECOMMENDATIONS = list(
+        "Stay well hydrated",
+        "Limit protein intake if recommended by your doctor",
+        "Monitor blood pressure closely",
+        "Avoid NSAIDs (ibuprofen, naproxen)",
+        "Control diabetes if present");
+    private static final List<String> KIDNEY_TESTS = list(
+        "Estimated GFR", "Urine analysis", "24-hour urine collection");
+
+    private static final List<String> TSH = list("TSH");
+    private static final List<String> TSH_HIGH_RECOMMENDATIONS = list(
+        "Monitor for symptoms like fatigue, weight gain, cold intolerance",
+        "Ensure adequate iodine intake",
+        "Consider selenium-rich foods",
+        "Manage stress levels");
+    private static final List<String> TSH_HIGH_TESTS = list(
+        "Free T4", "Free T3", "Thyroid antibodies");
+    private static final List<String> TSH_LOW_RECOMMENDATIONS = list(
+        "Monitor for symptoms like rapid heartbeat, weight loss, heat intolerance",
+        "Avoid excessive iodine intake",
+        "Limit caffeine consumption",
+        "Practice stress management");
+    private static final List<String> TSH_LOW_TESTS = list(
+        "Free T4", "Free T3", "Thyroid antibodies", "Thyroid ultrasound");
+
+    private static final Rule[] RULES = {
+        Rule.perParameter(Section.BLOOD_WORK, MedicalInsightRuleEngine::hemoglobin, "hemoglobin", "hgb", "hb"),
+        Rule.perParameter(Section.BLOOD_WORK, MedicalInsightRuleEngine::whiteBloodCells, "wbc", "white blood cell"),
+        Rule.perParameter(Section.VITAL_SIGNS, MedicalInsightRuleEngine::bloodPressure, "blood pressure", "systolic", "diastolic"),
+        Rule.perParameter(Section.METABOLIC, MedicalInsightRuleEngine::glucose, "glucose", "sugar"),
+        Rule.aggregate(Section.LIVER, MedicalInsightRuleEngine::liverFunction, "alt", "ast", "bilirubin"),
+        Rule.aggregate(Section.KIDNEY, MedicalInsightRuleEngine::kidneyFunction, "creatinine", "bun"),
+        Rule.perParameter(Section.THYROID, MedicalInsightRuleEngine::thyroid, "tsh")
+    };
+
+    static {
+        for (int i = 0; i < RULES.length; i++) {
+            RULES[i].ordinal = i;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Rule[]> RULES_BY_NAME = new ConcurrentHashMap<>();
+
+    private MedicalInsightRuleEngine() {}
+
+    /**
+     * Generate detailed insights for a report's parameters in a single pass.
+     *
+     * @param parameters Parameters extracted from the report
+     * @param userProfile Profile of the user the report belongs to, may be null
+     * @return Insights grouped by section
+     */
+    public static List<MedicalInsight> analyze(List<MedicalParameter> parameters, UserProfile userProfile) {
+        return new Session(parameters, null).getInsights();
+    }
+
+    private static Rule[] rulesFor(String parameterName) {
+        String name = parameterName.toLowerCase(Locale.ROOT);
+        Rule[] rules = RULES_BY_NAME.get(name);
+        if (rules != null) {
+            return rules;
+        }
+
+        List<Rule> matching = new ArrayList<>(2);
+        for (Rule rule : RULES) {
+            if (rule.matches(name)) {
+                matching.add(rule);
+            }
+        }
+        rules = matching.isEmpty() ? NO_RULES : matching.toArray(new Rule[0]);
+        if (RULES_BY_NAME.size() < MAX_INDEXED_NAMES) {
+            RULES_BY_NAME.put(name, rules);
+        }
+        return rules;
+    }
+
+    // Rule evaluators
+
+    private static MedicalInsight hemoglobin(MedicalParameter param) {
+        MedicalInsight insight = newInsight(InsightType.BLOOD_WORK, "Hemoglobin Analysis", HEMOGLOBIN);
+        if ("LOW".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+            insight.setDescription("Your hemoglobin level (" + param.getValue() + " " + param.getUnit() +
+                ") is below the normal range. This may indicate anemia, which can cause fatigue, weakness, and shortness of breath.");
+            insight.setRecommendations(HEMOGLOBIN_LOW_RECOMMENDATIONS);
+            insight.setSuggestedTests(HEMOGLOBIN_LOW_TESTS);
+            insight.setWhenToSeeDoctor("Schedule an appointment within 1-2 weeks to investigate the cause of anemia");
+        } else if ("HIGH".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.MILD_CONCERN);
+            insight.setDescription("Your hemoglobin level (" + param.getValue() + " " + param.getUnit() +
+                ") is above the normal range. This could indicate dehydration, lung disease, or other conditions.");
+            insight.setRecommendations(HEMOGLOBIN_HIGH_RECOMMENDATIONS);
+            insight.setWhenToSeeDoctor("Consult your healthcare provider within 2-4 weeks for evaluation");
+        } else {
+            insight.setRiskLevel(RiskLevel.NORMAL);
+            insight.setDescription("Your hemoglobin level (" + param.getValue() + " " + param.getUnit() +
+                ") is within the normal range, indicating good oxygen-carrying capacity.");
+            insight.setRecommendations(HEMOGLOBIN_NORMAL_RECOMMENDATIONS);
+        }
+        insight.setConfidenceScore(0.85);
+        return insight;
+    }
+
+    private static MedicalInsight whiteBloodCells(MedicalParameter param) {
+        MedicalInsight insight = newInsight(InsightType.BLOOD_WORK, "White Blood Cell Analysis", WHITE_BLOOD_CELLS);
+        if ("HIGH".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.HIGH_CONCERN);
+            insight.setDescription("Your white blood cell count (" + param.getValue() + " " + param.getUnit() +
+                ") is elevated. This may indicate an infection, inflammation, or immune system response.");
+            insight.setRecommendations(WBC_HIGH_RECOMMENDATIONS);
+            insight.setSuggestedTests(WBC_HIGH_TESTS);
+            insight.setWhenToSeeDoctor("Contact your healthcare provider within 24-48 hours");
+            insight.setEmergencyFlag(true);
+        } else if ("LOW".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+            insight.setDescription("Your white blood cell count (" + param.getValue() + " " + param.getUnit() +
+                ") is below normal. This could indicate a weakened immune system.");
+            insight.setRecommendations(WBC_LOW_RECOMMENDATIONS);
+            insight.setWhenToSeeDoctor("Schedule an appointment within 1 week");
+        }
+        insight.setConfidenceScore(0.90);
+        return insight;
+    }
+
+    private static MedicalInsight bloodPressure(MedicalParameter param) {
+        MedicalInsight insight = newInsight(InsightType.VITAL_SIGNS, "Blood Pressure Analysis", BLOOD_PRESSURE);
+        if ("HIGH".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.HIGH_CONCERN);
+            insight.setDescription("Your blood pressure (" + param.getValue() + " " + param.getUnit() +
+                ") is elevated. High blood pressure increases your risk of heart disease, stroke, and kidney problems.");
+            insight.setRecommendations(BP_HIGH_RECOMMENDATIONS);
+            insight.setSuggestedTests(BP_HIGH_TESTS);
+            insight.setWhenToSeeDoctor("Schedule an appointment within 1-2 weeks for blood pressure management");
+        } else if ("LOW".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.MILD_CONCERN);
+            insight.setDescription("Your blood pressure (" + param.getValue() + " " + param.getUnit() +
+                ") is below normal. While often not concerning, very low blood pressure can cause symptoms.");
+            insight.setRecommendations(BP_LOW_RECOMMENDATIONS);
+            insight.setWhenToSeeDoctor("Consult if you experience dizziness, fainting, or other symptoms");
+        }
+        insight.setConfidenceScore(0.88);
+        return insight;
+    }
+
+    private static MedicalInsight glucose(MedicalParameter param) {
+        MedicalInsight insight = newInsight(InsightType.METABOLIC, "Blood Glucose Analysis", GLUCOSE);
+        if ("HIGH".equals(param.getStatus())) {
+            double glucoseValue = parseValue(param.getValue());
+            if (glucoseValue > 200) {
+                insight.setRiskLevel(RiskLevel.CRITICAL);
+                insight.setEmergencyFlag(true);
+                insight.setWhenToSeeDoctor("Seek immediate medical attention - blood glucose is critically high");
+            } else if (glucoseValue > 140) {
+                insight.setRiskLevel(RiskLevel.HIGH_CONCERN);
+                insight.setWhenToSeeDoctor("Schedule an appointment within 1-2 days");
+            } else {
+                insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+                insight.setWhenToSeeDoctor("Schedule an appointment within 1 week");
+            }
+            insight.setDescription("Your blood glucose (" + param.getValue() + " " + param.getUnit() +
+                ") is elevated. This may indicate diabetes or prediabetes.");
+            insight.setRecommendations(GLUCOSE_HIGH_RECOMMENDATIONS);
+            insight.setSuggestedTests(GLUCOSE_HIGH_TESTS);
+        }
+        insight.setConfidenceScore(0.92);
+        return insight;
+    }
+
+    private static MedicalInsight liverFunction(List<MedicalParameter> elevated) {
+        // Elevated enzymes are reported together in one insight
+        List<String> enzymes = new ArrayList<>(elevated.size());
+        for (MedicalParameter param : elevated) {
+            enzymes.add(param.getParameter());
+        }
+        MedicalInsight insight = newInsight(InsightType.LIVER_FUNCTION, "Liver Function Analysis", enzymes);
+        insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+        insight.setDescription("Your liver enzymes are elevated, which may indicate liver inflammation or damage.");
+        insight.setRecommendations(LIVER_RECOMMENDATIONS);
+        insight.setSuggestedTests(LIVER_TESTS);
+        insight.setWhenToSeeDoctor("Schedule an appointment within 1-2 weeks for liver evaluation");
+        insight.setConfidenceScore(0.85);
+        return insight;
+    }
+
+    private static MedicalInsight kidneyFunction(List<MedicalParameter> elevated) {
+        // Only the first elevated marker is reported
+        MedicalInsight insight = newInsight(InsightType.KIDNEY_FUNCTION, "Kidney Function Analysis",
+            Collections.singletonList(elevated.get(0).getParameter()));
+        insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+        insight.setDescription("Your kidney function markers are elevated, which may indicate reduced kidney function.");
+        insight.setRecommendations(KIDNEY_RECOMMENDATIONS);
+        insight.setSuggestedTests(KIDNEY_TESTS);
+        insight.setWhenToSeeDoctor("Schedule an appointment within 1 week for kidney function evaluation");
+        insight.setConfidenceScore(0.87);
+        return insight;
+    }
+
+    private static MedicalInsight thyroid(MedicalParameter param) {
+        MedicalInsight insight = newInsight(InsightType.HORMONAL, "Thyroid Function Analysis", TSH);
+        if ("HIGH".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+            insight.setDescription("Your TSH level (" + param.getValue() + " " + param.getUnit() +
+                ") is elevated, which may indicate an underactive thyroid (hypothyroidism).");
+            insight.setRecommendations(TSH_HIGH_RECOMMENDATIONS);
+            insight.setSuggestedTests(TSH_HIGH_TESTS);
+        } else if ("LOW".equals(param.getStatus())) {
+            insight.setRiskLevel(RiskLevel.MODERATE_CONCERN);
+            insight.setDescription("Your TSH level (" + param.getValue() + " " + param.getUnit() +
+                ") is low, which may indicate an overactive thyroid (hyperthyroidism).");
+            insight.setRecommendations(TSH_LOW_RECOMMENDATIONS);
+            insight.setSuggestedTests(TSH_LOW_TESTS);
+        }
+        insight.setWhenToSeeDoctor("Schedule an appointment within 2-4 weeks for thyroid evaluation");
+        insight.setConfidenceScore(0.83);
+        return insight;
+    }
+
+    private static MedicalInsight newInsight(InsightType type, String title, List<String> affectedParameters) {
+        MedicalInsight insight = new MedicalInsight();
+        insight.setType(type);
+        insight.setTitle(title);
+        insight.setAffectedParameters(affectedParameters);
+        return insight;
+    }
+
+    private static List<String> list(String... items) {
+        return Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    private static double parseValue(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            // Hand-edited values may not be numeric; treat them as not exceeding any threshold
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Live analysis of one report. Remembers which rules each parameter matched and
+     * which insight each one produced, so {@link #update} only re-evaluates the
+     * edited parameter and, if it belongs to one, its aggregate (liver, kidney).
+     * Not thread-safe.
+     */
+    public static final class Session {
+
+        /**
+         * Notified whenever an insight is added, replaced or removed.
+         */
+        public interface Listener {
+            /**
+             * @param previous The insight that was replaced or removed, or null if one was added
+             * @param current The new insight, or null if one was removed
+             */
+            void onInsightChanged(MedicalInsight previous, MedicalInsight current);
+        }
+
+        private final List<MedicalParameter> parameters;
+        private final Rule[][] rulesByIndex;
+        // Ordered by (section, parameter index, rule), which is the output order
+        private final TreeMap<Long, MedicalInsight> insights = new TreeMap<>();
+        // Elevated parameters per aggregate rule, by parameter index
+        @SuppressWarnings("unchecked")
+        private final TreeMap<Integer, MedicalParameter>[] aggregateMembers = new TreeMap[RULES.length];
+        private final Listener listener;
+
+        /**
+         * Analyze a report's parameters.
+         *
+         * @param parameters Parameters extracted from the report; copied
+         * @param listener Listener for insight changes, may be null
+         */
+        public Session(List<MedicalParameter> parameters, Listener listener) {
+            this.parameters = new ArrayList<>(parameters);
+            this.rulesByIndex = new Rule[parameters.size()][];
+            this.listener = listener;
+
+            boolean[] dirtyAggregates = new boolean[RULES.length];
+            for (int i = 0; i < this.parameters.size(); i++) {
+                evaluate(i, dirtyAggregates);
+            }
+            rebuildAggregates(dirtyAggregates);
+        }
+
+        /**
+         * Replace one parameter and update only the insights it affects.
+         *
+         * @param index Position of the parameter in the report
+         * @param parameter The edited parameter
+         */
+        public void update(int index, MedicalParameter parameter) {
+            boolean[] dirtyAggregates = new boolean[RULES.length];
+            for (Rule rule : rulesByIndex[index]) {
+                if (rule.isAggregate()) {
+                    TreeMap<Integer, MedicalParameter> members = aggregateMembers[rule.ordinal];
+                    if (members != null && members.remove(index) != null) {
+                        dirtyAggregates[rule.ordinal] = true;
+                    }
+                } else {
+                    replace(key(rule, index), null);
+                }
+            }
+
+            parameters.set(index, parameter);
+            evaluate(index, dirtyAggregates);
+            rebuildAggregates(dirtyAggregates);
+        }
+
+        public List<MedicalParameter> getParameters() {
+            return Collections.unmodifiableList(parameters);
+        }
+
+        /**
+         * @return Current insights grouped by section
+         */
+        public List<MedicalInsight> getInsights() {
+            return new ArrayList<>(insights.values());
+        }
+
+        private void evaluate(int index, boolean[] dirtyAggregates) {
+            MedicalParameter param = parameters.get(index);
+            Rule[] rules = param.getParameter() != null ? rulesFor(param.getParameter()) : NO_RULES;
+            rulesByIndex[index] = rules;
+
+            for (Rule rule : rules) {
+                if (rule.isAggregate()) {
+                    if ("HIGH".equals(param.getStatus())) {
+                        TreeMap<Integer, MedicalParameter> members = aggregateMembers[rule.ordinal];
+                        if (members == null) {
+                            members = new TreeMap<>();
+                            aggregateMembers[rule.ordinal] = members;
+                        }
+                        members.put(index, param);
+                        dirtyAggregates[rule.ordinal] = true;
+                    }
+                } else {
+                    replace(key(rule, index), rule.evaluator.evaluate(param));
+                }
+            }
+        }
+
+        private void rebuildAggregates(boolean[] dirtyAggregates) {
+            for (int i = 0; i < RULES.length; i++) {
+                if (!dirtyAggregates[i]) {
+                    continue;
+                }
+                Rule rule = RULES[i];
+                TreeMap<Integer, MedicalParameter> members = aggregateMembers[i];
+                MedicalInsight insight = members != null && !members.isEmpty()
+                    ? rule.aggregator.combine(new ArrayList<>(members.values()))
+                    : null;
+                replace(key(rule, -1), insight);
+            }
+        }
+
+        private void replace(long key, MedicalInsight insight) {
+            MedicalInsight previous = insight != null ? insights.put(key, insight) : insights.remove(key);
+            if (listener != null && (previous != null || insight != null)) {
+                listener.onInsightChanged(previous, insight);
+            }
+        }
+
+        private static long key(Rule rule, int index) {
+            // Aggregates use index -1 and sort first within their section
+            return ((long) rule.section.ordinal() << 48) | ((long) (index + 1) << 8) | rule.ordinal;
+        }
+    }
+
+    private interface Evaluator {
+        MedicalInsight evaluate(MedicalParameter param);
+    }
+
+    private interface Aggregator {
+        /**
+         * @param elevated Elevated parameters matching the rule, in report order; never empty
+         */
+        MedicalInsight combine(List<MedicalParameter> elevated);
+    }
+
+    /**
+     * A rule either turns every matching parameter into its own insight, or
+     * combines all elevated matching parameters into a single insight.
+     */
+    private static final class Rule {
+        final Section section;
+        final Evaluator evaluator;
+        final Aggregator aggregator;
+        final String[] keywords;
+        int ordinal;
+
+        private Rule(Section section, Evaluator evaluator, Aggregator aggregator, String... keywords) {
+            this.section = section;
+            this.evaluator = evaluator;
+            this.aggregator = aggregator;
+            this.keywords = keywords;
+        }
+
+        static Rule perParameter(Section section, Evaluator evaluator, String... keywords) {
+            return new Rule(section, evaluator, null, keywords);
+        }
+
+        static Rule aggregate(Section section, Aggregator aggregator, String... keywords) {
+            return new Rule(section, null, aggregator, keywords);
+        }
+
+        boolean isAggregate() {
+            return aggregator != null;
+        }
+
+        boolean matches(String normalizedName) {
+            for (String keyword : keywords) {
+                if (normalizedName.contains(keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.model.ChatMessage;
+import com.mit.bodhiq.data.model.MedicalInsight;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.ParsedField;
+import com.mit.bodhiq.data.model.UserProfile;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Incremental analysis of one medical report behind a chat card.
+ * When a single field is corrected, only that parameter's rules are re-run;
+ * the severity roll-up is adjusted by the insights that changed, and only the
+ * text sections of the risk levels those insights left or entered are rebuilt.
+ * All methods are cheap enough to call on the main thread.
+ */
+public class MedicalInsightSession {
+
+    private final MedicalInsightRuleEngine.Session analysis;
+    private final UserProfile userProfile;
+    private final String reportId;
+    private final MedicalInsightCache insightCache;
+    private final ChatMessage message;
+    private final int[] riskLevelCounts = new int[MedicalInsight.RiskLevel.values().length];
+    private final EnumMap<MedicalInsight.RiskLevel, String> sectionText =
+        new EnumMap<>(MedicalInsight.RiskLevel.class);
+    private final EnumSet<MedicalInsight.RiskLevel> dirtySections =
+        EnumSet.allOf(MedicalInsight.RiskLevel.class);
+    private int followUpCount;
+    private int insightCount;
+
+    MedicalInsightSession(List<MedicalParameter> parameters, UserProfile userProfile, String reportId,
+                          MedicalInsightCache insightCache) {
+        this.userProfile = userProfile;
+        this.reportId = reportId;
+        this.insightCache = insightCache;
+        this.message = new ChatMessage();
+        message.setType(ChatMessage.MessageType.AI_MEDICAL_CARD);
+        message.setFromUser(false);
+        message.setReportId(reportId);
+        message.setMedicalDisclaimer(MedicalReportAgent.getStandardDisclaimer());
+
+        this.analysis = new MedicalInsightRuleEngine.Session(parameters, this::onInsightChanged);
+        refreshMessage();
+    }
+
+    /**
+     * @return The chat card reflecting the current state of the report
+     */
+    public synchronized ChatMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Replace one parameter and update the chat card.
+     *
+     * @param index Position of the parameter in the report
+     * @param parameter The corrected parameter
+     * @return The updated chat card
+     */
+    public synchronized ChatMessage updateParameter(int index, MedicalParameter parameter) {
+        analysis.update(index, parameter);
+        refreshMessage();
+        // The memoized full analysis of this report is stale now
+        if (reportId != null) {
+            insightCache.invalidate(reportId);
+        }
+        return message;
+    }
+
+    /**
+     * Apply a user's correction of a parsed field and update the chat card.
+     *
+     * @param index Position of the parameter in the report
+     * @param field The edited field
+     * @param status Status of the corrected value (LOW, NORMAL or HIGH), or null to keep the previous one
+     * @return The updated chat card
+     */
+    public synchronized ChatMessage applyEdit(int index, ParsedField field, String status) {
+        MedicalParameter previous = analysis.getParameters().get(index);
+        MedicalParameter parameter = new MedicalParameter(
+            field.getName(),
+            field.getValue(),
+            field.getUnit(),
+            status != null ? status : previous.getStatus()
+        );
+        parameter.setReferenceRange(field.getReferenceRange() != null
+            ? field.getReferenceRange() : previous.getReferenceRange());
+        parameter.setNotes(field.getNotes() != null ? field.getNotes() : previous.getNotes());
+
+        field.setEdited(true);
+        field.setEditedAt(System.currentTimeMillis());
+        return updateParameter(index, parameter);
+    }
+
+    private void onInsightChanged(MedicalInsight previous, MedicalInsight current) {
+        if (previous != null) {
+            insightCount--;
+            track(previous, -1);
+        }
+        if (current != null) {
+            insightCount++;
+            track(current, 1);
+        }
+    }
+
+    private void track(MedicalInsight insight, int delta) {
+        if (insight.getRiskLevel() != null) {
+            riskLevelCounts[insight.getRiskLevel().ordinal()] += delta;
+            dirtySections.add(insight.getRiskLevel());
+        }
+        if (MedicalReportAgent.requiresFollowUp(insight)) {
+            followUpCount += delta;
+        }
+    }
+
+    private void refreshMessage() {
+        List<MedicalInsight> insights = analysis.getInsights();
+        message.setMedicalParameters(analysis.getParameters());
+        message.setContent(buildText(insights));
+        message.setSeverity(getSeverity());
+        message.setRequiresFollowUp(followUpCount > 0);
+        message.setRecommendations(MedicalReportAgent.generateRecommendations(insights, userProfile));
+        message.setTimestamp(System.currentTimeMillis());
+    }
+
+    private String buildText(List<MedicalInsight> insights) {
+        if (insightCount == 0) {
+            return MedicalReportAgent.generateNoParametersInsight();
+        }
+
+        StringBuilder text = new StringBuilder(MedicalReportAgent.ANALYSIS_HEADER);
+        for (MedicalInsight.RiskLevel level : MedicalReportAgent.TEXT_SECTION_ORDER) {
+            if (dirtySections.contains(level)) {
+                sectionText.put(level, buildSection(level, insights));
+            }
+            text.append(sectionText.get(level));
+        }
+        dirtySections.clear();
+        return text.toString();
+    }
+
+    private String buildSection(MedicalInsight.RiskLevel level, List<MedicalInsight> insights) {
+        if (riskLevelCounts[level.ordinal()] == 0) {
+            return "";
+        }
+        List<MedicalInsight> sectionInsights = new ArrayList<>(riskLevelCounts[level.ordinal()]);
+        for (MedicalInsight insight : insights) {
+            if (insight.getRiskLevel() == level) {
+                sectionInsights.add(insight);
+            }
+        }
+        StringBuilder section = new StringBuilder();
+        MedicalReportAgent.appendRiskSection(section, level, sectionInsights);
+        return section.toString();
+    }
+
+    private ChatMessage.Severity getSeverity() {
+        if (riskLevelCounts[MedicalInsight.RiskLevel.CRITICAL.ordinal()] > 0) return ChatMessage.Severity.CRITICAL;
+        if (riskLevelCounts[MedicalInsight.RiskLevel.HIGH_CONCERN.ordinal()] > 0) return ChatMessage.Severity.HIGH;
+        if (riskLevelCounts[MedicalInsight.RiskLevel.MODERATE_CONCERN.ordinal()] > 0) return ChatMessage.Severity.MEDIUM;
+        return ChatMessage.Severity.LOW;
+    }
+}
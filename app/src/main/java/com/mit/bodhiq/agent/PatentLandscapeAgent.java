@@ -7,12 +7,12 @@ import com.mit.bodhiq.data.model.PatentInfo;
 import com.mit.bodhiq.data.provider.MockDataProvider;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.reactivex.rxjava3.core.Single;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Agent responsible for analyzing patent landscape and intellectual property
@@ -21,9 +21,10 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @Singleton
 public class PatentLandscapeAgent implements PharmaceuticalAgent {
     
-    private static final String AGENT_NAME = "Patent Landscape";
+    static final String AGENT_NAME = "Patent Landscape";
     private static final int EXECUTION_ORDER = 2;
     private static final int ESTIMATED_DURATION_MS = 4000; // 4 seconds
+    private static final long CACHE_TTL_MS = TimeUnit.HOURS.toMillis(24);
     
     private final MockDataProvider mockDataProvider;
     private final Gson gson;
@@ -62,7 +63,7 @@ public class PatentLandscapeAgent implements PharmaceuticalAgent {
             
             return result;
             
-        }).subscribeOn(Schedulers.io());
+        });
     }
     
     @Override
@@ -79,4 +80,15 @@ public class PatentLandscapeAgent implements PharmaceuticalAgent {
     public int getExecutionOrder() {
         return EXECUTION_ORDER;
     }
+    
+    @Override
+    public long getResultCacheTtlMs() {
+        return CACHE_TTL_MS;
+    }
+    
+    @Override
+    public boolean isHedgingEnabled() {
+        // Slowest analysis agent and free of side effects, so worth hedging
+        return true;
+    }
 }
\ No newline at end of file
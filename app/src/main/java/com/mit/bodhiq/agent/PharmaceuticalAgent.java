@@ -2,6 +2,9 @@ package com.mit.bodhiq.agent;
 
 import com.mit.bodhiq.data.database.entity.AgentResult;
 
+import java.util.Collections;
+import java.util.List;
+
 import io.reactivex.rxjava3.core.Single;
 
 /**
@@ -12,6 +15,8 @@ public interface PharmaceuticalAgent {
     
     /**
      * Execute the agent's analysis for the specified molecule and query.
+     * Implementations must not pick a scheduler themselves; MasterAgent runs
+     * the returned Single on the agent's own bulkhead.
      * 
      * @param molecule The pharmaceutical molecule to analyze
      * @param queryId The ID of the query this execution belongs to
@@ -41,4 +46,68 @@ public interface PharmaceuticalAgent {
      * @return Execution order (1-7 for the 7 agents)
      */
     int getExecutionOrder();
+    
+    /**
+     * Get the names of the agents whose results this agent depends on.
+     * MasterAgent will not start this agent until all of them have finished,
+     * and agents without dependencies may run concurrently.
+     * 
+     * @return Agent names (as returned by getAgentName()) this agent depends on
+     */
+    default List<String> getDependencies() {
+        return Collections.emptyList();
+    }
+    
+    /**
+     * Get the version of this agent's output format and logic.
+     * Bump it whenever the agent starts producing different result data,
+     * so cached results of the previous version are no longer served.
+     * 
+     * @return Agent version
+     */
+    default int getAgentVersion() {
+        return 1;
+    }
+    
+    /**
+     * Get how long a result of this agent may be served from the result cache.
+     * Agents whose output depends on anything other than the molecule and its
+     * data (e.g. the query ID or the current time) must return 0.
+     * 
+     * @return Cache time-to-live in milliseconds, or 0 to disable caching
+     */
+    default long getResultCacheTtlMs() {
+        return 0;
+    }
+    
+    /**
+     * Whether MasterAgent may start a second, concurrent attempt of this agent
+     * when the first one runs longer than usual. Only agents whose execution is
+     * free of side effects should opt in.
+     * 
+     * @return true to enable hedged execution
+     */
+    default boolean isHedgingEnabled() {
+        return false;
+    }
+    
+    /**
+     * Get how many executions of this agent may run at once on its dedicated
+     * bulkhead scheduler.
+     * 
+     * @return Number of bulkhead threads
+     */
+    default int getBulkheadConcurrency() {
+        return 2;
+    }
+    
+    /**
+     * Get how many executions of this agent may wait for a bulkhead thread.
+     * Executions beyond this are rejected instead of queued.
+     * 
+     * @return Bulkhead queue capacity
+     */
+    default int getBulkheadQueueCapacity() {
+        return 8;
+    }
 }
\ No newline at end of file
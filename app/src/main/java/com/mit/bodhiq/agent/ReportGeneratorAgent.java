@@ -4,11 +4,14 @@ import com.google.gson.JsonObject;
 import com.mit.bodhiq.data.database.entity.AgentResult;
 import com.mit.bodhiq.data.model.AgentStatus;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.reactivex.rxjava3.core.Single;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Agent responsible for triggering PDF report generation process
@@ -21,6 +24,16 @@ public class ReportGeneratorAgent implements PharmaceuticalAgent {
     private static final int EXECUTION_ORDER = 7;
     private static final int ESTIMATED_DURATION_MS = 2000; // 2 seconds
     
+    // The report is assembled from the output of every analysis agent
+    private static final List<String> DEPENDENCIES = Collections.unmodifiableList(Arrays.asList(
+        MarketInsightsAgent.AGENT_NAME,
+        PatentLandscapeAgent.AGENT_NAME,
+        ClinicalTrialsAgent.AGENT_NAME,
+        EximTradeAgent.AGENT_NAME,
+        WebIntelligenceAgent.AGENT_NAME,
+        InternalInsightsAgent.AGENT_NAME
+    ));
+    
     @Inject
     public ReportGeneratorAgent() {
         // Constructor for dependency injection
@@ -56,7 +69,7 @@ public class ReportGeneratorAgent implements PharmaceuticalAgent {
             
             return result;
             
-        }).subscribeOn(Schedulers.io());
+        });
     }
     
     @Override
@@ -73,4 +86,9 @@ public class ReportGeneratorAgent implements PharmaceuticalAgent {
     public int getExecutionOrder() {
         return EXECUTION_ORDER;
     }
+    
+    @Override
+    public List<String> getDependencies() {
+        return DEPENDENCIES;
+    }
 }
\ No newline at end of file
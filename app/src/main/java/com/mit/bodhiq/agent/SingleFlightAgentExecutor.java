@@ -0,0 +1,189 @@
+package com.mit.bodhiq.agent;
+
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.model.AgentStatus;
+import com.mit.bodhiq.data.model.AgentUpdate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Single-flight layer in front of MasterAgent.executeAllAgents.
+ * Concurrent executions for the same molecule share one pipeline run: the first
+ * caller (the leader) starts it, later callers join it and receive the same
+ * updates with the results copied into their own query's agent_results rows.
+ * A follower that already has a checkpoint (a resumed query) keeps its own
+ * COMPLETED results and only copies those of the remaining agents.
+ * A finished run stays joinable for a short freshness window so bursts of
+ * identical queries that arrive just after it completes are served from it too;
+ * it is dropped when the window ends. A run in which any agent failed is
+ * dropped at once, so later queries never join a partial result.
+ */
+@Singleton
+public class SingleFlightAgentExecutor {
+
+    public static final long DEFAULT_FRESHNESS_WINDOW_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final MasterAgent masterAgent;
+    private final AgentResultJournal resultJournal;
+    private final ConcurrentHashMap<String, Flight> flights;
+    private final long freshnessWindowMs;
+
+    @Inject
+    public SingleFlightAgentExecutor(MasterAgent masterAgent, AgentResultJournal resultJournal) {
+        this(masterAgent, resultJournal, DEFAULT_FRESHNESS_WINDOW_MS);
+    }
+
+    public SingleFlightAgentExecutor(MasterAgent masterAgent, AgentResultJournal resultJournal,
+                                     long freshnessWindowMs) {
+        this.masterAgent = masterAgent;
+        this.resultJournal = resultJournal;
+        this.flights = new ConcurrentHashMap<>();
+        this.freshnessWindowMs = freshnessWindowMs;
+    }
+
+    /**
+     * Execute all agents for a molecule, joining an in-flight or fresh run if one exists.
+     *
+     * @param molecule The pharmaceutical molecule to analyze
+     * @param queryId The ID of the query this execution belongs to
+     * @return Flowable stream of AgentUpdate objects whose results belong to queryId
+     */
+    public Flowable<AgentUpdate> execute(String molecule, long queryId) {
+        return execute(molecule, queryId, false);
+    }
+
+    /**
+     * Execute all agents for a molecule.
+     *
+     * @param molecule The pharmaceutical molecule to analyze
+     * @param queryId The ID of the query this execution belongs to
+     * @param retry True for an explicit retry, which always starts a new run
+     *              instead of joining one that may hold the failure being retried
+     * @return Flowable stream of AgentUpdate objects whose results belong to queryId
+     */
+    public Flowable<AgentUpdate> execute(String molecule, long queryId, boolean retry) {
+        return Flowable.defer(() -> {
+            String key = molecule.toLowerCase(Locale.ROOT);
+            Flight flight = flights.compute(key, (k, existing) ->
+                !retry && existing != null && !existing.poisoned
+                    ? existing
+                    : startFlight(key, molecule, queryId));
+
+            if (flight.leaderQueryId == queryId) {
+                return flight.updates;
+            }
+
+            // Follower: replay this query's own checkpoint like MasterAgent does for
+            // the leader, then copy the shared results of the remaining agents
+            return resultJournal.loadCheckpoint(queryId)
+                .flatMapPublisher(completedResults -> joinFlight(flight, completedResults, queryId));
+        });
+    }
+
+    /**
+     * Get the number of distinct molecule runs currently tracked.
+     *
+     * @return Number of in-flight or fresh runs
+     */
+    public int getActiveFlightCount() {
+        return flights.size();
+    }
+
+    private Flight startFlight(String key, String molecule, long queryId) {
+        Flight flight = new Flight(queryId);
+        // cache() runs the pipeline once and replays every update to late joiners
+        flight.updates = masterAgent.executeAllAgents(molecule, queryId)
+            .doOnNext(update -> {
+                if (update.getStatus() == AgentStatus.FAILED) {
+                    poison(key, flight);
+                }
+            })
+            .doOnComplete(() -> expireAfterFreshnessWindow(key, flight))
+            .doOnError(throwable -> poison(key, flight))
+            .cache();
+        return flight;
+    }
+
+    private void poison(String key, Flight flight) {
+        flight.poisoned = true;
+        flights.remove(key, flight);
+    }
+
+    private void expireAfterFreshnessWindow(String key, Flight flight) {
+        Completable.timer(freshnessWindowMs, TimeUnit.MILLISECONDS)
+            .subscribe(() -> flights.remove(key, flight));
+    }
+
+    private Flowable<AgentUpdate> joinFlight(Flight flight, List<AgentResult> completedResults, long queryId) {
+        Set<String> completedAgents = new HashSet<>();
+        for (AgentResult result : completedResults) {
+            completedAgents.add(result.getAgentName());
+        }
+
+        Flowable<AgentUpdate> restored = Flowable.fromIterable(completedResults)
+            .map(result -> new AgentUpdate(result.getAgentName(), AgentStatus.COMPLETED, 100, result, null));
+
+        Flowable<AgentUpdate> shared = flight.updates
+            .filter(update -> update.getResult() == null || !completedAgents.contains(update.getAgentName()))
+            .map(update -> rebindToQuery(update, queryId))
+            // The copies are checkpointed in one batch once the shared run ends
+            .concatWith(resultJournal.flush(queryId))
+            .onErrorResumeNext(throwable -> resultJournal.flush(queryId)
+                .onErrorComplete()
+                .andThen(Flowable.error(throwable)))
+            .doFinally(() -> resultJournal.discard(queryId));
+
+        return restored.concatWith(shared);
+    }
+
+    private AgentUpdate rebindToQuery(AgentUpdate update, long queryId) {
+        AgentResult source = update.getResult();
+        if (source == null) {
+            return update;
+        }
+
+        AgentResult copy = new AgentResult(
+            queryId,
+            source.getAgentName(),
+            source.getStatus(),
+            source.getStartedAt()
+        );
+        copy.setResultData(source.getResultData());
+        copy.setErrorMessage(source.getErrorMessage());
+        copy.setExecutionTimeMs(source.getExecutionTimeMs());
+        copy.setCompletedAt(source.getCompletedAt());
+        copy.setFromCache(source.isFromCache());
+        resultJournal.record(copy);
+
+        AgentUpdate rebound = new AgentUpdate(
+            update.getAgentName(),
+            update.getStatus(),
+            update.getProgress(),
+            copy,
+            update.getError()
+        );
+        rebound.setTimestamp(update.getTimestamp());
+        return rebound;
+    }
+
+    private static class Flight {
+        final long leaderQueryId;
+        Flowable<AgentUpdate> updates;
+        volatile boolean poisoned;
+
+        Flight(long leaderQueryId) {
+            this.leaderQueryId = leaderQueryId;
+        }
+    }
+}
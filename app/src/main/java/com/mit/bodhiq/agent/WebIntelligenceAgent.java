@@ -7,12 +7,12 @@ import com.mit.bodhiq.data.model.Publication;
 import com.mit.bodhiq.data.provider.MockDataProvider;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.reactivex.rxjava3.core.Single;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Agent responsible for processing web intelligence and publication data
@@ -21,9 +21,10 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @Singleton
 public class WebIntelligenceAgent implements PharmaceuticalAgent {
     
-    private static final String AGENT_NAME = "Web Intelligence";
+    static final String AGENT_NAME = "Web Intelligence";
     private static final int EXECUTION_ORDER = 5;
     private static final int ESTIMATED_DURATION_MS = 4500; // 4.5 seconds
+    private static final long CACHE_TTL_MS = TimeUnit.HOURS.toMillis(24);
     
     private final MockDataProvider mockDataProvider;
     private final Gson gson;
@@ -62,7 +63,7 @@ public class WebIntelligenceAgent implements PharmaceuticalAgent {
             
             return result;
             
-        }).subscribeOn(Schedulers.io());
+        });
     }
     
     @Override
@@ -79,4 +80,9 @@ public class WebIntelligenceAgent implements PharmaceuticalAgent {
     public int getExecutionOrder() {
         return EXECUTION_ORDER;
     }
+    
+    @Override
+    public long getResultCacheTtlMs() {
+        return CACHE_TTL_MS;
+    }
 }
\ No newline at end of file
@@ -28,7 +28,7 @@ public class ChatController {
     
     public ChatController(Context context) {
         this.context = context;
-        this.documentAnalyzer = new DocumentAnalyzer();
+        this.documentAnalyzer = new DocumentAnalyzer(context);
         this.actionHandler = new ActionHandler(context);
         this.emergencyDetector = new EmergencyDetector();
         this.conversationContext = new ConversationContext();
@@ -510,6 +510,7 @@ public class ChatController {
     
     private ChatMessage handleMedicationInfo(String userMessage) {
         String medicationName = documentAnalyzer.extractMedicationName(userMessage);
+        MedicationDictionary.Match medication = documentAnalyzer.findMedication(userMessage);
         
         if (medicationName == null) {
             return createResponse(
@@ -521,7 +522,11 @@ public class ChatController {
         
         StringBuilder response = new StringBuilder();
         response.append("💊 **Medication Information**\n\n");
-        response.append("**Medication:** ").append(medicationName).append("\n\n");
+        response.append("**Medication:** ").append(medicationName).append("\n");
+        if (medication != null && medication.isBrand()) {
+            response.append("**Generic name:** ").append(medication.getGenericName()).append("\n");
+        }
+        response.append("\n");
         response.append("**Important:**\n");
         response.append("• Always take medications as prescribed by your doctor\n");
         response.append("• Don't stop or change dosage without consulting your doctor\n");
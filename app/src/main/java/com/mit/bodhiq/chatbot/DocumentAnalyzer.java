@@ -1,10 +1,17 @@
 package com.mit.bodhiq.chatbot;
 
+import android.content.Context;
+
 import com.mit.bodhiq.data.model.ChatMessage;
 import com.mit.bodhiq.data.model.UserProfile;
+import com.mit.bodhiq.utils.LabValueLexer;
+import com.mit.bodhiq.utils.ReferenceRangeTable;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,6 +20,23 @@ import java.util.regex.Pattern;
  */
 public class DocumentAnalyzer {
     
+    // Common drug class suffixes, for medications missing from the dictionary
+    private static final Pattern MEDICATION_SUFFIX_PATTERN =
+        Pattern.compile("\\b([A-Z][a-z]+(pril|olol|statin|cillin|mycin|azole|pine))\\b");
+    
+    private final Context context;
+    
+    public DocumentAnalyzer(Context context) {
+        this.context = context.getApplicationContext();
+    }
+    
+    /**
+     * Get the medication dictionary, loading it on first use
+     */
+    private MedicationDictionary getMedicationDictionary() {
+        return MedicationDictionary.getInstance(context);
+    }
+    
     /**
      * Analyze medical report text
      */
@@ -52,74 +76,77 @@ public class DocumentAnalyzer {
     private List<DetectedValue> extractMedicalValues(String text) {
         List<DetectedValue> values = new ArrayList<>();
         
-        // Hemoglobin
-        Pattern hbPattern = Pattern.compile("(?i)(hemoglobin|hgb|hb)\\s*:?\\s*([0-9]+\\.?[0-9]*)\\s*(g/dl|gm/dl)?");
-        Matcher hbMatcher = hbPattern.matcher(text);
-        while (hbMatcher.find()) {
-            double value = Double.parseDouble(hbMatcher.group(2));
-            String status = (value < 12.0) ? "Low" : (value > 16.0) ? "High" : "Normal";
-            values.add(new DetectedValue("Hemoglobin", hbMatcher.group(2), "g/dL", status));
-        }
-        
-        // Blood Glucose
-        Pattern glucosePattern = Pattern.compile("(?i)(glucose|blood sugar|fbs|rbs)\\s*:?\\s*([0-9]+\\.?[0-9]*)\\s*(mg/dl)?");
-        Matcher glucoseMatcher = glucosePattern.matcher(text);
-        while (glucoseMatcher.find()) {
-            double value = Double.parseDouble(glucoseMatcher.group(2));
-            String status = (value < 70) ? "Low" : (value > 140) ? "High" : "Normal";
-            values.add(new DetectedValue("Blood Glucose", glucoseMatcher.group(2), "mg/dL", status));
-        }
-        
-        // Cholesterol
-        Pattern cholPattern = Pattern.compile("(?i)(cholesterol|total cholesterol)\\s*:?\\s*([0-9]+\\.?[0-9]*)\\s*(mg/dl)?");
-        Matcher cholMatcher = cholPattern.matcher(text);
-        while (cholMatcher.find()) {
-            double value = Double.parseDouble(cholMatcher.group(2));
-            String status = (value > 200) ? "High" : "Normal";
-            values.add(new DetectedValue("Cholesterol", cholMatcher.group(2), "mg/dL", status));
-        }
-        
-        // Blood Pressure
-        Pattern bpPattern = Pattern.compile("(?i)(blood pressure|bp)\\s*:?\\s*([0-9]+)/([0-9]+)\\s*(mmhg)?");
-        Matcher bpMatcher = bpPattern.matcher(text);
-        while (bpMatcher.find()) {
-            int systolic = Integer.parseInt(bpMatcher.group(2));
-            int diastolic = Integer.parseInt(bpMatcher.group(3));
-            String status = (systolic > 140 || diastolic > 90) ? "High" : 
-                           (systolic < 90 || diastolic < 60) ? "Low" : "Normal";
-            values.add(new DetectedValue("Blood Pressure", bpMatcher.group(2) + "/" + bpMatcher.group(3), "mmHg", status));
+        for (LabValueLexer.LabReading reading : LabValueLexer.scan(text)) {
+            switch (reading.getTest()) {
+                case HEMOGLOBIN:
+                    values.add(new DetectedValue("Hemoglobin", reading.getValue(), unitOf(reading), statusOf(reading)));
+                    break;
+                case GLUCOSE:
+                    values.add(new DetectedValue("Blood Glucose", reading.getValue(), unitOf(reading), statusOf(reading)));
+                    break;
+                case CHOLESTEROL_TOTAL:
+                    values.add(new DetectedValue("Cholesterol", reading.getValue(), unitOf(reading), statusOf(reading)));
+                    break;
+                case BLOOD_PRESSURE: {
+                    if (reading.getSecondValue() == null) {
+                        break;
+                    }
+                    String status = displayStatus(ReferenceRangeTable.getBloodPressureStatus(
+                        ReferenceRangeTable.AGE_ADULT, ReferenceRangeTable.SEX_UNSPECIFIED,
+                        reading.getNumericValue(), Double.parseDouble(reading.getSecondValue())));
+                    values.add(new DetectedValue("Blood Pressure", reading.getValue() + "/" + reading.getSecondValue(), "mmHg", status));
+                    break;
+                }
+                default:
+                    break;
+            }
         }
         
         return values;
     }
     
+    private static String statusOf(LabValueLexer.LabReading reading) {
+        return displayStatus(ReferenceRangeTable.getStatus(reading.getTest().ordinal(),
+            ReferenceRangeTable.AGE_ADULT, ReferenceRangeTable.SEX_UNSPECIFIED, reading.getCanonicalValue()));
+    }
+    
+    /**
+     * The unit printed in the report, or the canonical one the value is assumed to be in
+     */
+    private static String unitOf(LabValueLexer.LabReading reading) {
+        return reading.getUnit().isEmpty() ? reading.getCanonicalUnit() : reading.getUnit();
+    }
+    
+    /**
+     * Convert a table status such as "HIGH" to the "High" shown in analyses
+     */
+    private static String displayStatus(String status) {
+        return status.charAt(0) + status.substring(1).toLowerCase(Locale.ROOT);
+    }
+    
     /**
-     * Extract medication names from text
+     * Extract medication names from text in one pass over the medication dictionary.
+     * Brand names are listed with their generic name, and each drug is listed once.
+     * The dictionary is a curated subset, so capitalized words with a common drug
+     * class suffix are added as well when the dictionary did not find them.
      */
     private List<String> extractMedications(String text) {
         List<String> medications = new ArrayList<>();
+        Set<String> seenGenerics = new HashSet<>();
         
-        // Common medication patterns
-        String[] commonMeds = {
-            "aspirin", "ibuprofen", "paracetamol", "acetaminophen", "metformin",
-            "lisinopril", "amlodipine", "atorvastatin", "simvastatin", "omeprazole",
-            "levothyroxine", "albuterol", "metoprolol", "losartan", "gabapentin"
-        };
-        
-        String lowerText = text.toLowerCase();
-        for (String med : commonMeds) {
-            if (lowerText.contains(med)) {
-                medications.add(capitalize(med));
+        for (MedicationDictionary.Match match : getMedicationDictionary().scan(text)) {
+            if (!seenGenerics.add(match.getGenericName().toLowerCase())) {
+                continue;
             }
+            String generic = capitalize(match.getGenericName());
+            medications.add(match.isBrand() ? match.getName() + " (" + generic + ")" : generic);
         }
         
-        // Generic pattern for medications (word ending in common suffixes)
-        Pattern medPattern = Pattern.compile("\\b([A-Z][a-z]+(pril|olol|statin|cillin|mycin|azole|pine))\\b");
-        Matcher medMatcher = medPattern.matcher(text);
-        while (medMatcher.find()) {
-            String med = medMatcher.group(1);
-            if (!medications.contains(med)) {
-                medications.add(med);
+        Matcher suffixMatcher = MEDICATION_SUFFIX_PATTERN.matcher(text);
+        while (suffixMatcher.find()) {
+            String medication = suffixMatcher.group(1);
+            if (seenGenerics.add(medication.toLowerCase())) {
+                medications.add(medication);
             }
         }
         
@@ -365,10 +392,25 @@ public class DocumentAnalyzer {
         return ChatMessage.Severity.LOW;
     }
     
+    /**
+     * Find the first known medication named in a message
+     * 
+     * @return The match, or null if the message names no known medication
+     */
+    public MedicationDictionary.Match findMedication(String message) {
+        return getMedicationDictionary().findFirst(message);
+    }
+    
     /**
      * Extract medication name from message
      */
     public String extractMedicationName(String message) {
+        // Prefer a name from the medication dictionary
+        MedicationDictionary.Match match = findMedication(message);
+        if (match != null) {
+            return match.isBrand() ? match.getName() : capitalize(match.getName());
+        }
+        
         // Look for medication name after "about" or "for"
         Pattern pattern = Pattern.compile("(?i)(?:about|for|regarding)\\s+([A-Za-z]+)");
         Matcher matcher = pattern.matcher(message);
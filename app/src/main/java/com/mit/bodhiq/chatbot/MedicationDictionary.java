@@ -0,0 +1,417 @@
+package com.mit.bodhiq.chatbot;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dictionary of generic and brand drug names, compiled into an Aho-Corasick
+ * automaton so that every name in a report is found in one pass over the text,
+ * at a cost linear in the text length however large the dictionary grows.
+ * The dictionary is read from the {@value #ASSET_NAME} asset on first use:
+ * one generic name per line, optionally followed by '|' and its brand names.
+ * The bundled asset covers about 500 common generics rather than a full
+ * formulary, so names outside it are not recognized here; DocumentAnalyzer
+ * falls back to drug class suffixes for those.
+ */
+public final class MedicationDictionary {
+
+    private static final String TAG = "MedicationDictionary";
+
+    public static final String ASSET_NAME = "medications.txt";
+
+    private static volatile MedicationDictionary instance;
+
+    // Per name: the name as listed, its generic name and its length once normalized
+    private final String[] names;
+    private final String[] generics;
+    private final int[] nameLengths;
+
+    // Automaton; the edges of node n are edgeChars/edgeTargets[edgeStart[n] .. edgeStart[n + 1]),
+    // sorted by character
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // Name ending at the node, or -1; nearest node on the fail chain that ends a name, or 0
+    private final int[] output;
+    private final int[] outputLink;
+
+    /**
+     * Get the shared dictionary, reading it from assets on first use.
+     *
+     * @param context Any context
+     * @return The dictionary; empty if the asset could not be read
+     */
+    public static MedicationDictionary getInstance(Context context) {
+        MedicationDictionary dictionary = instance;
+        if (dictionary == null) {
+            synchronized (MedicationDictionary.class) {
+                dictionary = instance;
+                if (dictionary == null) {
+                    dictionary = load(context.getApplicationContext());
+                    instance = dictionary;
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    private static MedicationDictionary load(Context context) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(context.getAssets().open(ASSET_NAME), StandardCharsets.UTF_8))) {
+            MedicationDictionary dictionary = parse(reader);
+            Log.d(TAG, "Loaded " + dictionary.size() + " medication names");
+            return dictionary;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to load medication dictionary", e);
+            return new MedicationDictionary(new ArrayList<>(), new ArrayList<>());
+        }
+    }
+
+    /**
+     * Parse a dictionary in the asset format.
+     *
+     * @param reader Reader over the dictionary
+     * @return The compiled dictionary
+     */
+    static MedicationDictionary parse(BufferedReader reader) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<String> generics = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int bar = line.indexOf('|');
+            String generic = (bar >= 0 ? line.substring(0, bar) : line).trim();
+            if (generic.isEmpty()) {
+                continue;
+            }
+            names.add(generic);
+            generics.add(generic);
+            if (bar >= 0) {
+                for (String brand : line.substring(bar + 1).split(",")) {
+                    if (!brand.trim().isEmpty()) {
+                        names.add(brand.trim());
+                        generics.add(generic);
+                    }
+                }
+            }
+        }
+        return new MedicationDictionary(names, generics);
+    }
+
+    private MedicationDictionary(List<String> nameList, List<String> genericList) {
+        // Build the trie; a name listed twice keeps its first generic
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        children.add(new TreeMap<>());
+        outputs.add(-1);
+
+        List<String> keptNames = new ArrayList<>();
+        List<String> keptGenerics = new ArrayList<>();
+        List<Integer> keptLengths = new ArrayList<>();
+        for (int i = 0; i < nameList.size(); i++) {
+            String key = normalize(nameList.get(i));
+            if (key.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int j = 0; j < key.length(); j++) {
+                Integer next = children.get(node).get(key.charAt(j));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    outputs.add(-1);
+                    children.get(node).put(key.charAt(j), next);
+                }
+                node = next;
+            }
+            if (outputs.get(node) < 0) {
+                outputs.set(node, keptNames.size());
+                keptNames.add(nameList.get(i));
+                keptGenerics.add(genericList.get(i));
+                keptLengths.add(key.length());
+            }
+        }
+
+        int nodeCount = children.size();
+        this.names = keptNames.toArray(new String[0]);
+        this.generics = keptGenerics.toArray(new String[0]);
+        this.nameLengths = new int[keptLengths.size()];
+        for (int i = 0; i < nameLengths.length; i++) {
+            nameLengths[i] = keptLengths.get(i);
+        }
+
+        // Flatten the edges into sorted arrays
+        this.edgeStart = new int[nodeCount + 1];
+        int edgeCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edgeCount;
+            edgeCount += children.get(node).size();
+        }
+        edgeStart[nodeCount] = edgeCount;
+        this.edgeChars = new char[edgeCount];
+        this.edgeTargets = new int[edgeCount];
+        this.output = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            int edge = edgeStart[node];
+            for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+                edgeChars[edge] = entry.getKey();
+                edgeTargets[edge] = entry.getValue();
+                edge++;
+            }
+            output[node] = outputs.get(node);
+        }
+
+        // Failure and output links, breadth first
+        this.fail = new int[nodeCount];
+        this.outputLink = new int[nodeCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int edge = edgeStart[0]; edge < edgeStart[1]; edge++) {
+            queue.add(edgeTargets[edge]);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int child = edgeTargets[edge];
+                int state = fail[node];
+                int target = goTo(state, edgeChars[edge]);
+                while (target < 0 && state != 0) {
+                    state = fail[state];
+                    target = goTo(state, edgeChars[edge]);
+                }
+                fail[child] = target >= 0 ? target : 0;
+                outputLink[child] = output[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Find every medication named in a text.
+     * Names match case-insensitively on word boundaries; where names overlap the
+     * leftmost, then longest one wins ("amoxicillin clavulanate" over "amoxicillin").
+     *
+     * @param text Text to scan, may be null
+     * @return Matches in the order they appear in the text
+     */
+    public List<Match> scan(String text) {
+        List<Match> matches = new ArrayList<>();
+        if (text == null || names.length == 0) {
+            return matches;
+        }
+
+        int length = text.length();
+        // Position in the text of each character fed to the automaton
+        int[] origin = new int[length];
+        int fed = 0;
+        boolean lastSpace = true;
+        int state = 0;
+        int coveredUntil = 0;
+        Match pending = null;
+
+        for (int i = 0; i < length; i++) {
+            char c = normalizeChar(text.charAt(i));
+            if (c == ' ') {
+                if (lastSpace) {
+                    continue;
+                }
+                lastSpace = true;
+            } else {
+                lastSpace = false;
+            }
+            origin[fed++] = i;
+            state = step(state, c);
+
+            for (int node = output[state] >= 0 ? state : outputLink[state]; node > 0; node = outputLink[node]) {
+                int name = output[node];
+                int start = origin[fed - nameLengths[name]];
+                int end = i + 1;
+                if (start < coveredUntil || !isWordBoundary(text, start, end)) {
+                    continue;
+                }
+                // Names ending here are visited longest first; keep the leftmost-longest candidate
+                if (pending == null || start < pending.start) {
+                    if (pending != null && pending.end <= start) {
+                        matches.add(pending);
+                        coveredUntil = pending.end;
+                    }
+                    pending = new Match(text.substring(start, end), names[name], generics[name], start, end);
+                } else if (start == pending.start && end > pending.end) {
+                    pending = new Match(text.substring(start, end), names[name], generics[name], start, end);
+                } else if (start >= pending.end) {
+                    matches.add(pending);
+                    coveredUntil = pending.end;
+                    pending = new Match(text.substring(start, end), names[name], generics[name], start, end);
+                }
+            }
+        }
+        if (pending != null) {
+            matches.add(pending);
+        }
+        return matches;
+    }
+
+    /**
+     * Find the first medication named in a text.
+     *
+     * @param text Text to scan, may be null
+     * @return The first match, or null
+     */
+    public Match findFirst(String text) {
+        List<Match> matches = scan(text);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Look up a single medication name.
+     *
+     * @param name Generic or brand name
+     * @return The generic name, or null if the name is unknown
+     */
+    public String getGenericName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = normalize(name);
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = goTo(node, key.charAt(i));
+        }
+        return node > 0 && output[node] >= 0 ? generics[output[node]] : null;
+    }
+
+    /**
+     * @return Number of distinct names in the dictionary
+     */
+    public int size() {
+        return names.length;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = goTo(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int goTo(int node, char c) {
+        int low = edgeStart[node];
+        int high = edgeStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char key = edgeChars[mid];
+            if (key < c) {
+                low = mid + 1;
+            } else if (key > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordBoundary(String text, int start, int end) {
+        return (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+            && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)));
+    }
+
+    private static String normalize(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        boolean lastSpace = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = normalizeChar(name.charAt(i));
+            if (c == ' ') {
+                if (lastSpace) {
+                    continue;
+                }
+                lastSpace = true;
+            } else {
+                lastSpace = false;
+            }
+            key.append(c);
+        }
+        int end = key.length();
+        while (end > 0 && key.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return key.substring(0, end);
+    }
+
+    private static char normalizeChar(char c) {
+        if (Character.isLetterOrDigit(c)) {
+            return Character.toLowerCase(c);
+        }
+        if (c == '-') {
+            return c;
+        }
+        // Whitespace and punctuation both separate words
+        return ' ';
+    }
+
+    /**
+     * One medication found in a text.
+     */
+    public static final class Match {
+        private final String text;
+        private final String name;
+        private final String genericName;
+        private final int start;
+        private final int end;
+
+        Match(String text, String name, String genericName, int start, int end) {
+            this.text = text;
+            this.name = name;
+            this.genericName = genericName;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return The name as written in the text
+         */
+        public String getText() { return text; }
+
+        /**
+         * @return The name as listed in the dictionary
+         */
+        public String getName() { return name; }
+
+        public String getGenericName() { return genericName; }
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+
+        public boolean isBrand() {
+            return !name.equals(genericName);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" +
+                    "text='" + text + '\'' +
+                    ", genericName='" + genericName + '\'' +
+                    ", start=" + start +
+                    '}';
+        }
+    }
+}
@@ -2,95 +2,65 @@ package com.mit.bodhiq.chatbot;
 
 import com.mit.bodhiq.data.model.ParsedField;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.mit.bodhiq.data.model.UserProfile;
+import com.mit.bodhiq.utils.LabTest;
+import com.mit.bodhiq.utils.ReferenceRangeTable;
 
 /**
- * Local reference ranges for common medical tests
+ * Local reference ranges for common medical tests, backed by {@link ReferenceRangeTable}
  */
 public class ReferenceRanges {
     
-    private static final Map<String, TestRange> ranges = new HashMap<>();
-    
-    static {
-        // Hematology
-        ranges.put("hemoglobin", new TestRange("Hemoglobin", "g/dL", 12.0, 16.0, 11.0, 17.0));
-        ranges.put("hgb", new TestRange("Hemoglobin", "g/dL", 12.0, 16.0, 11.0, 17.0));
-        ranges.put("hb", new TestRange("Hemoglobin", "g/dL", 12.0, 16.0, 11.0, 17.0));
-        
-        ranges.put("wbc", new TestRange("White Blood Cells", "/μL", 4000, 11000, 3000, 15000));
-        ranges.put("white blood cell", new TestRange("White Blood Cells", "/μL", 4000, 11000, 3000, 15000));
-        
-        ranges.put("rbc", new TestRange("Red Blood Cells", "million/μL", 4.5, 5.5, 4.0, 6.0));
-        ranges.put("red blood cell", new TestRange("Red Blood Cells", "million/μL", 4.5, 5.5, 4.0, 6.0));
-        
-        ranges.put("platelet", new TestRange("Platelets", "x10³/μL", 150, 450, 100, 500));
-        ranges.put("plt", new TestRange("Platelets", "x10³/μL", 150, 450, 100, 500));
-        
-        // Chemistry
-        ranges.put("glucose", new TestRange("Blood Glucose", "mg/dL", 70, 140, 60, 180));
-        ranges.put("blood sugar", new TestRange("Blood Glucose", "mg/dL", 70, 140, 60, 180));
-        ranges.put("fbs", new TestRange("Fasting Blood Sugar", "mg/dL", 70, 100, 60, 126));
-        
-        ranges.put("cholesterol", new TestRange("Total Cholesterol", "mg/dL", 0, 200, 0, 240));
-        ranges.put("total cholesterol", new TestRange("Total Cholesterol", "mg/dL", 0, 200, 0, 240));
-        
-        ranges.put("hdl", new TestRange("HDL Cholesterol", "mg/dL", 40, 200, 35, 250));
-        ranges.put("ldl", new TestRange("LDL Cholesterol", "mg/dL", 0, 100, 0, 130));
-        
-        ranges.put("triglycerides", new TestRange("Triglycerides", "mg/dL", 0, 150, 0, 200));
-        
-        ranges.put("creatinine", new TestRange("Creatinine", "mg/dL", 0.6, 1.2, 0.5, 1.5));
-        ranges.put("bun", new TestRange("Blood Urea Nitrogen", "mg/dL", 7, 20, 5, 25));
-        
-        // Liver function
-        ranges.put("alt", new TestRange("ALT (SGPT)", "U/L", 0, 40, 0, 55));
-        ranges.put("sgpt", new TestRange("ALT (SGPT)", "U/L", 0, 40, 0, 55));
-        
-        ranges.put("ast", new TestRange("AST (SGOT)", "U/L", 0, 40, 0, 55));
-        ranges.put("sgot", new TestRange("AST (SGOT)", "U/L", 0, 40, 0, 55));
-        
-        ranges.put("bilirubin", new TestRange("Total Bilirubin", "mg/dL", 0.1, 1.2, 0, 1.5));
-        
-        // Thyroid
-        ranges.put("tsh", new TestRange("TSH", "μIU/mL", 0.4, 4.0, 0.3, 5.0));
-        ranges.put("t3", new TestRange("T3", "ng/dL", 80, 200, 70, 220));
-        ranges.put("t4", new TestRange("T4", "μg/dL", 4.5, 12.0, 4.0, 13.0));
-        
-        // Electrolytes
-        ranges.put("sodium", new TestRange("Sodium", "mEq/L", 136, 145, 135, 148));
-        ranges.put("potassium", new TestRange("Potassium", "mEq/L", 3.5, 5.0, 3.0, 5.5));
-        ranges.put("calcium", new TestRange("Calcium", "mg/dL", 8.5, 10.5, 8.0, 11.0));
+    /**
+     * Get the adult reference range for a test
+     */
+    public static TestRange getRange(String testName) {
+        return getRange(testName, null);
     }
     
     /**
-     * Get reference range for a test
+     * Get the reference range for a test, adjusted for the user's age and sex
      */
-    public static TestRange getRange(String testName) {
-        if (testName == null) return null;
-        return ranges.get(testName.toLowerCase().trim());
+    public static TestRange getRange(String testName, UserProfile profile) {
+        int testId = ReferenceRangeTable.testId(testName);
+        int ageBand = ageBand(profile);
+        int sex = sex(profile);
+        double normalLow = ReferenceRangeTable.getNormalLow(testId, ageBand, sex);
+        if (Double.isNaN(normalLow)) {
+            return null;
+        }
+        return new TestRange(LabTest.values()[testId].getDisplayName(),
+            ReferenceRangeTable.getUnit(testId),
+            normalLow,
+            ReferenceRangeTable.getNormalHigh(testId, ageBand, sex),
+            ReferenceRangeTable.getCriticalLow(testId, ageBand, sex),
+            ReferenceRangeTable.getCriticalHigh(testId, ageBand, sex));
     }
     
     /**
-     * Evaluate a test value against reference range
+     * Evaluate a test value against the adult reference range
      */
     public static ParsedField.Flag evaluateValue(String testName, double value) {
-        TestRange range = getRange(testName);
-        if (range == null) {
-            return ParsedField.Flag.UNKNOWN;
-        }
-        
-        if (value < range.criticalLow || value > range.criticalHigh) {
-            return ParsedField.Flag.CRITICAL;
-        } else if (value < range.normalLow) {
-            return ParsedField.Flag.LOW;
-        } else if (value > range.normalHigh) {
-            return ParsedField.Flag.HIGH;
-        } else if (value < range.normalLow * 1.1 || value > range.normalHigh * 0.9) {
-            return ParsedField.Flag.BORDERLINE;
-        } else {
-            return ParsedField.Flag.NORMAL;
-        }
+        return evaluateValue(testName, value, null);
+    }
+    
+    /**
+     * Evaluate a test value against the reference range for the user's age and sex
+     */
+    public static ParsedField.Flag evaluateValue(String testName, double value, UserProfile profile) {
+        return ReferenceRangeTable.evaluate(ReferenceRangeTable.testId(testName),
+            ageBand(profile), sex(profile), value);
+    }
+    
+    /**
+     * Get the direction of a test value relative to the normal range for the user's age and sex.
+     * Unlike the flag, critical values keep their direction.
+     *
+     * @return One of the ReferenceRangeTable STATUS_ constants
+     */
+    public static String getStatus(String testName, double value, UserProfile profile) {
+        return ReferenceRangeTable.getStatus(ReferenceRangeTable.testId(testName),
+            ageBand(profile), sex(profile), value);
     }
     
     /**
@@ -116,17 +86,15 @@ public class ReferenceRanges {
      * Get action level for a flag
      */
     public static ParsedField.ActionLevel getActionLevel(ParsedField.Flag flag) {
-        switch (flag) {
-            case CRITICAL:
-                return ParsedField.ActionLevel.URGENT_CARE;
-            case HIGH:
-            case LOW:
-                return ParsedField.ActionLevel.CONSULT_SPECIALIST;
-            case BORDERLINE:
-                return ParsedField.ActionLevel.SELF_CARE;
-            default:
-                return ParsedField.ActionLevel.NONE;
-        }
+        return ReferenceRangeTable.getActionLevel(flag);
+    }
+    
+    private static int ageBand(UserProfile profile) {
+        return ReferenceRangeTable.ageBand(profile != null ? profile.getAge() : null);
+    }
+    
+    private static int sex(UserProfile profile) {
+        return ReferenceRangeTable.sex(profile != null ? profile.getGender() : null);
     }
     
     /**
@@ -151,6 +119,9 @@ public class ReferenceRanges {
         }
         
         public String getRangeString() {
+            if (Double.isInfinite(normalHigh)) {
+                return String.format("> %.1f %s", normalLow, unit);
+            }
             return String.format("%.1f - %.1f %s", normalLow, normalHigh, unit);
         }
     }
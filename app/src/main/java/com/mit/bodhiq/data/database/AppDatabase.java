@@ -5,13 +5,17 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.mit.bodhiq.data.database.dao.AgentResultCacheDao;
 import com.mit.bodhiq.data.database.dao.AgentResultDao;
+import com.mit.bodhiq.data.database.dao.LabValueDao;
 import com.mit.bodhiq.data.database.dao.QueryDao;
 import com.mit.bodhiq.data.database.dao.ReportDao;
 import com.mit.bodhiq.data.database.dao.UserDao;
 import com.mit.bodhiq.data.database.dao.ReminderDao;
 import com.mit.bodhiq.data.database.dao.ReminderHistoryDao;
 import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.database.entity.AgentResultCacheEntry;
+import com.mit.bodhiq.data.database.entity.LabValuePoint;
 import com.mit.bodhiq.data.database.entity.Query;
 import com.mit.bodhiq.data.database.entity.Report;
 import com.mit.bodhiq.data.database.entity.User;
@@ -30,9 +34,11 @@ import java.util.concurrent.Executors;
         AgentResult.class,
         Report.class,
         Reminder.class,
-        ReminderHistory.class
+        ReminderHistory.class,
+        AgentResultCacheEntry.class,
+        LabValuePoint.class
     },
-    version = 2,
+    version = 6,
     exportSchema = false
 )
 public abstract class AppDatabase extends RoomDatabase {
@@ -46,6 +52,8 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract ReportDao reportDao();
     public abstract ReminderDao reminderDao();
     public abstract ReminderHistoryDao reminderHistoryDao();
+    public abstract AgentResultCacheDao agentResultCacheDao();
+    public abstract LabValueDao labValueDao();
     
     /**
      * Get database instance (for use in BroadcastReceivers where Hilt is not available)
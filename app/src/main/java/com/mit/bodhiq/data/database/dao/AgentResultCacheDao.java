@@ -0,0 +1,62 @@
+package com.mit.bodhiq.data.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.mit.bodhiq.data.database.entity.AgentResultCacheEntry;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+
+/**
+ * Data Access Object for the persistent tier of the agent result cache.
+ * Provides lookup, upsert and expiry operations with RxJava3 return types.
+ */
+@Dao
+public interface AgentResultCacheDao {
+    
+    /**
+     * Get a cache entry that has not expired yet.
+     * 
+     * @param cacheKey Content-addressed cache key
+     * @param now Current time in milliseconds
+     * @return Maybe emitting the entry if present and still valid, empty otherwise
+     */
+    @Query("SELECT * FROM agent_result_cache WHERE cache_key = :cacheKey AND expires_at > :now LIMIT 1")
+    Maybe<AgentResultCacheEntry> getValidEntry(String cacheKey, long now);
+    
+    /**
+     * Insert or replace a cache entry.
+     * 
+     * @param entry Cache entry to store
+     * @return Completable indicating operation completion
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable upsertEntry(AgentResultCacheEntry entry);
+    
+    /**
+     * Delete all entries that expired before the given time.
+     * 
+     * @param now Current time in milliseconds
+     * @return Completable indicating operation completion
+     */
+    @Query("DELETE FROM agent_result_cache WHERE expires_at <= :now")
+    Completable deleteExpiredEntries(long now);
+    
+    /**
+     * Delete all cached results produced by an agent.
+     * 
+     * @param agentName Name of the agent
+     * @return Completable indicating operation completion
+     */
+    @Query("DELETE FROM agent_result_cache WHERE agent_name = :agentName")
+    Completable deleteEntriesByAgentName(String agentName);
+    
+    /**
+     * Delete every cache entry.
+     * 
+     * @return Completable indicating operation completion
+     */
+    @Query("DELETE FROM agent_result_cache")
+    Completable deleteAllEntries();
+}
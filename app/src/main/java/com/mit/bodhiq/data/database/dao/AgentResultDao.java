@@ -28,6 +28,8 @@ public interface AgentResultDao {
     
     /**
      * Insert multiple agent results into the database.
+     * Room runs the whole batch in a single transaction, which is what the
+     * write-behind AgentResultJournal relies on to persist a pipeline stage at once.
      * 
      * @param agentResults List of AgentResult entities to insert
      * @return Completable indicating operation completion
@@ -179,6 +181,16 @@ public interface AgentResultDao {
     @Query("DELETE FROM agent_results WHERE query_id = :queryId")
     Completable deleteAgentResultsByQueryId(long queryId);
     
+    /**
+     * Delete agent results of a query that did not complete.
+     * Used when resuming a pipeline so unfinished agents can be re-run.
+     * 
+     * @param queryId Query's ID
+     * @return Completable indicating operation completion
+     */
+    @Query("DELETE FROM agent_results WHERE query_id = :queryId AND status != 'COMPLETED'")
+    Completable deleteIncompleteAgentResultsByQueryId(long queryId);
+    
     /**
      * Delete an agent result by ID.
      * 
@@ -190,10 +202,24 @@ public interface AgentResultDao {
     
     /**
      * Get average execution time for an agent across all queries.
+     * Results served from the result cache are left out, since their times
+     * are lookups rather than agent runs.
      * 
      * @param agentName Name of the agent
      * @return Single emitting average execution time in milliseconds
      */
-    @Query("SELECT AVG(execution_time_ms) FROM agent_results WHERE agent_name = :agentName AND status = 'COMPLETED'")
+    @Query("SELECT AVG(execution_time_ms) FROM agent_results WHERE agent_name = :agentName AND status = 'COMPLETED' AND from_cache = 0")
     Single<Double> getAverageExecutionTimeByAgentName(String agentName);
+    
+    /**
+     * Get the most recent execution times of an agent's completed runs.
+     * Used to derive latency percentiles for adaptive timeouts, so results
+     * served from the result cache are left out.
+     * 
+     * @param agentName Name of the agent
+     * @param limit Maximum number of samples to return
+     * @return Single emitting execution times in milliseconds, newest first
+     */
+    @Query("SELECT execution_time_ms FROM agent_results WHERE agent_name = :agentName AND status = 'COMPLETED' AND from_cache = 0 ORDER BY completed_at DESC LIMIT :limit")
+    Single<List<Long>> getRecentExecutionTimesByAgentName(String agentName, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.mit.bodhiq.data.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.mit.bodhiq.data.database.entity.LabValuePoint;
+import java.util.List;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Data Access Object for the lab value time series.
+ * Every query is served by the (user_id, parameter, measured_at) index.
+ */
+@Dao
+public interface LabValueDao {
+
+    /**
+     * Append the values of a report. Saving the same report again replaces its values.
+     *
+     * @param points Values measured in one report
+     * @return Completable indicating operation completion
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable insertAll(List<LabValuePoint> points);
+
+    /**
+     * Get the values of a parameter measured in a time range, oldest first.
+     *
+     * @param userId User ID
+     * @param parameter Canonical parameter name
+     * @param from Start of the range in milliseconds, inclusive
+     * @param to End of the range in milliseconds, inclusive
+     * @return Single emitting the values
+     */
+    @Query("SELECT * FROM lab_values WHERE user_id = :userId AND parameter = :parameter " +
+           "AND measured_at BETWEEN :from AND :to ORDER BY measured_at ASC")
+    Single<List<LabValuePoint>> getRange(String userId, String parameter, long from, long to);
+
+    /**
+     * Observe every value of a parameter, oldest first. Emits again when a report is saved.
+     *
+     * @param userId User ID
+     * @param parameter Canonical parameter name
+     * @return Flowable emitting the values
+     */
+    @Query("SELECT * FROM lab_values WHERE user_id = :userId AND parameter = :parameter ORDER BY measured_at ASC")
+    Flowable<List<LabValuePoint>> observeSeries(String userId, String parameter);
+
+    /**
+     * Get the most recent values of a parameter, newest first.
+     *
+     * @param userId User ID
+     * @param parameter Canonical parameter name
+     * @param limit Maximum number of values
+     * @return Single emitting the values
+     */
+    @Query("SELECT * FROM lab_values WHERE user_id = :userId AND parameter = :parameter " +
+           "ORDER BY measured_at DESC LIMIT :limit")
+    Single<List<LabValuePoint>> getLatest(String userId, String parameter, int limit);
+
+    /**
+     * Get the parameters a user has any values for.
+     *
+     * @param userId User ID
+     * @return Single emitting the canonical parameter names
+     */
+    @Query("SELECT DISTINCT parameter FROM lab_values WHERE user_id = :userId")
+    Single<List<String>> getParameters(String userId);
+
+    /**
+     * Delete the values of a report.
+     *
+     * @param reportId Report ID
+     * @return Completable indicating operation completion
+     */
+    @Query("DELETE FROM lab_values WHERE report_id = :reportId")
+    Completable deleteByReportId(String reportId);
+
+    /**
+     * Delete every value of a user.
+     *
+     * @param userId User ID
+     * @return Completable indicating operation completion
+     */
+    @Query("DELETE FROM lab_values WHERE user_id = :userId")
+    Completable deleteAllByUserId(String userId);
+}
@@ -47,6 +47,9 @@ public class AgentResult {
     @ColumnInfo(name = "completed_at")
     private Long completedAt; // Nullable - only set when completed
     
+    @ColumnInfo(name = "from_cache")
+    private boolean fromCache; // Served from AgentResultCache; its execution time is not a real latency
+    
     // Constructors
     public AgentResult() {}
     
@@ -130,6 +133,14 @@ public class AgentResult {
         this.completedAt = completedAt;
     }
     
+    public boolean isFromCache() {
+        return fromCache;
+    }
+    
+    public void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+    
     @Override
     public String toString() {
         return "AgentResult{" +
@@ -0,0 +1,107 @@
+package com.mit.bodhiq.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity representing a cached agent result.
+ * Entries are content-addressed: the cache key is a hash of the agent name,
+ * agent version, molecule and the snapshot hash of the data the agent reads,
+ * so a change to any of them simply misses instead of serving stale data.
+ */
+@Entity(
+    tableName = "agent_result_cache",
+    indices = @Index(value = "expires_at")
+)
+public class AgentResultCacheEntry {
+    
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "cache_key")
+    private String cacheKey = "";
+    
+    @ColumnInfo(name = "agent_name")
+    private String agentName;
+    
+    @ColumnInfo(name = "molecule")
+    private String molecule;
+    
+    @ColumnInfo(name = "result_data")
+    private String resultData; // JSON string produced by the agent
+    
+    @ColumnInfo(name = "created_at")
+    private long createdAt;
+    
+    @ColumnInfo(name = "expires_at")
+    private long expiresAt;
+    
+    // Constructors
+    public AgentResultCacheEntry() {}
+    
+    public AgentResultCacheEntry(@NonNull String cacheKey, String agentName, String molecule,
+                                 String resultData, long createdAt, long expiresAt) {
+        this.cacheKey = cacheKey;
+        this.agentName = agentName;
+        this.molecule = molecule;
+        this.resultData = resultData;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    @NonNull
+    public String getCacheKey() {
+        return cacheKey;
+    }
+    
+    public void setCacheKey(@NonNull String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+    
+    public String getAgentName() {
+        return agentName;
+    }
+    
+    public void setAgentName(String agentName) {
+        this.agentName = agentName;
+    }
+    
+    public String getMolecule() {
+        return molecule;
+    }
+    
+    public void setMolecule(String molecule) {
+        this.molecule = molecule;
+    }
+    
+    public String getResultData() {
+        return resultData;
+    }
+    
+    public void setResultData(String resultData) {
+        this.resultData = resultData;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,159 @@
+package com.mit.bodhiq.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity representing one lab value measured in a saved report.
+ * Rows form a time series per user and canonical parameter (the LabTest
+ * constant name), so trend queries read one index range instead of loading
+ * and re-parsing every report. The value is stored in the parameter's
+ * canonical unit so values from different labs compare directly; the value
+ * and unit as printed are kept next to it.
+ */
+@Entity(
+    tableName = "lab_values",
+    indices = {
+        @Index(value = {"user_id", "parameter", "measured_at"}),
+        @Index(value = {"report_id", "parameter"}, unique = true)
+    }
+)
+public class LabValuePoint {
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    private String userId = "";
+
+    @NonNull
+    @ColumnInfo(name = "parameter")
+    private String parameter = ""; // LabTest constant name, e.g. HEMOGLOBIN
+
+    @NonNull
+    @ColumnInfo(name = "report_id")
+    private String reportId = "";
+
+    @ColumnInfo(name = "measured_at")
+    private long measuredAt;
+
+    @ColumnInfo(name = "value")
+    private double value; // in the canonical unit
+
+    @ColumnInfo(name = "unit")
+    private String unit; // canonical unit
+
+    @ColumnInfo(name = "original_value")
+    private String originalValue;
+
+    @ColumnInfo(name = "original_unit")
+    private String originalUnit;
+
+    @ColumnInfo(name = "flag")
+    private String flag; // HIGH, LOW, NORMAL, UNKNOWN
+
+    // Constructors
+    public LabValuePoint() {}
+
+    public LabValuePoint(@NonNull String userId, @NonNull String parameter, @NonNull String reportId,
+                         long measuredAt, double value, String unit, String originalValue,
+                         String originalUnit, String flag) {
+        this.userId = userId;
+        this.parameter = parameter;
+        this.reportId = reportId;
+        this.measuredAt = measuredAt;
+        this.value = value;
+        this.unit = unit;
+        this.originalValue = originalValue;
+        this.originalUnit = originalUnit;
+        this.flag = flag;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+
+    @NonNull
+    public String getParameter() {
+        return parameter;
+    }
+
+    public void setParameter(@NonNull String parameter) {
+        this.parameter = parameter;
+    }
+
+    @NonNull
+    public String getReportId() {
+        return reportId;
+    }
+
+    public void setReportId(@NonNull String reportId) {
+        this.reportId = reportId;
+    }
+
+    public long getMeasuredAt() {
+        return measuredAt;
+    }
+
+    public void setMeasuredAt(long measuredAt) {
+        this.measuredAt = measuredAt;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public String getOriginalValue() {
+        return originalValue;
+    }
+
+    public void setOriginalValue(String originalValue) {
+        this.originalValue = originalValue;
+    }
+
+    public String getOriginalUnit() {
+        return originalUnit;
+    }
+
+    public void setOriginalUnit(String originalUnit) {
+        this.originalUnit = originalUnit;
+    }
+
+    public String getFlag() {
+        return flag;
+    }
+
+    public void setFlag(String flag) {
+        this.flag = flag;
+    }
+}
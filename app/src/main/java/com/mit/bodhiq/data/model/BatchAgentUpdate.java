@@ -0,0 +1,38 @@
+package com.mit.bodhiq.data.model;
+
+/**
+ * POJO wrapping an AgentUpdate with the query and molecule it belongs to,
+ * so updates from several pipelines can share one merged progress stream
+ */
+public class BatchAgentUpdate {
+    private final long queryId;
+    private final String molecule;
+    private final AgentUpdate update;
+
+    public BatchAgentUpdate(long queryId, String molecule, AgentUpdate update) {
+        this.queryId = queryId;
+        this.molecule = molecule;
+        this.update = update;
+    }
+
+    public long getQueryId() {
+        return queryId;
+    }
+
+    public String getMolecule() {
+        return molecule;
+    }
+
+    public AgentUpdate getUpdate() {
+        return update;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchAgentUpdate{" +
+                "queryId=" + queryId +
+                ", molecule='" + molecule + '\'' +
+                ", update=" + update +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.mit.bodhiq.data.model;
 
+import java.util.Locale;
+
 /**
  * Data model for parsed health values from medical reports
  */
@@ -34,4 +36,18 @@ public class HealthValue {
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    /**
+     * Convert to a MedicalParameter for rule-based analysis
+     */
+    public MedicalParameter toMedicalParameter() {
+        MedicalParameter medicalParameter = new MedicalParameter(
+            parameter,
+            value,
+            unit,
+            status != null ? status.toUpperCase(Locale.ROOT) : null
+        );
+        medicalParameter.setReferenceRange(normalRange);
+        return medicalParameter;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.mit.bodhiq.data.model;
+
+import com.mit.bodhiq.data.database.entity.LabValuePoint;
+
+import java.util.List;
+
+/**
+ * Time series of one lab parameter, stored column-wise so charts and trend
+ * statistics run over primitive arrays. Points are ordered oldest first.
+ */
+public class LabValueSeries {
+    private final String parameter;
+    private final String unit;
+    private final long[] timestamps;
+    private final double[] values;
+
+    public LabValueSeries(String parameter, String unit, long[] timestamps, double[] values) {
+        this.parameter = parameter;
+        this.unit = unit;
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    /**
+     * Build a series from stored points.
+     *
+     * @param parameter Canonical parameter name
+     * @param points Points ordered oldest first
+     */
+    public static LabValueSeries of(String parameter, List<LabValuePoint> points) {
+        long[] timestamps = new long[points.size()];
+        double[] values = new double[points.size()];
+        String unit = null;
+        for (int i = 0; i < points.size(); i++) {
+            LabValuePoint point = points.get(i);
+            timestamps[i] = point.getMeasuredAt();
+            values[i] = point.getValue();
+            if (point.getUnit() != null && !point.getUnit().isEmpty()) {
+                unit = point.getUnit();
+            }
+        }
+        return new LabValueSeries(parameter, unit, timestamps, values);
+    }
+
+    public String getParameter() { return parameter; }
+
+    public String getUnit() { return unit; }
+
+    public int size() { return values.length; }
+
+    public boolean isEmpty() { return values.length == 0; }
+
+    public long getTimestamp(int index) { return timestamps[index]; }
+
+    public double getValue(int index) { return values[index]; }
+
+    public long[] getTimestamps() { return timestamps; }
+
+    public double[] getValues() { return values; }
+
+    public double getLatest() {
+        return values.length > 0 ? values[values.length - 1] : Double.NaN;
+    }
+
+    public double getMin() {
+        double min = Double.NaN;
+        for (double value : values) {
+            if (Double.isNaN(min) || value < min) min = value;
+        }
+        return min;
+    }
+
+    public double getMax() {
+        double max = Double.NaN;
+        for (double value : values) {
+            if (Double.isNaN(max) || value > max) max = value;
+        }
+        return max;
+    }
+
+    public double getAverage() {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * @return Latest value minus the one before it, or NaN with fewer than two values
+     */
+    public double getDelta() {
+        return values.length < 2 ? Double.NaN : values[values.length - 1] - values[values.length - 2];
+    }
+
+    /**
+     * @return Latest value minus the first one, or NaN with fewer than two values
+     */
+    public double getTotalChange() {
+        return values.length < 2 ? Double.NaN : values[values.length - 1] - values[0];
+    }
+
+    /**
+     * Trailing moving average, computed in one pass with a running sum.
+     *
+     * @param window Number of values averaged; the first window-1 entries average what is available
+     * @return One average per value
+     */
+    public double[] getMovingAverage(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        double[] averages = new double[values.length];
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            if (i >= window) {
+                sum -= values[i - window];
+            }
+            averages[i] = sum / Math.min(i + 1, window);
+        }
+        return averages;
+    }
+
+    /**
+     * Restrict the series to a time range, found by binary search.
+     *
+     * @param from Start in milliseconds, inclusive
+     * @param to End in milliseconds, inclusive
+     */
+    public LabValueSeries slice(long from, long to) {
+        int start = from == Long.MIN_VALUE ? 0 : firstAfter(from - 1);
+        int end = Math.max(start, firstAfter(to));
+        long[] slicedTimestamps = new long[end - start];
+        double[] slicedValues = new double[end - start];
+        System.arraycopy(timestamps, start, slicedTimestamps, 0, end - start);
+        System.arraycopy(values, start, slicedValues, 0, end - start);
+        return new LabValueSeries(parameter, unit, slicedTimestamps, slicedValues);
+    }
+
+    // First index whose timestamp is after time
+    private int firstAfter(long time) {
+        int low = 0;
+        int high = timestamps.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
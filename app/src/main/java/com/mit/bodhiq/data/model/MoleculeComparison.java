@@ -0,0 +1,95 @@
+package com.mit.bodhiq.data.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * POJO representing a side-by-side comparison of several molecules,
+ * built from the agent results of a batch of queries
+ */
+public class MoleculeComparison {
+    private final List<Entry> entries;
+
+    public MoleculeComparison(List<Entry> entries) {
+        this.entries = new ArrayList<>(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the molecule with the largest 2024 market, or null if no market data is available.
+     */
+    public Entry getLargestMarket() {
+        Entry largest = null;
+        for (Entry entry : entries) {
+            if (entry.hasMarketData() && (largest == null || entry.getMarketSize2024() > largest.getMarketSize2024())) {
+                largest = entry;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Get the molecule with the highest CAGR, or null if no market data is available.
+     */
+    public Entry getFastestGrowing() {
+        Entry fastest = null;
+        for (Entry entry : entries) {
+            if (entry.hasMarketData() && (fastest == null || entry.getCagr() > fastest.getCagr())) {
+                fastest = entry;
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * Comparison row for a single molecule
+     */
+    public static class Entry {
+        private final long queryId;
+        private final String molecule;
+        private final int completedAgents;
+        private final int failedAgents;
+        private final MarketData marketData; // nullable - missing if Market Insights failed
+        private final int patentCount;
+        private final int clinicalTrialCount;
+
+        public Entry(long queryId, String molecule, int completedAgents, int failedAgents,
+                     MarketData marketData, int patentCount, int clinicalTrialCount) {
+            this.queryId = queryId;
+            this.molecule = molecule;
+            this.completedAgents = completedAgents;
+            this.failedAgents = failedAgents;
+            this.marketData = marketData;
+            this.patentCount = patentCount;
+            this.clinicalTrialCount = clinicalTrialCount;
+        }
+
+        public long getQueryId() { return queryId; }
+        public String getMolecule() { return molecule; }
+        public int getCompletedAgents() { return completedAgents; }
+        public int getFailedAgents() { return failedAgents; }
+        public MarketData getMarketData() { return marketData; }
+        public int getPatentCount() { return patentCount; }
+        public int getClinicalTrialCount() { return clinicalTrialCount; }
+
+        public boolean hasMarketData() {
+            return marketData != null;
+        }
+
+        public long getMarketSize2024() {
+            return marketData != null ? marketData.getMarketSize2024() : 0;
+        }
+
+        public double getCagr() {
+            return marketData != null ? marketData.getCagr() : 0.0;
+        }
+
+        public int getCompetitorCount() {
+            return marketData != null && marketData.getCompetitors() != null
+                    ? marketData.getCompetitors().size() : 0;
+        }
+    }
+}
@@ -27,6 +27,8 @@ public class ParsedField {
     private String value;
     private String unit;
     private String referenceRange;
+    private Double canonicalValue; // value converted to the test's canonical unit, null if not convertible
+    private String canonicalUnit;
     private Flag flag;
     private float confidence;
     private String notes;
@@ -61,6 +63,12 @@ public class ParsedField {
     public String getUnit() { return unit; }
     public void setUnit(String unit) { this.unit = unit; }
     
+    public Double getCanonicalValue() { return canonicalValue; }
+    public void setCanonicalValue(Double canonicalValue) { this.canonicalValue = canonicalValue; }
+    
+    public String getCanonicalUnit() { return canonicalUnit; }
+    public void setCanonicalUnit(String canonicalUnit) { this.canonicalUnit = canonicalUnit; }
+    
     public String getReferenceRange() { return referenceRange; }
     public void setReferenceRange(String referenceRange) { this.referenceRange = referenceRange; }
     
@@ -0,0 +1,39 @@
+package com.mit.bodhiq.data.model;
+
+import java.util.List;
+
+/**
+ * POJO holding the rule-based analysis of one report from a batch run
+ */
+public class ReportAnalysis {
+    private final MedicalReport report;
+    private final List<MedicalInsight> insights;
+    private final ChatMessage.Severity severity;
+
+    public ReportAnalysis(MedicalReport report, List<MedicalInsight> insights, ChatMessage.Severity severity) {
+        this.report = report;
+        this.insights = insights;
+        this.severity = severity;
+    }
+
+    public MedicalReport getReport() {
+        return report;
+    }
+
+    public List<MedicalInsight> getInsights() {
+        return insights;
+    }
+
+    public ChatMessage.Severity getSeverity() {
+        return severity;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportAnalysis{" +
+                "reportId='" + (report != null ? report.getId() : null) + '\'' +
+                ", insights=" + insights.size() +
+                ", severity=" + severity +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+package com.mit.bodhiq.data.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aggregate of a batch analysis over a user's report history: how many insights
+ * fell into each risk level and which parameters were most often abnormal
+ */
+public class ReportHistorySummary {
+    public static final int TOP_ABNORMAL_LIMIT = 5;
+
+    private final int reportCount;
+    private final Map<MedicalInsight.RiskLevel, Integer> insightCountsByRiskLevel;
+    private final Map<String, Integer> mostFrequentAbnormalParameters;
+
+    public ReportHistorySummary(int reportCount, Map<MedicalInsight.RiskLevel, Integer> insightCountsByRiskLevel,
+                                Map<String, Integer> mostFrequentAbnormalParameters) {
+        this.reportCount = reportCount;
+        this.insightCountsByRiskLevel = Collections.unmodifiableMap(insightCountsByRiskLevel);
+        this.mostFrequentAbnormalParameters = Collections.unmodifiableMap(mostFrequentAbnormalParameters);
+    }
+
+    /**
+     * Build the summary of a set of report analyses.
+     *
+     * @param analyses Analyses in any order
+     * @return Summary with risk level counts and the most frequent abnormal parameters
+     */
+    public static ReportHistorySummary of(List<ReportAnalysis> analyses) {
+        Map<MedicalInsight.RiskLevel, Integer> riskCounts = new EnumMap<>(MedicalInsight.RiskLevel.class);
+        for (MedicalInsight.RiskLevel level : MedicalInsight.RiskLevel.values()) {
+            riskCounts.put(level, 0);
+        }
+        // Parameter names are counted case-insensitively but shown as first seen
+        Map<String, String> displayNames = new HashMap<>();
+        Map<String, Integer> abnormalCounts = new HashMap<>();
+
+        for (ReportAnalysis analysis : analyses) {
+            for (MedicalInsight insight : analysis.getInsights()) {
+                if (insight.getRiskLevel() != null) {
+                    riskCounts.merge(insight.getRiskLevel(), 1, Integer::sum);
+                }
+            }
+            List<MedicalParameter> parameters = analysis.getReport().getParameters();
+            if (parameters == null) {
+                continue;
+            }
+            for (MedicalParameter param : parameters) {
+                if (param.getParameter() != null
+                        && ("HIGH".equals(param.getStatus()) || "LOW".equals(param.getStatus()))) {
+                    String key = param.getParameter().trim().toLowerCase(Locale.ROOT);
+                    displayNames.putIfAbsent(key, param.getParameter().trim());
+                    abnormalCounts.merge(key, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(abnormalCounts.entrySet());
+        ranked.sort((a, b) -> b.getValue().equals(a.getValue())
+                ? a.getKey().compareTo(b.getKey())
+                : Integer.compare(b.getValue(), a.getValue()));
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(TOP_ABNORMAL_LIMIT, ranked.size()); i++) {
+            Map.Entry<String, Integer> entry = ranked.get(i);
+            top.put(displayNames.get(entry.getKey()), entry.getValue());
+        }
+
+        return new ReportHistorySummary(analyses.size(), riskCounts, top);
+    }
+
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    public Map<MedicalInsight.RiskLevel, Integer> getInsightCountsByRiskLevel() {
+        return insightCountsByRiskLevel;
+    }
+
+    public int getInsightCount(MedicalInsight.RiskLevel riskLevel) {
+        Integer count = insightCountsByRiskLevel.get(riskLevel);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @return Parameter name to number of abnormal readings, most frequent first
+     */
+    public Map<String, Integer> getMostFrequentAbnormalParameters() {
+        return mostFrequentAbnormalParameters;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportHistorySummary{" +
+                "reportCount=" + reportCount +
+                ", insightCountsByRiskLevel=" + insightCountsByRiskLevel +
+                ", mostFrequentAbnormalParameters=" + mostFrequentAbnormalParameters +
+                '}';
+    }
+}
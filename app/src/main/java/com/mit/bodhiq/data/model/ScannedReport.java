@@ -1,5 +1,6 @@
 package com.mit.bodhiq.data.model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +55,23 @@ public class ScannedReport {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    /**
+     * Convert to a MedicalReport whose parameters are this report's health values
+     */
+    public MedicalReport toMedicalReport() {
+        MedicalReport report = new MedicalReport(userId, imageUrl, extractedText);
+        report.setId(id);
+        report.setCreatedAt(timestamp);
+        List<MedicalParameter> parameters = new ArrayList<>();
+        if (healthValues != null) {
+            for (HealthValue value : healthValues) {
+                parameters.add(value.toMedicalParameter());
+            }
+        }
+        report.setParameters(parameters);
+        return report;
+    }
+
     /**
      * Convert to Map for Firestore
      */
@@ -1,24 +1,22 @@
 package com.mit.bodhiq.data.provider;
 
 import com.mit.bodhiq.data.model.*;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Singleton class providing comprehensive mock pharmaceutical data for 5 molecules:
- * Montelukast, Humira, Metformin, GLP-1 Agonists, and Eliquis
+ * Montelukast, Humira, Metformin, GLP-1 Agonists, and Eliquis.
+ * Data is served from a PharmaKnowledgeStore, so each molecule's records are only
+ * built when an agent first asks for them.
  */
 public class MockDataProvider {
     
-    private static MockDataProvider instance;
-    private final Map<String, MarketData> marketDataMap;
-    private final Map<String, List<PatentInfo>> patentDataMap;
-    private final Map<String, List<ClinicalTrial>> clinicalTrialDataMap;
-    private final Map<String, List<EximTrade>> eximTradeDataMap;
-    private final Map<String, List<Publication>> publicationDataMap;
+    private final PharmaKnowledgeStore store;
     
     // Supported molecules
     public static final String MONTELUKAST = "Montelukast";
@@ -28,57 +26,80 @@ public class MockDataProvider {
     public static final String ELIQUIS = "Eliquis";
     
     private MockDataProvider() {
-        marketDataMap = new HashMap<>();
-        patentDataMap = new HashMap<>();
-        clinicalTrialDataMap = new HashMap<>();
-        eximTradeDataMap = new HashMap<>();
-        publicationDataMap = new HashMap<>();
-        
-        initializeAllData();
+        Map<String, Supplier<MoleculeRecord>> loaders = new LinkedHashMap<>();
+        loaders.put(MONTELUKAST, MockDataProvider::loadMontelukast);
+        loaders.put(HUMIRA, MockDataProvider::loadHumira);
+        loaders.put(METFORMIN, MockDataProvider::loadMetformin);
+        loaders.put(GLP1, MockDataProvider::loadGlp1);
+        loaders.put(ELIQUIS, MockDataProvider::loadEliquis);
+        store = new PharmaKnowledgeStore(loaders);
     }
     
-    public static synchronized MockDataProvider getInstance() {
-        if (instance == null) {
-            instance = new MockDataProvider();
-        }
-        return instance;
+    // Initialization-on-demand holder: lazy and thread-safe without locking on every call
+    private static class Holder {
+        static final MockDataProvider INSTANCE = new MockDataProvider();
     }
     
-    private void initializeAllData() {
-        initializeMarketData();
-        initializePatentData();
-        initializeClinicalTrialData();
-        initializeEximTradeData();
-        initializePublicationData();
+    public static MockDataProvider getInstance() {
+        return Holder.INSTANCE;
     }
     
     // Public methods to retrieve data by molecule
     public MarketData getMarketData(String molecule) {
-        return marketDataMap.get(molecule);
+        MoleculeRecord record = store.getRecord(molecule);
+        return record != null ? record.getMarketData() : null;
     }
     
     public List<PatentInfo> getPatentData(String molecule) {
-        return patentDataMap.getOrDefault(molecule, new ArrayList<>());
+        MoleculeRecord record = store.getRecord(molecule);
+        return record != null ? record.getPatents() : Collections.emptyList();
     }
     
     public List<ClinicalTrial> getClinicalTrialData(String molecule) {
-        return clinicalTrialDataMap.getOrDefault(molecule, new ArrayList<>());
+        MoleculeRecord record = store.getRecord(molecule);
+        return record != null ? record.getClinicalTrials() : Collections.emptyList();
     }
     
     public List<EximTrade> getEximTradeData(String molecule) {
-        return eximTradeDataMap.getOrDefault(molecule, new ArrayList<>());
+        MoleculeRecord record = store.getRecord(molecule);
+        return record != null ? record.getEximTrades() : Collections.emptyList();
     }
     
     public List<Publication> getPublicationData(String molecule) {
-        return publicationDataMap.getOrDefault(molecule, new ArrayList<>());
+        MoleculeRecord record = store.getRecord(molecule);
+        return record != null ? record.getPublications() : Collections.emptyList();
     }
     
     public List<String> getSupportedMolecules() {
         return Arrays.asList(MONTELUKAST, HUMIRA, METFORMIN, GLP1, ELIQUIS);
     }
     
-    private void initializeMarketData() {
-        // Montelukast Market Data
+    /**
+     * Find molecules related to an indication, e.g. "Asthma".
+     */
+    public List<String> findMoleculesByIndication(String indication) {
+        return store.findMoleculesByIndication(indication);
+    }
+    
+    /**
+     * Find molecules for which a company or product competes, e.g. "Teva Pharmaceuticals".
+     */
+    public List<String> findMoleculesByCompetitor(String competitor) {
+        return store.findMoleculesByCompetitor(competitor);
+    }
+    
+    /**
+     * Content hash of all data held for a molecule. Changes whenever any of the
+     * molecule's market, patent, trial, trade or publication records change, so
+     * it can be used to key caches of results derived from this data.
+     */
+    public String getDataSnapshotHash(String molecule) {
+        MoleculeRecord record = store.getRecord(molecule);
+        return (record != null ? record : MoleculeRecord.empty(molecule)).getSnapshotHash();
+    }
+    
+    private static MoleculeRecord loadMontelukast() {
+        // Market data
         List<Competitor> montelukastCompetitors = Arrays.asList(
             new Competitor("Merck & Co.", "Singulair", 35.2, "Global", "1998", "Asthma", "First-mover advantage"),
             new Competitor("Teva Pharmaceuticals", "Generic Montelukast", 28.5, "Global", "2012", "Asthma", "Cost advantage"),
@@ -96,31 +117,8 @@ public class MockDataProvider {
             "Steady growth expected with emerging market expansion",
             3650.0
         );
-        marketDataMap.put(MONTELUKAST, montelukastMarket);
-        
-        // Humira Market Data
-        List<Competitor> humiraCompetitors = Arrays.asList(
-            new Competitor("AbbVie", "Humira", 45.8, "Global", "2002", "Rheumatoid Arthritis", "Market leader"),
-            new Competitor("Amgen", "Enbrel", 18.2, "US/EU", "1998", "Rheumatoid Arthritis", "Early entry"),
-            new Competitor("Johnson & Johnson", "Remicade", 15.7, "Global", "1998", "Rheumatoid Arthritis", "Hospital focus"),
-            new Competitor("Novartis", "Cosentyx", 8.9, "Global", "2015", "Psoriasis", "IL-17 targeting")
-        );
         
-        MarketData humiraMarket = new MarketData(
-            HUMIRA, 18500, 6.8, "Global",
-            Arrays.asList("Rheumatoid Arthritis", "Crohn's Disease", "Psoriasis", "Ankylosing Spondylitis"),
-            Arrays.asList("Hidradenitis Suppurativa", "Uveitis", "Pediatric Crohn's"),
-            humiraCompetitors,
-            Arrays.asList("Aging population", "Improved diagnosis", "Expanding indications"),
-            Arrays.asList("Biosimilar competition", "High cost", "Safety concerns"),
-            "Strong growth despite biosimilar entry, driven by new indications",
-            28750.0
-        );
-        marketDataMap.put(HUMIRA, humiraMarket);
-    }
-    
-    private void initializePatentData() {
-        // Montelukast Patents
+        // Patents
         List<PatentInfo> montelukastPatents = Arrays.asList(
             new PatentInfo("US5565473", "Leukotriene antagonists", "Merck & Co.", "1994-06-15", 
                           "1996-10-15", "2014-06-15", "Expired", "US", MONTELUKAST, "Asthma", 
@@ -132,25 +130,8 @@ public class MockDataProvider {
                           "2001-07-31", "2019-03-12", "Expired", "US", MONTELUKAST, "Asthma", 
                           "Formulation", "Medium", "James Coe, et al.")
         );
-        patentDataMap.put(MONTELUKAST, montelukastPatents);
         
-        // Humira Patents
-        List<PatentInfo> humiraPatents = Arrays.asList(
-            new PatentInfo("US6090382", "Human antibodies that bind human TNFα", "Abbott Laboratories", 
-                          "1999-07-09", "2000-07-18", "2018-12-31", "Expired", "US", HUMIRA, 
-                          "Rheumatoid Arthritis", "Composition", "High", "Robert Ladner, et al."),
-            new PatentInfo("EP1212422", "Human antibodies that bind human TNF alpha", "Abbott Laboratories", 
-                          "1999-07-09", "2002-06-12", "2019-07-09", "Expired", "EU", HUMIRA, 
-                          "Rheumatoid Arthritis", "Composition", "High", "Robert Ladner, et al."),
-            new PatentInfo("US8916158", "Methods for treating psoriasis using adalimumab", "AbbVie Inc.", 
-                          "2012-05-04", "2014-12-23", "2032-05-04", "Active", "US", HUMIRA, 
-                          "Psoriasis", "Method", "High", "Roopal Thakkar, et al.")
-        );
-        patentDataMap.put(HUMIRA, humiraPatents);
-    }  
-  
-    private void initializeClinicalTrialData() {
-        // Montelukast Clinical Trials
+        // Clinical trials
         List<ClinicalTrial> montelukastTrials = Arrays.asList(
             new ClinicalTrial("NCT00000001", "Montelukast in Pediatric Asthma", "Phase III", "Completed", 
                              "Merck & Co.", MONTELUKAST, "Pediatric Asthma", 689, "2018-01-15", 
@@ -165,67 +146,8 @@ public class MockDataProvider {
                              "Adverse events incidence", "Liver function, growth in children", 
                              "Observational", "Non-Randomized", "Open Label", "Global")
         );
-        clinicalTrialDataMap.put(MONTELUKAST, montelukastTrials);
-        
-        // Humira Clinical Trials
-        List<ClinicalTrial> humiraTrials = Arrays.asList(
-            new ClinicalTrial("NCT00000004", "Adalimumab in Moderate to Severe Rheumatoid Arthritis", "Phase III", 
-                             "Completed", "AbbVie", HUMIRA, "Rheumatoid Arthritis", 799, "2017-09-12", 
-                             "2020-03-28", "ACR20 response at week 24", "ACR50, ACR70, radiographic progression", 
-                             "Interventional", "Randomized", "Double Blind", "US, EU, Japan"),
-            new ClinicalTrial("NCT00000005", "Humira in Pediatric Crohn's Disease", "Phase III", "Completed", 
-                             "AbbVie", HUMIRA, "Pediatric Crohn's Disease", 192, "2018-11-05", "2021-09-20", 
-                             "Clinical remission at week 26", "Mucosal healing, growth velocity", 
-                             "Interventional", "Randomized", "Open Label", "US, Canada, EU"),
-            new ClinicalTrial("NCT00000006", "Adalimumab Biosimilar Equivalence Study", "Phase III", "Recruiting", 
-                             "Sandoz", HUMIRA, "Rheumatoid Arthritis", 600, "2023-02-15", "2025-12-31", 
-                             "Pharmacokinetic equivalence", "Safety, immunogenicity", "Interventional", 
-                             "Randomized", "Double Blind", "EU, Australia")
-        );
-        clinicalTrialDataMap.put(HUMIRA, humiraTrials);
-        
-        // Metformin Clinical Trials
-        List<ClinicalTrial> metforminTrials = Arrays.asList(
-            new ClinicalTrial("NCT00000007", "Metformin in Prediabetes Prevention", "Phase III", "Completed", 
-                             "NIH/NIDDK", METFORMIN, "Prediabetes", 3234, "2016-01-10", "2019-12-15", 
-                             "Progression to Type 2 diabetes", "Weight loss, cardiovascular events", 
-                             "Interventional", "Randomized", "Double Blind", "US"),
-            new ClinicalTrial("NCT00000008", "Extended Release Metformin vs Standard", "Phase II", "Completed", 
-                             "Teva Pharmaceuticals", METFORMIN, "Type 2 Diabetes", 456, "2020-05-20", 
-                             "2022-11-30", "HbA1c reduction", "Gastrointestinal tolerability", 
-                             "Interventional", "Randomized", "Open Label", "US, Canada")
-        );
-        clinicalTrialDataMap.put(METFORMIN, metforminTrials);
-        
-        // GLP-1 Clinical Trials
-        List<ClinicalTrial> glp1Trials = Arrays.asList(
-            new ClinicalTrial("NCT00000009", "Semaglutide in Obesity Management", "Phase III", "Completed", 
-                             "Novo Nordisk", GLP1, "Obesity", 1961, "2019-08-12", "2022-06-30", 
-                             "Weight reduction ≥15%", "Cardiovascular outcomes, quality of life", 
-                             "Interventional", "Randomized", "Double Blind", "Global"),
-            new ClinicalTrial("NCT00000010", "Dulaglutide Cardiovascular Outcomes", "Phase III", "Completed", 
-                             "Eli Lilly", GLP1, "Type 2 Diabetes", 9901, "2018-03-01", "2021-11-15", 
-                             "Major cardiovascular events", "All-cause mortality, hospitalization", 
-                             "Interventional", "Randomized", "Double Blind", "Global")
-        );
-        clinicalTrialDataMap.put(GLP1, glp1Trials);
         
-        // Eliquis Clinical Trials
-        List<ClinicalTrial> eliquiTrials = Arrays.asList(
-            new ClinicalTrial("NCT00000011", "Apixaban vs Warfarin in Atrial Fibrillation", "Phase III", "Completed", 
-                             "Bristol Myers Squibb", ELIQUIS, "Atrial Fibrillation", 18201, "2017-02-28", 
-                             "2020-08-31", "Stroke and systemic embolism", "Major bleeding, all-cause mortality", 
-                             "Interventional", "Randomized", "Double Blind", "Global"),
-            new ClinicalTrial("NCT00000012", "Eliquis in Cancer-Associated Thrombosis", "Phase II", "Active, not recruiting", 
-                             "Pfizer", ELIQUIS, "Cancer-Associated VTE", 576, "2022-01-15", "2024-12-31", 
-                             "Recurrent VTE at 6 months", "Major bleeding, survival", "Interventional", 
-                             "Randomized", "Open Label", "US, EU, Canada")
-        );
-        clinicalTrialDataMap.put(ELIQUIS, eliquiTrials);
-    }
-    
-    private void initializeEximTradeData() {
-        // Montelukast Trade Data
+        // Trade data
         List<EximTrade> montelukastTrade = Arrays.asList(
             new EximTrade(MONTELUKAST, "India", "Export", 125000.0, 15600000.0, "2024", "March", 
                          "2934.99", "Montelukast Sodium API", "United States", 124.8, 28.5, "+12.3%"),
@@ -236,63 +158,8 @@ public class MockDataProvider {
             new EximTrade(MONTELUKAST, "Brazil", "Import", 32000.0, 4160000.0, "2024", "February", 
                          "2934.99", "Montelukast Tablets", "India", 130.0, 11.8, "+22.1%")
         );
-        eximTradeDataMap.put(MONTELUKAST, montelukastTrade);
         
-        // Humira Trade Data
-        List<EximTrade> humiraTrade = Arrays.asList(
-            new EximTrade(HUMIRA, "Ireland", "Export", 2500.0, 890000000.0, "2024", "March", 
-                         "3002.90", "Adalimumab Injection", "United States", 356000.0, 45.2, "+6.8%"),
-            new EximTrade(HUMIRA, "Germany", "Export", 1800.0, 625000000.0, "2024", "March", 
-                         "3002.90", "Adalimumab Biosimilar", "United Kingdom", 347222.0, 31.7, "+18.9%"),
-            new EximTrade(HUMIRA, "United States", "Import", 1200.0, 420000000.0, "2024", "February", 
-                         "3002.90", "Adalimumab", "Ireland", 350000.0, 21.3, "-2.1%"),
-            new EximTrade(HUMIRA, "Japan", "Import", 890.0, 298000000.0, "2024", "March", 
-                         "3002.90", "Humira Injection", "Ireland", 334831.0, 15.1, "+4.2%")
-        );
-        eximTradeDataMap.put(HUMIRA, humiraTrade);
-        
-        // Metformin Trade Data
-        List<EximTrade> metforminTrade = Arrays.asList(
-            new EximTrade(METFORMIN, "India", "Export", 2800000.0, 168000000.0, "2024", "March", 
-                         "2942.00", "Metformin HCl API", "United States", 60.0, 35.8, "+9.2%"),
-            new EximTrade(METFORMIN, "China", "Export", 2100000.0, 115500000.0, "2024", "March", 
-                         "2942.00", "Metformin HCl", "Brazil", 55.0, 24.7, "+11.5%"),
-            new EximTrade(METFORMIN, "United States", "Import", 1500000.0, 93000000.0, "2024", "February", 
-                         "2942.00", "Metformin API", "India", 62.0, 19.9, "+7.8%"),
-            new EximTrade(METFORMIN, "Germany", "Import", 890000.0, 53400000.0, "2024", "March", 
-                         "2942.00", "Metformin Tablets", "India", 60.0, 11.4, "+13.2%")
-        );
-        eximTradeDataMap.put(METFORMIN, metforminTrade);
-        
-        // GLP-1 Trade Data
-        List<EximTrade> glp1Trade = Arrays.asList(
-            new EximTrade(GLP1, "Denmark", "Export", 450.0, 2250000000.0, "2024", "March", 
-                         "3001.90", "Semaglutide Injection", "United States", 5000000.0, 52.3, "+28.7%"),
-            new EximTrade(GLP1, "United States", "Export", 320.0, 1440000000.0, "2024", "March", 
-                         "3001.90", "Liraglutide", "Germany", 4500000.0, 33.5, "+19.4%"),
-            new EximTrade(GLP1, "Germany", "Import", 180.0, 810000000.0, "2024", "February", 
-                         "3001.90", "GLP-1 Agonist", "Denmark", 4500000.0, 18.8, "+31.2%"),
-            new EximTrade(GLP1, "Japan", "Import", 125.0, 562500000.0, "2024", "March", 
-                         "3001.90", "Dulaglutide", "United States", 4500000.0, 13.1, "+25.6%")
-        );
-        eximTradeDataMap.put(GLP1, glp1Trade);
-        
-        // Eliquis Trade Data
-        List<EximTrade> eliquisTrade = Arrays.asList(
-            new EximTrade(ELIQUIS, "Ireland", "Export", 1200.0, 720000000.0, "2024", "March", 
-                         "3004.90", "Apixaban Tablets", "United States", 600000.0, 41.2, "+14.8%"),
-            new EximTrade(ELIQUIS, "Germany", "Export", 890.0, 498200000.0, "2024", "March", 
-                         "3004.90", "Apixaban API", "Japan", 559775.0, 28.5, "+8.9%"),
-            new EximTrade(ELIQUIS, "United States", "Import", 650.0, 390000000.0, "2024", "February", 
-                         "3004.90", "Eliquis Tablets", "Ireland", 600000.0, 22.3, "+12.1%"),
-            new EximTrade(ELIQUIS, "Canada", "Import", 340.0, 204000000.0, "2024", "March", 
-                         "3004.90", "Apixaban", "Ireland", 600000.0, 11.7, "+16.7%")
-        );
-        eximTradeDataMap.put(ELIQUIS, eliquisTrade);
-    }    
-
-    private void initializePublicationData() {
-        // Montelukast Publications
+        // Publications
         List<Publication> montelukastPubs = Arrays.asList(
             new Publication("Efficacy and safety of montelukast in pediatric asthma: a systematic review", 
                            "Smith J, Johnson A, Brown K", "Pediatric Pulmonology", "2023-08-15", 
@@ -313,9 +180,72 @@ public class MockDataProvider {
                            MONTELUKAST, "Severe Asthma", "Preclinical", "resistance, leukotriene receptor, genetics", 
                            12, "4.1", "https://pubmed.ncbi.nlm.nih.gov/37698765/", "Medium")
         );
-        publicationDataMap.put(MONTELUKAST, montelukastPubs);
         
-        // Humira Publications
+        return new MoleculeRecord(MONTELUKAST, montelukastMarket, montelukastPatents, montelukastTrials, montelukastTrade, montelukastPubs);
+    }
+    
+    private static MoleculeRecord loadHumira() {
+        // Market data
+        List<Competitor> humiraCompetitors = Arrays.asList(
+            new Competitor("AbbVie", "Humira", 45.8, "Global", "2002", "Rheumatoid Arthritis", "Market leader"),
+            new Competitor("Amgen", "Enbrel", 18.2, "US/EU", "1998", "Rheumatoid Arthritis", "Early entry"),
+            new Competitor("Johnson & Johnson", "Remicade", 15.7, "Global", "1998", "Rheumatoid Arthritis", "Hospital focus"),
+            new Competitor("Novartis", "Cosentyx", 8.9, "Global", "2015", "Psoriasis", "IL-17 targeting")
+        );
+        
+        MarketData humiraMarket = new MarketData(
+            HUMIRA, 18500, 6.8, "Global",
+            Arrays.asList("Rheumatoid Arthritis", "Crohn's Disease", "Psoriasis", "Ankylosing Spondylitis"),
+            Arrays.asList("Hidradenitis Suppurativa", "Uveitis", "Pediatric Crohn's"),
+            humiraCompetitors,
+            Arrays.asList("Aging population", "Improved diagnosis", "Expanding indications"),
+            Arrays.asList("Biosimilar competition", "High cost", "Safety concerns"),
+            "Strong growth despite biosimilar entry, driven by new indications",
+            28750.0
+        );
+        
+        // Patents
+        List<PatentInfo> humiraPatents = Arrays.asList(
+            new PatentInfo("US6090382", "Human antibodies that bind human TNFα", "Abbott Laboratories", 
+                          "1999-07-09", "2000-07-18", "2018-12-31", "Expired", "US", HUMIRA, 
+                          "Rheumatoid Arthritis", "Composition", "High", "Robert Ladner, et al."),
+            new PatentInfo("EP1212422", "Human antibodies that bind human TNF alpha", "Abbott Laboratories", 
+                          "1999-07-09", "2002-06-12", "2019-07-09", "Expired", "EU", HUMIRA, 
+                          "Rheumatoid Arthritis", "Composition", "High", "Robert Ladner, et al."),
+            new PatentInfo("US8916158", "Methods for treating psoriasis using adalimumab", "AbbVie Inc.", 
+                          "2012-05-04", "2014-12-23", "2032-05-04", "Active", "US", HUMIRA, 
+                          "Psoriasis", "Method", "High", "Roopal Thakkar, et al.")
+        );
+        
+        // Clinical trials
+        List<ClinicalTrial> humiraTrials = Arrays.asList(
+            new ClinicalTrial("NCT00000004", "Adalimumab in Moderate to Severe Rheumatoid Arthritis", "Phase III", 
+                             "Completed", "AbbVie", HUMIRA, "Rheumatoid Arthritis", 799, "2017-09-12", 
+                             "2020-03-28", "ACR20 response at week 24", "ACR50, ACR70, radiographic progression", 
+                             "Interventional", "Randomized", "Double Blind", "US, EU, Japan"),
+            new ClinicalTrial("NCT00000005", "Humira in Pediatric Crohn's Disease", "Phase III", "Completed", 
+                             "AbbVie", HUMIRA, "Pediatric Crohn's Disease", 192, "2018-11-05", "2021-09-20", 
+                             "Clinical remission at week 26", "Mucosal healing, growth velocity", 
+                             "Interventional", "Randomized", "Open Label", "US, Canada, EU"),
+            new ClinicalTrial("NCT00000006", "Adalimumab Biosimilar Equivalence Study", "Phase III", "Recruiting", 
+                             "Sandoz", HUMIRA, "Rheumatoid Arthritis", 600, "2023-02-15", "2025-12-31", 
+                             "Pharmacokinetic equivalence", "Safety, immunogenicity", "Interventional", 
+                             "Randomized", "Double Blind", "EU, Australia")
+        );
+        
+        // Trade data
+        List<EximTrade> humiraTrade = Arrays.asList(
+            new EximTrade(HUMIRA, "Ireland", "Export", 2500.0, 890000000.0, "2024", "March", 
+                         "3002.90", "Adalimumab Injection", "United States", 356000.0, 45.2, "+6.8%"),
+            new EximTrade(HUMIRA, "Germany", "Export", 1800.0, 625000000.0, "2024", "March", 
+                         "3002.90", "Adalimumab Biosimilar", "United Kingdom", 347222.0, 31.7, "+18.9%"),
+            new EximTrade(HUMIRA, "United States", "Import", 1200.0, 420000000.0, "2024", "February", 
+                         "3002.90", "Adalimumab", "Ireland", 350000.0, 21.3, "-2.1%"),
+            new EximTrade(HUMIRA, "Japan", "Import", 890.0, 298000000.0, "2024", "March", 
+                         "3002.90", "Humira Injection", "Ireland", 334831.0, 15.1, "+4.2%")
+        );
+        
+        // Publications
         List<Publication> humiraPubs = Arrays.asList(
             new Publication("Real-world effectiveness of adalimumab in rheumatoid arthritis: 5-year follow-up", 
                            "Anderson K, Thompson L, White M", "Rheumatology", "2023-07-25", 
@@ -336,65 +266,12 @@ public class MockDataProvider {
                            HUMIRA, "Pediatric IBD", "Clinical", "pediatric, growth, inflammatory bowel disease", 
                            34, "3.9", "https://pubmed.ncbi.nlm.nih.gov/37567890/", "Medium")
         );
-        publicationDataMap.put(HUMIRA, humiraPubs);
-        
-        // Metformin Publications
-        List<Publication> metforminPubs = Arrays.asList(
-            new Publication("Metformin and cardiovascular outcomes in type 2 diabetes: updated meta-analysis", 
-                           "Johnson R, Williams T, Davis A", "Diabetes Care", "2023-09-12", 
-                           "10.2337/dc23-1234", "37712345", 
-                           "Updated meta-analysis of cardiovascular outcomes with metformin therapy in T2DM patients...", 
-                           METFORMIN, "Type 2 Diabetes", "Review", "metformin, cardiovascular, meta-analysis", 
-                           156, "17.8", "https://pubmed.ncbi.nlm.nih.gov/37712345/", "High"),
-            new Publication("Metformin mechanisms in cancer prevention: molecular insights", 
-                           "Brown S, Miller J, Wilson K", "Nature Reviews Drug Discovery", "2023-08-18", 
-                           "10.1038/s41573-023-00789-1", "37598765", 
-                           "Comprehensive review of metformin's anti-cancer mechanisms and clinical implications...", 
-                           METFORMIN, "Cancer Prevention", "Review", "metformin, cancer, AMPK, mechanisms", 
-                           203, "75.9", "https://pubmed.ncbi.nlm.nih.gov/37598765/", "High")
-        );
-        publicationDataMap.put(METFORMIN, metforminPubs);
-        
-        // GLP-1 Publications
-        List<Publication> glp1Pubs = Arrays.asList(
-            new Publication("Semaglutide for weight management: cardiovascular safety profile", 
-                           "Taylor M, Roberts P, Clark D", "New England Journal of Medicine", "2023-09-20", 
-                           "10.1056/NEJMoa2345678", "37823456", 
-                           "Comprehensive cardiovascular safety analysis of semaglutide in obesity management...", 
-                           GLP1, "Obesity", "Clinical", "semaglutide, cardiovascular safety, weight loss", 
-                           278, "176.1", "https://pubmed.ncbi.nlm.nih.gov/37823456/", "High"),
-            new Publication("GLP-1 receptor agonists in diabetic kidney disease: systematic review", 
-                           "Singh A, Patel R, Kumar V", "Kidney International", "2023-08-08", 
-                           "10.1016/j.kint.2023.07.012", "37534567", 
-                           "Systematic evaluation of GLP-1 agonists' renoprotective effects in diabetic nephropathy...", 
-                           GLP1, "Diabetic Kidney Disease", "Review", "GLP-1, kidney disease, diabetes, nephropathy", 
-                           92, "19.6", "https://pubmed.ncbi.nlm.nih.gov/37534567/", "High")
-        );
-        publicationDataMap.put(GLP1, glp1Pubs);
         
-        // Eliquis Publications
-        List<Publication> eliquisPubs = Arrays.asList(
-            new Publication("Apixaban vs warfarin in atrial fibrillation: real-world bleeding outcomes", 
-                           "Martinez L, Garcia F, Lopez R", "Circulation", "2023-09-15", 
-                           "10.1161/CIRCULATIONAHA.123.065432", "37789012", 
-                           "Large-scale real-world comparison of bleeding outcomes between apixaban and warfarin...", 
-                           ELIQUIS, "Atrial Fibrillation", "Clinical", "apixaban, warfarin, bleeding, real-world", 
-                           134, "29.7", "https://pubmed.ncbi.nlm.nih.gov/37789012/", "High"),
-            new Publication("Apixaban reversal strategies in emergency surgery: clinical guidelines", 
-                           "Thompson K, White J, Brown L", "Journal of Thrombosis and Haemostasis", "2023-07-30", 
-                           "10.1111/jth.15234", "37445678", 
-                           "Evidence-based guidelines for apixaban reversal in emergency surgical procedures...", 
-                           ELIQUIS, "Emergency Surgery", "Review", "apixaban, reversal, emergency, surgery", 
-                           56, "6.1", "https://pubmed.ncbi.nlm.nih.gov/37445678/", "Medium")
-        );
-        publicationDataMap.put(ELIQUIS, eliquisPubs);
-        
-        // Complete remaining market data
-        completeMarketDataInitialization();
+        return new MoleculeRecord(HUMIRA, humiraMarket, humiraPatents, humiraTrials, humiraTrade, humiraPubs);
     }
     
-    private void completeMarketDataInitialization() {
-        // Metformin Market Data
+    private static MoleculeRecord loadMetformin() {
+        // Market data
         List<Competitor> metforminCompetitors = Arrays.asList(
             new Competitor("Teva Pharmaceuticals", "Metformin HCl", 22.1, "Global", "2002", "Type 2 Diabetes", "Generic leader"),
             new Competitor("Mylan", "Metformin ER", 18.7, "US/EU", "2003", "Type 2 Diabetes", "Extended release"),
@@ -412,9 +289,52 @@ public class MockDataProvider {
             "Stable growth with emerging applications beyond diabetes",
             2420.0
         );
-        marketDataMap.put(METFORMIN, metforminMarket);
         
-        // GLP-1 Market Data
+        // Clinical trials
+        List<ClinicalTrial> metforminTrials = Arrays.asList(
+            new ClinicalTrial("NCT00000007", "Metformin in Prediabetes Prevention", "Phase III", "Completed", 
+                             "NIH/NIDDK", METFORMIN, "Prediabetes", 3234, "2016-01-10", "2019-12-15", 
+                             "Progression to Type 2 diabetes", "Weight loss, cardiovascular events", 
+                             "Interventional", "Randomized", "Double Blind", "US"),
+            new ClinicalTrial("NCT00000008", "Extended Release Metformin vs Standard", "Phase II", "Completed", 
+                             "Teva Pharmaceuticals", METFORMIN, "Type 2 Diabetes", 456, "2020-05-20", 
+                             "2022-11-30", "HbA1c reduction", "Gastrointestinal tolerability", 
+                             "Interventional", "Randomized", "Open Label", "US, Canada")
+        );
+        
+        // Trade data
+        List<EximTrade> metforminTrade = Arrays.asList(
+            new EximTrade(METFORMIN, "India", "Export", 2800000.0, 168000000.0, "2024", "March", 
+                         "2942.00", "Metformin HCl API", "United States", 60.0, 35.8, "+9.2%"),
+            new EximTrade(METFORMIN, "China", "Export", 2100000.0, 115500000.0, "2024", "March", 
+                         "2942.00", "Metformin HCl", "Brazil", 55.0, 24.7, "+11.5%"),
+            new EximTrade(METFORMIN, "United States", "Import", 1500000.0, 93000000.0, "2024", "February", 
+                         "2942.00", "Metformin API", "India", 62.0, 19.9, "+7.8%"),
+            new EximTrade(METFORMIN, "Germany", "Import", 890000.0, 53400000.0, "2024", "March", 
+                         "2942.00", "Metformin Tablets", "India", 60.0, 11.4, "+13.2%")
+        );
+        
+        // Publications
+        List<Publication> metforminPubs = Arrays.asList(
+            new Publication("Metformin and cardiovascular outcomes in type 2 diabetes: updated meta-analysis", 
+                           "Johnson R, Williams T, Davis A", "Diabetes Care", "2023-09-12", 
+                           "10.2337/dc23-1234", "37712345", 
+                           "Updated meta-analysis of cardiovascular outcomes with metformin therapy in T2DM patients...", 
+                           METFORMIN, "Type 2 Diabetes", "Review", "metformin, cardiovascular, meta-analysis", 
+                           156, "17.8", "https://pubmed.ncbi.nlm.nih.gov/37712345/", "High"),
+            new Publication("Metformin mechanisms in cancer prevention: molecular insights", 
+                           "Brown S, Miller J, Wilson K", "Nature Reviews Drug Discovery", "2023-08-18", 
+                           "10.1038/s41573-023-00789-1", "37598765", 
+                           "Comprehensive review of metformin's anti-cancer mechanisms and clinical implications...", 
+                           METFORMIN, "Cancer Prevention", "Review", "metformin, cancer, AMPK, mechanisms", 
+                           203, "75.9", "https://pubmed.ncbi.nlm.nih.gov/37598765/", "High")
+        );
+        
+        return new MoleculeRecord(METFORMIN, metforminMarket, null, metforminTrials, metforminTrade, metforminPubs);
+    }
+    
+    private static MoleculeRecord loadGlp1() {
+        // Market data
         List<Competitor> glp1Competitors = Arrays.asList(
             new Competitor("Novo Nordisk", "Ozempic/Wegovy", 42.3, "Global", "2017", "Diabetes/Obesity", "Market leader"),
             new Competitor("Eli Lilly", "Trulicity/Mounjaro", 28.9, "Global", "2014", "Diabetes", "Dual agonist"),
@@ -432,9 +352,52 @@ public class MockDataProvider {
             "Explosive growth driven by obesity indication and pipeline expansion",
             58750.0
         );
-        marketDataMap.put(GLP1, glp1Market);
         
-        // Eliquis Market Data
+        // Clinical trials
+        List<ClinicalTrial> glp1Trials = Arrays.asList(
+            new ClinicalTrial("NCT00000009", "Semaglutide in Obesity Management", "Phase III", "Completed", 
+                             "Novo Nordisk", GLP1, "Obesity", 1961, "2019-08-12", "2022-06-30", 
+                             "Weight reduction ≥15%", "Cardiovascular outcomes, quality of life", 
+                             "Interventional", "Randomized", "Double Blind", "Global"),
+            new ClinicalTrial("NCT00000010", "Dulaglutide Cardiovascular Outcomes", "Phase III", "Completed", 
+                             "Eli Lilly", GLP1, "Type 2 Diabetes", 9901, "2018-03-01", "2021-11-15", 
+                             "Major cardiovascular events", "All-cause mortality, hospitalization", 
+                             "Interventional", "Randomized", "Double Blind", "Global")
+        );
+        
+        // Trade data
+        List<EximTrade> glp1Trade = Arrays.asList(
+            new EximTrade(GLP1, "Denmark", "Export", 450.0, 2250000000.0, "2024", "March", 
+                         "3001.90", "Semaglutide Injection", "United States", 5000000.0, 52.3, "+28.7%"),
+            new EximTrade(GLP1, "United States", "Export", 320.0, 1440000000.0, "2024", "March", 
+                         "3001.90", "Liraglutide", "Germany", 4500000.0, 33.5, "+19.4%"),
+            new EximTrade(GLP1, "Germany", "Import", 180.0, 810000000.0, "2024", "February", 
+                         "3001.90", "GLP-1 Agonist", "Denmark", 4500000.0, 18.8, "+31.2%"),
+            new EximTrade(GLP1, "Japan", "Import", 125.0, 562500000.0, "2024", "March", 
+                         "3001.90", "Dulaglutide", "United States", 4500000.0, 13.1, "+25.6%")
+        );
+        
+        // Publications
+        List<Publication> glp1Pubs = Arrays.asList(
+            new Publication("Semaglutide for weight management: cardiovascular safety profile", 
+                           "Taylor M, Roberts P, Clark D", "New England Journal of Medicine", "2023-09-20", 
+                           "10.1056/NEJMoa2345678", "37823456", 
+                           "Comprehensive cardiovascular safety analysis of semaglutide in obesity management...", 
+                           GLP1, "Obesity", "Clinical", "semaglutide, cardiovascular safety, weight loss", 
+                           278, "176.1", "https://pubmed.ncbi.nlm.nih.gov/37823456/", "High"),
+            new Publication("GLP-1 receptor agonists in diabetic kidney disease: systematic review", 
+                           "Singh A, Patel R, Kumar V", "Kidney International", "2023-08-08", 
+                           "10.1016/j.kint.2023.07.012", "37534567", 
+                           "Systematic evaluation of GLP-1 agonists' renoprotective effects in diabetic nephropathy...", 
+                           GLP1, "Diabetic Kidney Disease", "Review", "GLP-1, kidney disease, diabetes, nephropathy", 
+                           92, "19.6", "https://pubmed.ncbi.nlm.nih.gov/37534567/", "High")
+        );
+        
+        return new MoleculeRecord(GLP1, glp1Market, null, glp1Trials, glp1Trade, glp1Pubs);
+    }
+    
+    private static MoleculeRecord loadEliquis() {
+        // Market data
         List<Competitor> eliquiCompetitors = Arrays.asList(
             new Competitor("Bristol Myers Squibb/Pfizer", "Eliquis", 38.7, "Global", "2011", "Atrial Fibrillation", "Safety profile"),
             new Competitor("Bayer/J&J", "Xarelto", 32.1, "Global", "2011", "Atrial Fibrillation", "Once daily dosing"),
@@ -452,6 +415,47 @@ public class MockDataProvider {
             "Continued growth with expanding indications and aging demographics",
             14200.0
         );
-        marketDataMap.put(ELIQUIS, eliquiMarket);
+        
+        // Clinical trials
+        List<ClinicalTrial> eliquiTrials = Arrays.asList(
+            new ClinicalTrial("NCT00000011", "Apixaban vs Warfarin in Atrial Fibrillation", "Phase III", "Completed", 
+                             "Bristol Myers Squibb", ELIQUIS, "Atrial Fibrillation", 18201, "2017-02-28", 
+                             "2020-08-31", "Stroke and systemic embolism", "Major bleeding, all-cause mortality", 
+                             "Interventional", "Randomized", "Double Blind", "Global"),
+            new ClinicalTrial("NCT00000012", "Eliquis in Cancer-Associated Thrombosis", "Phase II", "Active, not recruiting", 
+                             "Pfizer", ELIQUIS, "Cancer-Associated VTE", 576, "2022-01-15", "2024-12-31", 
+                             "Recurrent VTE at 6 months", "Major bleeding, survival", "Interventional", 
+                             "Randomized", "Open Label", "US, EU, Canada")
+        );
+        
+        // Trade data
+        List<EximTrade> eliquisTrade = Arrays.asList(
+            new EximTrade(ELIQUIS, "Ireland", "Export", 1200.0, 720000000.0, "2024", "March", 
+                         "3004.90", "Apixaban Tablets", "United States", 600000.0, 41.2, "+14.8%"),
+            new EximTrade(ELIQUIS, "Germany", "Export", 890.0, 498200000.0, "2024", "March", 
+                         "3004.90", "Apixaban API", "Japan", 559775.0, 28.5, "+8.9%"),
+            new EximTrade(ELIQUIS, "United States", "Import", 650.0, 390000000.0, "2024", "February", 
+                         "3004.90", "Eliquis Tablets", "Ireland", 600000.0, 22.3, "+12.1%"),
+            new EximTrade(ELIQUIS, "Canada", "Import", 340.0, 204000000.0, "2024", "March", 
+                         "3004.90", "Apixaban", "Ireland", 600000.0, 11.7, "+16.7%")
+        );
+        
+        // Publications
+        List<Publication> eliquisPubs = Arrays.asList(
+            new Publication("Apixaban vs warfarin in atrial fibrillation: real-world bleeding outcomes", 
+                           "Martinez L, Garcia F, Lopez R", "Circulation", "2023-09-15", 
+                           "10.1161/CIRCULATIONAHA.123.065432", "37789012", 
+                           "Large-scale real-world comparison of bleeding outcomes between apixaban and warfarin...", 
+                           ELIQUIS, "Atrial Fibrillation", "Clinical", "apixaban, warfarin, bleeding, real-world", 
+                           134, "29.7", "https://pubmed.ncbi.nlm.nih.gov/37789012/", "High"),
+            new Publication("Apixaban reversal strategies in emergency surgery: clinical guidelines", 
+                           "Thompson K, White J, Brown L", "Journal of Thrombosis and Haemostasis", "2023-07-30", 
+                           "10.1111/jth.15234", "37445678", 
+                           "Evidence-based guidelines for apixaban reversal in emergency surgical procedures...", 
+                           ELIQUIS, "Emergency Surgery", "Review", "apixaban, reversal, emergency, surgery", 
+                           56, "6.1", "https://pubmed.ncbi.nlm.nih.gov/37445678/", "Medium")
+        );
+        
+        return new MoleculeRecord(ELIQUIS, eliquiMarket, null, eliquiTrials, eliquisTrade, eliquisPubs);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.mit.bodhiq.data.provider;
+
+import com.google.gson.Gson;
+import com.mit.bodhiq.data.model.ClinicalTrial;
+import com.mit.bodhiq.data.model.EximTrade;
+import com.mit.bodhiq.data.model.MarketData;
+import com.mit.bodhiq.data.model.PatentInfo;
+import com.mit.bodhiq.data.model.Publication;
+import com.mit.bodhiq.utils.HashUtils;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable bundle of all knowledge held for one molecule.
+ * Lists are never null and cannot be modified, so they can be shared between
+ * agents without copying.
+ */
+public final class MoleculeRecord {
+
+    private final String molecule;
+    private final MarketData marketData;
+    private final List<PatentInfo> patents;
+    private final List<ClinicalTrial> clinicalTrials;
+    private final List<EximTrade> eximTrades;
+    private final List<Publication> publications;
+    private volatile String snapshotHash;
+
+    public MoleculeRecord(String molecule, MarketData marketData, List<PatentInfo> patents,
+                          List<ClinicalTrial> clinicalTrials, List<EximTrade> eximTrades,
+                          List<Publication> publications) {
+        this.molecule = molecule;
+        this.marketData = marketData;
+        this.patents = freeze(patents);
+        this.clinicalTrials = freeze(clinicalTrials);
+        this.eximTrades = freeze(eximTrades);
+        this.publications = freeze(publications);
+    }
+
+    /**
+     * Record for a molecule the store knows nothing about.
+     */
+    public static MoleculeRecord empty(String molecule) {
+        return new MoleculeRecord(molecule, null, null, null, null, null);
+    }
+
+    public String getMolecule() { return molecule; }
+    public MarketData getMarketData() { return marketData; }
+    public List<PatentInfo> getPatents() { return patents; }
+    public List<ClinicalTrial> getClinicalTrials() { return clinicalTrials; }
+    public List<EximTrade> getEximTrades() { return eximTrades; }
+    public List<Publication> getPublications() { return publications; }
+
+    /**
+     * Content hash of the record. Changes whenever any of the molecule's market,
+     * patent, trial, trade or publication records change.
+     */
+    public String getSnapshotHash() {
+        String hash = snapshotHash;
+        if (hash == null) {
+            hash = computeSnapshotHash();
+            snapshotHash = hash;
+        }
+        return hash;
+    }
+
+    private String computeSnapshotHash() {
+        Gson gson = new Gson();
+        StringBuilder snapshot = new StringBuilder();
+        snapshot.append(gson.toJson(marketData)).append('|');
+        snapshot.append(gson.toJson(patents)).append('|');
+        snapshot.append(gson.toJson(clinicalTrials)).append('|');
+        snapshot.append(gson.toJson(eximTrades)).append('|');
+        snapshot.append(gson.toJson(publications));
+
+        return HashUtils.sha256Hex(snapshot.toString());
+    }
+
+    private static <T> List<T> freeze(List<T> list) {
+        return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+    }
+}
@@ -0,0 +1,182 @@
+package com.mit.bodhiq.data.provider;
+
+import com.mit.bodhiq.data.model.ClinicalTrial;
+import com.mit.bodhiq.data.model.Competitor;
+import com.mit.bodhiq.data.model.MarketData;
+import com.mit.bodhiq.data.model.PatentInfo;
+import com.mit.bodhiq.data.model.Publication;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-only, indexed store of pharmaceutical knowledge.
+ * Molecules are registered with a loader instead of their data, so opening the
+ * store only builds a sorted index of names; each molecule's records are decoded
+ * on first access and kept afterwards. Lookups by molecule are O(log n) and case
+ * insensitive. Indication and competitor indexes are built on first use.
+ */
+public class PharmaKnowledgeStore {
+
+    private final NavigableMap<String, Supplier<MoleculeRecord>> loaders;
+    private final ConcurrentHashMap<String, MoleculeRecord> decoded;
+    private volatile SecondaryIndexes secondaryIndexes;
+
+    /**
+     * @param loaders Loader per molecule name, invoked at most once per molecule
+     */
+    public PharmaKnowledgeStore(Map<String, Supplier<MoleculeRecord>> loaders) {
+        TreeMap<String, Supplier<MoleculeRecord>> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        index.putAll(loaders);
+        this.loaders = Collections.unmodifiableNavigableMap(index);
+        this.decoded = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get all records of a molecule, decoding them on first access.
+     *
+     * @param molecule Molecule name, case insensitive
+     * @return The molecule's record, or null if the molecule is unknown
+     */
+    public MoleculeRecord getRecord(String molecule) {
+        if (molecule == null) {
+            return null;
+        }
+        // Canonical key so "humira" and "Humira" share one decoded record
+        String key = loaders.floorKey(molecule);
+        if (key == null || String.CASE_INSENSITIVE_ORDER.compare(key, molecule) != 0) {
+            return null;
+        }
+        return decoded.computeIfAbsent(key, k -> loaders.get(k).get());
+    }
+
+    public boolean contains(String molecule) {
+        return molecule != null && loaders.containsKey(molecule);
+    }
+
+    /**
+     * @return Names of all molecules in the store, in sorted order
+     */
+    public Set<String> getMolecules() {
+        return loaders.navigableKeySet();
+    }
+
+    /**
+     * Find molecules with market data, trials, patents or publications for an indication.
+     *
+     * @param indication Indication name, case insensitive
+     * @return Sorted molecule names, empty if none match
+     */
+    public List<String> findMoleculesByIndication(String indication) {
+        return lookup(getSecondaryIndexes().byIndication, indication);
+    }
+
+    /**
+     * Find molecules for which a company or product appears as a competitor.
+     *
+     * @param competitor Company or product name, case insensitive
+     * @return Sorted molecule names, empty if none match
+     */
+    public List<String> findMoleculesByCompetitor(String competitor) {
+        return lookup(getSecondaryIndexes().byCompetitor, competitor);
+    }
+
+    /**
+     * @return Number of molecules whose records have been decoded so far
+     */
+    public int getDecodedCount() {
+        return decoded.size();
+    }
+
+    private static List<String> lookup(NavigableMap<String, List<String>> index, String key) {
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        List<String> molecules = index.get(key);
+        return molecules != null ? molecules : Collections.emptyList();
+    }
+
+    private SecondaryIndexes getSecondaryIndexes() {
+        SecondaryIndexes indexes = secondaryIndexes;
+        if (indexes == null) {
+            synchronized (this) {
+                indexes = secondaryIndexes;
+                if (indexes == null) {
+                    indexes = buildSecondaryIndexes();
+                    secondaryIndexes = indexes;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private SecondaryIndexes buildSecondaryIndexes() {
+        TreeMap<String, Set<String>> byIndication = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        TreeMap<String, Set<String>> byCompetitor = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (String molecule : loaders.keySet()) {
+            MoleculeRecord record = getRecord(molecule);
+            MarketData marketData = record.getMarketData();
+            if (marketData != null) {
+                addAll(byIndication, marketData.getTopIndications(), molecule);
+                addAll(byIndication, marketData.getEmergingIndications(), molecule);
+                if (marketData.getCompetitors() != null) {
+                    for (Competitor competitor : marketData.getCompetitors()) {
+                        add(byCompetitor, competitor.getCompanyName(), molecule);
+                        add(byCompetitor, competitor.getProductName(), molecule);
+                    }
+                }
+            }
+            for (ClinicalTrial trial : record.getClinicalTrials()) {
+                add(byIndication, trial.getIndication(), molecule);
+            }
+            for (PatentInfo patent : record.getPatents()) {
+                add(byIndication, patent.getIndication(), molecule);
+            }
+            for (Publication publication : record.getPublications()) {
+                add(byIndication, publication.getIndication(), molecule);
+            }
+        }
+        return new SecondaryIndexes(freeze(byIndication), freeze(byCompetitor));
+    }
+
+    private static void addAll(TreeMap<String, Set<String>> index, List<String> keys, String molecule) {
+        if (keys != null) {
+            for (String key : keys) {
+                add(index, key, molecule);
+            }
+        }
+    }
+
+    private static void add(TreeMap<String, Set<String>> index, String key, String molecule) {
+        if (key != null && !key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER)).add(molecule);
+        }
+    }
+
+    private static NavigableMap<String, List<String>> freeze(TreeMap<String, Set<String>> index) {
+        TreeMap<String, List<String>> frozen = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+            frozen.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return Collections.unmodifiableNavigableMap(frozen);
+    }
+
+    private static final class SecondaryIndexes {
+        final NavigableMap<String, List<String>> byIndication;
+        final NavigableMap<String, List<String>> byCompetitor;
+
+        SecondaryIndexes(NavigableMap<String, List<String>> byIndication,
+                         NavigableMap<String, List<String>> byCompetitor) {
+            this.byIndication = byIndication;
+            this.byCompetitor = byCompetitor;
+        }
+    }
+}
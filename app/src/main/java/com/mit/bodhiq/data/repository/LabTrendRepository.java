@@ -0,0 +1,173 @@
+package com.mit.bodhiq.data.repository;
+
+import com.mit.bodhiq.data.database.dao.LabValueDao;
+import com.mit.bodhiq.data.database.entity.LabValuePoint;
+import com.mit.bodhiq.data.model.HealthValue;
+import com.mit.bodhiq.data.model.LabValueSeries;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.MedicalReport;
+import com.mit.bodhiq.data.model.ScannedReport;
+import com.mit.bodhiq.utils.LabTest;
+import com.mit.bodhiq.utils.ReferenceRangeTable;
+import com.mit.bodhiq.utils.UnitConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Repository for the local lab value time series.
+ * Reports append their values here when they are saved, keyed by user and
+ * canonical parameter and converted to the parameter's canonical unit, so
+ * trend questions are answered from the local index with plain doubles
+ * instead of re-reading every report from Firestore.
+ */
+@Singleton
+public class LabTrendRepository {
+
+    private final LabValueDao labValueDao;
+
+    @Inject
+    public LabTrendRepository(LabValueDao labValueDao) {
+        this.labValueDao = labValueDao;
+    }
+
+    /**
+     * Append the health values of a saved scanned report
+     */
+    public Completable recordScannedReport(String userId, String reportId, ScannedReport report) {
+        return Completable.defer(() -> {
+            List<LabValuePoint> points = new ArrayList<>();
+            if (report.getHealthValues() != null) {
+                for (HealthValue value : report.getHealthValues()) {
+                    addPoints(points, userId, reportId, report.getTimestamp(),
+                        value.getParameter(), value.getValue(), value.getUnit(), value.getStatus());
+                }
+            }
+            return insert(points);
+        }).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Append the parameters of a saved medical report
+     */
+    public Completable recordMedicalReport(String userId, String reportId, MedicalReport report) {
+        return Completable.defer(() -> {
+            List<LabValuePoint> points = new ArrayList<>();
+            if (report.getParameters() != null) {
+                for (MedicalParameter parameter : report.getParameters()) {
+                    addPoints(points, userId, reportId, report.getCreatedAt(),
+                        parameter.getParameter(), parameter.getValue(), parameter.getUnit(), parameter.getStatus());
+                }
+            }
+            return insert(points);
+        }).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Remove the values of a deleted report
+     */
+    public Completable deleteReport(String reportId) {
+        return labValueDao.deleteByReportId(reportId).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Get the values of a test in a time range
+     */
+    public Single<LabValueSeries> getSeries(String userId, LabTest test, long from, long to) {
+        return labValueDao.getRange(userId, test.name(), from, to)
+            .map(points -> LabValueSeries.of(test.name(), points))
+            .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Observe every value of a test, for trend charts
+     */
+    public Flowable<LabValueSeries> observeSeries(String userId, LabTest test) {
+        return labValueDao.observeSeries(userId, test.name())
+            .map(points -> LabValueSeries.of(test.name(), points))
+            .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Get the change between the two most recent values of a test; NaN with fewer than two
+     */
+    public Single<Double> getLatestDelta(String userId, LabTest test) {
+        return labValueDao.getLatest(userId, test.name(), 2)
+            .map(points -> points.size() < 2 ? Double.NaN
+                : points.get(0).getValue() - points.get(1).getValue())
+            .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Get the tests a user has values for
+     */
+    public Single<List<LabTest>> getTrackedTests(String userId) {
+        return labValueDao.getParameters(userId)
+            .map(names -> {
+                List<LabTest> tests = new ArrayList<>();
+                for (String name : names) {
+                    try {
+                        tests.add(LabTest.valueOf(name));
+                    } catch (IllegalArgumentException e) {
+                        // Parameter no longer tracked
+                    }
+                }
+                return tests;
+            })
+            .subscribeOn(Schedulers.io());
+    }
+
+    private Completable insert(List<LabValuePoint> points) {
+        return points.isEmpty() ? Completable.complete() : labValueDao.insertAll(points);
+    }
+
+    /**
+     * Convert one reported value to points; blood pressure becomes a systolic and a diastolic point
+     */
+    private static void addPoints(List<LabValuePoint> points, String userId, String reportId, long measuredAt,
+                                  String name, String value, String unit, String status) {
+        int testId = ReferenceRangeTable.testId(name);
+        if (testId == ReferenceRangeTable.UNKNOWN_TEST || value == null) {
+            return;
+        }
+        LabTest test = LabTest.values()[testId];
+        if (test.isPaired()) {
+            String[] parts = value.split("/");
+            if (parts.length != 2) {
+                return;
+            }
+            addPoint(points, userId, reportId, measuredAt, LabTest.BLOOD_PRESSURE_SYSTOLIC, parts[0].trim(), unit, null);
+            addPoint(points, userId, reportId, measuredAt, LabTest.BLOOD_PRESSURE_DIASTOLIC, parts[1].trim(), unit, null);
+        } else {
+            addPoint(points, userId, reportId, measuredAt, test, value.trim(), unit, status);
+        }
+    }
+
+    private static void addPoint(List<LabValuePoint> points, String userId, String reportId, long measuredAt,
+                                 LabTest test, String value, String unit, String status) {
+        double canonicalValue;
+        try {
+            canonicalValue = UnitConverter.toCanonical(test, Double.parseDouble(value), unit);
+        } catch (NumberFormatException e) {
+            return; // Not a number; nothing to plot
+        }
+        if (Double.isNaN(canonicalValue)) {
+            return; // Unit not convertible; would not be comparable with the rest of the series
+        }
+        String flag = status != null && !status.isEmpty()
+            ? status.toUpperCase(Locale.ROOT)
+            : ReferenceRangeTable.getStatus(test.ordinal(), ReferenceRangeTable.AGE_ADULT,
+                ReferenceRangeTable.SEX_UNSPECIFIED, canonicalValue);
+        points.add(new LabValuePoint(userId, test.name(), reportId, measuredAt, canonicalValue,
+            UnitConverter.getCanonicalUnit(test), value, unit, flag));
+    }
+}
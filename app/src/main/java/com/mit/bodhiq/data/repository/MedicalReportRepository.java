@@ -32,12 +32,14 @@ public class MedicalReportRepository {
     private final FirebaseFirestore firestore;
     private final FirebaseStorage storage;
     private final FirebaseAuth auth;
+    private final LabTrendRepository labTrendRepository;
     
     @Inject
-    public MedicalReportRepository() {
+    public MedicalReportRepository(LabTrendRepository labTrendRepository) {
         this.firestore = FirebaseFirestore.getInstance();
         this.storage = FirebaseStorage.getInstance();
         this.auth = FirebaseAuth.getInstance();
+        this.labTrendRepository = labTrendRepository;
     }
     
     /**
@@ -64,7 +66,11 @@ public class MedicalReportRepository {
                         throw new RuntimeException("Failed to save report", task.getException());
                     }
                 }).getResult();
-        }).subscribeOn(Schedulers.io());
+        }).flatMap(reportId -> labTrendRepository.recordMedicalReport(report.getUserId(), reportId, report)
+                // The trend store is a local index; a failure there must not fail the save
+                .onErrorComplete()
+                .toSingleDefault(reportId))
+            .subscribeOn(Schedulers.io());
     }
     
     /**
@@ -81,7 +87,10 @@ public class MedicalReportRepository {
                 .addOnFailureListener(e -> {
                     throw new RuntimeException("Failed to update report", e);
                 });
-        }).subscribeOn(Schedulers.io());
+        }).andThen(labTrendRepository.deleteReport(reportId)
+                .andThen(labTrendRepository.recordMedicalReport(report.getUserId(), reportId, report))
+                .onErrorComplete())
+            .subscribeOn(Schedulers.io());
     }
     
     /**
@@ -137,7 +146,8 @@ public class MedicalReportRepository {
                 .addOnFailureListener(e -> {
                     throw new RuntimeException("Failed to delete report", e);
                 });
-        }).subscribeOn(Schedulers.io());
+        }).andThen(labTrendRepository.deleteReport(reportId).onErrorComplete())
+            .subscribeOn(Schedulers.io());
     }
     
     /**
@@ -0,0 +1,142 @@
+package com.mit.bodhiq.data.repository;
+
+import com.mit.bodhiq.data.model.AgentUpdate;
+
+import io.reactivex.rxjava3.core.BackpressureStrategy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.subjects.BehaviorSubject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflating progress channel for a single query.
+ * Only the latest update per agent is kept, so memory is bounded by the number
+ * of agents no matter how slow a subscriber is. Subscribers are woken at most
+ * once per emit interval and receive every agent whose state changed since
+ * they were last woken, in the order the changes happened.
+ */
+public class QueryProgressChannel {
+
+    private final Map<String, VersionedUpdate> latestByAgent = new LinkedHashMap<>();
+    // Carries only the latest version number; the state itself lives in latestByAgent
+    private final BehaviorSubject<Long> versions = BehaviorSubject.createDefault(0L);
+    private final long emitIntervalMs;
+    private long version;
+    private int subscriberCount;
+    private boolean active;
+    private boolean terminated;
+    private Throwable error;
+
+    public QueryProgressChannel(long emitIntervalMs) {
+        this.emitIntervalMs = emitIntervalMs;
+    }
+
+    /**
+     * Mark the channel as fed by a running pipeline, so it is kept even without subscribers.
+     */
+    public synchronized void markActive() {
+        active = true;
+    }
+
+    /**
+     * Publish an update, replacing any earlier update of the same agent.
+     */
+    public synchronized void publish(AgentUpdate update) {
+        if (terminated) {
+            return;
+        }
+        version++;
+        latestByAgent.put(update.getAgentName(), new VersionedUpdate(version, update));
+        versions.onNext(version);
+    }
+
+    /**
+     * Finish the channel. Pending updates are still delivered before subscribers
+     * complete, or receive the error if one is given.
+     */
+    public synchronized void terminate(Throwable throwable) {
+        if (terminated) {
+            return;
+        }
+        terminated = true;
+        active = false;
+        error = throwable;
+        versions.onComplete();
+    }
+
+    public synchronized boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * Whether nothing feeds or observes this channel any more, so it can be dropped.
+     */
+    public synchronized boolean isIdle() {
+        return terminated || (!active && subscriberCount == 0);
+    }
+
+    /**
+     * Get the conflated stream of updates. New subscribers first receive the
+     * latest state of every agent seen so far.
+     *
+     * @param onRelease Called when a subscriber goes away
+     * @return Flowable of AgentUpdate objects
+     */
+    public Flowable<AgentUpdate> stream(Runnable onRelease) {
+        return Flowable.defer(() -> {
+            long[] lastSeen = {0};
+            return versions.toFlowable(BackpressureStrategy.LATEST)
+                // Guarantees an initial drain even if the channel already terminated
+                .startWithItem(0L)
+                .throttleLatest(emitIntervalMs, TimeUnit.MILLISECONDS, true)
+                // Ticks only signal "something changed"; dropping all but the latest is safe
+                .onBackpressureLatest()
+                .concatMapIterable(tick -> drainChangedSince(lastSeen))
+                .concatWith(Flowable.defer(this::terminalSignal));
+        })
+        .doOnSubscribe(subscription -> changeSubscriberCount(1))
+        .doFinally(() -> {
+            changeSubscriberCount(-1);
+            onRelease.run();
+        });
+    }
+
+    private synchronized List<AgentUpdate> drainChangedSince(long[] lastSeen) {
+        List<VersionedUpdate> changed = new ArrayList<>();
+        for (VersionedUpdate entry : latestByAgent.values()) {
+            if (entry.version > lastSeen[0]) {
+                changed.add(entry);
+            }
+        }
+        changed.sort((a, b) -> Long.compare(a.version, b.version));
+
+        List<AgentUpdate> updates = new ArrayList<>(changed.size());
+        for (VersionedUpdate entry : changed) {
+            updates.add(entry.update);
+        }
+        lastSeen[0] = version;
+        return updates;
+    }
+
+    private synchronized Flowable<AgentUpdate> terminalSignal() {
+        return error != null ? Flowable.error(error) : Flowable.empty();
+    }
+
+    private synchronized void changeSubscriberCount(int delta) {
+        subscriberCount += delta;
+    }
+
+    private static final class VersionedUpdate {
+        final long version;
+        final AgentUpdate update;
+
+        VersionedUpdate(long version, AgentUpdate update) {
+            this.version = version;
+            this.update = update;
+        }
+    }
+}
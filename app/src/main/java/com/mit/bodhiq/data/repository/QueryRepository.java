@@ -1,17 +1,24 @@
 package com.mit.bodhiq.data.repository;
 
-import com.mit.bodhiq.agent.MasterAgent;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.mit.bodhiq.agent.AgentResultCache;
+import com.mit.bodhiq.agent.SingleFlightAgentExecutor;
 import com.mit.bodhiq.data.database.dao.AgentResultDao;
 import com.mit.bodhiq.data.database.dao.QueryDao;
 import com.mit.bodhiq.data.database.entity.AgentResult;
 import com.mit.bodhiq.data.database.entity.Query;
 import com.mit.bodhiq.data.model.AgentStatus;
 import com.mit.bodhiq.data.model.AgentUpdate;
+import com.mit.bodhiq.data.model.BatchAgentUpdate;
+import com.mit.bodhiq.data.model.MarketData;
+import com.mit.bodhiq.data.model.MoleculeComparison;
+import com.mit.bodhiq.workers.AgentPipelineScheduler;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
-import io.reactivex.rxjava3.subjects.BehaviorSubject;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -29,10 +36,21 @@ public class QueryRepository {
     
     private final QueryDao queryDao;
     private final AgentResultDao agentResultDao;
-    private final MasterAgent masterAgent;
+    private final AgentResultCache agentResultCache;
+    private final SingleFlightAgentExecutor agentExecutor;
+    private final AgentPipelineScheduler pipelineScheduler;
+    // Shared decoder for agent result JSON, reused across batch comparisons
+    private final Gson gson = new Gson();
     
-    // Map to track agent progress for active queries
-    private final ConcurrentHashMap<Long, BehaviorSubject<AgentUpdate>> progressSubjects;
+    // Conflated progress channels for active or observed queries
+    private final ConcurrentHashMap<Long, QueryProgressChannel> progressChannels;
+    
+    // Minimum interval between progress emissions to a subscriber
+    public static final long PROGRESS_EMIT_INTERVAL_MS = 150;
+    
+    // Pipelines run at once by executeBatch; each pipeline runs its own agents in parallel,
+    // bounded per agent by the shared bulkheads
+    public static final int DEFAULT_BATCH_CONCURRENCY = 2;
     
     // Supported molecules for query processing
     private static final String[] SUPPORTED_MOLECULES = {
@@ -40,11 +58,14 @@ public class QueryRepository {
     };
     
     @Inject
-    public QueryRepository(QueryDao queryDao, AgentResultDao agentResultDao, MasterAgent masterAgent) {
+    public QueryRepository(QueryDao queryDao, AgentResultDao agentResultDao, AgentResultCache agentResultCache,
+                           SingleFlightAgentExecutor agentExecutor, AgentPipelineScheduler pipelineScheduler) {
         this.queryDao = queryDao;
         this.agentResultDao = agentResultDao;
-        this.masterAgent = masterAgent;
-        this.progressSubjects = new ConcurrentHashMap<>();
+        this.agentResultCache = agentResultCache;
+        this.agentExecutor = agentExecutor;
+        this.pipelineScheduler = pipelineScheduler;
+        this.progressChannels = new ConcurrentHashMap<>();
     }
     
     /**
@@ -87,37 +108,173 @@ public class QueryRepository {
                 .subscribeOn(Schedulers.io());
     }
     
+    /**
+     * Create a query and schedule its agent pipeline in the background.
+     * This is how screens start a query: the pipeline runs under WorkManager, so
+     * it survives the screen and process death. Follow it with getAgentProgress.
+     * 
+     * @param queryText User's query text
+     * @param userId ID of the user creating the query
+     * @return Single emitting the created query's ID
+     */
+    public Single<Long> submitQuery(String queryText, long userId) {
+        return createQuery(queryText, userId)
+                .doOnSuccess(pipelineScheduler::schedulePipeline);
+    }
+    
+    /**
+     * Create a query for an explicit molecule and schedule its agent pipeline in the background.
+     * 
+     * @param queryText User's query text
+     * @param molecule Molecule name
+     * @param userId ID of the user creating the query
+     * @return Single emitting the created query's ID
+     */
+    public Single<Long> submitQuery(String queryText, String molecule, long userId) {
+        return createQuery(queryText, molecule, userId)
+                .doOnSuccess(pipelineScheduler::schedulePipeline);
+    }
+    
     /**
      * Execute agents for a query with real-time progress tracking.
-     * Requirement 3.2: Sequential agent execution with progress updates
+     * Runs the pipeline in the caller's process and lifetime; AgentPipelineWorker
+     * uses it to run the pipelines scheduled by submitQuery.
+     * Requirement 3.2: Agent execution (parallel where dependencies allow) with progress updates
+     * Concurrent queries for the same molecule share a single pipeline run; each
+     * query still gets its own agent result rows.
      * 
      * @param queryId ID of the query to process
      * @return Completable indicating execution completion
      */
     public Completable executeAgents(long queryId) {
+        return executeAgents(queryId, false);
+    }
+    
+    /**
+     * Execute agents for a query, optionally as an explicit retry.
+     * A retry never joins a shared pipeline run, so it cannot be handed the
+     * result of the run that failed.
+     * 
+     * @param queryId ID of the query to process
+     * @param retry True if this execution retries a failed one
+     * @return Completable indicating execution completion
+     */
+    public Completable executeAgents(long queryId, boolean retry) {
         return queryDao.getQueryById(queryId)
                 .flatMapCompletable(query -> {
                     // Update query status to PROCESSING
                     return updateQueryStatus(queryId, "PROCESSING")
-                            .andThen(executeAgentsInternal(queryId, query.getMolecule()));
+                            .andThen(executeAgentsInternal(queryId, query.getMolecule(), retry));
                 })
                 .subscribeOn(Schedulers.io());
     }
     
+    /**
+     * Create one query per molecule for a batch comparison.
+     * Duplicate molecules are only queried once.
+     * 
+     * @param queryText User's query text, shared by all queries in the batch
+     * @param molecules Molecules to compare
+     * @param userId ID of the user creating the queries
+     * @return Single emitting the created queries' IDs, in molecule order
+     */
+    public Single<List<Long>> createBatchQueries(String queryText, List<String> molecules, long userId) {
+        return Flowable.fromIterable(new LinkedHashSet<>(molecules))
+                .concatMapSingle(molecule -> createQuery(queryText, molecule, userId))
+                .toList();
+    }
+    
+    /**
+     * Execute agents for several queries with the default concurrency budget.
+     * 
+     * @param queryIds IDs of the queries to process
+     * @return Flowable emitting updates tagged with their query and molecule
+     */
+    public Flowable<BatchAgentUpdate> executeBatch(List<Long> queryIds) {
+        return executeBatch(queryIds, DEFAULT_BATCH_CONCURRENCY);
+    }
+    
+    /**
+     * Execute agents for several queries with a shared concurrency budget.
+     * At most maxConcurrentPipelines pipelines run at once; the rest are started in
+     * order as earlier ones finish. Updates from all pipelines are merged into one
+     * stream as they happen, so every running molecule makes visible progress.
+     * A failing pipeline marks its own query FAILED without stopping the others.
+     * <p>
+     * The budget counts pipelines, not agents: each pipeline runs up to
+     * MasterAgent.getMaxParallelism() agents, so up to maxConcurrentPipelines times
+     * that many agents run at once (2 x 4 with the defaults). Every pipeline shares
+     * the per-agent bulkheads of AgentBulkheadRegistry, so one agent never runs more
+     * than its getBulkheadConcurrency() executions at once across the batch; further
+     * executions of it wait in the bulkhead queue, and a budget larger than its
+     * concurrency plus queue capacity gets the excess rejected as FAILED.
+     * 
+     * @param queryIds IDs of the queries to process
+     * @param maxConcurrentPipelines Maximum number of pipelines running at once
+     * @return Flowable emitting updates tagged with their query and molecule
+     */
+    public Flowable<BatchAgentUpdate> executeBatch(List<Long> queryIds, int maxConcurrentPipelines) {
+        return Flowable.fromIterable(queryIds)
+                .flatMap(queryId -> queryDao.getQueryById(queryId)
+                        .flatMapPublisher(query -> updateQueryStatus(queryId, "PROCESSING")
+                                .andThen(runAgentPipeline(queryId, query.getMolecule(), false))
+                                .map(update -> new BatchAgentUpdate(queryId, query.getMolecule(), update)))
+                        // Status and progress of the failed query are already updated
+                        .onErrorResumeNext(throwable -> Flowable.empty()),
+                    maxConcurrentPipelines)
+                .subscribeOn(Schedulers.io());
+    }
+    
+    /**
+     * Build a side-by-side comparison of the molecules of a batch from their agent results.
+     * 
+     * @param queryIds IDs of the batch's queries
+     * @return Single emitting the comparison, in query order
+     */
+    public Single<MoleculeComparison> getBatchComparison(List<Long> queryIds) {
+        return Flowable.fromIterable(queryIds)
+                .concatMapSingle(queryId -> Single.zip(
+                        queryDao.getQueryById(queryId),
+                        agentResultDao.getAgentResultsByQueryId(queryId).firstOrError(),
+                        this::buildComparisonEntry))
+                .toList()
+                .map(MoleculeComparison::new)
+                .subscribeOn(Schedulers.io());
+    }
+    
     /**
      * Get real-time agent progress updates for a query.
      * Requirement 3.4: Real-time progress tracking with Flowable streams
      * 
+     * Updates are conflated per agent, so a slow subscriber receives the latest
+     * state of each agent rather than every intermediate update. Queries that
+     * already finished replay their stored results and complete.
+     * 
      * @param queryId ID of the query to monitor
      * @return Flowable emitting AgentUpdate objects with progress information
      */
     public Flowable<AgentUpdate> getAgentProgress(long queryId) {
         return Flowable.defer(() -> {
-            BehaviorSubject<AgentUpdate> subject = progressSubjects.computeIfAbsent(
-                queryId, 
-                k -> BehaviorSubject.create()
-            );
-            return subject.toFlowable(io.reactivex.rxjava3.core.BackpressureStrategy.BUFFER);
+            QueryProgressChannel channel = progressChannels.get(queryId);
+            if (channel != null) {
+                return channel.stream(() -> releaseChannel(queryId));
+            }
+            
+            return queryDao.getQueryById(queryId)
+                    .flatMapPublisher(query -> {
+                        if ("COMPLETED".equals(query.getStatus()) || "FAILED".equals(query.getStatus())) {
+                            return agentResultDao.getAgentResultsByQueryId(queryId)
+                                    .firstOrError()
+                                    .flattenAsFlowable(results -> results)
+                                    .map(this::toAgentUpdate);
+                        }
+                        // Not started yet; wait on a channel the pipeline will feed
+                        QueryProgressChannel pending = progressChannels.computeIfAbsent(
+                            queryId,
+                            k -> new QueryProgressChannel(PROGRESS_EMIT_INTERVAL_MS)
+                        );
+                        return pending.stream(() -> releaseChannel(queryId));
+                    });
         });
     }
     
@@ -207,6 +364,24 @@ public class QueryRepository {
         );
     }
     
+    /**
+     * Get execution statistics for an agent: average execution time of completed
+     * runs that were not served from the cache, together with result cache hit/miss counts.
+     * 
+     * @param agentName Name of the agent
+     * @return Single emitting the agent's statistics
+     */
+    public Single<AgentStatistics> getAgentStatistics(String agentName) {
+        return agentResultDao.getAverageExecutionTimeByAgentName(agentName)
+                .onErrorReturnItem(0.0) // AVG over no uncached rows yields NULL
+                .map(average -> new AgentStatistics(
+                    agentName,
+                    average,
+                    agentResultCache.getStats(agentName)
+                ))
+                .subscribeOn(Schedulers.io());
+    }
+    
     /**
      * Get agent results for a query.
      * 
@@ -241,10 +416,10 @@ public class QueryRepository {
     public Completable deleteQuery(long queryId) {
         return queryDao.deleteQueryById(queryId)
                 .doOnComplete(() -> {
-                    // Clean up progress subject
-                    BehaviorSubject<AgentUpdate> subject = progressSubjects.remove(queryId);
-                    if (subject != null) {
-                        subject.onComplete();
+                    // Clean up progress channel
+                    QueryProgressChannel channel = progressChannels.remove(queryId);
+                    if (channel != null) {
+                        channel.terminate(null);
                     }
                 });
     }
@@ -254,19 +429,32 @@ public class QueryRepository {
     /**
      * Internal method to execute agents with progress tracking.
      */
-    private Completable executeAgentsInternal(long queryId, String molecule) {
-        BehaviorSubject<AgentUpdate> progressSubject = progressSubjects.computeIfAbsent(
-            queryId, 
-            k -> BehaviorSubject.create()
-        );
+    private Completable executeAgentsInternal(long queryId, String molecule, boolean retry) {
+        return runAgentPipeline(queryId, molecule, retry).ignoreElements();
+    }
+    
+    /**
+     * Run the agent pipeline for a query, publishing progress and updating the
+     * query status when it finishes.
+     */
+    private Flowable<AgentUpdate> runAgentPipeline(long queryId, String molecule, boolean retry) {
+        QueryProgressChannel progressChannel = progressChannels.compute(queryId, (k, existing) -> {
+            QueryProgressChannel channel = existing != null && !existing.isTerminated()
+                    ? existing
+                    : new QueryProgressChannel(PROGRESS_EMIT_INTERVAL_MS);
+            channel.markActive();
+            return channel;
+        });
         
-        return masterAgent.executeAllAgents(molecule, queryId)
-                .doOnNext(progressSubject::onNext)
+        // Resumed queries go through single-flight too; their checkpoint is
+        // honoured whether they lead the shared run or join it
+        return agentExecutor.execute(molecule, queryId, retry)
+                .doOnNext(progressChannel::publish)
                 .doOnComplete(() -> {
                     // Update query status to COMPLETED
                     updateQueryStatus(queryId, "COMPLETED").subscribe();
-                    progressSubject.onComplete();
-                    progressSubjects.remove(queryId);
+                    progressChannel.terminate(null);
+                    progressChannels.remove(queryId, progressChannel);
                 })
                 .doOnError(throwable -> {
                     // Update query status to FAILED
@@ -275,11 +463,75 @@ public class QueryRepository {
                     // Send error update
                     AgentUpdate errorUpdate = new AgentUpdate("System", AgentStatus.FAILED, 0);
                     errorUpdate.setError(throwable.getMessage());
-                    progressSubject.onNext(errorUpdate);
-                    progressSubject.onError(throwable);
-                    progressSubjects.remove(queryId);
-                })
-                .ignoreElements();
+                    progressChannel.publish(errorUpdate);
+                    progressChannel.terminate(throwable);
+                    progressChannels.remove(queryId, progressChannel);
+                });
+    }
+    
+    /**
+     * Drop a query's progress channel once nothing feeds or observes it.
+     */
+    private void releaseChannel(long queryId) {
+        progressChannels.computeIfPresent(queryId, (k, channel) -> channel.isIdle() ? null : channel);
+    }
+    
+    /**
+     * Convert a stored agent result into the update that produced it.
+     */
+    private AgentUpdate toAgentUpdate(AgentResult result) {
+        AgentStatus status = AgentStatus.valueOf(result.getStatus());
+        int progress = status == AgentStatus.COMPLETED || status == AgentStatus.FAILED ? 100 : 0;
+        return new AgentUpdate(result.getAgentName(), status, progress, result, result.getErrorMessage());
+    }
+    
+    /**
+     * Build a comparison row from a query's agent results.
+     */
+    private MoleculeComparison.Entry buildComparisonEntry(Query query, List<AgentResult> results) {
+        int completed = 0;
+        int failed = 0;
+        MarketData marketData = null;
+        int patentCount = 0;
+        int clinicalTrialCount = 0;
+        
+        for (AgentResult result : results) {
+            if (!AgentStatus.COMPLETED.name().equals(result.getStatus())) {
+                if (AgentStatus.FAILED.name().equals(result.getStatus())) {
+                    failed++;
+                }
+                continue;
+            }
+            completed++;
+            
+            String data = result.getResultData();
+            if (data == null) {
+                continue;
+            }
+            switch (result.getAgentName()) {
+                case "Market Insights":
+                    marketData = gson.fromJson(data, MarketData.class);
+                    break;
+                case "Patent Landscape":
+                    patentCount = JsonParser.parseString(data).getAsJsonArray().size();
+                    break;
+                case "Clinical Trials":
+                    clinicalTrialCount = JsonParser.parseString(data).getAsJsonArray().size();
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        return new MoleculeComparison.Entry(
+            query.getId(),
+            query.getMolecule(),
+            completed,
+            failed,
+            marketData,
+            patentCount,
+            clinicalTrialCount
+        );
     }
     
     /**
@@ -349,4 +601,26 @@ public class QueryRepository {
             return totalQueries > 0 ? (double) completedQueries / totalQueries * 100 : 0.0;
         }
     }
+    
+    /**
+     * POJO for per-agent execution and cache statistics.
+     */
+    public static class AgentStatistics {
+        private final String agentName;
+        private final double averageExecutionTimeMs;
+        private final AgentResultCache.CacheStats cacheStats;
+        
+        public AgentStatistics(String agentName, double averageExecutionTimeMs, AgentResultCache.CacheStats cacheStats) {
+            this.agentName = agentName;
+            this.averageExecutionTimeMs = averageExecutionTimeMs;
+            this.cacheStats = cacheStats;
+        }
+        
+        public String getAgentName() { return agentName; }
+        public double getAverageExecutionTimeMs() { return averageExecutionTimeMs; }
+        public long getCacheHits() { return cacheStats.getHits(); }
+        public long getCacheMisses() { return cacheStats.getMisses(); }
+        public double getCacheHitRate() { return cacheStats.getHitRate(); }
+        public AgentResultCache.CacheStats getCacheStats() { return cacheStats; }
+    }
 }
\ No newline at end of file
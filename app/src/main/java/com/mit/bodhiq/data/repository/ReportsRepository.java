@@ -32,12 +32,14 @@ public class ReportsRepository {
     private final FirebaseFirestore firestore;
     private final FirebaseStorage storage;
     private final FirebaseAuth auth;
+    private final LabTrendRepository labTrendRepository;
     
     @Inject
-    public ReportsRepository() {
+    public ReportsRepository(LabTrendRepository labTrendRepository) {
         this.firestore = FirebaseFirestore.getInstance();
         this.storage = FirebaseStorage.getInstance();
         this.auth = FirebaseAuth.getInstance();
+        this.labTrendRepository = labTrendRepository;
     }
     
     /**
@@ -93,7 +95,11 @@ public class ReportsRepository {
                         throw new RuntimeException("Failed to save report", task.getException());
                     }
                 }).getResult();
-        }).subscribeOn(Schedulers.io());
+        }).flatMap(reportId -> labTrendRepository.recordScannedReport(report.getUserId(), reportId, report)
+                // The trend store is a local index; a failure there must not fail the save
+                .onErrorComplete()
+                .toSingleDefault(reportId))
+            .subscribeOn(Schedulers.io());
     }
     
     /**
@@ -153,7 +159,8 @@ public class ReportsRepository {
                 .addOnFailureListener(e -> {
                     throw new RuntimeException("Failed to delete report", e);
                 });
-        }).subscribeOn(Schedulers.io());
+        }).andThen(labTrendRepository.deleteReport(reportId).onErrorComplete())
+            .subscribeOn(Schedulers.io());
     }
     
     private String getCurrentUserId() {
@@ -1,5 +1,8 @@
 package com.mit.bodhiq.di;
 
+import com.mit.bodhiq.agent.AdaptiveAgentExecutor;
+import com.mit.bodhiq.agent.AgentResultCache;
+import com.mit.bodhiq.agent.AgentResultJournal;
 import com.mit.bodhiq.agent.MasterAgent;
 import com.mit.bodhiq.agent.ClinicalTrialsAgent;
 import com.mit.bodhiq.agent.EximTradeAgent;
@@ -8,7 +11,6 @@ import com.mit.bodhiq.agent.MarketInsightsAgent;
 import com.mit.bodhiq.agent.PatentLandscapeAgent;
 import com.mit.bodhiq.agent.ReportGeneratorAgent;
 import com.mit.bodhiq.agent.WebIntelligenceAgent;
-import com.mit.bodhiq.data.database.dao.AgentResultDao;
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
@@ -27,10 +29,12 @@ public class AgentModule {
     // No need for explicit @Provides methods since they use constructor injection
 
     /**
-     * Provides MasterAgent for orchestrating sequential agent execution.
+     * Provides MasterAgent for orchestrating dependency-aware parallel agent execution.
      * Registers all agents with the master agent after creation.
      *
-     * @param agentResultDao AgentResultDao for database operations
+     * @param agentResultJournal AgentResultJournal for write-behind result persistence
+     * @param agentResultCache AgentResultCache serving repeat results per molecule
+     * @param adaptiveAgentExecutor AdaptiveAgentExecutor applying latency-based timeouts and retries
      * @param marketInsightsAgent MarketInsightsAgent instance
      * @param patentLandscapeAgent PatentLandscapeAgent instance
      * @param clinicalTrialsAgent ClinicalTrialsAgent instance
@@ -43,7 +47,9 @@ public class AgentModule {
     @Provides
     @Singleton
     public MasterAgent provideMasterAgent(
-            AgentResultDao agentResultDao,
+            AgentResultJournal agentResultJournal,
+            AgentResultCache agentResultCache,
+            AdaptiveAgentExecutor adaptiveAgentExecutor,
             MarketInsightsAgent marketInsightsAgent,
             PatentLandscapeAgent patentLandscapeAgent,
             ClinicalTrialsAgent clinicalTrialsAgent,
@@ -52,7 +58,7 @@ public class AgentModule {
             InternalInsightsAgent internalInsightsAgent,
             ReportGeneratorAgent reportGeneratorAgent
     ) {
-        MasterAgent masterAgent = new MasterAgent(agentResultDao);
+        MasterAgent masterAgent = new MasterAgent(agentResultJournal, agentResultCache, adaptiveAgentExecutor);
         
         // Register all agents with the master agent
         masterAgent.registerAgent(marketInsightsAgent);
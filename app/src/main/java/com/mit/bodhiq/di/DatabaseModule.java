@@ -3,7 +3,9 @@ package com.mit.bodhiq.di;
 import android.content.Context;
 import androidx.room.Room;
 import com.mit.bodhiq.data.database.AppDatabase;
+import com.mit.bodhiq.data.database.dao.AgentResultCacheDao;
 import com.mit.bodhiq.data.database.dao.AgentResultDao;
+import com.mit.bodhiq.data.database.dao.LabValueDao;
 import com.mit.bodhiq.data.database.dao.QueryDao;
 import com.mit.bodhiq.data.database.dao.ReportDao;
 import com.mit.bodhiq.data.database.dao.UserDao;
@@ -41,6 +43,7 @@ public class DatabaseModule {
                 "bodhiq_database"
         )
         .addCallback(AppDatabase.getDatabaseCallback())
+        .fallbackToDestructiveMigration()
         .build();
     }
 
@@ -109,4 +112,26 @@ public class DatabaseModule {
     public ReminderHistoryDao provideReminderHistoryDao(AppDatabase database) {
         return database.reminderHistoryDao();
     }
+    
+    /**
+     * Provides AgentResultCacheDao for the persistent agent result cache.
+     *
+     * @param database AppDatabase instance
+     * @return AgentResultCacheDao instance
+     */
+    @Provides
+    public AgentResultCacheDao provideAgentResultCacheDao(AppDatabase database) {
+        return database.agentResultCacheDao();
+    }
+    
+    /**
+     * Provides LabValueDao for the lab value time series.
+     *
+     * @param database AppDatabase instance
+     * @return LabValueDao instance
+     */
+    @Provides
+    public LabValueDao provideLabValueDao(AppDatabase database) {
+        return database.labValueDao();
+    }
 }
\ No newline at end of file
@@ -7,7 +7,9 @@ import com.mit.bodhiq.data.database.dao.UserDao;
 import com.mit.bodhiq.data.repository.QueryRepository;
 import com.mit.bodhiq.data.repository.ReportRepository;
 import com.mit.bodhiq.data.repository.UserRepository;
-import com.mit.bodhiq.agent.MasterAgent;
+import com.mit.bodhiq.agent.AgentResultCache;
+import com.mit.bodhiq.agent.SingleFlightAgentExecutor;
+import com.mit.bodhiq.workers.AgentPipelineScheduler;
 
 import dagger.Module;
 import dagger.Provides;
@@ -41,7 +43,9 @@ public class RepositoryModule {
      *
      * @param queryDao QueryDao for query database operations
      * @param agentResultDao AgentResultDao for storing agent results
-     * @param masterAgent MasterAgent for orchestrating agent execution
+     * @param agentResultCache AgentResultCache for cache statistics
+     * @param agentExecutor SingleFlightAgentExecutor sharing runs between identical queries
+     * @param pipelineScheduler AgentPipelineScheduler running submitted queries under WorkManager
      * @return QueryRepository instance
      */
     @Provides
@@ -49,9 +53,11 @@ public class RepositoryModule {
     public QueryRepository provideQueryRepository(
             QueryDao queryDao,
             AgentResultDao agentResultDao,
-            MasterAgent masterAgent
+            AgentResultCache agentResultCache,
+            SingleFlightAgentExecutor agentExecutor,
+            AgentPipelineScheduler pipelineScheduler
     ) {
-        return new QueryRepository(queryDao, agentResultDao, masterAgent);
+        return new QueryRepository(queryDao, agentResultDao, agentResultCache, agentExecutor, pipelineScheduler);
     }
 
     /**
@@ -5,9 +5,11 @@ import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.InputType;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.EditText;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -15,20 +17,33 @@ import com.mit.bodhiq.ui.base.BaseActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.bumptech.glide.Glide;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.mit.bodhiq.R;
+import com.mit.bodhiq.agent.MedicalInsightSession;
+import com.mit.bodhiq.agent.MedicalReportAgent;
+import com.mit.bodhiq.chatbot.ReferenceRanges;
+import com.mit.bodhiq.data.model.ChatMessage;
+import com.mit.bodhiq.data.model.HealthValue;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.ParsedField;
 import com.mit.bodhiq.data.model.ScannedReport;
+import com.mit.bodhiq.data.model.UserProfile;
+import com.mit.bodhiq.data.repository.ProfileRepository;
 import com.mit.bodhiq.data.repository.ReportsRepository;
 import com.mit.bodhiq.databinding.ActivityReportDetailsBinding;
 import com.mit.bodhiq.ui.adapters.HealthValueAdapter;
+import com.mit.bodhiq.utils.ReferenceRangeTable;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.AndroidEntryPoint;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
@@ -42,10 +57,18 @@ public class ReportDetailsActivity extends BaseActivity {
     private HealthValueAdapter healthValueAdapter;
     private CompositeDisposable disposables;
     private ScannedReport currentReport;
+    private UserProfile userProfile;
+    private MedicalInsightSession insightSession;
     
     @Inject
     ReportsRepository reportsRepository;
     
+    @Inject
+    ProfileRepository profileRepository;
+    
+    @Inject
+    MedicalReportAgent medicalReportAgent;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -104,6 +127,7 @@ public class ReportDetailsActivity extends BaseActivity {
                         showLoading(false);
                         currentReport = report;
                         displayReportDetails(report);
+                        loadInsights(report);
                     },
                     error -> {
                         showLoading(false);
@@ -178,6 +202,138 @@ public class ReportDetailsActivity extends BaseActivity {
         }
     }
     
+    /**
+     * Show the analysis of the report's health values. The analysis is memoized,
+     * so re-opening an unchanged report does not analyze it again.
+     */
+    private void loadInsights(ScannedReport report) {
+        if (!hasHealthValues()) {
+            return;
+        }
+        
+        disposables.add(
+            profileRepository.getUserProfile()
+                // Insights are still useful without the profile's age and gender
+                .onErrorReturnItem(new UserProfile())
+                .doOnSuccess(profile -> userProfile = profile)
+                .flatMap(profile -> medicalReportAgent.generateMedicalInsights(
+                    report.toMedicalReport().getParameters(), profile, report.getId()))
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                    this::displayInsights,
+                    error -> binding.cardInsights.setVisibility(View.GONE)
+                )
+        );
+    }
+    
+    /**
+     * Get the session that edits update in place, starting it on the first edit
+     */
+    private Single<MedicalInsightSession> getInsightSession() {
+        if (insightSession != null) {
+            return Single.just(insightSession);
+        }
+        return medicalReportAgent.startInsightSession(
+                currentReport.toMedicalReport().getParameters(), userProfile, currentReport.getId())
+            .observeOn(AndroidSchedulers.mainThread())
+            .doOnSuccess(session -> insightSession = session);
+    }
+    
+    private boolean hasHealthValues() {
+        return currentReport != null
+            && currentReport.getHealthValues() != null
+            && !currentReport.getHealthValues().isEmpty();
+    }
+    
+    private void displayInsights(ChatMessage card) {
+        binding.textInsights.setText(card.getContent());
+        binding.cardInsights.setVisibility(View.VISIBLE);
+    }
+    
+    /**
+     * Let the user pick a health value to correct
+     */
+    private void showEditDialog() {
+        if (!hasHealthValues()) {
+            Toast.makeText(this, "No health values to edit", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        
+        List<HealthValue> healthValues = currentReport.getHealthValues();
+        String[] names = new String[healthValues.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = healthValues.get(i).getParameter();
+        }
+        
+        new MaterialAlertDialogBuilder(this)
+            .setTitle("Edit Health Value")
+            .setItems(names, (dialog, which) -> showValueDialog(which))
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+    
+    private void showValueDialog(int index) {
+        HealthValue healthValue = currentReport.getHealthValues().get(index);
+        EditText input = new EditText(this);
+        input.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        input.setText(healthValue.getValue());
+        input.setSelection(input.getText().length());
+        
+        new MaterialAlertDialogBuilder(this)
+            .setTitle(healthValue.getParameter())
+            .setView(input)
+            .setPositiveButton("Save", (dialog, which) -> {
+                String value = input.getText().toString().trim();
+                if (!value.isEmpty()) {
+                    applyEdit(index, value);
+                }
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+    
+    /**
+     * Apply a corrected value; only the edited parameter is re-analyzed
+     */
+    private void applyEdit(int index, String value) {
+        HealthValue healthValue = currentReport.getHealthValues().get(index);
+        ParsedField field = new ParsedField(healthValue.getParameter(), value, healthValue.getUnit());
+        field.setReferenceRange(healthValue.getNormalRange());
+        Double numericValue = field.getNumericValue();
+        if (numericValue != null) {
+            field.setFlag(ReferenceRanges.evaluateValue(healthValue.getParameter(), numericValue, userProfile));
+        }
+        String status = numericValue != null ? getEditedStatus(healthValue.getParameter(), numericValue) : null;
+        
+        disposables.add(
+            getInsightSession()
+                .subscribe(
+                    session -> {
+                        ChatMessage card = session.applyEdit(index, field, status);
+                        MedicalParameter parameter = card.getMedicalParameters().get(index);
+                        healthValue.setValue(parameter.getValue());
+                        if (parameter.getStatus() != null) {
+                            healthValue.setStatus(parameter.getStatus().toLowerCase(Locale.ROOT));
+                        }
+                        
+                        healthValueAdapter.updateHealthValues(currentReport.getHealthValues());
+                        displayInsights(card);
+                    },
+                    error -> Toast.makeText(this, "Failed to update insights: " + error.getMessage(),
+                        Toast.LENGTH_SHORT).show()
+                )
+        );
+    }
+    
+    /**
+     * Status of a corrected value for the user's age and sex, or null if the test has no range.
+     * Unlike the flag, this keeps the direction of critical values.
+     */
+    private String getEditedStatus(String parameter, double value) {
+        String status = ReferenceRanges.getStatus(parameter, value, userProfile);
+        return ReferenceRangeTable.STATUS_UNKNOWN.equals(status) ? null : status;
+    }
+    
     private void copyTextToClipboard() {
         if (currentReport != null && currentReport.getExtractedText() != null) {
             ClipboardManager clipboard = (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
@@ -246,8 +402,7 @@ public class ReportDetailsActivity extends BaseActivity {
             Toast.makeText(this, "Delete functionality coming soon", Toast.LENGTH_SHORT).show();
             return true;
         } else if (itemId == R.id.action_edit) {
-            // TODO: Implement edit functionality
-            Toast.makeText(this, "Edit functionality coming soon", Toast.LENGTH_SHORT).show();
+            showEditDialog();
             return true;
         }
         
@@ -22,6 +22,7 @@ import com.mit.bodhiq.data.repository.ReportsRepository;
 import com.mit.bodhiq.databinding.ActivityTextResultBinding;
 import com.mit.bodhiq.ui.adapters.HealthValueAdapter;
 import com.mit.bodhiq.ui.reminders.RemindersActivity;
+import com.mit.bodhiq.utils.CapturedImageStore;
 import com.mit.bodhiq.utils.TextRecognitionService;
 
 import java.text.SimpleDateFormat;
@@ -36,6 +37,7 @@ import javax.inject.Inject;
 
 import dagger.hilt.android.AndroidEntryPoint;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
@@ -46,12 +48,12 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class TextResultActivity extends BaseActivity {
     
     private ActivityTextResultBinding binding;
-    private TextRecognitionService textRecognitionService;
     private HealthValueAdapter healthValueAdapter;
     private CompositeDisposable disposables;
     
     private String extractedText;
     private Uri imageUri;
+    private CapturedImageStore.CapturedImage capturedImage;
     private List<HealthValue> healthValues;
     private DocumentAnalyzer documentAnalyzer;
     private DocumentAnalyzer.ReportAnalysis reportAnalysis;
@@ -59,6 +61,12 @@ public class TextResultActivity extends BaseActivity {
     @Inject
     ReportsRepository reportsRepository;
     
+    @Inject
+    TextRecognitionService textRecognitionService;
+    
+    @Inject
+    CapturedImageStore capturedImageStore;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -67,8 +75,7 @@ public class TextResultActivity extends BaseActivity {
         setContentView(binding.getRoot());
         
         disposables = new CompositeDisposable();
-        textRecognitionService = new TextRecognitionService(this);
-        documentAnalyzer = new DocumentAnalyzer();
+        documentAnalyzer = new DocumentAnalyzer(this);
         
         setupToolbar();
         setupRecyclerView();
@@ -108,6 +115,7 @@ public class TextResultActivity extends BaseActivity {
         Intent intent = getIntent();
         extractedText = intent.getStringExtra("extracted_text");
         String imageUriString = intent.getStringExtra("image_uri");
+        String capturedImageKey = intent.getStringExtra("captured_image_key");
         
         if (imageUriString != null) {
             imageUri = Uri.parse(imageUriString);
@@ -117,6 +125,16 @@ public class TextResultActivity extends BaseActivity {
                 .centerCrop()
                 .into(binding.imagePreview);
             binding.imagePreview.setVisibility(View.VISIBLE);
+        } else if (capturedImageKey != null) {
+            // Camera captures stay in memory until the report is saved
+            capturedImage = capturedImageStore.get(capturedImageKey);
+            if (capturedImage != null) {
+                Glide.with(this)
+                    .load(capturedImage.getJpeg())
+                    .centerCrop()
+                    .into(binding.imagePreview);
+                binding.imagePreview.setVisibility(View.VISIBLE);
+            }
         }
         
         if (extractedText != null && !extractedText.trim().isEmpty()) {
@@ -188,10 +206,13 @@ public class TextResultActivity extends BaseActivity {
         binding.tilReportTitle.setError(null);
         showSaving(true);
         
-        // First upload image if available
-        if (imageUri != null) {
+        // First upload image if available; an in-memory capture is written to a file only now
+        Single<Uri> imageToUpload = imageUri != null ? Single.just(imageUri)
+            : capturedImage != null ? capturedImageStore.saveToFile(capturedImage) : null;
+        if (imageToUpload != null) {
             disposables.add(
-                reportsRepository.uploadReportImage(imageUri)
+                imageToUpload
+                    .flatMap(uri -> reportsRepository.uploadReportImage(uri))
                     .flatMap(imageUrl -> {
                         // Create scanned report with image URL
                         ScannedReport report = new ScannedReport(null, title, extractedText, imageUrl);
@@ -489,8 +510,8 @@ public class TextResultActivity extends BaseActivity {
         if (disposables != null) {
             disposables.dispose();
         }
-        if (textRecognitionService != null) {
-            textRecognitionService.cleanup();
+        if (isFinishing() && capturedImage != null) {
+            capturedImageStore.remove(capturedImage.getKey());
         }
     }
 }
\ No newline at end of file
@@ -14,19 +14,27 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.mit.bodhiq.agent.MedicalReportAgent;
+import com.mit.bodhiq.data.model.MedicalInsight;
+import com.mit.bodhiq.data.model.MedicalReport;
+import com.mit.bodhiq.data.model.ReportHistorySummary;
 import com.mit.bodhiq.data.model.ScannedReport;
+import com.mit.bodhiq.data.model.UserProfile;
+import com.mit.bodhiq.data.repository.ProfileRepository;
 import com.mit.bodhiq.data.repository.ReportsRepository;
 import com.mit.bodhiq.databinding.FragmentReportsHistoryBinding;
 import com.mit.bodhiq.ui.adapters.ScannedReportsAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.AndroidEntryPoint;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
@@ -40,10 +48,17 @@ public class ReportsHistoryFragment extends Fragment {
     private CompositeDisposable disposables;
     private List<ScannedReport> allReports = new ArrayList<>();
     private List<ScannedReport> filteredReports = new ArrayList<>();
+    private Disposable historyAnalysis;
     
     @Inject
     ReportsRepository reportsRepository;
     
+    @Inject
+    ProfileRepository profileRepository;
+    
+    @Inject
+    MedicalReportAgent medicalReportAgent;
+    
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -122,6 +137,7 @@ public class ReportsHistoryFragment extends Fragment {
                         allReports.addAll(reports);
                         
                         filterReports(binding.editSearch.getText().toString());
+                        analyzeHistory(reports);
                         
                         if (reports.isEmpty()) {
                             showEmptyState();
@@ -144,6 +160,67 @@ public class ReportsHistoryFragment extends Fragment {
         );
     }
     
+    /**
+     * Summarize the health values of the whole history; reports are analyzed in parallel
+     */
+    private void analyzeHistory(List<ScannedReport> reports) {
+        if (historyAnalysis != null) {
+            // A refresh supersedes the analysis of the previous list
+            disposables.remove(historyAnalysis);
+        }
+        
+        List<MedicalReport> medicalReports = new ArrayList<>();
+        for (ScannedReport report : reports) {
+            if (report.getHealthValues() != null && !report.getHealthValues().isEmpty()) {
+                medicalReports.add(report.toMedicalReport());
+            }
+        }
+        if (medicalReports.isEmpty()) {
+            binding.textHistorySummary.setVisibility(View.GONE);
+            return;
+        }
+        
+        historyAnalysis = profileRepository.getUserProfile()
+            // The summary is still useful without the profile's age and gender
+            .onErrorReturnItem(new UserProfile())
+            .flatMap(profile -> medicalReportAgent.analyzeHistory(medicalReports, profile))
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                this::displayHistorySummary,
+                error -> binding.textHistorySummary.setVisibility(View.GONE)
+            );
+        disposables.add(historyAnalysis);
+    }
+    
+    private void displayHistorySummary(ReportHistorySummary summary) {
+        StringBuilder text = new StringBuilder();
+        text.append(summary.getReportCount()).append(summary.getReportCount() == 1 ? " report" : " reports")
+            .append(" analyzed");
+        
+        List<String> counts = new ArrayList<>();
+        int critical = summary.getInsightCount(MedicalInsight.RiskLevel.CRITICAL);
+        int high = summary.getInsightCount(MedicalInsight.RiskLevel.HIGH_CONCERN);
+        int moderate = summary.getInsightCount(MedicalInsight.RiskLevel.MODERATE_CONCERN);
+        if (critical > 0) counts.add("🚨 " + critical + " critical");
+        if (high > 0) counts.add("⚠️ " + high + " high priority");
+        if (moderate > 0) counts.add("💡 " + moderate + " to watch");
+        if (!counts.isEmpty()) {
+            text.append("\n").append(String.join(" · ", counts));
+        }
+        
+        Map<String, Integer> abnormal = summary.getMostFrequentAbnormalParameters();
+        if (!abnormal.isEmpty()) {
+            List<String> parameters = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : abnormal.entrySet()) {
+                parameters.add(entry.getKey() + " (" + entry.getValue() + ")");
+            }
+            text.append("\nMost often abnormal: ").append(String.join(", ", parameters));
+        }
+        
+        binding.textHistorySummary.setText(text.toString());
+        binding.textHistorySummary.setVisibility(View.VISIBLE);
+    }
+    
     private void filterReports(String searchTerm) {
         filteredReports.clear();
         
@@ -6,6 +6,7 @@ import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
+import android.util.Size;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,9 +17,13 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
+import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
@@ -26,17 +31,22 @@ import androidx.fragment.app.Fragment;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.mit.bodhiq.databinding.FragmentScanReportBinding;
 import com.mit.bodhiq.ui.TextResultActivity;
+import com.mit.bodhiq.utils.CapturedImageStore;
+import com.mit.bodhiq.utils.LabValueLexer;
+import com.mit.bodhiq.utils.LiveOcrAnalyzer;
 import com.mit.bodhiq.utils.TextRecognitionService;
+import com.mit.bodhiq.utils.TextRecognizerPool;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.AndroidEntryPoint;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
@@ -46,12 +56,26 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @AndroidEntryPoint
 public class ScanReportFragment extends Fragment {
     
+    // Enough resolution to read report text in live frames without slowing recognition
+    private static final Size LIVE_ANALYSIS_SIZE = new Size(1280, 720);
+    
     private FragmentScanReportBinding binding;
     private ImageCapture imageCapture;
-    private TextRecognitionService textRecognitionService;
+    private ImageAnalysis imageAnalysis;
+    private LiveOcrAnalyzer liveOcrAnalyzer;
     private CompositeDisposable disposables;
+    private ExecutorService cameraExecutor;
     private boolean isFlashOn = false;
     
+    @Inject
+    TextRecognitionService textRecognitionService;
+    
+    @Inject
+    CapturedImageStore capturedImageStore;
+    
+    @Inject
+    TextRecognizerPool textRecognizerPool;
+    
     // Activity result launchers
     private ActivityResultLauncher<String> cameraPermissionLauncher;
     private ActivityResultLauncher<Intent> galleryLauncher;
@@ -61,7 +85,7 @@ public class ScanReportFragment extends Fragment {
         super.onCreate(savedInstanceState);
         
         disposables = new CompositeDisposable();
-        textRecognitionService = new TextRecognitionService(requireContext());
+        cameraExecutor = Executors.newSingleThreadExecutor();
         
         setupActivityResultLaunchers();
     }
@@ -146,16 +170,79 @@ public class ScanReportFragment extends Fragment {
             .requireLensFacing(CameraSelector.LENS_FACING_BACK)
             .build();
         
-        imageCapture = new ImageCapture.Builder().build();
+        imageCapture = new ImageCapture.Builder()
+            .setCaptureMode(ImageCapture.CAPTURE_MODE_MINIMIZE_LATENCY)
+            .build();
+        
+        // Live OCR on preview frames; only the newest frame is kept while recognition runs
+        imageAnalysis = new ImageAnalysis.Builder()
+            .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+            .setResolutionSelector(new ResolutionSelector.Builder()
+                .setResolutionStrategy(new ResolutionStrategy(LIVE_ANALYSIS_SIZE,
+                    ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                .build())
+            .build();
+        if (liveOcrAnalyzer != null) {
+            liveOcrAnalyzer.stop();
+        }
+        liveOcrAnalyzer = new LiveOcrAnalyzer(textRecognizerPool,
+            ContextCompat.getMainExecutor(requireContext()), this::showLiveReadings);
+        imageAnalysis.setAnalyzer(cameraExecutor, liveOcrAnalyzer);
         
         preview.setSurfaceProvider(binding.cameraPreview.getSurfaceProvider());
         
         try {
             cameraProvider.unbindAll();
-            cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture);
+            cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture, imageAnalysis);
         } catch (Exception e) {
-            Toast.makeText(getContext(), "Camera binding failed: " + e.getMessage(), 
-                Toast.LENGTH_SHORT).show();
+            // Some devices cannot run analysis alongside capture; fall back to capture-then-recognize
+            try {
+                stopLiveOcr();
+                cameraProvider.unbindAll();
+                cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture);
+            } catch (Exception fallbackError) {
+                Toast.makeText(getContext(), "Camera binding failed: " + fallbackError.getMessage(), 
+                    Toast.LENGTH_SHORT).show();
+            }
+        }
+    }
+    
+    /**
+     * Show lab values settled across live frames over the preview
+     */
+    private void showLiveReadings(List<LabValueLexer.LabReading> readings) {
+        if (binding == null) {
+            return;
+        }
+        if (readings.isEmpty()) {
+            binding.textLiveValues.setVisibility(View.GONE);
+            return;
+        }
+        
+        StringBuilder text = new StringBuilder();
+        for (LabValueLexer.LabReading reading : readings) {
+            if (text.length() > 0) {
+                text.append("\n");
+            }
+            text.append(reading.getTest().getDisplayName()).append(": ").append(reading.getValue());
+            if (reading.getSecondValue() != null) {
+                text.append("/").append(reading.getSecondValue());
+            }
+            if (!reading.getUnit().isEmpty()) {
+                text.append(" ").append(reading.getUnit());
+            }
+        }
+        binding.textLiveValues.setText(text);
+        binding.textLiveValues.setVisibility(View.VISIBLE);
+    }
+    
+    private void stopLiveOcr() {
+        if (imageAnalysis != null) {
+            imageAnalysis.clearAnalyzer();
+        }
+        if (liveOcrAnalyzer != null) {
+            liveOcrAnalyzer.stop();
+            liveOcrAnalyzer = null;
         }
     }
     
@@ -164,33 +251,57 @@ public class ScanReportFragment extends Fragment {
             return;
         }
         
-        // Create output file
-        File photoFile = new File(requireContext().getExternalFilesDir(null), 
-            "report_" + System.currentTimeMillis() + ".jpg");
-        
-        ImageCapture.OutputFileOptions outputOptions = new ImageCapture.OutputFileOptions.Builder(photoFile)
-            .build();
+        // Text already settled from live frames is used as is, without a second recognition pass
+        String liveText = liveOcrAnalyzer != null ? liveOcrAnalyzer.getStableText() : null;
         
         showParentProcessing("Capturing image...");
         
-        imageCapture.takePicture(
-            outputOptions,
-            ContextCompat.getMainExecutor(requireContext()),
-            new ImageCapture.OnImageSavedCallback() {
+        disposables.add(
+            takePicture()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                    capture -> {
+                        if (liveText != null) {
+                            hideParentProcessing();
+                            navigateToCapturedResult(capture, liveText);
+                        } else {
+                            processImageFromCamera(capture);
+                        }
+                    },
+                    error -> {
+                        hideParentProcessing();
+                        Toast.makeText(getContext(), "Photo capture failed: " + error.getMessage(), 
+                            Toast.LENGTH_SHORT).show();
+                    }
+                )
+        );
+    }
+    
+    /**
+     * Capture a photo into memory. The JPEG is copied out of the camera buffer
+     * and kept in the CapturedImageStore; no file is written until the report is saved.
+     */
+    private Single<CapturedImageStore.CapturedImage> takePicture() {
+        return Single.create(emitter -> imageCapture.takePicture(
+            cameraExecutor,
+            new ImageCapture.OnImageCapturedCallback() {
                 @Override
-                public void onImageSaved(@NonNull ImageCapture.OutputFileResults output) {
-                    Uri imageUri = Uri.fromFile(photoFile);
-                    processImageFromCamera(imageUri);
+                public void onCaptureSuccess(@NonNull ImageProxy image) {
+                    try {
+                        emitter.onSuccess(capturedImageStore.put(image));
+                    } catch (Exception e) {
+                        emitter.tryOnError(e);
+                    } finally {
+                        image.close();
+                    }
                 }
                 
                 @Override
                 public void onError(@NonNull ImageCaptureException exception) {
-                    hideParentProcessing();
-                    Toast.makeText(getContext(), "Photo capture failed: " + exception.getMessage(), 
-                        Toast.LENGTH_SHORT).show();
+                    emitter.tryOnError(exception);
                 }
             }
-        );
+        ));
     }
     
     private void openGallery() {
@@ -210,20 +321,20 @@ public class ScanReportFragment extends Fragment {
             Toast.LENGTH_SHORT).show();
     }
     
-    private void processImageFromCamera(Uri imageUri) {
+    private void processImageFromCamera(CapturedImageStore.CapturedImage capture) {
         showParentProcessing("Extracting text...");
         
         disposables.add(
-            textRecognitionService.extractTextFromImage(imageUri)
-                .subscribeOn(Schedulers.io())
+            textRecognitionService.extractTextFromCapture(capture)
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
                     extractedText -> {
                         hideParentProcessing();
-                        navigateToTextResult(imageUri, extractedText);
+                        navigateToCapturedResult(capture, extractedText);
                     },
                     error -> {
                         hideParentProcessing();
+                        capturedImageStore.remove(capture.getKey());
                         Toast.makeText(getContext(), "Text extraction failed: " + error.getMessage(), 
                             Toast.LENGTH_LONG).show();
                     }
@@ -259,6 +370,13 @@ public class ScanReportFragment extends Fragment {
         startActivity(intent);
     }
     
+    private void navigateToCapturedResult(CapturedImageStore.CapturedImage capture, String extractedText) {
+        Intent intent = new Intent(getContext(), TextResultActivity.class);
+        intent.putExtra("captured_image_key", capture.getKey());
+        intent.putExtra("extracted_text", extractedText);
+        startActivity(intent);
+    }
+    
     private void showParentProcessing(String message) {
         if (getParentFragment() instanceof ReportsFragment) {
             ((ReportsFragment) getParentFragment()).showProcessing(message);
@@ -274,12 +392,10 @@ public class ScanReportFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        stopLiveOcr();
         if (disposables != null) {
             disposables.clear();
         }
-        if (textRecognitionService != null) {
-            textRecognitionService.cleanup();
-        }
         binding = null;
     }
     
@@ -289,5 +405,8 @@ public class ScanReportFragment extends Fragment {
         if (disposables != null) {
             disposables.dispose();
         }
+        if (cameraExecutor != null) {
+            cameraExecutor.shutdown();
+        }
     }
 }
\ No newline at end of file
@@ -33,10 +33,12 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class UploadReportFragment extends Fragment {
     
     private FragmentUploadReportBinding binding;
-    private TextRecognitionService textRecognitionService;
     private CompositeDisposable disposables;
     private Uri selectedImageUri;
     
+    @Inject
+    TextRecognitionService textRecognitionService;
+    
     // Activity result launcher
     private ActivityResultLauncher<Intent> imagePickerLauncher;
     
@@ -45,7 +47,6 @@ public class UploadReportFragment extends Fragment {
         super.onCreate(savedInstanceState);
         
         disposables = new CompositeDisposable();
-        textRecognitionService = new TextRecognitionService(requireContext());
         
         setupActivityResultLauncher();
     }
@@ -213,9 +214,6 @@ public class UploadReportFragment extends Fragment {
         if (disposables != null) {
             disposables.clear();
         }
-        if (textRecognitionService != null) {
-            textRecognitionService.cleanup();
-        }
         binding = null;
     }
     
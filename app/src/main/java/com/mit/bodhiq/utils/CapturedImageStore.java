@@ -0,0 +1,133 @@
+package com.mit.bodhiq.utils;
+
+import android.content.Context;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import androidx.camera.core.ImageProxy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Keeps the most recent camera capture in memory between the scan screen and
+ * the result screen. Capturing no longer writes a JPEG to disk before OCR;
+ * the encoded bytes are held here and only written to a file when the user
+ * saves the report. Only one capture is kept, and it does not survive process
+ * death, in which case the result screen simply has no image.
+ */
+@Singleton
+public class CapturedImageStore {
+
+    private final Context context;
+    private CapturedImage latest;
+
+    @Inject
+    public CapturedImageStore(@ApplicationContext Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Copy a JPEG capture out of the camera buffer and keep it as the latest capture.
+     * The caller still owns the proxy and must close it.
+     *
+     * @param image In-memory JPEG capture from ImageCapture
+     * @return The stored capture
+     */
+    public CapturedImage put(ImageProxy image) {
+        ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+        byte[] jpeg = new byte[buffer.remaining()];
+        buffer.get(jpeg);
+
+        long capturedAt = System.currentTimeMillis();
+        CapturedImage captured = new CapturedImage("capture_" + capturedAt, jpeg,
+            image.getImageInfo().getRotationDegrees(), capturedAt);
+        synchronized (this) {
+            latest = captured;
+        }
+        return captured;
+    }
+
+    /**
+     * @param key Key returned with the capture
+     * @return The capture, or null if it has been replaced or dropped
+     */
+    public synchronized CapturedImage get(String key) {
+        return latest != null && latest.getKey().equals(key) ? latest : null;
+    }
+
+    /**
+     * Drop the capture if it is still the latest one.
+     */
+    public synchronized void remove(String key) {
+        if (latest != null && latest.getKey().equals(key)) {
+            latest = null;
+        }
+    }
+
+    /**
+     * Write a capture to app storage, recording its rotation as EXIF orientation.
+     *
+     * @param image Capture to write
+     * @return Single emitting the file URI
+     */
+    public Single<Uri> saveToFile(CapturedImage image) {
+        return Single.fromCallable(() -> {
+            File photoFile = new File(context.getExternalFilesDir(null),
+                "report_" + image.getCapturedAt() + ".jpg");
+            try (FileOutputStream out = new FileOutputStream(photoFile)) {
+                out.write(image.getJpeg());
+            }
+
+            ExifInterface exif = new ExifInterface(photoFile.getAbsolutePath());
+            exif.setAttribute(ExifInterface.TAG_ORIENTATION,
+                String.valueOf(exifOrientation(image.getRotationDegrees())));
+            exif.saveAttributes();
+            return Uri.fromFile(photoFile);
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private static int exifOrientation(int rotationDegrees) {
+        switch (rotationDegrees) {
+            case 90:
+                return ExifInterface.ORIENTATION_ROTATE_90;
+            case 180:
+                return ExifInterface.ORIENTATION_ROTATE_180;
+            case 270:
+                return ExifInterface.ORIENTATION_ROTATE_270;
+            default:
+                return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * Encoded capture with the rotation that makes it upright
+     */
+    public static class CapturedImage {
+        private final String key;
+        private final byte[] jpeg;
+        private final int rotationDegrees;
+        private final long capturedAt;
+
+        CapturedImage(String key, byte[] jpeg, int rotationDegrees, long capturedAt) {
+            this.key = key;
+            this.jpeg = jpeg;
+            this.rotationDegrees = rotationDegrees;
+            this.capturedAt = capturedAt;
+        }
+
+        public String getKey() { return key; }
+        public byte[] getJpeg() { return jpeg; }
+        public int getRotationDegrees() { return rotationDegrees; }
+        public long getCapturedAt() { return capturedAt; }
+    }
+}
@@ -0,0 +1,249 @@
+package com.mit.bodhiq.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OCR-tolerant lookup of lab test names, for tokens the exact trie in
+ * {@link LabValueLexer} does not recognize ("Hem0globin", "Haemog1obin").
+ * Built as a symmetric-delete index: every alias contributes the strings
+ * obtained by deleting up to two characters from its first
+ * {@value #PREFIX_LENGTH} characters, so a lookup only generates the same
+ * few dozen deletes of the token and verifies the handful of candidates
+ * they hit. Cost per token is therefore constant in the number of aliases.
+ * Short aliases (hb, alt, t3) are never matched fuzzily.
+ */
+final class FuzzyLabTestIndex {
+
+    static final int MIN_FUZZY_LENGTH = 5;
+
+    private static final int PREFIX_LENGTH = 7;
+    private static final int MAX_DISTANCE = 2;
+
+    // Edit costs in half-edits; substituting a character OCR commonly confuses costs half an edit
+    private static final int EDIT_COST = 2;
+    private static final int CONFUSABLE_COST = 1;
+
+    private static final float EDIT_PENALTY = 0.15f;
+    private static final float CONFUSABLE_PENALTY = 0.05f;
+
+    private static final char[][] CONFUSABLE_PAIRS = {
+        {'0', 'o'}, {'1', 'l'}, {'1', 'i'}, {'l', 'i'}, {'5', 's'}, {'8', 'b'},
+        {'6', 'g'}, {'9', 'g'}, {'2', 'z'}, {'c', 'e'}, {'u', 'v'}
+    };
+    // ASCII lookup table built from CONFUSABLE_PAIRS
+    private static final boolean[][] CONFUSABLE = new boolean[128][128];
+
+    static {
+        for (char[] pair : CONFUSABLE_PAIRS) {
+            CONFUSABLE[pair[0]][pair[1]] = true;
+            CONFUSABLE[pair[1]][pair[0]] = true;
+        }
+    }
+
+    private final List<String> aliases = new ArrayList<>();
+    private final List<LabTest> tests = new ArrayList<>();
+    private final Map<String, int[]> deletes = new HashMap<>();
+
+    FuzzyLabTestIndex() {
+        Map<String, List<Integer>> index = new HashMap<>();
+        for (LabTest test : LabTest.values()) {
+            for (String alias : test.getAliases()) {
+                if (alias.length() < MIN_FUZZY_LENGTH) {
+                    continue;
+                }
+                int id = aliases.size();
+                aliases.add(alias);
+                tests.add(test);
+                for (String delete : deletesOf(alias)) {
+                    List<Integer> ids = index.get(delete);
+                    if (ids == null) {
+                        ids = new ArrayList<>(2);
+                        index.put(delete, ids);
+                    }
+                    ids.add(id);
+                }
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            int[] ids = new int[entry.getValue().size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = entry.getValue().get(i);
+            }
+            deletes.put(entry.getKey(), ids);
+        }
+    }
+
+    /**
+     * Resolve a noisy token to a lab test.
+     *
+     * @param token One or more words, single-spaced
+     * @return The closest test and how confident the match is, or null if none is close enough
+     */
+    Resolution resolve(String token) {
+        if (token.length() < MIN_FUZZY_LENGTH) {
+            return null;
+        }
+        String key = token.toLowerCase(Locale.ROOT);
+
+        int bestId = -1;
+        int bestCost = Integer.MAX_VALUE;
+        int bestConfusables = 0;
+        BitSet checked = new BitSet(aliases.size());
+        for (String delete : deleteList(key)) {
+            int[] ids = deletes.get(delete);
+            if (ids == null) {
+                continue;
+            }
+            for (int id : ids) {
+                if (checked.get(id)) {
+                    continue;
+                }
+                checked.set(id);
+                String alias = aliases.get(id);
+                int allowed = allowedDistance(alias) * EDIT_COST;
+                if (Math.abs(alias.length() - key.length()) * EDIT_COST > allowed) {
+                    continue;
+                }
+                long cost = distance(key, alias);
+                int total = (int) (cost >>> 32);
+                if (total <= allowed && (total < bestCost
+                        || (total == bestCost && alias.length() > aliases.get(bestId).length()))) {
+                    bestId = id;
+                    bestCost = total;
+                    bestConfusables = (int) cost;
+                }
+            }
+        }
+        if (bestId < 0) {
+            return null;
+        }
+
+        int edits = (bestCost - bestConfusables * CONFUSABLE_COST) / EDIT_COST;
+        float confidence = 1.0f - edits * EDIT_PENALTY - bestConfusables * CONFUSABLE_PENALTY;
+        return new Resolution(tests.get(bestId), Math.max(0.5f, confidence));
+    }
+
+    private static int allowedDistance(String alias) {
+        return alias.length() >= 9 ? MAX_DISTANCE : 1;
+    }
+
+    /**
+     * All strings obtained by deleting up to {@value #MAX_DISTANCE} characters from the prefix.
+     */
+    private static Set<String> deletesOf(String word) {
+        return new HashSet<>(deleteList(word));
+    }
+
+    /**
+     * Same as {@link #deletesOf} but may contain duplicates; cheaper for lookups.
+     */
+    private static List<String> deleteList(String word) {
+        int length = Math.min(word.length(), PREFIX_LENGTH);
+        char[] prefix = word.substring(0, length).toCharArray();
+        char[] buffer = new char[length];
+        List<String> result = new ArrayList<>(1 + length * (length + 1) / 2);
+        result.add(new String(prefix));
+        for (int i = 0; i < length; i++) {
+            // Delete character i
+            System.arraycopy(prefix, 0, buffer, 0, i);
+            System.arraycopy(prefix, i + 1, buffer, i, length - i - 1);
+            result.add(new String(buffer, 0, length - 1));
+            for (int j = i; j < length - 1; j++) {
+                // ...and then character j of what is left
+                char[] second = new char[length - 2];
+                System.arraycopy(buffer, 0, second, 0, j);
+                System.arraycopy(buffer, j + 1, second, j, length - j - 2);
+                result.add(new String(second));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Weighted Damerau-Levenshtein distance over three rolling rows.
+     *
+     * @return Cost in half-edits in the high 32 bits, number of confusable
+     *         substitutions on the cheapest path in the low 32 bits
+     */
+    private static long distance(String a, String b) {
+        int cols = b.length() + 1;
+        int[] previous2 = new int[cols];
+        int[] previous = new int[cols];
+        int[] current = new int[cols];
+        int[] confusablesPrevious2 = new int[cols];
+        int[] confusablesPrevious = new int[cols];
+        int[] confusablesCurrent = new int[cols];
+        for (int j = 0; j < cols; j++) {
+            previous[j] = j * EDIT_COST;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            char ca = a.charAt(i - 1);
+            current[0] = i * EDIT_COST;
+            confusablesCurrent[0] = 0;
+            for (int j = 1; j < cols; j++) {
+                char cb = b.charAt(j - 1);
+                int substitution;
+                boolean confusable = false;
+                if (ca == cb) {
+                    substitution = 0;
+                } else if (isConfusable(ca, cb)) {
+                    substitution = CONFUSABLE_COST;
+                    confusable = true;
+                } else {
+                    substitution = EDIT_COST;
+                }
+
+                int best = previous[j - 1] + substitution;
+                int bestConfusables = confusablesPrevious[j - 1] + (confusable ? 1 : 0);
+                if (previous[j] + EDIT_COST < best) {
+                    best = previous[j] + EDIT_COST;
+                    bestConfusables = confusablesPrevious[j];
+                }
+                if (current[j - 1] + EDIT_COST < best) {
+                    best = current[j - 1] + EDIT_COST;
+                    bestConfusables = confusablesCurrent[j - 1];
+                }
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb
+                        && previous2[j - 2] + EDIT_COST < best) {
+                    best = previous2[j - 2] + EDIT_COST;
+                    bestConfusables = confusablesPrevious2[j - 2];
+                }
+                current[j] = best;
+                confusablesCurrent[j] = bestConfusables;
+            }
+            int[] rotate = previous2;
+            previous2 = previous;
+            previous = current;
+            current = rotate;
+            rotate = confusablesPrevious2;
+            confusablesPrevious2 = confusablesPrevious;
+            confusablesPrevious = confusablesCurrent;
+            confusablesCurrent = rotate;
+        }
+        return ((long) previous[cols - 1] << 32) | confusablesPrevious[cols - 1];
+    }
+
+    private static boolean isConfusable(char a, char b) {
+        return a < 128 && b < 128 && CONFUSABLE[a][b];
+    }
+
+    /**
+     * A lab test resolved from a noisy token.
+     */
+    static final class Resolution {
+        final LabTest test;
+        final float confidence;
+
+        Resolution(LabTest test, float confidence) {
+            this.test = test;
+            this.confidence = confidence;
+        }
+    }
+}
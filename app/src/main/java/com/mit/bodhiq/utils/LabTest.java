@@ -0,0 +1,68 @@
+package com.mit.bodhiq.utils;
+
+/**
+ * Lab tests recognized in report text, with the names reports use for them.
+ * Aliases are lowercase and single-spaced; {@link LabValueLexer} matches them
+ * case-insensitively and across any run of whitespace.
+ */
+public enum LabTest {
+    // Blood work
+    HEMOGLOBIN("Hemoglobin", false, "hemoglobin", "haemoglobin", "hgb", "hb"),
+    HEMATOCRIT("Hematocrit", false, "hematocrit", "haematocrit", "hct"),
+    WHITE_BLOOD_CELLS("White Blood Cells", false,
+        "white blood cells", "white blood cell", "wbc", "leucocytes", "leucocyte", "leukocytes", "leukocyte"),
+    RED_BLOOD_CELLS("Red Blood Cells", false,
+        "red blood cells", "red blood cell", "rbc", "erythrocytes", "erythrocyte"),
+    PLATELETS("Platelets", false, "platelets", "platelet", "platelet count", "plt"),
+
+    // Metabolic panel
+    GLUCOSE("Glucose", false, "glucose", "blood sugar", "fasting glucose", "fbs", "rbs"),
+    CHOLESTEROL_TOTAL("Cholesterol Total", false, "cholesterol", "total cholesterol"),
+    HDL_CHOLESTEROL("HDL Cholesterol", false, "hdl", "hdl cholesterol"),
+    LDL_CHOLESTEROL("LDL Cholesterol", false, "ldl", "ldl cholesterol"),
+    TRIGLYCERIDES("Triglycerides", false, "triglycerides", "triglyceride", "tg"),
+
+    // Liver function
+    ALT("ALT", false, "alt", "alanine aminotransferase", "sgpt"),
+    AST("AST", false, "ast", "aspartate aminotransferase", "sgot"),
+    BILIRUBIN_TOTAL("Bilirubin Total", false, "bilirubin", "total bilirubin"),
+
+    // Kidney function
+    CREATININE("Creatinine", false, "creatinine", "creat"),
+    BUN("BUN", false, "bun", "blood urea nitrogen", "urea"),
+
+    // Thyroid function
+    TSH("TSH", false, "tsh", "thyroid stimulating hormone"),
+    T3("T3", false, "t3", "triiodothyronine"),
+    T4("T4", false, "t4", "thyroxine"),
+
+    // Electrolytes
+    SODIUM("Sodium", false, "sodium", "serum sodium"),
+    POTASSIUM("Potassium", false, "potassium", "serum potassium"),
+    CALCIUM("Calcium", false, "calcium", "serum calcium"),
+
+    // Vital signs
+    BLOOD_PRESSURE("Blood Pressure", true, "blood pressure", "bp"),
+    BLOOD_PRESSURE_SYSTOLIC("Blood Pressure Systolic", false, "systolic"),
+    BLOOD_PRESSURE_DIASTOLIC("Blood Pressure Diastolic", false, "diastolic"),
+    HEART_RATE("Heart Rate", false, "heart rate", "pulse", "hr");
+
+    private final String displayName;
+    private final boolean paired;
+    private final String[] aliases;
+
+    LabTest(String displayName, boolean paired, String... aliases) {
+        this.displayName = displayName;
+        this.paired = paired;
+        this.aliases = aliases;
+    }
+
+    public String getDisplayName() { return displayName; }
+
+    /**
+     * @return True if the test is reported as two numbers, e.g. 120/80
+     */
+    public boolean isPaired() { return paired; }
+
+    String[] getAliases() { return aliases; }
+}
@@ -0,0 +1,246 @@
+package com.mit.bodhiq.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A lab unit parsed into a dimension code and a scale factor relative to the
+ * dimension's base unit, e.g. "mg/dl" is MASS_CONCENTRATION with scale 0.01
+ * (g/L). Spellings seen in reports ("gm/dl", "x10³/μl", "lakhs/cumm",
+ * "10^9/L") parse to the same codes, and each distinct string is parsed once
+ * and cached, so conversion at query time is a multiplication.
+ */
+public final class LabUnit {
+
+    // Dimensions and their base units
+    public static final int UNKNOWN = 0;
+    public static final int MASS_CONCENTRATION = 1;       // g/L
+    public static final int MOLAR_CONCENTRATION = 2;      // mol/L
+    public static final int EQUIVALENT_CONCENTRATION = 3; // Eq/L
+    public static final int COUNT_CONCENTRATION = 4;      // cells/L
+    public static final int ACTIVITY_CONCENTRATION = 5;   // IU/L
+    public static final int FRACTION = 6;                 // %
+    public static final int PRESSURE = 7;                 // mmHg
+    public static final int RATE = 8;                     // per minute
+
+    public static final LabUnit NONE = new LabUnit("", UNKNOWN, Double.NaN);
+
+    private static final Map<String, LabUnit> CACHE = new ConcurrentHashMap<>();
+
+    private final String text;
+    private final int dimension;
+    private final double scale;
+
+    private LabUnit(String text, int dimension, double scale) {
+        this.text = text;
+        this.dimension = dimension;
+        this.scale = scale;
+    }
+
+    /**
+     * Parse a unit string.
+     *
+     * @param unit Unit as printed in a report, may be null
+     * @return The parsed unit; {@link #NONE} if the string is empty, an {@link #UNKNOWN}
+     *         dimension if it is not understood
+     */
+    public static LabUnit parse(String unit) {
+        if (unit == null || unit.trim().isEmpty()) {
+            return NONE;
+        }
+        LabUnit parsed = CACHE.get(unit);
+        if (parsed == null) {
+            parsed = parseUncached(unit);
+            CACHE.put(unit, parsed);
+        }
+        return parsed;
+    }
+
+    public String getText() { return text; }
+
+    public int getDimension() { return dimension; }
+
+    /**
+     * @return Factor converting a value in this unit to the dimension's base unit
+     */
+    public double getScale() { return scale; }
+
+    public boolean isKnown() { return dimension != UNKNOWN; }
+
+    private static LabUnit parseUncached(String unit) {
+        String key = normalize(unit);
+        if (key.length() > 1 && key.endsWith("%") && !Double.isNaN(prefixed(key.substring(0, key.length() - 1), "g"))) {
+            // Older reports write g/dL as "gm%" and mg/dL as "mg%"
+            key = key.substring(0, key.length() - 1) + "/dl";
+        }
+        int slash = key.indexOf('/');
+
+        if (key.equals("%")) {
+            return new LabUnit(unit, FRACTION, 1);
+        }
+        if (key.equals("mmhg")) {
+            return new LabUnit(unit, PRESSURE, 1);
+        }
+        if (key.equals("bpm") || key.equals("/min") || key.equals("beats/min")) {
+            return new LabUnit(unit, RATE, 1);
+        }
+        if (slash < 0) {
+            // A bare count multiplier, e.g. "lakhs"
+            double multiplier = countMultiplier(key);
+            return Double.isNaN(multiplier) ? new LabUnit(unit, UNKNOWN, Double.NaN)
+                : new LabUnit(unit, COUNT_CONCENTRATION, multiplier * 1e6);
+        }
+
+        double volume = volume(key.substring(slash + 1));
+        String numerator = key.substring(0, slash);
+        if (Double.isNaN(volume)) {
+            return new LabUnit(unit, UNKNOWN, Double.NaN);
+        }
+
+        double scale;
+        if (!Double.isNaN(scale = prefixed(numerator, "g"))) {
+            return new LabUnit(unit, MASS_CONCENTRATION, scale / volume);
+        }
+        if (!Double.isNaN(scale = prefixed(numerator, "mol"))) {
+            return new LabUnit(unit, MOLAR_CONCENTRATION, scale / volume);
+        }
+        if (!Double.isNaN(scale = prefixed(numerator, "eq"))) {
+            return new LabUnit(unit, EQUIVALENT_CONCENTRATION, scale / volume);
+        }
+        if (!Double.isNaN(scale = prefixed(numerator, "iu")) || !Double.isNaN(scale = prefixed(numerator, "u"))) {
+            return new LabUnit(unit, ACTIVITY_CONCENTRATION, scale / volume);
+        }
+        if (!Double.isNaN(scale = countMultiplier(numerator))) {
+            return new LabUnit(unit, COUNT_CONCENTRATION, scale / volume);
+        }
+        return new LabUnit(unit, UNKNOWN, Double.NaN);
+    }
+
+    /**
+     * Lowercase, drop whitespace, and fold the spellings labs use for the same thing.
+     */
+    private static String normalize(String unit) {
+        StringBuilder builder = new StringBuilder(unit.length());
+        for (int i = 0; i < unit.length(); i++) {
+            char c = unit.charAt(i);
+            if (Character.isWhitespace(c) || c == '^' || c == '*' || c == '.') {
+                continue;
+            }
+            switch (c) {
+                case 'μ':
+                case 'µ':
+                    builder.append('u');
+                    break;
+                case '×':
+                    builder.append('x');
+                    break;
+                case '³':
+                    builder.append('3');
+                    break;
+                case '⁶':
+                    builder.append('6');
+                    break;
+                case '⁹':
+                    builder.append('9');
+                    break;
+                default:
+                    builder.append(Character.toLowerCase(c));
+            }
+        }
+        String key = builder.toString();
+        if (key.startsWith("gm/") || key.startsWith("gms/") || key.startsWith("gm%") || key.startsWith("gms%")) {
+            key = "g" + key.substring(key.startsWith("gms") ? 3 : 2);
+        }
+        return key.replace("mcg", "ug").replace("cells", "");
+    }
+
+    /**
+     * Liters per unit volume of a denominator, e.g. 0.1 for "dl"; NaN if not a volume.
+     */
+    private static double volume(String denominator) {
+        switch (denominator) {
+            case "l":
+                return 1;
+            case "dl":
+                return 1e-1;
+            case "ml":
+            case "cc":
+                return 1e-3;
+            case "ul":
+            case "cumm":
+            case "cmm":
+            case "mm3":
+                return 1e-6;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * Scale of an SI-prefixed unit, e.g. 1e-3 for "mg"; NaN if the base does not match.
+     */
+    private static double prefixed(String numerator, String base) {
+        if (!numerator.endsWith(base)) {
+            return Double.NaN;
+        }
+        switch (numerator.substring(0, numerator.length() - base.length())) {
+            case "":
+                return 1;
+            case "d":
+                return 1e-1;
+            case "m":
+                return 1e-3;
+            case "u":
+                return 1e-6;
+            case "n":
+                return 1e-9;
+            case "p":
+                return 1e-12;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * Multiplier of a count numerator, e.g. 1e3 for "x103", "10^3" or "k"; NaN if not a count.
+     */
+    private static double countMultiplier(String numerator) {
+        switch (numerator) {
+            case "":
+            case "cell":
+            case "count":
+                return 1;
+            case "k":
+            case "thou":
+            case "thousand":
+                return 1e3;
+            case "lakh":
+            case "lakhs":
+            case "lac":
+            case "lacs":
+                return 1e5;
+            case "m":
+            case "mill":
+            case "million":
+            case "millions":
+                return 1e6;
+            default:
+                break;
+        }
+        String exponent = numerator.startsWith("x10") ? numerator.substring(3)
+            : numerator.startsWith("10") ? numerator.substring(2) : null;
+        if (exponent != null && !exponent.isEmpty() && exponent.length() <= 2) {
+            try {
+                return Math.pow(10, Integer.parseInt(exponent));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
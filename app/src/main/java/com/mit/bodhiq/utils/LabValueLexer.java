@@ -0,0 +1,508 @@
+package com.mit.bodhiq.utils;
+
+import com.mit.bodhiq.data.model.ParsedField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Single-pass lexer for lab values in OCR text.
+ * Every test name from {@link LabTest} is compiled once into a character trie,
+ * and the text is scanned left to right a single time: at each word start the
+ * trie yields the longest test name, after which the value, the optional second
+ * value of a paired test (120/80), the unit and a printed reference range are
+ * read in place. No per-test regex and no lowercased copy of the text are made.
+ * Names the trie does not know are retried against a {@link FuzzyLabTestIndex}
+ * when a value follows them, so OCR-garbled names still yield a reading, with a
+ * confidence below 1.
+ */
+public final class LabValueLexer {
+
+    // a-z, 0-9 and a single space standing for any run of whitespace
+    private static final int ALPHABET = 26 + 10 + 1;
+    private static final int SPACE = ALPHABET - 1;
+
+    private static final String[] BARE_UNITS = {"mmhg", "bpm", "fl", "pg", "iu", "u", "lakh", "lakhs"};
+
+    private static final int MAX_FUZZY_WORDS = 3;
+
+    private static final Node ROOT = buildTrie();
+    private static final FuzzyLabTestIndex FUZZY_INDEX = new FuzzyLabTestIndex();
+
+    private LabValueLexer() {
+    }
+
+    /**
+     * Scan text for lab values.
+     *
+     * @param text OCR text, may be null
+     * @return Readings in the order they appear in the text
+     */
+    public static List<LabReading> scan(String text) {
+        List<LabReading> readings = new ArrayList<>();
+        if (text == null) {
+            return readings;
+        }
+
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            if (!Character.isLetter(text.charAt(pos))
+                    || (pos > 0 && Character.isLetterOrDigit(text.charAt(pos - 1)))) {
+                pos++;
+                continue;
+            }
+
+            Node match = null;
+            int nameEnd = -1;
+            Node node = ROOT;
+            int cursor = pos;
+            while (cursor < length && node != null) {
+                char c = text.charAt(cursor);
+                // Names never span lines, so only blanks match the space in an alias
+                if (c == ' ' || c == '\t') {
+                    cursor = skipBlanks(text, cursor);
+                    node = node.children[SPACE];
+                    continue;
+                }
+                int index = indexOf(c);
+                if (index < 0) {
+                    break;
+                }
+                node = node.children[index];
+                cursor++;
+                if (node != null && node.test != null && isNameBoundary(text, cursor)) {
+                    match = node;
+                    nameEnd = cursor;
+                }
+            }
+
+            if (match == null) {
+                LabReading reading = readFuzzy(text, pos);
+                if (reading != null) {
+                    readings.add(reading);
+                    pos = reading.getEnd();
+                    continue;
+                }
+                // Not a test name: skip the rest of the word
+                while (pos < length && Character.isLetterOrDigit(text.charAt(pos))) {
+                    pos++;
+                }
+                continue;
+            }
+
+            LabReading reading = readValue(text, pos, nameEnd, match.test, 1.0f);
+            if (reading != null) {
+                readings.add(reading);
+                pos = reading.getEnd();
+            } else {
+                pos = nameEnd;
+            }
+        }
+        return readings;
+    }
+
+    /**
+     * Try to read a test name garbled by OCR, of up to {@value #MAX_FUZZY_WORDS} words,
+     * starting at pos. Only names directly followed by a value are looked up.
+     */
+    private static LabReading readFuzzy(String text, int pos) {
+        int length = text.length();
+        int[] wordEnds = new int[MAX_FUZZY_WORDS];
+        int words = 0;
+        int cursor = pos;
+        while (words < MAX_FUZZY_WORDS && cursor < length && Character.isLetterOrDigit(text.charAt(cursor))) {
+            while (cursor < length && Character.isLetterOrDigit(text.charAt(cursor))) {
+                cursor++;
+            }
+            wordEnds[words++] = cursor;
+            cursor = skipBlanks(text, cursor);
+        }
+
+        // Longest phrase first, so "whlte blood ce11s" is not read as "blood"
+        for (int count = words; count > 0; count--) {
+            int end = wordEnds[count - 1];
+            if (end - pos < FuzzyLabTestIndex.MIN_FUZZY_LENGTH || !isValueAhead(text, end)) {
+                continue;
+            }
+            FuzzyLabTestIndex.Resolution resolution =
+                FUZZY_INDEX.resolve(singleSpaced(text, pos, end));
+            if (resolution != null) {
+                return readValue(text, pos, end, resolution.test, resolution.confidence);
+            }
+        }
+        return null;
+    }
+
+    private static String singleSpaced(String text, int start, int end) {
+        StringBuilder phrase = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '\t') {
+                if (phrase.charAt(phrase.length() - 1) != ' ') {
+                    phrase.append(' ');
+                }
+            } else {
+                phrase.append(c);
+            }
+        }
+        return phrase.toString();
+    }
+
+    private static boolean isValueAhead(String text, int pos) {
+        while (pos < text.length() && isSeparator(text.charAt(pos))) {
+            pos++;
+        }
+        return pos < text.length() && isDigit(text.charAt(pos));
+    }
+
+    private static LabReading readValue(String text, int nameStart, int nameEnd, LabTest test,
+                                        float confidence) {
+        int length = text.length();
+        int pos = nameEnd;
+        while (pos < length && isSeparator(text.charAt(pos))) {
+            pos++;
+        }
+
+        int valueEnd = readNumber(text, pos);
+        if (valueEnd < 0) {
+            return null;
+        }
+        String value = text.substring(pos, valueEnd);
+        pos = valueEnd;
+
+        String secondValue = null;
+        if (test.isPaired()) {
+            int slash = skipBlanks(text, pos);
+            if (slash < length && text.charAt(slash) == '/') {
+                int secondStart = skipBlanks(text, slash + 1);
+                int secondEnd = readNumber(text, secondStart);
+                if (secondEnd > 0) {
+                    secondValue = text.substring(secondStart, secondEnd);
+                    pos = secondEnd;
+                }
+            }
+        }
+
+        String unit = "";
+        int unitStart = skipBlanks(text, pos);
+        int unitEnd = readUnit(text, unitStart);
+        if (unitEnd > unitStart) {
+            unit = text.substring(unitStart, unitEnd);
+            pos = unitEnd;
+        }
+
+        String referenceRange = null;
+        int rangeStart = skipBlanks(text, pos);
+        int rangeEnd = readRange(text, rangeStart);
+        if (rangeEnd > rangeStart) {
+            referenceRange = compact(text, rangeStart, rangeEnd);
+            pos = rangeEnd;
+        }
+
+        return new LabReading(test, text.substring(nameStart, nameEnd), value, secondValue,
+            unit, referenceRange, confidence, nameStart, pos);
+    }
+
+    /**
+     * @return End of a number starting at pos (digits with an optional fraction), or -1
+     */
+    private static int readNumber(String text, int pos) {
+        int length = text.length();
+        int end = pos;
+        while (end < length && isDigit(text.charAt(end))) {
+            end++;
+        }
+        if (end == pos) {
+            return -1;
+        }
+        if (end + 1 < length && text.charAt(end) == '.' && isDigit(text.charAt(end + 1))) {
+            end++;
+            while (end < length && isDigit(text.charAt(end))) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return End of a unit starting at pos, or pos if there is none
+     */
+    private static int readUnit(String text, int pos) {
+        int length = text.length();
+        if (pos >= length || !isUnitStart(text.charAt(pos))) {
+            return pos;
+        }
+        int end = pos;
+        while (end < length && isUnitChar(text.charAt(end))) {
+            end++;
+        }
+        while (end > pos && text.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        String unit = text.substring(pos, end).toLowerCase(Locale.ROOT);
+        if (unit.equals("mm")) {
+            // "mm Hg"
+            int hg = skipBlanks(text, end);
+            if (hg + 2 <= length && text.regionMatches(true, hg, "hg", 0, 2)
+                    && (hg + 2 == length || !Character.isLetterOrDigit(text.charAt(hg + 2)))) {
+                return hg + 2;
+            }
+            return pos;
+        }
+        if (unit.indexOf('/') >= 0 || unit.indexOf('%') >= 0) {
+            return end;
+        }
+        for (String bare : BARE_UNITS) {
+            if (bare.equals(unit)) {
+                return end;
+            }
+        }
+        // A word that is not a unit, most likely the next test name
+        return pos;
+    }
+
+    /**
+     * @return End of a printed reference range such as 12.0-16.0, (70 - 100) or &lt;200, or pos
+     */
+    private static int readRange(String text, int pos) {
+        int length = text.length();
+        int cursor = pos;
+        char open = cursor < length ? text.charAt(cursor) : 0;
+        if (open == '(' || open == '[') {
+            cursor = skipBlanks(text, cursor + 1);
+        }
+
+        int end;
+        if (cursor < length && (text.charAt(cursor) == '<' || text.charAt(cursor) == '>')) {
+            end = readNumber(text, skipBlanks(text, cursor + 1));
+        } else {
+            int lowEnd = readNumber(text, cursor);
+            if (lowEnd < 0) {
+                return pos;
+            }
+            int dash = skipBlanks(text, lowEnd);
+            if (dash < length && (text.charAt(dash) == '-' || text.charAt(dash) == '–')) {
+                end = readNumber(text, skipBlanks(text, dash + 1));
+            } else {
+                return pos;
+            }
+        }
+        if (end < 0) {
+            return pos;
+        }
+        if (open == '(' || open == '[') {
+            int close = skipBlanks(text, end);
+            if (close < length && (text.charAt(close) == ')' || text.charAt(close) == ']')) {
+                end = close + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return The range text without brackets and blanks, e.g. "70-100"
+     */
+    private static String compact(String text, int start, int end) {
+        StringBuilder range = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '(' && c != ')' && c != '[' && c != ']' && !Character.isWhitespace(c)) {
+                range.append(c);
+            }
+        }
+        return range.toString();
+    }
+
+    private static int skipBlanks(String text, int pos) {
+        while (pos < text.length() && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isNameBoundary(String text, int pos) {
+        if (pos >= text.length()) {
+            return true;
+        }
+        char next = text.charAt(pos);
+        if (Character.isLetter(next)) {
+            return false;
+        }
+        if (!isDigit(next)) {
+            return true;
+        }
+        // "t3" must not match the start of "t34"
+        if (isDigit(text.charAt(pos - 1))) {
+            return false;
+        }
+        // "Hb12.5" is a name and a value, "Creat1nine" is one garbled word
+        int end = pos;
+        while (end < text.length() && (isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+            end++;
+        }
+        return end == text.length() || !Character.isLetter(text.charAt(end));
+    }
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == ':' || c == '=' || c == '-' || c == '(' || c == ')';
+    }
+
+    private static boolean isUnitStart(char c) {
+        return Character.isLetter(c) || c == '%' || c == '/' || c == '×';
+    }
+
+    private static boolean isUnitChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '/' || c == '%' || c == '×' || c == '³'
+            || c == '⁶' || c == '^' || c == '*' || c == '.';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int indexOf(char c) {
+        char lower = Character.toLowerCase(c);
+        if (lower >= 'a' && lower <= 'z') {
+            return lower - 'a';
+        }
+        if (lower >= '0' && lower <= '9') {
+            return 26 + (lower - '0');
+        }
+        return -1;
+    }
+
+    private static Node buildTrie() {
+        Node root = new Node();
+        for (LabTest test : LabTest.values()) {
+            for (String alias : test.getAliases()) {
+                Node node = root;
+                for (int i = 0; i < alias.length(); i++) {
+                    char c = alias.charAt(i);
+                    int index = c == ' ' ? SPACE : indexOf(c);
+                    if (node.children[index] == null) {
+                        node.children[index] = new Node();
+                    }
+                    node = node.children[index];
+                }
+                node.test = test;
+            }
+        }
+        return root;
+    }
+
+    private static final class Node {
+        final Node[] children = new Node[ALPHABET];
+        LabTest test;
+    }
+
+    /**
+     * One lab value found in the text.
+     */
+    public static final class LabReading {
+        private final LabTest test;
+        private final String label;
+        private final String value;
+        private final String secondValue;
+        private final String unit;
+        private final String referenceRange;
+        private final float confidence;
+        private final int start;
+        private final int end;
+
+        LabReading(LabTest test, String label, String value, String secondValue, String unit,
+                   String referenceRange, float confidence, int start, int end) {
+            this.test = test;
+            this.label = label;
+            this.value = value;
+            this.secondValue = secondValue;
+            this.unit = unit;
+            this.referenceRange = referenceRange;
+            this.confidence = confidence;
+            this.start = start;
+            this.end = end;
+        }
+
+        public LabTest getTest() { return test; }
+
+        /**
+         * @return The test name as written in the report, e.g. "Hgb"
+         */
+        public String getLabel() { return label; }
+
+        public String getValue() { return value; }
+
+        /**
+         * @return The second number of a paired test, or null
+         */
+        public String getSecondValue() { return secondValue; }
+
+        /**
+         * @return The unit as written in the report, or an empty string
+         */
+        public String getUnit() { return unit; }
+
+        /**
+         * @return The reference range printed next to the value, or null
+         */
+        public String getReferenceRange() { return referenceRange; }
+
+        /**
+         * @return 1 if the test name was read exactly, lower if it was corrected for OCR errors
+         */
+        public float getConfidence() { return confidence; }
+
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+
+        public double getNumericValue() {
+            return Double.parseDouble(value);
+        }
+
+        /**
+         * @return The value in the canonical unit of the test, or NaN if the unit cannot be converted
+         */
+        public double getCanonicalValue() {
+            return UnitConverter.toCanonical(test, getNumericValue(), unit);
+        }
+
+        /**
+         * @return The unit {@link #getCanonicalValue()} is expressed in
+         */
+        public String getCanonicalUnit() {
+            return UnitConverter.getCanonicalUnit(test);
+        }
+
+        /**
+         * Convert to a parsed report field, carrying over the name confidence.
+         *
+         * @return A field with no flag evaluated yet
+         */
+        public ParsedField toParsedField() {
+            String fieldValue = secondValue != null ? value + "/" + secondValue : value;
+            ParsedField field = new ParsedField(test.getDisplayName(), fieldValue, unit);
+            field.setReferenceRange(referenceRange);
+            field.setConfidence(confidence);
+            double canonicalValue = secondValue == null ? getCanonicalValue() : Double.NaN;
+            if (!Double.isNaN(canonicalValue)) {
+                field.setCanonicalValue(canonicalValue);
+                field.setCanonicalUnit(getCanonicalUnit());
+            }
+            return field;
+        }
+
+        @Override
+        public String toString() {
+            return "LabReading{" +
+                    "test=" + test +
+                    ", value='" + value + '\'' +
+                    (secondValue != null ? ", secondValue='" + secondValue + '\'' : "") +
+                    ", unit='" + unit + '\'' +
+                    (referenceRange != null ? ", referenceRange='" + referenceRange + '\'' : "") +
+                    (confidence < 1.0f ? ", confidence=" + confidence : "") +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.mit.bodhiq.utils;
+
+import android.media.Image;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.common.InputImage;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/**
+ * CameraX analyzer that recognizes text in live preview frames. Pair it with
+ * {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST}: at most one frame is in
+ * recognition at a time, and frames arriving while it runs or before the next
+ * slot are closed straight away. The gap between frames follows a moving
+ * average of measured OCR latency, so recognition takes a bounded share of the
+ * CPU on slow devices and runs more often on fast ones. Results are settled
+ * across frames by a {@link LiveTextStabilizer} before being reported.
+ */
+public class LiveOcrAnalyzer implements ImageAnalysis.Analyzer {
+
+    private static final String TAG = "LiveOcrAnalyzer";
+
+    // Wait this many OCR latencies between frames, i.e. keep OCR busy at most 1 / (1 + factor) of the time
+    private static final double IDLE_FACTOR = 1.0;
+    private static final long MIN_INTERVAL_MS = 150;
+    private static final long MAX_INTERVAL_MS = 1500;
+    private static final double LATENCY_SMOOTHING = 0.3;
+
+    /**
+     * Receives settled lab values on the listener executor
+     */
+    public interface Listener {
+        void onStableReadingsChanged(List<LabValueLexer.LabReading> readings);
+    }
+
+    private final TextRecognizerPool recognizerPool;
+    private final LiveTextStabilizer stabilizer = new LiveTextStabilizer();
+    private final Executor listenerExecutor;
+    private final Listener listener;
+
+    private double averageLatencyMs = MIN_INTERVAL_MS;
+    private long nextFrameAt;
+    private Disposable inFlight;
+    private boolean stopped;
+
+    public LiveOcrAnalyzer(TextRecognizerPool recognizerPool, Executor listenerExecutor, Listener listener) {
+        this.recognizerPool = recognizerPool;
+        this.listenerExecutor = listenerExecutor;
+        this.listener = listener;
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy image) {
+        Image mediaImage = image.getImage();
+        long now = SystemClock.uptimeMillis();
+        synchronized (this) {
+            if (stopped || inFlight != null || now < nextFrameAt || mediaImage == null) {
+                image.close();
+                return;
+            }
+            // Placeholder so frames arriving before subscribe() returns are skipped
+            inFlight = Disposable.empty();
+        }
+
+        InputImage input = InputImage.fromMediaImage(mediaImage, image.getImageInfo().getRotationDegrees());
+        // Closed when ML Kit is done with the frame; stop() only disposes, so it never
+        // closes a frame that is still being recognized
+        Disposable disposable = recognizerPool.process(input, image::close)
+            .subscribe(
+                text -> onFrameRecognized(text.getText(), now),
+                error -> {
+                    Log.w(TAG, "Live recognition failed: " + error.getMessage());
+                    onFrameRecognized(null, now);
+                }
+            );
+        synchronized (this) {
+            if (inFlight != null && !stopped) {
+                inFlight = disposable;
+            } else if (stopped) {
+                disposable.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return Text of the latest frame if it agrees with every settled value, otherwise null
+     */
+    public String getStableText() {
+        return stabilizer.getStableText();
+    }
+
+    /**
+     * Stop analyzing and drop the result of the frame in recognition, if any.
+     * That frame is closed once ML Kit has finished with it.
+     */
+    public void stop() {
+        Disposable disposable;
+        synchronized (this) {
+            stopped = true;
+            disposable = inFlight;
+            inFlight = null;
+        }
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    private void onFrameRecognized(String text, long startedAt) {
+        long finishedAt = SystemClock.uptimeMillis();
+        synchronized (this) {
+            averageLatencyMs += LATENCY_SMOOTHING * ((finishedAt - startedAt) - averageLatencyMs);
+            long interval = (long) (averageLatencyMs * IDLE_FACTOR);
+            nextFrameAt = finishedAt + Math.max(MIN_INTERVAL_MS, Math.min(MAX_INTERVAL_MS, interval));
+            inFlight = null;
+            if (stopped) {
+                return;
+            }
+        }
+
+        if (stabilizer.update(text)) {
+            List<LabValueLexer.LabReading> readings = stabilizer.getStableReadings();
+            listenerExecutor.execute(() -> listener.onStableReadingsChanged(readings));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.mit.bodhiq.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Settles lab values read from consecutive live camera frames. A single frame
+ * often misreads a digit or misses a line while the phone moves, so a value is
+ * only reported once the same reading for a test shows up in enough of the
+ * recent frames. Values that stop appearing drop out after the window passes.
+ * When the latest frame agrees with every settled value its text is kept, so
+ * a capture can reuse it instead of running recognition again.
+ */
+public class LiveTextStabilizer {
+
+    // Frames considered, and how many of them must agree on a value
+    private static final int WINDOW = 4;
+    private static final int MIN_VOTES = 2;
+
+    private final ArrayDeque<Map<LabTest, LabValueLexer.LabReading>> frames = new ArrayDeque<>();
+    private Map<LabTest, LabValueLexer.LabReading> stable = new EnumMap<>(LabTest.class);
+    private String stableText;
+
+    /**
+     * Add the text recognized in one frame.
+     *
+     * @param frameText Recognized text, may be null or empty for a frame with no text
+     * @return True if the set of settled values changed
+     */
+    public synchronized boolean update(String frameText) {
+        Map<LabTest, LabValueLexer.LabReading> frame = new EnumMap<>(LabTest.class);
+        for (LabValueLexer.LabReading reading : LabValueLexer.scan(frameText)) {
+            frame.putIfAbsent(reading.getTest(), reading);
+        }
+        frames.addLast(frame);
+        if (frames.size() > WINDOW) {
+            frames.removeFirst();
+        }
+
+        Map<LabTest, LabValueLexer.LabReading> settled = settle();
+        boolean changed = !sameValues(stable, settled);
+        stable = settled;
+
+        // Only the newest frame's text is trusted, so a capture after the page moved never gets stale text
+        stableText = !stable.isEmpty() && sameValues(stable, frame, stable.keySet()) ? frameText : null;
+        return changed;
+    }
+
+    /**
+     * @return Settled readings in test order
+     */
+    public synchronized List<LabValueLexer.LabReading> getStableReadings() {
+        return new ArrayList<>(stable.values());
+    }
+
+    /**
+     * @return Text of the latest frame if it agrees with every settled value, otherwise null
+     */
+    public synchronized String getStableText() {
+        return stableText;
+    }
+
+    public synchronized void reset() {
+        frames.clear();
+        stable = new EnumMap<>(LabTest.class);
+        stableText = null;
+    }
+
+    /**
+     * For each test, the most voted value in the window if it has enough votes; ties go to the newest frame.
+     */
+    private Map<LabTest, LabValueLexer.LabReading> settle() {
+        Map<LabTest, LabValueLexer.LabReading> settled = new EnumMap<>(LabTest.class);
+        Map<LabTest, Integer> bestVotes = new EnumMap<>(LabTest.class);
+        for (Map<LabTest, LabValueLexer.LabReading> frame : frames) {
+            for (LabValueLexer.LabReading reading : frame.values()) {
+                int votes = 0;
+                for (Map<LabTest, LabValueLexer.LabReading> other : frames) {
+                    if (sameValue(reading, other.get(reading.getTest()))) {
+                        votes++;
+                    }
+                }
+                Integer best = bestVotes.get(reading.getTest());
+                if (votes >= MIN_VOTES && (best == null || votes >= best)) {
+                    bestVotes.put(reading.getTest(), votes);
+                    settled.put(reading.getTest(), reading);
+                }
+            }
+        }
+        return settled;
+    }
+
+    private static boolean sameValues(Map<LabTest, LabValueLexer.LabReading> a,
+                                      Map<LabTest, LabValueLexer.LabReading> b) {
+        return a.keySet().equals(b.keySet()) && sameValues(a, b, a.keySet());
+    }
+
+    private static boolean sameValues(Map<LabTest, LabValueLexer.LabReading> a,
+                                      Map<LabTest, LabValueLexer.LabReading> b, Iterable<LabTest> tests) {
+        for (LabTest test : tests) {
+            if (!sameValue(a.get(test), b.get(test))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameValue(LabValueLexer.LabReading a, LabValueLexer.LabReading b) {
+        return a != null && b != null
+            && a.getValue().equals(b.getValue())
+            && Objects.equals(a.getSecondValue(), b.getSecondValue());
+    }
+}
@@ -0,0 +1,191 @@
+package com.mit.bodhiq.utils;
+
+import java.util.Arrays;
+
+/**
+ * Pixel operations on 8-bit luminance planes used to prepare images for OCR.
+ * Planes are row-major byte arrays with one unsigned byte per pixel, which is
+ * also the Y plane of an NV21 buffer, so results can go to ML Kit without
+ * converting back to a Bitmap.
+ */
+public final class LumaOps {
+
+    // Fraction of pixels clipped at each end when stretching contrast
+    private static final double CONTRAST_CLIP = 0.01;
+    private static final int MIN_CONTRAST_RANGE = 16;
+
+    // Skew search: +/- range in degrees, step, and pixel sampling stride
+    private static final double MAX_SKEW_DEGREES = 8.0;
+    private static final double SKEW_STEP_DEGREES = 0.25;
+    private static final int SKEW_SAMPLE_STRIDE = 2;
+
+    private LumaOps() {
+    }
+
+    /**
+     * Largest power-of-two sample size that keeps the longer edge at or above the target.
+     *
+     * @param width Source width in pixels
+     * @param height Source height in pixels
+     * @param targetLongEdge Smallest acceptable long edge after sampling
+     * @return Sample size for BitmapFactory.Options.inSampleSize, at least 1
+     */
+    public static int sampleSizeFor(int width, int height, int targetLongEdge) {
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= targetLongEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * ITU-R BT.601 luma of an ARGB pixel.
+     */
+    public static int luma(int argb) {
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        return (77 * r + 150 * g + 29 * b) >> 8;
+    }
+
+    /**
+     * Stretch the plane's contrast so the darkest and brightest percentile map to 0 and 255.
+     * Planes with too little spread, such as blank pages, are left alone.
+     *
+     * @param plane Luminance plane, modified in place
+     * @param length Number of pixels in the plane
+     * @return True if the plane was changed
+     */
+    public static boolean normalizeContrast(byte[] plane, int length) {
+        int[] histogram = new int[256];
+        for (int i = 0; i < length; i++) {
+            histogram[plane[i] & 0xFF]++;
+        }
+
+        int clip = (int) (length * CONTRAST_CLIP);
+        int low = 0;
+        for (int count = 0; low < 255 && (count += histogram[low]) <= clip; ) {
+            low++;
+        }
+        int high = 255;
+        for (int count = 0; high > 0 && (count += histogram[high]) <= clip; ) {
+            high--;
+        }
+        if (high - low < MIN_CONTRAST_RANGE || (low == 0 && high == 255)) {
+            return false;
+        }
+
+        byte[] lut = new byte[256];
+        for (int v = 0; v < 256; v++) {
+            int stretched = (v - low) * 255 / (high - low);
+            lut[v] = (byte) Math.max(0, Math.min(255, stretched));
+        }
+        for (int i = 0; i < length; i++) {
+            plane[i] = lut[plane[i] & 0xFF];
+        }
+        return true;
+    }
+
+    /**
+     * Estimate how far text lines are rotated from horizontal. Dark pixels are
+     * projected onto rows for each candidate angle; the angle whose profile has
+     * the sharpest peaks (highest sum of squares) lines up with the text.
+     *
+     * @param plane Luminance plane
+     * @param width Plane width
+     * @param height Plane height
+     * @return Skew in degrees; positive when lines descend to the right
+     */
+    public static double estimateSkewDegrees(byte[] plane, int width, int height) {
+        int threshold = darkThreshold(plane, width * height);
+
+        int capacity = (width / SKEW_SAMPLE_STRIDE + 1) * (height / SKEW_SAMPLE_STRIDE + 1);
+        int[] xs = new int[capacity];
+        int[] ys = new int[capacity];
+        int count = 0;
+        for (int y = 0; y < height; y += SKEW_SAMPLE_STRIDE) {
+            int row = y * width;
+            for (int x = 0; x < width; x += SKEW_SAMPLE_STRIDE) {
+                if ((plane[row + x] & 0xFF) < threshold) {
+                    xs[count] = x;
+                    ys[count] = y;
+                    count++;
+                }
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        int margin = (int) Math.ceil(width * Math.tan(Math.toRadians(MAX_SKEW_DEGREES)));
+        int[] profile = new int[height + 2 * margin];
+        double bestAngle = 0;
+        long bestScore = -1;
+        for (double angle = -MAX_SKEW_DEGREES; angle <= MAX_SKEW_DEGREES + 1e-9; angle += SKEW_STEP_DEGREES) {
+            double slope = Math.tan(Math.toRadians(angle));
+            Arrays.fill(profile, 0);
+            for (int i = 0; i < count; i++) {
+                profile[(int) Math.round(ys[i] - xs[i] * slope) + margin]++;
+            }
+            long score = 0;
+            for (int bucket : profile) {
+                score += (long) bucket * bucket;
+            }
+            // Ties go to the angle nearest zero
+            if (score > bestScore || (score == bestScore && Math.abs(angle) < Math.abs(bestAngle))) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        return bestAngle;
+    }
+
+    /**
+     * Rotate a plane about its centre, filling uncovered corners with white.
+     *
+     * @param src Source plane
+     * @param dst Destination plane of the same size; must not be {@code src}
+     * @param width Plane width
+     * @param height Plane height
+     * @param degrees Clockwise rotation to undo, as returned by {@link #estimateSkewDegrees}
+     */
+    public static void rotate(byte[] src, byte[] dst, int width, int height, double degrees) {
+        double radians = Math.toRadians(degrees);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double cx = (width - 1) / 2.0;
+        double cy = (height - 1) / 2.0;
+
+        for (int y = 0; y < height; y++) {
+            double dy = y - cy;
+            double rowX = cx - dy * sin;
+            double rowY = cy + dy * cos;
+            int out = y * width;
+            for (int x = 0; x < width; x++) {
+                double dx = x - cx;
+                int sx = (int) Math.round(rowX + dx * cos);
+                int sy = (int) Math.round(rowY + dx * sin);
+                dst[out + x] = sx >= 0 && sx < width && sy >= 0 && sy < height
+                    ? src[sy * width + sx] : (byte) 0xFF;
+            }
+        }
+    }
+
+    /**
+     * Midpoint between the mean and the darkest populated level, so only ink counts as dark.
+     */
+    private static int darkThreshold(byte[] plane, int length) {
+        long sum = 0;
+        int darkest = 255;
+        for (int i = 0; i < length; i++) {
+            int v = plane[i] & 0xFF;
+            sum += v;
+            if (v < darkest) {
+                darkest = v;
+            }
+        }
+        int mean = length == 0 ? 0 : (int) (sum / length);
+        return (darkest + mean) / 2;
+    }
+}
@@ -0,0 +1,316 @@
+package com.mit.bodhiq.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.util.Log;
+
+import com.google.mlkit.vision.common.InputImage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * Prepares photos for text recognition. Camera photos of 12-50 MP are far
+ * larger than OCR needs, so images are decoded with {@code inSampleSize} down
+ * to a size where body text is still comfortably tall, converted to a compact
+ * grayscale NV21 buffer, and optionally contrast-stretched and deskewed. EXIF
+ * orientation is read once and handed to ML Kit as the image rotation rather
+ * than rotating pixels. Decode bitmaps and output buffers are reused between
+ * calls, so repeated scans do not churn the heap.
+ */
+@Singleton
+public class OcrImagePreprocessor {
+
+    private static final String TAG = "OcrImagePreprocessor";
+
+    // Body text should stay around this many pixels tall after downsampling
+    private static final int TARGET_TEXT_HEIGHT_PX = 24;
+    // Roughly how many text lines fit along the long edge of a report page
+    private static final int LINES_PER_LONG_EDGE = 80;
+    static final int TARGET_LONG_EDGE = TARGET_TEXT_HEIGHT_PX * LINES_PER_LONG_EDGE;
+
+    private static final double MIN_DESKEW_DEGREES = 0.5;
+    private static final int MAX_POOLED_BUFFERS = 2;
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    /**
+     * Preprocessing options
+     */
+    public static class Options {
+        public boolean normalizeContrast = true;
+        public boolean deskew = false;
+
+        public static Options getDefault() {
+            return new Options();
+        }
+    }
+
+    private final Context context;
+    private final ArrayDeque<byte[]> freeBuffers = new ArrayDeque<>();
+    private Bitmap decodeBitmap;
+    private int[] rowPixels = new int[0];
+
+    @Inject
+    public OcrImagePreprocessor(@ApplicationContext Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Decode and preprocess an image file or content URI.
+     *
+     * @param uri Image to load
+     * @param options Preprocessing options
+     * @return Grayscale image; call {@link PreprocessedImage#release()} once recognition is done
+     * @throws IOException If the image cannot be read or decoded
+     */
+    public PreprocessedImage preprocess(Uri uri, Options options) throws IOException {
+        int rotation;
+        try (InputStream in = open(uri)) {
+            rotation = rotationDegrees(new ExifInterface(in));
+        }
+        return preprocess(() -> open(uri), rotation, options);
+    }
+
+    /**
+     * Decode and preprocess an encoded image held in memory, such as a camera capture.
+     *
+     * @param encoded JPEG or other encoded image bytes
+     * @param rotationDegrees Clockwise rotation that makes the image upright
+     * @param options Preprocessing options
+     * @return Grayscale image; call {@link PreprocessedImage#release()} once recognition is done
+     * @throws IOException If the image cannot be decoded
+     */
+    public PreprocessedImage preprocess(byte[] encoded, int rotationDegrees, Options options) throws IOException {
+        return preprocess(() -> new ByteArrayInputStream(encoded), rotationDegrees, options);
+    }
+
+    /**
+     * Preprocess an already decoded bitmap, downsampling it if it is larger than OCR needs.
+     *
+     * @param bitmap Source bitmap; not modified or recycled
+     * @param rotationDegrees Clockwise rotation that makes the bitmap upright
+     * @param options Preprocessing options
+     * @return Grayscale image; call {@link PreprocessedImage#release()} once recognition is done
+     */
+    public PreprocessedImage preprocess(Bitmap bitmap, int rotationDegrees, Options options) {
+        int sampleSize = LumaOps.sampleSizeFor(bitmap.getWidth(), bitmap.getHeight(), TARGET_LONG_EDGE);
+        synchronized (this) {
+            return toPreprocessedImage(bitmap, sampleSize, rotationDegrees, options);
+        }
+    }
+
+    /**
+     * Drop the cached decode bitmap and pooled buffers. Call when the system asks the app to release memory.
+     */
+    public synchronized void trimMemory() {
+        if (decodeBitmap != null) {
+            decodeBitmap.recycle();
+            decodeBitmap = null;
+        }
+        rowPixels = new int[0];
+        freeBuffers.clear();
+    }
+
+    /**
+     * Source of an encoded image that can be read more than once
+     */
+    private interface ImageSource {
+        InputStream open() throws IOException;
+    }
+
+    private PreprocessedImage preprocess(ImageSource source, int rotation, Options options) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = source.open()) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Unsupported image format");
+        }
+
+        int sampleSize = LumaOps.sampleSizeFor(bounds.outWidth, bounds.outHeight, TARGET_LONG_EDGE);
+        Log.d(TAG, "Decoding " + bounds.outWidth + "x" + bounds.outHeight
+            + " at 1/" + sampleSize + ", rotation " + rotation);
+
+        synchronized (this) {
+            Bitmap bitmap = decode(source, sampleSize);
+            return toPreprocessedImage(bitmap, 1, rotation, options);
+        }
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = context.getContentResolver().openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open image: " + uri);
+        }
+        return in;
+    }
+
+    /**
+     * Decode at the given sample size as RGB_565, reusing the previous decode bitmap when it is big enough.
+     */
+    private Bitmap decode(ImageSource source, int sampleSize) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        options.inMutable = true;
+        options.inBitmap = decodeBitmap;
+
+        Bitmap bitmap;
+        try (InputStream in = source.open()) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        } catch (IllegalArgumentException e) {
+            // The cached bitmap is too small for this image; decode into a fresh one
+            options.inBitmap = null;
+            try (InputStream in = source.open()) {
+                bitmap = BitmapFactory.decodeStream(in, null, options);
+            }
+        }
+        if (bitmap == null) {
+            throw new IOException("Failed to decode image");
+        }
+        if (bitmap != decodeBitmap && decodeBitmap != null) {
+            decodeBitmap.recycle();
+        }
+        decodeBitmap = bitmap;
+        return bitmap;
+    }
+
+    /**
+     * Box-filter the bitmap by {@code sampleSize} into a pooled NV21 buffer and apply the enabled steps.
+     */
+    private PreprocessedImage toPreprocessedImage(Bitmap bitmap, int sampleSize, int rotation, Options options) {
+        // NV21 subsamples chroma 2x2, so keep both dimensions even
+        int width = (bitmap.getWidth() / sampleSize) & ~1;
+        int height = (bitmap.getHeight() / sampleSize) & ~1;
+        int lumaSize = width * height;
+        byte[] buffer = acquire(lumaSize * 3 / 2);
+
+        int sourceWidth = width * sampleSize;
+        if (rowPixels.length < sourceWidth) {
+            rowPixels = new int[sourceWidth];
+        }
+        int[] sums = new int[width];
+        int area = sampleSize * sampleSize;
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(sums, 0);
+            for (int dy = 0; dy < sampleSize; dy++) {
+                bitmap.getPixels(rowPixels, 0, sourceWidth, 0, y * sampleSize + dy, sourceWidth, 1);
+                for (int x = 0; x < sourceWidth; x++) {
+                    sums[x / sampleSize] += LumaOps.luma(rowPixels[x]);
+                }
+            }
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                buffer[row + x] = (byte) (sums[x] / area);
+            }
+        }
+
+        if (options.normalizeContrast) {
+            LumaOps.normalizeContrast(buffer, lumaSize);
+        }
+        // Skew is measured along buffer rows, which only follow text lines when the page is not sideways
+        if (options.deskew && rotation % 180 == 0) {
+            double skew = LumaOps.estimateSkewDegrees(buffer, width, height);
+            if (Math.abs(skew) >= MIN_DESKEW_DEGREES) {
+                Log.d(TAG, "Deskewing by " + skew + " degrees");
+                byte[] rotated = acquire(lumaSize * 3 / 2);
+                LumaOps.rotate(buffer, rotated, width, height, skew);
+                release(buffer);
+                buffer = rotated;
+            }
+        }
+
+        Arrays.fill(buffer, lumaSize, lumaSize * 3 / 2, NEUTRAL_CHROMA);
+        return new PreprocessedImage(buffer, width, height, rotation);
+    }
+
+    private synchronized byte[] acquire(int size) {
+        for (byte[] buffer : freeBuffers) {
+            if (buffer.length >= size) {
+                freeBuffers.remove(buffer);
+                return buffer;
+            }
+        }
+        return new byte[size];
+    }
+
+    private synchronized void release(byte[] buffer) {
+        if (freeBuffers.size() >= MAX_POOLED_BUFFERS) {
+            freeBuffers.pollFirst();
+        }
+        freeBuffers.addLast(buffer);
+    }
+
+    /**
+     * Clockwise rotation from EXIF orientation. ML Kit takes no mirroring, so
+     * mirrored orientations are reduced to their rotation.
+     */
+    private static int rotationDegrees(ExifInterface exif) {
+        switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Grayscale NV21 image ready for ML Kit, backed by a pooled buffer
+     */
+    public class PreprocessedImage {
+        private final byte[] buffer;
+        private final int width;
+        private final int height;
+        private final int rotationDegrees;
+        private boolean released;
+
+        PreprocessedImage(byte[] buffer, int width, int height, int rotationDegrees) {
+            this.buffer = buffer;
+            this.width = width;
+            this.height = height;
+            this.rotationDegrees = rotationDegrees;
+        }
+
+        public InputImage toInputImage() {
+            return InputImage.fromByteBuffer(ByteBuffer.wrap(buffer, 0, width * height * 3 / 2),
+                width, height, rotationDegrees, InputImage.IMAGE_FORMAT_NV21);
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int getRotationDegrees() { return rotationDegrees; }
+
+        /**
+         * Return the buffer to the pool. The image must not be used afterwards.
+         */
+        public void release() {
+            synchronized (OcrImagePreprocessor.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                OcrImagePreprocessor.this.release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.mit.bodhiq.utils;
+
+import com.mit.bodhiq.data.model.ParsedField;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reference ranges for every {@link LabTest}, by age band and sex.
+ * Ranges are compiled into one flat array indexed by (test ID, age band, sex),
+ * where the test ID is the dense {@link LabTest#ordinal()}; a name is resolved
+ * to its ID once with {@link #testId(String)}, after which evaluation is a few
+ * array reads and comparisons and allocates nothing. This is the single place
+ * the app decides whether a value is normal, high or low.
+ */
+public final class ReferenceRangeTable {
+
+    // Age bands
+    public static final int AGE_CHILD = 0;       // 0-12
+    public static final int AGE_ADOLESCENT = 1;  // 13-17
+    public static final int AGE_ADULT = 2;       // 18-64
+    public static final int AGE_SENIOR = 3;      // 65+
+    private static final int AGE_BANDS = 4;
+
+    // Sexes
+    public static final int SEX_UNSPECIFIED = 0;
+    public static final int SEX_MALE = 1;
+    public static final int SEX_FEMALE = 2;
+    private static final int SEXES = 3;
+
+    public static final int UNKNOWN_TEST = -1;
+
+    // Statuses in the MedicalParameter convention
+    public static final String STATUS_LOW = "LOW";
+    public static final String STATUS_HIGH = "HIGH";
+    public static final String STATUS_NORMAL = "NORMAL";
+    public static final String STATUS_UNKNOWN = "UNKNOWN";
+
+    private static final int NORMAL_LOW = 0;
+    private static final int NORMAL_HIGH = 1;
+    private static final int CRITICAL_LOW = 2;
+    private static final int CRITICAL_HIGH = 3;
+    private static final int STRIDE = 4;
+
+    private static final double NONE_LOW = Double.NEGATIVE_INFINITY;
+    private static final double NONE_HIGH = Double.POSITIVE_INFINITY;
+
+    // Values within this fraction inside either bound are borderline
+    private static final double BORDERLINE_MARGIN = 0.1;
+
+    private static final double[] RANGES = new double[LabTest.values().length * AGE_BANDS * SEXES * STRIDE];
+    private static final String[] UNITS = new String[LabTest.values().length];
+    private static final Map<String, Integer> TEST_IDS = new HashMap<>();
+
+    static {
+        Arrays.fill(RANGES, Double.NaN);
+
+        // Blood work; counts are per μL
+        define(LabTest.HEMOGLOBIN, "g/dL", 12.0, 16.0, 7.0, 20.0);
+        define(LabTest.HEMOGLOBIN, AGE_ADULT, SEX_MALE, 13.5, 17.5, 7.0, 20.0);
+        define(LabTest.HEMOGLOBIN, AGE_ADULT, SEX_FEMALE, 12.0, 15.5, 7.0, 20.0);
+        define(LabTest.HEMOGLOBIN, AGE_SENIOR, SEX_MALE, 13.0, 17.0, 7.0, 20.0);
+        define(LabTest.HEMOGLOBIN, AGE_SENIOR, SEX_FEMALE, 12.0, 15.5, 7.0, 20.0);
+        define(LabTest.HEMOGLOBIN, AGE_ADOLESCENT, -1, 12.0, 16.0, 7.0, 20.0);
+        define(LabTest.HEMOGLOBIN, AGE_CHILD, -1, 11.0, 14.5, 7.0, 20.0);
+
+        define(LabTest.HEMATOCRIT, "%", 36, 50, 20, 60);
+        define(LabTest.HEMATOCRIT, AGE_ADULT, SEX_MALE, 41, 53, 20, 60);
+        define(LabTest.HEMATOCRIT, AGE_ADULT, SEX_FEMALE, 36, 46, 20, 60);
+        define(LabTest.HEMATOCRIT, AGE_CHILD, -1, 33, 43, 20, 60);
+
+        define(LabTest.WHITE_BLOOD_CELLS, "/μL", 4000, 11000, 2000, 30000);
+        define(LabTest.WHITE_BLOOD_CELLS, AGE_CHILD, -1, 5000, 14500, 2000, 30000);
+
+        define(LabTest.RED_BLOOD_CELLS, "million/μL", 4.5, 5.5, 2.0, 8.0);
+        define(LabTest.RED_BLOOD_CELLS, AGE_ADULT, SEX_MALE, 4.5, 5.9, 2.0, 8.0);
+        define(LabTest.RED_BLOOD_CELLS, AGE_ADULT, SEX_FEMALE, 4.0, 5.2, 2.0, 8.0);
+
+        define(LabTest.PLATELETS, "/μL", 150000, 450000, 50000, 1000000);
+
+        // Metabolic panel
+        define(LabTest.GLUCOSE, "mg/dL", 70, 140, 40, 400);
+        define(LabTest.CHOLESTEROL_TOTAL, "mg/dL", 0, 200, NONE_LOW, NONE_HIGH);
+        define(LabTest.HDL_CHOLESTEROL, "mg/dL", 40, NONE_HIGH, NONE_LOW, NONE_HIGH);
+        define(LabTest.HDL_CHOLESTEROL, -1, SEX_FEMALE, 50, NONE_HIGH, NONE_LOW, NONE_HIGH);
+        define(LabTest.LDL_CHOLESTEROL, "mg/dL", 0, 100, NONE_LOW, NONE_HIGH);
+        define(LabTest.TRIGLYCERIDES, "mg/dL", 0, 150, NONE_LOW, 1000);
+
+        // Liver function
+        define(LabTest.ALT, "U/L", 0, 40, NONE_LOW, 1000);
+        define(LabTest.AST, "U/L", 0, 40, NONE_LOW, 1000);
+        define(LabTest.BILIRUBIN_TOTAL, "mg/dL", 0.1, 1.2, NONE_LOW, 15);
+
+        // Kidney function
+        define(LabTest.CREATININE, "mg/dL", 0.6, 1.2, NONE_LOW, 10);
+        define(LabTest.CREATININE, AGE_ADULT, SEX_MALE, 0.7, 1.3, NONE_LOW, 10);
+        define(LabTest.CREATININE, AGE_ADULT, SEX_FEMALE, 0.6, 1.1, NONE_LOW, 10);
+        define(LabTest.CREATININE, AGE_CHILD, -1, 0.3, 0.7, NONE_LOW, 10);
+        define(LabTest.BUN, "mg/dL", 7, 20, NONE_LOW, 100);
+        define(LabTest.BUN, AGE_SENIOR, -1, 8, 23, NONE_LOW, 100);
+
+        // Thyroid function
+        define(LabTest.TSH, "mIU/L", 0.4, 4.0, 0.01, 20);
+        define(LabTest.T3, "ng/dL", 80, 200, NONE_LOW, NONE_HIGH);
+        define(LabTest.T4, "μg/dL", 4.5, 12.0, NONE_LOW, NONE_HIGH);
+
+        // Electrolytes
+        define(LabTest.SODIUM, "mEq/L", 136, 145, 120, 160);
+        define(LabTest.POTASSIUM, "mEq/L", 3.5, 5.0, 2.5, 6.5);
+        define(LabTest.CALCIUM, "mg/dL", 8.5, 10.5, 6.5, 13.0);
+
+        // Vital signs; blood pressure is evaluated as its systolic and diastolic parts
+        define(LabTest.BLOOD_PRESSURE_SYSTOLIC, "mmHg", 90, 140, 70, 180);
+        define(LabTest.BLOOD_PRESSURE_DIASTOLIC, "mmHg", 60, 90, 40, 120);
+        UNITS[LabTest.BLOOD_PRESSURE.ordinal()] = "mmHg";
+        define(LabTest.HEART_RATE, "bpm", 60, 100, 40, 150);
+        define(LabTest.HEART_RATE, AGE_CHILD, -1, 70, 120, 50, 180);
+
+        for (LabTest test : LabTest.values()) {
+            TEST_IDS.put(test.getDisplayName().toLowerCase(Locale.ROOT), test.ordinal());
+            for (String alias : test.getAliases()) {
+                TEST_IDS.put(alias, test.ordinal());
+            }
+        }
+        // Names used by older report parsers
+        TEST_IDS.put("white blood cell", LabTest.WHITE_BLOOD_CELLS.ordinal());
+        TEST_IDS.put("red blood cell", LabTest.RED_BLOOD_CELLS.ordinal());
+        TEST_IDS.put("blood glucose", LabTest.GLUCOSE.ordinal());
+        TEST_IDS.put("fasting blood sugar", LabTest.GLUCOSE.ordinal());
+        TEST_IDS.put("total bilirubin", LabTest.BILIRUBIN_TOTAL.ordinal());
+        TEST_IDS.put("alt (sgpt)", LabTest.ALT.ordinal());
+        TEST_IDS.put("ast (sgot)", LabTest.AST.ordinal());
+    }
+
+    private ReferenceRangeTable() {
+    }
+
+    /**
+     * Resolve a test name or alias to its dense ID. Do this once per field, not per evaluation.
+     *
+     * @param name Test name as written in a report
+     * @return The test ID, or {@link #UNKNOWN_TEST}
+     */
+    public static int testId(String name) {
+        if (name == null) {
+            return UNKNOWN_TEST;
+        }
+        Integer id = TEST_IDS.get(name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " "));
+        return id != null ? id : UNKNOWN_TEST;
+    }
+
+    public static int testId(LabTest test) {
+        return test != null ? test.ordinal() : UNKNOWN_TEST;
+    }
+
+    /**
+     * @param age Age in years as stored in the profile, may be null
+     * @return Age band; adult if the age is unknown
+     */
+    public static int ageBand(String age) {
+        if (age == null) {
+            return AGE_ADULT;
+        }
+        try {
+            int years = Integer.parseInt(age.trim());
+            if (years < 13) return AGE_CHILD;
+            if (years < 18) return AGE_ADOLESCENT;
+            if (years < 65) return AGE_ADULT;
+            return AGE_SENIOR;
+        } catch (NumberFormatException e) {
+            return AGE_ADULT;
+        }
+    }
+
+    /**
+     * @param gender Gender as stored in the profile, may be null
+     * @return Sex index; unspecified unless the gender is clearly male or female
+     */
+    public static int sex(String gender) {
+        if (gender == null || gender.trim().isEmpty()) {
+            return SEX_UNSPECIFIED;
+        }
+        char first = Character.toLowerCase(gender.trim().charAt(0));
+        return first == 'm' ? SEX_MALE : first == 'f' ? SEX_FEMALE : SEX_UNSPECIFIED;
+    }
+
+    /**
+     * Evaluate a value against the reference range.
+     *
+     * @param testId ID from {@link #testId(String)}
+     * @param ageBand One of the AGE_ constants
+     * @param sex One of the SEX_ constants
+     * @param value The value, in the unit from {@link #getUnit(int)}
+     * @return The flag; UNKNOWN if the test has no range
+     */
+    public static ParsedField.Flag evaluate(int testId, int ageBand, int sex, double value) {
+        int base = offset(testId, ageBand, sex);
+        if (base < 0 || Double.isNaN(value) || Double.isNaN(RANGES[base + NORMAL_LOW])) {
+            return ParsedField.Flag.UNKNOWN;
+        }
+        double normalLow = RANGES[base + NORMAL_LOW];
+        double normalHigh = RANGES[base + NORMAL_HIGH];
+        if (value < RANGES[base + CRITICAL_LOW] || value > RANGES[base + CRITICAL_HIGH]) {
+            return ParsedField.Flag.CRITICAL;
+        } else if (value < normalLow) {
+            return ParsedField.Flag.LOW;
+        } else if (value > normalHigh) {
+            return ParsedField.Flag.HIGH;
+        } else if (value < normalLow * (1 + BORDERLINE_MARGIN) || value > normalHigh * (1 - BORDERLINE_MARGIN)) {
+            return ParsedField.Flag.BORDERLINE;
+        }
+        return ParsedField.Flag.NORMAL;
+    }
+
+    /**
+     * Evaluate a blood pressure reading; the worse of its two parts wins.
+     */
+    public static ParsedField.Flag evaluateBloodPressure(int ageBand, int sex, double systolic, double diastolic) {
+        ParsedField.Flag systolicFlag = evaluate(LabTest.BLOOD_PRESSURE_SYSTOLIC.ordinal(), ageBand, sex, systolic);
+        ParsedField.Flag diastolicFlag = evaluate(LabTest.BLOOD_PRESSURE_DIASTOLIC.ordinal(), ageBand, sex, diastolic);
+        return severity(diastolicFlag) > severity(systolicFlag) ? diastolicFlag : systolicFlag;
+    }
+
+    /**
+     * Get the direction of a value relative to the normal range, including critical values.
+     *
+     * @return One of the STATUS_ constants; borderline values are NORMAL
+     */
+    public static String getStatus(int testId, int ageBand, int sex, double value) {
+        int base = offset(testId, ageBand, sex);
+        if (base < 0 || Double.isNaN(value) || Double.isNaN(RANGES[base + NORMAL_LOW])) {
+            return STATUS_UNKNOWN;
+        }
+        if (value < RANGES[base + NORMAL_LOW]) return STATUS_LOW;
+        if (value > RANGES[base + NORMAL_HIGH]) return STATUS_HIGH;
+        return STATUS_NORMAL;
+    }
+
+    /**
+     * Direction of a blood pressure reading; HIGH if either part is high, otherwise LOW if either is low.
+     */
+    public static String getBloodPressureStatus(int ageBand, int sex, double systolic, double diastolic) {
+        String systolicStatus = getStatus(LabTest.BLOOD_PRESSURE_SYSTOLIC.ordinal(), ageBand, sex, systolic);
+        String diastolicStatus = getStatus(LabTest.BLOOD_PRESSURE_DIASTOLIC.ordinal(), ageBand, sex, diastolic);
+        if (systolicStatus == STATUS_HIGH || diastolicStatus == STATUS_HIGH) return STATUS_HIGH;
+        if (systolicStatus == STATUS_LOW || diastolicStatus == STATUS_LOW) return STATUS_LOW;
+        if (systolicStatus == STATUS_UNKNOWN || diastolicStatus == STATUS_UNKNOWN) return STATUS_UNKNOWN;
+        return STATUS_NORMAL;
+    }
+
+    /**
+     * Get the action level for a flag.
+     */
+    public static ParsedField.ActionLevel getActionLevel(ParsedField.Flag flag) {
+        switch (flag) {
+            case CRITICAL:
+                return ParsedField.ActionLevel.URGENT_CARE;
+            case HIGH:
+            case LOW:
+                return ParsedField.ActionLevel.CONSULT_SPECIALIST;
+            case BORDERLINE:
+                return ParsedField.ActionLevel.SELF_CARE;
+            default:
+                return ParsedField.ActionLevel.NONE;
+        }
+    }
+
+    /**
+     * @return The unit the test's ranges are expressed in, or null if the test is unknown
+     */
+    public static String getUnit(int testId) {
+        return testId >= 0 && testId < UNITS.length ? UNITS[testId] : null;
+    }
+
+    public static double getNormalLow(int testId, int ageBand, int sex) {
+        int base = offset(testId, ageBand, sex);
+        return base >= 0 ? RANGES[base + NORMAL_LOW] : Double.NaN;
+    }
+
+    public static double getNormalHigh(int testId, int ageBand, int sex) {
+        int base = offset(testId, ageBand, sex);
+        return base >= 0 ? RANGES[base + NORMAL_HIGH] : Double.NaN;
+    }
+
+    public static double getCriticalLow(int testId, int ageBand, int sex) {
+        int base = offset(testId, ageBand, sex);
+        return base >= 0 ? RANGES[base + CRITICAL_LOW] : Double.NaN;
+    }
+
+    public static double getCriticalHigh(int testId, int ageBand, int sex) {
+        int base = offset(testId, ageBand, sex);
+        return base >= 0 ? RANGES[base + CRITICAL_HIGH] : Double.NaN;
+    }
+
+    /**
+     * Format the normal range for display, e.g. "12-16", "<200" or "90-140/60-90".
+     *
+     * @return The range, or null if the test has none
+     */
+    public static String getRangeText(int testId, int ageBand, int sex) {
+        if (testId == LabTest.BLOOD_PRESSURE.ordinal()) {
+            return getRangeText(LabTest.BLOOD_PRESSURE_SYSTOLIC.ordinal(), ageBand, sex) + "/"
+                + getRangeText(LabTest.BLOOD_PRESSURE_DIASTOLIC.ordinal(), ageBand, sex);
+        }
+        double low = getNormalLow(testId, ageBand, sex);
+        double high = getNormalHigh(testId, ageBand, sex);
+        if (Double.isNaN(low)) {
+            return null;
+        }
+        if (low <= 0) {
+            return "<" + format(high);
+        }
+        if (Double.isInfinite(high)) {
+            return ">" + format(low);
+        }
+        return format(low) + "-" + format(high);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static int severity(ParsedField.Flag flag) {
+        switch (flag) {
+            case CRITICAL: return 4;
+            case HIGH:
+            case LOW: return 3;
+            case BORDERLINE: return 2;
+            case NORMAL: return 1;
+            default: return 0;
+        }
+    }
+
+    private static int offset(int testId, int ageBand, int sex) {
+        if (testId < 0 || testId >= UNITS.length) {
+            return -1;
+        }
+        if (ageBand < 0 || ageBand >= AGE_BANDS) {
+            ageBand = AGE_ADULT;
+        }
+        if (sex < 0 || sex >= SEXES) {
+            sex = SEX_UNSPECIFIED;
+        }
+        return ((testId * AGE_BANDS + ageBand) * SEXES + sex) * STRIDE;
+    }
+
+    /**
+     * Set the range of a test for every age band and sex.
+     */
+    private static void define(LabTest test, String unit, double normalLow, double normalHigh,
+                               double criticalLow, double criticalHigh) {
+        UNITS[test.ordinal()] = unit;
+        define(test, -1, -1, normalLow, normalHigh, criticalLow, criticalHigh);
+    }
+
+    /**
+     * Override the range of a test for one age band and/or sex; -1 means all.
+     */
+    private static void define(LabTest test, int ageBand, int sex, double normalLow, double normalHigh,
+                               double criticalLow, double criticalHigh) {
+        for (int band = 0; band < AGE_BANDS; band++) {
+            if (ageBand >= 0 && band != ageBand) {
+                continue;
+            }
+            for (int s = 0; s < SEXES; s++) {
+                if (sex >= 0 && s != sex) {
+                    continue;
+                }
+                int base = ((test.ordinal() * AGE_BANDS + band) * SEXES + s) * STRIDE;
+                RANGES[base + NORMAL_LOW] = normalLow;
+                RANGES[base + NORMAL_HIGH] = normalHigh;
+                RANGES[base + CRITICAL_LOW] = criticalLow;
+                RANGES[base + CRITICAL_HIGH] = criticalHigh;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mit.bodhiq.utils;
+
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.CancellationTokenSource;
+import com.google.android.gms.tasks.Task;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Bridges Play services / ML Kit {@link Task}s to RxJava {@link Single}s.
+ * The Single completes directly from the task's completion callback, so no
+ * thread waits for the result. The task is started on subscription, and
+ * disposing the Single cancels the task's {@link CancellationToken}; tasks
+ * that take no token, such as ML Kit detectors, keep running but their
+ * result is dropped. Resources such a task reads must therefore be released
+ * from {@link #fromTask(Supplier, Runnable)}'s callback, not from doFinally.
+ */
+public final class TaskSingle {
+
+    // Deliver on whatever thread completes the task instead of hopping to the main thread
+    private static final Executor DIRECT = Runnable::run;
+
+    private TaskSingle() {
+    }
+
+    /**
+     * Wrap a task that cannot be cancelled.
+     *
+     * @param taskFactory Starts the task; called once per subscription
+     * @return Single emitting the task's result
+     */
+    public static <T> Single<T> fromTask(Supplier<Task<T>> taskFactory) {
+        return create(token -> taskFactory.get(), () -> { });
+    }
+
+    /**
+     * Wrap a task that cannot be cancelled, running a callback once the task itself
+     * has finished, even if the Single was disposed while it ran.
+     *
+     * @param taskFactory Starts the task; called once per subscription
+     * @param onTaskFinished Runs once per subscription when the task finishes or fails to start,
+     *                       before the result is delivered
+     * @return Single emitting the task's result
+     */
+    public static <T> Single<T> fromTask(Supplier<Task<T>> taskFactory, Runnable onTaskFinished) {
+        return create(token -> taskFactory.get(), onTaskFinished);
+    }
+
+    /**
+     * Wrap a task that observes a cancellation token.
+     *
+     * @param taskFactory Starts the task with the token that is cancelled on disposal
+     * @return Single emitting the task's result
+     */
+    public static <T> Single<T> fromCancellableTask(Function<CancellationToken, Task<T>> taskFactory) {
+        return create(taskFactory, () -> { });
+    }
+
+    private static <T> Single<T> create(Function<CancellationToken, Task<T>> taskFactory,
+                                        Runnable onTaskFinished) {
+        return Single.create(emitter -> {
+            CancellationTokenSource cancellation = new CancellationTokenSource();
+            emitter.setCancellable(cancellation::cancel);
+
+            Task<T> started;
+            try {
+                started = taskFactory.apply(cancellation.getToken());
+            } catch (RuntimeException e) {
+                onTaskFinished.run();
+                throw e;
+            }
+            started.addOnCompleteListener(DIRECT, task -> {
+                onTaskFinished.run();
+                if (task.isCanceled()) {
+                    emitter.tryOnError(new CancellationException("Task was cancelled"));
+                } else if (!task.isSuccessful()) {
+                    Exception error = task.getException();
+                    emitter.tryOnError(error != null ? error : new RuntimeException("Task failed"));
+                } else if (task.getResult() == null) {
+                    emitter.tryOnError(new NoSuchElementException("Task completed without a result"));
+                } else {
+                    emitter.onSuccess(task.getResult());
+                }
+            });
+        });
+    }
+}
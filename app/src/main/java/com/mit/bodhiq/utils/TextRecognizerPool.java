@@ -0,0 +1,156 @@
+package com.mit.bodhiq.utils;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * App-scoped pool of ML Kit text recognizers shared by every OCR caller.
+ * Recognizers are created on demand, up to one per two cores, and live for
+ * the whole process, so leaving and re-entering a scan screen never pays
+ * model initialization again. Each recognizer counts the recognitions in
+ * flight on it; a request goes to an idle recognizer, or to the least busy
+ * one once the pool is full. Recognizers are only closed when the system
+ * asks the app to release memory, and only once nothing references them.
+ */
+@Singleton
+public class TextRecognizerPool {
+
+    private static final String TAG = "TextRecognizerPool";
+    private static final int MAX_POOL_SIZE = 3;
+    private static final int WARM_UP_IMAGE_SIZE = 32;
+
+    private final TextRecognizer[] recognizers;
+    private final int[] inFlight;
+    private final AtomicBoolean warmedUp = new AtomicBoolean();
+
+    @Inject
+    public TextRecognizerPool() {
+        int size = Math.max(1, Math.min(MAX_POOL_SIZE, Runtime.getRuntime().availableProcessors() / 2));
+        this.recognizers = new TextRecognizer[size];
+        this.inFlight = new int[size];
+    }
+
+    /**
+     * Recognize text in an image on a pooled recognizer.
+     *
+     * @param image Image to recognize
+     * @return Single emitting the recognized text
+     */
+    public Single<Text> process(InputImage image) {
+        return process(image, () -> { });
+    }
+
+    /**
+     * Recognize text in an image on a pooled recognizer. Disposing the Single does not
+     * stop ML Kit, so the recognizer stays busy, and the image in use, until recognition
+     * has actually finished.
+     *
+     * @param image Image to recognize
+     * @param onRecognitionFinished Runs once recognition has finished or failed to start, even if
+     *                              the Single was disposed; release the image's memory here
+     * @return Single emitting the recognized text
+     */
+    public Single<Text> process(InputImage image, Runnable onRecognitionFinished) {
+        return Single.defer(() -> {
+            int slot;
+            try {
+                slot = acquire();
+            } catch (RuntimeException e) {
+                onRecognitionFinished.run();
+                throw e;
+            }
+            TextRecognizer recognizer = recognizers[slot];
+            return TaskSingle.fromTask(() -> recognizer.process(image), () -> {
+                release(slot);
+                onRecognitionFinished.run();
+            });
+        });
+    }
+
+    /**
+     * Load the recognition model ahead of the first scan. Only the first call does anything.
+     */
+    public void warmUp() {
+        if (!warmedUp.compareAndSet(false, true)) {
+            return;
+        }
+        Log.d(TAG, "Warming up ML Kit text recognition model...");
+        Bitmap bitmap = Bitmap.createBitmap(WARM_UP_IMAGE_SIZE, WARM_UP_IMAGE_SIZE, Bitmap.Config.ARGB_8888);
+        process(InputImage.fromBitmap(bitmap, 0))
+            .doFinally(bitmap::recycle)
+            .subscribe(
+                text -> Log.d(TAG, "ML Kit model is ready"),
+                e -> {
+                    Log.w(TAG, "ML Kit model download may be needed: " + e.getMessage());
+                    warmedUp.set(false);
+                }
+            );
+    }
+
+    /**
+     * Close the recognizers nothing is using; they are recreated on the next request.
+     * Call when the system asks the app to release memory.
+     */
+    public synchronized void trimMemory() {
+        for (int slot = 0; slot < recognizers.length; slot++) {
+            if (recognizers[slot] != null && inFlight[slot] == 0) {
+                recognizers[slot].close();
+                recognizers[slot] = null;
+            }
+        }
+        warmedUp.set(false);
+    }
+
+    /**
+     * @return The number of recognizers the pool can hold
+     */
+    public int getCapacity() {
+        return recognizers.length;
+    }
+
+    /**
+     * Pick a recognizer: an idle existing one, else a new one while the pool has room, else the least busy.
+     */
+    private synchronized int acquire() {
+        int leastBusy = -1;
+        int empty = -1;
+        for (int slot = 0; slot < recognizers.length; slot++) {
+            if (recognizers[slot] == null) {
+                if (empty < 0) {
+                    empty = slot;
+                }
+            } else if (inFlight[slot] == 0) {
+                leastBusy = slot;
+                break;
+            } else if (leastBusy < 0 || inFlight[slot] < inFlight[leastBusy]) {
+                leastBusy = slot;
+            }
+        }
+
+        int slot = leastBusy;
+        if (empty >= 0 && (leastBusy < 0 || inFlight[leastBusy] > 0)) {
+            recognizers[empty] = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+            Log.d(TAG, "Created text recognizer " + (empty + 1) + " of " + recognizers.length);
+            slot = empty;
+        }
+        inFlight[slot]++;
+        return slot;
+    }
+
+    private synchronized void release(int slot) {
+        inFlight[slot]--;
+    }
+}
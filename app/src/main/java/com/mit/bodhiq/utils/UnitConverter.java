@@ -0,0 +1,137 @@
+package com.mit.bodhiq.utils;
+
+import java.util.Arrays;
+
+/**
+ * Converts lab values to one canonical unit per {@link LabTest}, the unit its
+ * ranges in {@link ReferenceRangeTable} are expressed in. Units of the same
+ * dimension convert by their scale; mass, molar and equivalent concentrations
+ * convert through the analyte's molar mass and valence (glucose mmol/L to
+ * mg/dL, calcium mEq/L to mg/dL). Values reported without a unit are assumed
+ * to be in the canonical unit, except blood counts, whose scale is inferred
+ * from their magnitude.
+ */
+public final class UnitConverter {
+
+    private static final LabUnit[] CANONICAL = new LabUnit[LabTest.values().length];
+    private static final double[] MOLAR_MASS = new double[LabTest.values().length]; // g/mol
+    private static final int[] VALENCE = new int[LabTest.values().length];
+
+    static {
+        for (LabTest test : LabTest.values()) {
+            CANONICAL[test.ordinal()] = LabUnit.parse(ReferenceRangeTable.getUnit(test.ordinal()));
+        }
+        Arrays.fill(MOLAR_MASS, Double.NaN);
+        molarMass(LabTest.HEMOGLOBIN, 16114.5, 0); // per heme monomer, as mmol/L Hb is reported
+        molarMass(LabTest.GLUCOSE, 180.16, 0);
+        molarMass(LabTest.CHOLESTEROL_TOTAL, 386.65, 0);
+        molarMass(LabTest.HDL_CHOLESTEROL, 386.65, 0);
+        molarMass(LabTest.LDL_CHOLESTEROL, 386.65, 0);
+        molarMass(LabTest.TRIGLYCERIDES, 885.7, 0);
+        molarMass(LabTest.BILIRUBIN_TOTAL, 584.66, 0);
+        molarMass(LabTest.CREATININE, 113.12, 0);
+        molarMass(LabTest.BUN, 28.014, 0); // urea nitrogen: two nitrogen atoms per urea
+        molarMass(LabTest.T3, 650.97, 0);
+        molarMass(LabTest.T4, 776.87, 0);
+        molarMass(LabTest.SODIUM, 22.99, 1);
+        molarMass(LabTest.POTASSIUM, 39.098, 1);
+        molarMass(LabTest.CALCIUM, 40.078, 2);
+    }
+
+    private UnitConverter() {
+    }
+
+    /**
+     * Get the canonical unit of a test.
+     *
+     * @return The unit, or null if the test has no canonical unit
+     */
+    public static String getCanonicalUnit(LabTest test) {
+        return ReferenceRangeTable.getUnit(test.ordinal());
+    }
+
+    /**
+     * Convert a value to the canonical unit of its test.
+     *
+     * @param test The test
+     * @param value The value as reported
+     * @param unit The unit as reported, may be null or empty
+     * @return The value in the canonical unit, or NaN if the unit cannot be converted
+     */
+    public static double toCanonical(LabTest test, double value, String unit) {
+        LabUnit canonical = CANONICAL[test.ordinal()];
+        if (!canonical.isKnown()) {
+            return value;
+        }
+        LabUnit from = LabUnit.parse(unit);
+        if (!from.isKnown()) {
+            return value * inferredScale(test, value);
+        }
+        return convert(test, value, from, canonical);
+    }
+
+    /**
+     * Convert a value between two units of a test.
+     *
+     * @return The converted value, or NaN if the units are not convertible for this test
+     */
+    public static double convert(LabTest test, double value, LabUnit from, LabUnit to) {
+        if (!from.isKnown() || !to.isKnown()) {
+            return Double.NaN;
+        }
+        double base = value * from.getScale();
+        if (from.getDimension() != to.getDimension()) {
+            double moles = toMoles(test, base, from.getDimension());
+            base = fromMoles(test, moles, to.getDimension());
+        }
+        return base / to.getScale();
+    }
+
+    /**
+     * Scale of a unitless value relative to the canonical unit.
+     * Counts are printed as 7.5 or 7500 (×10³/μL) and 2.5, 250 or 250000 (platelets).
+     */
+    private static double inferredScale(LabTest test, double value) {
+        switch (test) {
+            case WHITE_BLOOD_CELLS:
+                return value < 500 ? 1e3 : 1;
+            case PLATELETS:
+                return value < 20 ? 1e5 : value < 5000 ? 1e3 : 1;
+            case RED_BLOOD_CELLS:
+                return value > 1e5 ? 1e-6 : 1;
+            default:
+                return 1;
+        }
+    }
+
+    private static double toMoles(LabTest test, double base, int dimension) {
+        switch (dimension) {
+            case LabUnit.MOLAR_CONCENTRATION:
+                return base;
+            case LabUnit.MASS_CONCENTRATION:
+                return base / MOLAR_MASS[test.ordinal()];
+            case LabUnit.EQUIVALENT_CONCENTRATION:
+                return VALENCE[test.ordinal()] > 0 ? base / VALENCE[test.ordinal()] : Double.NaN;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    private static double fromMoles(LabTest test, double moles, int dimension) {
+        switch (dimension) {
+            case LabUnit.MOLAR_CONCENTRATION:
+                return moles;
+            case LabUnit.MASS_CONCENTRATION:
+                return moles * MOLAR_MASS[test.ordinal()];
+            case LabUnit.EQUIVALENT_CONCENTRATION:
+                return VALENCE[test.ordinal()] > 0 ? moles * VALENCE[test.ordinal()] : Double.NaN;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    private static void molarMass(LabTest test, double gramsPerMole, int valence) {
+        MOLAR_MASS[test.ordinal()] = gramsPerMole;
+        VALENCE[test.ordinal()] = valence;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mit.bodhiq.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * Scheduler for background agent pipelines using WorkManager.
+ * Every query runs through here, so its pipeline survives process death and
+ * finishes in the background; screens follow its progress through
+ * QueryRepository.getAgentProgress.
+ */
+@Singleton
+public class AgentPipelineScheduler {
+    
+    private static final String TAG = "AgentPipelineScheduler";
+    private static final String WORK_NAME_PREFIX = "agent_pipeline_";
+    private static final String RESUME_WORK_NAME = "agent_pipeline_resume";
+    private final WorkManager workManager;
+    
+    @Inject
+    public AgentPipelineScheduler(@ApplicationContext Context context) {
+        this.workManager = WorkManager.getInstance(context);
+    }
+    
+    /**
+     * Schedule the agent pipeline for a query.
+     * Scheduling the same query twice keeps the already enqueued run.
+     */
+    public void schedulePipeline(long queryId) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(AgentPipelineWorker.class)
+            .setInputData(AgentPipelineWorker.createInputData(queryId))
+            .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 10, TimeUnit.SECONDS)
+            .build();
+        
+        workManager.enqueueUniqueWork(getWorkName(queryId), ExistingWorkPolicy.KEEP, request);
+        Log.d(TAG, "Scheduled agent pipeline for query: " + queryId);
+    }
+    
+    /**
+     * Schedule pipelines for queries that were interrupted (e.g. by process death).
+     * They resume from their last checkpoint.
+     */
+    public void resumePipelines(List<Long> queryIds) {
+        for (Long queryId : queryIds) {
+            schedulePipeline(queryId);
+        }
+    }
+    
+    /**
+     * Look for interrupted queries in the background and resume them.
+     * Only enqueues a one-off worker, so it is cheap to call on app start.
+     */
+    public void scheduleResumeInterruptedPipelines() {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ResumeAgentPipelinesWorker.class)
+            .build();
+        
+        workManager.enqueueUniqueWork(RESUME_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+    
+    /**
+     * Cancel the scheduled pipeline for a query
+     */
+    public void cancelPipeline(long queryId) {
+        workManager.cancelUniqueWork(getWorkName(queryId));
+    }
+    
+    private String getWorkName(long queryId) {
+        return WORK_NAME_PREFIX + queryId;
+    }
+}
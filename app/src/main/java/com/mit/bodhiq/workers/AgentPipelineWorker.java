@@ -0,0 +1,72 @@
+package com.mit.bodhiq.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.RxWorker;
+import androidx.work.WorkerParameters;
+
+import com.mit.bodhiq.data.repository.QueryRepository;
+
+import dagger.hilt.EntryPoint;
+import dagger.hilt.InstallIn;
+import dagger.hilt.android.EntryPointAccessors;
+import dagger.hilt.components.SingletonComponent;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Worker that runs the agent pipeline for a query in the background.
+ * WorkManager persists the request, so if the process dies mid-pipeline the
+ * work is re-run on next start and MasterAgent resumes from the first agent
+ * without a COMPLETED checkpoint.
+ */
+public class AgentPipelineWorker extends RxWorker {
+
+    private static final String TAG = "AgentPipelineWorker";
+    public static final String KEY_QUERY_ID = "query_id";
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Hilt entry point, since workers are created by WorkManager rather than injected.
+     */
+    @EntryPoint
+    @InstallIn(SingletonComponent.class)
+    public interface AgentPipelineWorkerEntryPoint {
+        QueryRepository queryRepository();
+    }
+
+    public AgentPipelineWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        long queryId = getInputData().getLong(KEY_QUERY_ID, -1);
+        if (queryId < 0) {
+            Log.e(TAG, "Missing query ID");
+            return Single.just(Result.failure());
+        }
+
+        QueryRepository queryRepository = EntryPointAccessors.fromApplication(
+            getApplicationContext(),
+            AgentPipelineWorkerEntryPoint.class
+        ).queryRepository();
+
+        // A re-run by WorkManager is a retry and must not join the run that failed
+        return queryRepository.executeAgents(queryId, getRunAttemptCount() > 0)
+            .toSingleDefault(Result.success())
+            .onErrorReturn(throwable -> {
+                Log.e(TAG, "Agent pipeline failed for query " + queryId, throwable);
+                return getRunAttemptCount() + 1 < MAX_ATTEMPTS ? Result.retry() : Result.failure();
+            });
+    }
+
+    public static Data createInputData(long queryId) {
+        return new Data.Builder()
+            .putLong(KEY_QUERY_ID, queryId)
+            .build();
+    }
+}
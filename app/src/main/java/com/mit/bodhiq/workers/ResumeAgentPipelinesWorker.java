@@ -0,0 +1,75 @@
+package com.mit.bodhiq.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.RxWorker;
+import androidx.work.WorkerParameters;
+
+import com.mit.bodhiq.agent.AgentResultCache;
+import com.mit.bodhiq.data.database.dao.QueryDao;
+import com.mit.bodhiq.data.database.entity.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dagger.hilt.EntryPoint;
+import dagger.hilt.InstallIn;
+import dagger.hilt.android.EntryPointAccessors;
+import dagger.hilt.components.SingletonComponent;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * One-off worker that re-schedules the pipelines of queries left in PROCESSING,
+ * e.g. because the app was killed mid-pipeline. Runs off the startup path and
+ * only needs the query table, not the agent graph. Expired rows of the agent
+ * result cache are pruned first, since reads only skip them.
+ */
+public class ResumeAgentPipelinesWorker extends RxWorker {
+
+    private static final String TAG = "ResumePipelinesWorker";
+
+    /**
+     * Hilt entry point, since workers are created by WorkManager rather than injected.
+     */
+    @EntryPoint
+    @InstallIn(SingletonComponent.class)
+    public interface ResumeAgentPipelinesWorkerEntryPoint {
+        QueryDao queryDao();
+        AgentPipelineScheduler agentPipelineScheduler();
+        AgentResultCache agentResultCache();
+    }
+
+    public ResumeAgentPipelinesWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        ResumeAgentPipelinesWorkerEntryPoint entryPoint = EntryPointAccessors.fromApplication(
+            getApplicationContext(),
+            ResumeAgentPipelinesWorkerEntryPoint.class
+        );
+
+        return entryPoint.agentResultCache().pruneExpired()
+            // A failed prune must not keep interrupted pipelines from resuming
+            .doOnError(throwable -> Log.e(TAG, "Error pruning expired agent results", throwable))
+            .onErrorComplete()
+            .andThen(entryPoint.queryDao().getQueriesByStatus("PROCESSING").firstOrError())
+            .map(queries -> {
+                List<Long> queryIds = new ArrayList<>();
+                for (Query query : queries) {
+                    queryIds.add(query.getId());
+                }
+                entryPoint.agentPipelineScheduler().resumePipelines(queryIds);
+                Log.d(TAG, "Resumed " + queryIds.size() + " interrupted agent pipelines");
+                return Result.success();
+            })
+            .onErrorReturn(throwable -> {
+                Log.e(TAG, "Error resuming interrupted agent pipelines", throwable);
+                return Result.failure();
+            });
+    }
+}
@@ -0,0 +1,116 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.mit.bodhiq.data.database.dao.AgentResultDao;
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.model.AgentStatus;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Unit tests for AdaptiveAgentExecutor hedging and AgentLatencyTracker history.
+ */
+public class AdaptiveAgentExecutorTest {
+
+    @Mock
+    private AgentResultDao agentResultDao;
+
+    private AgentLatencyTracker latencyTracker;
+    private AdaptiveAgentExecutor executor;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(agentResultDao.getRecentExecutionTimesByAgentName(anyString(), anyInt()))
+            .thenReturn(Single.just(Collections.emptyList()));
+        latencyTracker = new AgentLatencyTracker(agentResultDao);
+        executor = new AdaptiveAgentExecutor(latencyTracker, new AgentBulkheadRegistry());
+    }
+
+    @Test
+    public void testHedgeTakesFirstSuccessNotFirstFailure() {
+        HedgedAgent agent = new HedgedAgent();
+
+        AgentResult result = executor.execute(agent, "Metformin", 1L).blockingGet();
+
+        assertEquals(AgentStatus.COMPLETED.name(), result.getStatus());
+        // The slow first attempt wins over the failed hedge, without a retry
+        assertEquals(2, agent.executions.get());
+    }
+
+    @Test
+    public void testHistoryMergesWithSamplesRecordedWhileLoading() {
+        latencyTracker.record("Market Insights", 500);
+        when(agentResultDao.getRecentExecutionTimesByAgentName(eq("Market Insights"), anyInt()))
+            .thenReturn(Single.just(Arrays.asList(300L, 200L, 100L)));
+
+        latencyTracker.loadHistory("Market Insights").blockingAwait();
+
+        assertEquals(4, latencyTracker.getSampleCount("Market Insights"));
+        assertEquals(100, latencyTracker.getPercentile("Market Insights", 0));
+        assertEquals(500, latencyTracker.getPercentile("Market Insights", 100));
+    }
+
+    @Test
+    public void testWindowKeepsNewestSamplesWhenMerging() {
+        AgentLatencyTracker.LatencyWindow window = new AgentLatencyTracker.LatencyWindow(3);
+        window.add(40);
+        window.add(50);
+
+        window.addOlder(Arrays.asList(30L, 20L, 10L));
+
+        assertEquals(3, window.size());
+        assertEquals(30, window.percentile(0));
+        assertEquals(50, window.percentile(100));
+    }
+
+    /**
+     * First attempt succeeds slowly; the hedged second attempt fails at once.
+     */
+    private static class HedgedAgent implements PharmaceuticalAgent {
+        final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public Single<AgentResult> execute(String molecule, long queryId) {
+            return Single.fromCallable(() -> {
+                if (executions.incrementAndGet() == 1) {
+                    Thread.sleep(200);
+                    return new AgentResult(queryId, getAgentName(), AgentStatus.COMPLETED.name(), 0L);
+                }
+                throw new IllegalStateException("hedge failed");
+            });
+        }
+
+        @Override
+        public String getAgentName() {
+            return "Hedged";
+        }
+
+        @Override
+        public int getEstimatedDurationMs() {
+            return 100;
+        }
+
+        @Override
+        public int getExecutionOrder() {
+            return 1;
+        }
+
+        @Override
+        public boolean isHedgingEnabled() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.mit.bodhiq.data.database.dao.AgentResultDao;
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.model.AgentStatus;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Unit tests for AgentResultJournal write-behind and checkpoint recovery.
+ */
+public class AgentResultJournalTest {
+
+    private static final long QUERY_ID = 7L;
+
+    @Mock
+    private AgentResultDao agentResultDao;
+
+    private AgentResultJournal journal;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        journal = new AgentResultJournal(agentResultDao);
+        when(agentResultDao.insertAgentResults(anyList())).thenReturn(Completable.complete());
+    }
+
+    @Test
+    public void testFlushWritesOnlyTerminalResults() {
+        journal.recordStarted(QUERY_ID, "Market Insights", 1L);
+        journal.recordStarted(QUERY_ID, "Clinical Trials", 1L);
+        journal.record(result("Market Insights", AgentStatus.COMPLETED));
+
+        journal.flush(QUERY_ID).blockingAwait();
+
+        List<AgentResult> batch = captureInsertedBatch();
+        assertEquals(1, batch.size());
+        assertEquals("Market Insights", batch.get(0).getAgentName());
+        assertEquals(AgentStatus.COMPLETED.name(), batch.get(0).getStatus());
+    }
+
+    @Test
+    public void testFailedInsertIsRetriedWithinTheFlush() {
+        when(agentResultDao.insertAgentResults(anyList()))
+            .thenReturn(Completable.error(new RuntimeException("database locked")))
+            .thenReturn(Completable.complete());
+        journal.record(result("Market Insights", AgentStatus.FAILED));
+
+        journal.flush(QUERY_ID).blockingAwait();
+
+        verify(agentResultDao, times(2)).insertAgentResults(anyList());
+    }
+
+    @Test
+    public void testFlushFailsOnceRetriesAreExhausted() {
+        when(agentResultDao.insertAgentResults(anyList()))
+            .thenReturn(Completable.error(new RuntimeException("disk full")));
+        journal.record(result("Market Insights", AgentStatus.COMPLETED));
+
+        assertThrows(RuntimeException.class, () -> journal.flush(QUERY_ID).blockingAwait());
+
+        verify(agentResultDao, times(1 + AgentResultJournal.FLUSH_RETRIES)).insertAgentResults(anyList());
+    }
+
+    @Test
+    public void testLoadCheckpointDeletesIncompleteRowsBeforeReading() {
+        AgentResult completed = result("Market Insights", AgentStatus.COMPLETED);
+        when(agentResultDao.deleteIncompleteAgentResultsByQueryId(QUERY_ID)).thenReturn(Completable.complete());
+        when(agentResultDao.getCompletedAgentResultsByQueryId(QUERY_ID))
+            .thenReturn(Flowable.just(Collections.singletonList(completed)));
+
+        List<AgentResult> checkpoint = journal.loadCheckpoint(QUERY_ID).blockingGet();
+
+        assertEquals(Collections.singletonList(completed), checkpoint);
+        InOrder inOrder = inOrder(agentResultDao);
+        inOrder.verify(agentResultDao).deleteIncompleteAgentResultsByQueryId(QUERY_ID);
+        inOrder.verify(agentResultDao).getCompletedAgentResultsByQueryId(QUERY_ID);
+    }
+
+    @Test
+    public void testLoadCheckpointDropsUnflushedStateOfEarlierRun() {
+        when(agentResultDao.deleteIncompleteAgentResultsByQueryId(QUERY_ID)).thenReturn(Completable.complete());
+        when(agentResultDao.getCompletedAgentResultsByQueryId(QUERY_ID))
+            .thenReturn(Flowable.just(Collections.emptyList()));
+        journal.record(result("Market Insights", AgentStatus.FAILED));
+
+        journal.loadCheckpoint(QUERY_ID).blockingGet();
+        journal.flush(QUERY_ID).blockingAwait();
+
+        verify(agentResultDao, never()).insertAgentResults(anyList());
+    }
+
+    @Test
+    public void testDiscardClearsQuery() {
+        journal.record(result("Market Insights", AgentStatus.COMPLETED));
+        journal.record(new AgentResult(QUERY_ID + 1, "Market Insights", AgentStatus.COMPLETED.name(), 1L));
+
+        journal.discard(QUERY_ID);
+        journal.flush(QUERY_ID).blockingAwait();
+        verify(agentResultDao, never()).insertAgentResults(anyList());
+
+        // Other queries keep their entries
+        journal.flush(QUERY_ID + 1).blockingAwait();
+        assertEquals(1, captureInsertedBatch().size());
+    }
+
+    private AgentResult result(String agentName, AgentStatus status) {
+        return new AgentResult(QUERY_ID, agentName, status.name(), 1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AgentResult> captureInsertedBatch() {
+        ArgumentCaptor<List<AgentResult>> captor = ArgumentCaptor.forClass(List.class);
+        verify(agentResultDao).insertAgentResults(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,145 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.mit.bodhiq.data.database.dao.AgentResultCacheDao;
+import com.mit.bodhiq.data.database.dao.AgentResultDao;
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.model.AgentStatus;
+import com.mit.bodhiq.data.model.AgentUpdate;
+import com.mit.bodhiq.data.repository.QueryRepository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Checks the real concurrency bound of a batch: pipelines x per-pipeline
+ * parallelism agents overall, and never more than an agent's bulkhead
+ * concurrency for any one agent, since every pipeline shares the bulkheads.
+ */
+public class BatchConcurrencyBoundTest {
+
+    private static final int AGENT_COUNT = 6;
+
+    @Mock
+    private AgentResultDao agentResultDao;
+
+    @Mock
+    private AgentResultCacheDao cacheDao;
+
+    private MasterAgent masterAgent;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Map<String, AtomicInteger> runningByAgent = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxRunningByAgent = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(agentResultDao.deleteIncompleteAgentResultsByQueryId(anyLong())).thenReturn(Completable.complete());
+        when(agentResultDao.getCompletedAgentResultsByQueryId(anyLong()))
+            .thenReturn(Flowable.just(Collections.emptyList()));
+        when(agentResultDao.insertAgentResults(anyList())).thenReturn(Completable.complete());
+        when(agentResultDao.getRecentExecutionTimesByAgentName(anyString(), anyInt()))
+            .thenReturn(Single.just(Collections.emptyList()));
+
+        masterAgent = new MasterAgent(
+            new AgentResultJournal(agentResultDao),
+            new AgentResultCache(cacheDao),
+            new AdaptiveAgentExecutor(new AgentLatencyTracker(agentResultDao), new AgentBulkheadRegistry()));
+        for (int i = 0; i < AGENT_COUNT; i++) {
+            masterAgent.registerAgent(new CountingAgent("Agent " + i, i));
+        }
+    }
+
+    @Test
+    public void testDefaultBatchRunsAtMostPipelinesTimesParallelismAgents() {
+        List<AgentUpdate> updates = runPipelines(QueryRepository.DEFAULT_BATCH_CONCURRENCY);
+
+        assertEquals(QueryRepository.DEFAULT_BATCH_CONCURRENCY * AGENT_COUNT, updates.size());
+        assertTrue(maxRunning.get() <= QueryRepository.DEFAULT_BATCH_CONCURRENCY * MasterAgent.DEFAULT_MAX_PARALLELISM);
+    }
+
+    @Test
+    public void testBulkheadLimitsEachAgentAcrossPipelines() {
+        int pipelines = 3;
+        List<AgentUpdate> updates = runPipelines(pipelines);
+
+        for (AgentUpdate update : updates) {
+            assertEquals(AgentStatus.COMPLETED, update.getStatus());
+        }
+        int bulkheadConcurrency = new CountingAgent("Probe", 0).getBulkheadConcurrency();
+        for (AtomicInteger agentMax : maxRunningByAgent.values()) {
+            assertTrue(agentMax.get() <= bulkheadConcurrency);
+        }
+    }
+
+    private List<AgentUpdate> runPipelines(int pipelines) {
+        List<Flowable<AgentUpdate>> runs = new ArrayList<>();
+        for (int i = 0; i < pipelines; i++) {
+            runs.add(masterAgent.executeAllAgents("Metformin", i + 1));
+        }
+        return Flowable.merge(runs).toList().blockingGet();
+    }
+
+    private class CountingAgent implements PharmaceuticalAgent {
+        private final String name;
+        private final int order;
+
+        CountingAgent(String name, int order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public Single<AgentResult> execute(String molecule, long queryId) {
+            return Single.fromCallable(() -> {
+                track(running, maxRunning);
+                track(runningByAgent.computeIfAbsent(name, k -> new AtomicInteger()),
+                    maxRunningByAgent.computeIfAbsent(name, k -> new AtomicInteger()));
+                try {
+                    Thread.sleep(50);
+                } finally {
+                    running.decrementAndGet();
+                    runningByAgent.get(name).decrementAndGet();
+                }
+                return new AgentResult(queryId, name, AgentStatus.COMPLETED.name(), System.currentTimeMillis());
+            });
+        }
+
+        private void track(AtomicInteger counter, AtomicInteger max) {
+            int now = counter.incrementAndGet();
+            max.accumulateAndGet(now, Math::max);
+        }
+
+        @Override
+        public String getAgentName() {
+            return name;
+        }
+
+        @Override
+        public int getEstimatedDurationMs() {
+            return 1000;
+        }
+
+        @Override
+        public int getExecutionOrder() {
+            return order;
+        }
+    }
+}
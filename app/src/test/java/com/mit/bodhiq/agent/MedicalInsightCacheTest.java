@@ -0,0 +1,71 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+
+import com.mit.bodhiq.data.model.ChatMessage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+/**
+ * Unit tests for MedicalInsightCache eviction and report tracking.
+ */
+public class MedicalInsightCacheTest {
+
+    private MedicalInsightCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new MedicalInsightCache(2);
+    }
+
+    @Test
+    public void testEvictionForgetsTheReport() {
+        cache.put("a", "fp-a", analysis("a"));
+        cache.put("b", "fp-b", analysis("b"));
+        cache.put("c", "fp-c", analysis("c"));
+
+        assertNull(cache.get("fp-a"));
+        assertEquals(2, cache.getTrackedReportCount());
+    }
+
+    @Test
+    public void testStaleReportDoesNotInvalidateNewerEntry() {
+        cache.put("a", "fp-shared", analysis("a"));
+        cache.put("b", "fp-b", analysis("b"));
+        cache.put("c", "fp-c", analysis("c"));
+        // Report d has the same parameters as the evicted report a
+        cache.put("d", "fp-shared", analysis("d"));
+
+        cache.invalidate("a");
+
+        assertNotNull(cache.get("fp-shared"));
+    }
+
+    @Test
+    public void testReanalysisDropsEveryReportOfTheOldEntry() {
+        cache.put("a", "fp-shared", analysis("a"));
+        cache.put("b", "fp-shared", analysis("b"));
+
+        cache.put("a", "fp-a2", analysis("a2"));
+
+        assertNull(cache.get("fp-shared"));
+        assertEquals(1, cache.getTrackedReportCount());
+    }
+
+    @Test
+    public void testInvalidateRemovesEntry() {
+        cache.put("a", "fp-a", analysis("a"));
+
+        cache.invalidate("a");
+
+        assertNull(cache.get("fp-a"));
+        assertEquals(0, cache.getTrackedReportCount());
+    }
+
+    private static MedicalInsightCache.Analysis analysis(String content) {
+        return new MedicalInsightCache.Analysis(content, ChatMessage.Severity.LOW, false, new ArrayList<>());
+    }
+}
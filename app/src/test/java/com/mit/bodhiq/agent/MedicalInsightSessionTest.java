@@ -0,0 +1,174 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+
+import com.mit.bodhiq.chatbot.ReferenceRanges;
+import com.mit.bodhiq.data.model.ChatMessage;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.ParsedField;
+import com.mit.bodhiq.data.model.UserProfile;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests checking that MedicalInsightSession edits match a full re-analysis.
+ */
+public class MedicalInsightSessionTest {
+
+    private static final String[] NAMES = {
+        "Hemoglobin", "WBC", "Blood Pressure", "Glucose", "Total Cholesterol", "ALT",
+        "AST", "Total Bilirubin", "Creatinine", "BUN", "TSH", "Platelets"
+    };
+    private static final String[] STATUSES = { "NORMAL", "HIGH", "LOW", null };
+    private static final String[] VALUES = { "5.2", "13.5", "99", "140", "260", "1.2" };
+
+    private MedicalInsightCache insightCache;
+    private MedicalReportAgent agent;
+
+    @Before
+    public void setUp() {
+        insightCache = new MedicalInsightCache();
+        agent = new MedicalReportAgent(new MedicalInsightCache(), new AgentBulkheadRegistry());
+    }
+
+    @Test
+    public void testNewSessionMatchesFullAnalysis() {
+        List<MedicalParameter> parameters = Arrays.asList(
+            param("Hemoglobin", "9.1", "LOW"),
+            param("WBC", "15.2", "HIGH"),
+            param("Glucose", "92", "NORMAL"));
+        MedicalInsightSession session = new MedicalInsightSession(parameters, null, "report", insightCache);
+
+        assertSameCard(analyze(parameters, null), session.getMessage());
+    }
+
+    @Test
+    public void testEditMovingInsightBetweenSectionsMatchesFullAnalysis() {
+        List<MedicalParameter> parameters = new ArrayList<>(Arrays.asList(
+            param("Hemoglobin", "14.2", "NORMAL"),
+            param("Blood Pressure", "120/80", "NORMAL"),
+            param("TSH", "2.1", "NORMAL")));
+        MedicalInsightSession session = new MedicalInsightSession(parameters, null, "report", insightCache);
+
+        ParsedField field = new ParsedField("Hemoglobin", "7.9", "g/dL");
+        field.setFlag(ParsedField.Flag.LOW);
+        ChatMessage card = session.applyEdit(0, field, "LOW");
+
+        parameters.set(0, new MedicalParameter("Hemoglobin", "7.9", "g/dL", "LOW"));
+        assertSameCard(analyze(parameters, null), card);
+        assertTrue(field.isEdited());
+    }
+
+    @Test
+    public void testCriticalEditKeepsItsDirection() {
+        List<MedicalParameter> parameters = new ArrayList<>(Arrays.asList(
+            param("Hemoglobin", "14.2", "NORMAL"),
+            param("Glucose", "92", "NORMAL")));
+        MedicalInsightSession session = new MedicalInsightSession(parameters, null, "report", insightCache);
+
+        ParsedField hemoglobin = new ParsedField("Hemoglobin", "5", "g/dL");
+        hemoglobin.setFlag(ReferenceRanges.evaluateValue("Hemoglobin", 5));
+        assertEquals(ParsedField.Flag.CRITICAL, hemoglobin.getFlag());
+        session.applyEdit(0, hemoglobin, ReferenceRanges.getStatus("Hemoglobin", 5, null));
+        ParsedField glucose = new ParsedField("Glucose", "35", "mg/dL");
+        ChatMessage card = session.applyEdit(1, glucose, ReferenceRanges.getStatus("Glucose", 35, null));
+
+        assertTrue(card.getContent().contains("below the normal range"));
+        assertFalse(card.getContent().contains("above the normal range"));
+        assertFalse(card.getContent().contains("elevated"));
+        parameters.set(0, new MedicalParameter("Hemoglobin", "5", "g/dL", "LOW"));
+        parameters.set(1, new MedicalParameter("Glucose", "35", "mg/dL", "LOW"));
+        assertSameCard(analyze(parameters, null), card);
+    }
+
+    @Test
+    public void testEditWithoutStatusKeepsPreviousStatus() {
+        List<MedicalParameter> parameters = new ArrayList<>(Arrays.asList(
+            param("Platelets", "250", "NORMAL"),
+            param("WBC", "15.2", "HIGH")));
+        MedicalInsightSession session = new MedicalInsightSession(parameters, null, "report", insightCache);
+
+        ChatMessage card = session.applyEdit(1, new ParsedField("WBC", "16.0", "u"), null);
+
+        assertEquals("HIGH", card.getMedicalParameters().get(1).getStatus());
+    }
+
+    @Test
+    public void testEditRemovingLastInsightFallsBackToNoParametersText() {
+        List<MedicalParameter> parameters = new ArrayList<>(Arrays.asList(
+            param("Glucose", "250", "HIGH"),
+            param("Platelets", "250", "NORMAL")));
+        MedicalInsightSession session = new MedicalInsightSession(parameters, null, "report", insightCache);
+
+        ChatMessage card = session.updateParameter(0, param("Sodium", "140", "NORMAL"));
+
+        parameters.set(0, param("Sodium", "140", "NORMAL"));
+        assertSameCard(analyze(parameters, null), card);
+        assertEquals(ChatMessage.Severity.LOW, card.getSeverity());
+    }
+
+    @Test
+    public void testEditInvalidatesMemoizedAnalysis() {
+        insightCache.put("report", "fingerprint", new MedicalInsightCache.Analysis(
+            "content", ChatMessage.Severity.LOW, false, new ArrayList<>()));
+        MedicalInsightSession session = new MedicalInsightSession(
+            Arrays.asList(param("Glucose", "92", "NORMAL")), null, "report", insightCache);
+
+        session.updateParameter(0, param("Glucose", "250", "HIGH"));
+
+        assertNull(insightCache.get("fingerprint"));
+    }
+
+    @Test
+    public void testRandomEditSequencesMatchFullAnalysis() {
+        Random random = new Random(7);
+        UserProfile profile = new UserProfile();
+        profile.setAge("67");
+        profile.setGender("female");
+
+        for (int run = 0; run < 200; run++) {
+            List<MedicalParameter> parameters = new ArrayList<>();
+            int size = 1 + random.nextInt(15);
+            for (int i = 0; i < size; i++) {
+                parameters.add(randomParam(random));
+            }
+            UserProfile userProfile = random.nextBoolean() ? profile : null;
+            MedicalInsightSession session = new MedicalInsightSession(
+                new ArrayList<>(parameters), userProfile, "report" + run, insightCache);
+
+            for (int edit = 0; edit < 10; edit++) {
+                int index = random.nextInt(size);
+                MedicalParameter parameter = randomParam(random);
+                parameters.set(index, parameter);
+                ChatMessage card = session.updateParameter(index, parameter);
+                assertSameCard(analyze(parameters, userProfile), card);
+            }
+        }
+    }
+
+    private ChatMessage analyze(List<MedicalParameter> parameters, UserProfile userProfile) {
+        return agent.generateMedicalInsights(new ArrayList<>(parameters), userProfile, null).blockingGet();
+    }
+
+    private static void assertSameCard(ChatMessage expected, ChatMessage actual) {
+        assertEquals(expected.getContent(), actual.getContent());
+        assertEquals(expected.getSeverity(), actual.getSeverity());
+        assertEquals(expected.isRequiresFollowUp(), actual.isRequiresFollowUp());
+        assertEquals(expected.getRecommendations(), actual.getRecommendations());
+    }
+
+    private static MedicalParameter randomParam(Random random) {
+        return param(NAMES[random.nextInt(NAMES.length)], VALUES[random.nextInt(VALUES.length)],
+            STATUSES[random.nextInt(STATUSES.length)]);
+    }
+
+    private static MedicalParameter param(String name, String value, String status) {
+        return new MedicalParameter(name, value, "u", status);
+    }
+}
@@ -0,0 +1,175 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+
+import com.mit.bodhiq.data.model.ChatMessage;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.UserProfile;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests checking that MedicalReportAgent's report analysis matches the
+ * output of the per-category analyzers it replaced. The expected cards in
+ * legacy_medical_insights.txt were recorded from the previous implementation.
+ */
+public class MedicalReportAgentEquivalenceTest {
+
+    private static final String GOLDEN_RESOURCE = "/medical_insights/legacy_medical_insights.txt";
+
+    private MedicalReportAgent agent;
+
+    @Before
+    public void setUp() {
+        agent = new MedicalReportAgent(new MedicalInsightCache(), new AgentBulkheadRegistry());
+    }
+
+    @Test
+    public void testCardsMatchLegacyOutput() throws IOException {
+        Map<String, String> golden = loadGolden();
+        Map<String, Report> reports = reports();
+        assertEquals(reports.keySet(), golden.keySet());
+
+        for (Map.Entry<String, Report> entry : reports.entrySet()) {
+            Report report = entry.getValue();
+            ChatMessage card = agent.generateMedicalInsights(report.parameters, report.profile, entry.getKey())
+                .blockingGet();
+            assertEquals(entry.getKey(), golden.get(entry.getKey()), render(card));
+        }
+    }
+
+    /**
+     * Reports covering every rule, status and profile branch, plus a full-size panel.
+     */
+    static Map<String, Report> reports() {
+        Map<String, Report> reports = new LinkedHashMap<>();
+        reports.put("all_normal", new Report(null,
+            param("Hemoglobin", "14.2", "g/dL", "NORMAL"),
+            param("WBC", "7.1", "10^3/uL", "NORMAL"),
+            param("Blood Pressure", "118/76", "mmHg", "NORMAL"),
+            param("Glucose", "92", "mg/dL", "NORMAL"),
+            param("Total Cholesterol", "180", "mg/dL", "NORMAL"),
+            param("TSH", "2.1", "mIU/L", "NORMAL")));
+        reports.put("anemia_and_infection", new Report(profile("55", "female"),
+            param("Hemoglobin", "9.1", "g/dL", "LOW"),
+            param("White Blood Cell Count", "15.2", "10^3/uL", "HIGH")));
+        reports.put("hypertension_and_diabetes", new Report(profile("70", "male"),
+            param("BP Systolic", "162", "mmHg", "HIGH"),
+            param("Fasting Blood Sugar", "250", "mg/dL", "HIGH"),
+            param("Total Cholesterol", "262", "mg/dL", "HIGH")));
+        reports.put("low_values", new Report(profile("30", "female"),
+            param("Blood Pressure", "82/50", "mmHg", "LOW"),
+            param("Glucose", "52", "mg/dL", "LOW"),
+            param("WBC", "2.8", "10^3/uL", "LOW"),
+            param("HGB", "18.4", "g/dL", "HIGH")));
+        reports.put("liver_panel", new Report(null,
+            param("SGPT (ALT)", "92", "U/L", "HIGH"),
+            param("AST", "85", "U/L", "HIGH"),
+            param("Total Bilirubin", "2.5", "mg/dL", "HIGH")));
+        reports.put("kidney_panel", new Report(null,
+            param("Creatinine", "2.1", "mg/dL", "HIGH"),
+            param("BUN", "41", "mg/dL", "HIGH")));
+        reports.put("thyroid", new Report(profile("x", null),
+            param("TSH", "8.4", "mIU/L", "HIGH"),
+            param("Thyroid TSH", "0.2", "mIU/L", "LOW")));
+        reports.put("missing_status", new Report(null,
+            param("Hb A1c", "6.1", "%", null),
+            param("Diastolic", "95", "mmHg", null),
+            param("Glucose", "130", "mg/dL", null)));
+        reports.put("unmatched_only", new Report(null,
+            param("Platelets", "250", "10^3/uL", "NORMAL"),
+            param("Sodium", "140", "mmol/L", "NORMAL")));
+        reports.put("full_panel", new Report(profile("66", "female"), fullPanel()));
+        return reports;
+    }
+
+    private static MedicalParameter[] fullPanel() {
+        String[] names = {
+            "Hemoglobin", "WBC", "Blood Pressure", "Glucose", "Total Cholesterol", "ALT",
+            "AST", "Total Bilirubin", "Creatinine", "BUN", "TSH", "Platelets"
+        };
+        String[] statuses = { "NORMAL", "HIGH", "LOW", null };
+        String[] values = { "140", "13.5", "99", "1.2", "260", "6.5" };
+        MedicalParameter[] parameters = new MedicalParameter[120];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = param(names[i % names.length], values[i % values.length], "u",
+                statuses[(i / names.length) % statuses.length]);
+        }
+        return parameters;
+    }
+
+    /**
+     * Render the parts of a card that depend on the analysis.
+     */
+    static String render(ChatMessage card) {
+        StringBuilder text = new StringBuilder();
+        text.append("severity=").append(card.getSeverity()).append('\n');
+        text.append("followUp=").append(card.isRequiresFollowUp()).append('\n');
+        if (card.getRecommendations() != null) {
+            for (String recommendation : card.getRecommendations()) {
+                text.append("recommendation=").append(recommendation).append('\n');
+            }
+        }
+        text.append("content:\n").append(card.getContent());
+        return text.toString();
+    }
+
+    private Map<String, String> loadGolden() throws IOException {
+        Map<String, String> golden = new LinkedHashMap<>();
+        InputStream stream = getClass().getResourceAsStream(GOLDEN_RESOURCE);
+        assertNotNull("Missing " + GOLDEN_RESOURCE, stream);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String name = null;
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("### ")) {
+                    if (name != null) {
+                        golden.put(name, String.join("\n", lines));
+                    }
+                    name = line.substring(4);
+                    lines.clear();
+                } else {
+                    lines.add(line);
+                }
+            }
+            if (name != null) {
+                golden.put(name, String.join("\n", lines));
+            }
+        }
+        return golden;
+    }
+
+    private static MedicalParameter param(String name, String value, String unit, String status) {
+        return new MedicalParameter(name, value, unit, status);
+    }
+
+    private static UserProfile profile(String age, String gender) {
+        UserProfile profile = new UserProfile();
+        profile.setAge(age);
+        profile.setGender(gender);
+        return profile;
+    }
+
+    static class Report {
+        final UserProfile profile;
+        final List<MedicalParameter> parameters;
+
+        Report(UserProfile profile, MedicalParameter... parameters) {
+            this.profile = profile;
+            this.parameters = Arrays.asList(parameters);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+
+import com.mit.bodhiq.data.model.ChatMessage;
+import com.mit.bodhiq.data.model.MedicalInsight;
+import com.mit.bodhiq.data.model.MedicalParameter;
+import com.mit.bodhiq.data.model.MedicalReport;
+import com.mit.bodhiq.data.model.ReportAnalysis;
+import com.mit.bodhiq.data.model.ReportHistorySummary;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
+/**
+ * Unit tests for MedicalReportAgent batch history analysis.
+ */
+public class MedicalReportHistoryTest {
+
+    private AgentBulkheadRegistry bulkheadRegistry;
+    private MedicalReportAgent agent;
+
+    @Before
+    public void setUp() {
+        bulkheadRegistry = new AgentBulkheadRegistry();
+        agent = new MedicalReportAgent(new MedicalInsightCache(), bulkheadRegistry);
+    }
+
+    @Test
+    public void testAnalysesAreEmittedInInputOrder() {
+        List<MedicalReport> reports = new ArrayList<>();
+        // The large first report finishes last if reports run in parallel
+        reports.add(report("large", largePanel()));
+        for (int i = 0; i < 20; i++) {
+            reports.add(report("small-" + i, param("Glucose", "92", "NORMAL")));
+        }
+
+        List<ReportAnalysis> analyses = agent.analyzeReports(reports, null).toList().blockingGet();
+
+        assertEquals(reports.size(), analyses.size());
+        for (int i = 0; i < reports.size(); i++) {
+            assertSame(reports.get(i), analyses.get(i).getReport());
+        }
+    }
+
+    @Test
+    public void testReportsRunOnTheAgentBulkhead() {
+        AgentBulkhead bulkhead = bulkheadRegistry.getBulkhead(agent);
+        CompositeDisposable held = new CompositeDisposable();
+        int capacity = agent.getBulkheadConcurrency() + agent.getBulkheadQueueCapacity();
+        for (int i = 0; i < capacity; i++) {
+            held.add(bulkhead.execute(Single.never()).subscribe());
+        }
+
+        try {
+            List<MedicalReport> reports = Collections.singletonList(report("a", param("Glucose", "250", "HIGH")));
+            assertThrows(AgentBulkhead.BulkheadFullException.class,
+                () -> agent.analyzeReports(reports, null).toList().blockingGet());
+        } finally {
+            held.dispose();
+        }
+    }
+
+    @Test
+    public void testReportWithoutParametersHasNoInsights() {
+        MedicalReport empty = report("empty");
+        empty.setParameters(null);
+
+        ReportAnalysis analysis = agent.analyzeReports(Collections.singletonList(empty), null).blockingFirst();
+
+        assertTrue(analysis.getInsights().isEmpty());
+        assertEquals(ChatMessage.Severity.LOW, analysis.getSeverity());
+    }
+
+    @Test
+    public void testHistorySummaryAggregates() {
+        List<MedicalReport> reports = Arrays.asList(
+            report("march",
+                param("Glucose", "250", "HIGH"),
+                param("WBC", "15.2", "HIGH"),
+                param("Hemoglobin", "14.2", "NORMAL")),
+            report("april",
+                param("glucose", "180", "HIGH"),
+                param("Hemoglobin", "9.1", "LOW")),
+            report("may",
+                param("Glucose", "92", "NORMAL"),
+                param("Hemoglobin", "8.8", "LOW"),
+                param("Platelets", "90", "LOW")));
+
+        ReportHistorySummary summary = agent.analyzeHistory(reports, null).blockingGet();
+
+        assertEquals(3, summary.getReportCount());
+        // Glucose 250 is critical, glucose 180 and the high WBC are high concern,
+        // the low hemoglobins are moderate and the normal hemoglobin is normal.
+        // A normal glucose yields an insight without a risk level, which is not counted.
+        assertEquals(1, summary.getInsightCount(MedicalInsight.RiskLevel.CRITICAL));
+        assertEquals(2, summary.getInsightCount(MedicalInsight.RiskLevel.HIGH_CONCERN));
+        assertEquals(2, summary.getInsightCount(MedicalInsight.RiskLevel.MODERATE_CONCERN));
+        assertEquals(0, summary.getInsightCount(MedicalInsight.RiskLevel.MILD_CONCERN));
+        assertEquals(1, summary.getInsightCount(MedicalInsight.RiskLevel.NORMAL));
+
+        Iterator<Map.Entry<String, Integer>> ranked =
+            summary.getMostFrequentAbnormalParameters().entrySet().iterator();
+        assertEntry("Glucose", 2, ranked.next());
+        assertEntry("Hemoglobin", 2, ranked.next());
+        assertEntry("Platelets", 1, ranked.next());
+        assertEntry("WBC", 1, ranked.next());
+        assertFalse(ranked.hasNext());
+    }
+
+    @Test
+    public void testEmptyHistory() {
+        ReportHistorySummary summary = agent.analyzeHistory(Collections.emptyList(), null).blockingGet();
+
+        assertEquals(0, summary.getReportCount());
+        assertTrue(summary.getMostFrequentAbnormalParameters().isEmpty());
+    }
+
+    private static void assertEntry(String name, int count, Map.Entry<String, Integer> entry) {
+        assertEquals(name, entry.getKey());
+        assertEquals(Integer.valueOf(count), entry.getValue());
+    }
+
+    private static MedicalParameter[] largePanel() {
+        String[] names = { "Hemoglobin", "WBC", "Blood Pressure", "Glucose", "Total Cholesterol", "TSH" };
+        MedicalParameter[] parameters = new MedicalParameter[600];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = param(names[i % names.length] + " " + i, "140", i % 2 == 0 ? "HIGH" : "NORMAL");
+        }
+        return parameters;
+    }
+
+    private static MedicalReport report(String id, MedicalParameter... parameters) {
+        MedicalReport report = new MedicalReport("user", null, null);
+        report.setId(id);
+        report.setParameters(new ArrayList<>(Arrays.asList(parameters)));
+        return report;
+    }
+
+    private static MedicalParameter param(String name, String value, String status) {
+        return new MedicalParameter(name, value, "u", status);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mit.bodhiq.agent;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.mit.bodhiq.data.database.entity.AgentResult;
+import com.mit.bodhiq.data.model.AgentStatus;
+import com.mit.bodhiq.data.model.AgentUpdate;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Unit tests for SingleFlightAgentExecutor run sharing and eviction.
+ */
+public class SingleFlightAgentExecutorTest {
+
+    private static final long WINDOW_MS = TimeUnit.SECONDS.toMillis(30);
+
+    @Mock
+    private MasterAgent masterAgent;
+
+    @Mock
+    private AgentResultJournal resultJournal;
+
+    private SingleFlightAgentExecutor executor;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(resultJournal.flush(anyLong())).thenReturn(Completable.complete());
+        when(resultJournal.loadCheckpoint(anyLong())).thenReturn(Single.just(Collections.emptyList()));
+        executor = new SingleFlightAgentExecutor(masterAgent, resultJournal, WINDOW_MS);
+    }
+
+    @Test
+    public void testIdenticalQueriesShareOneRun() {
+        when(masterAgent.executeAllAgents(anyString(), anyLong()))
+            .thenReturn(Flowable.just(new AgentUpdate("Market Insights", AgentStatus.COMPLETED, 100)));
+
+        executor.execute("Metformin", 1L).blockingSubscribe();
+        executor.execute("metformin", 2L).blockingSubscribe();
+
+        verify(masterAgent, times(1)).executeAllAgents(anyString(), anyLong());
+        assertEquals(1, executor.getActiveFlightCount());
+    }
+
+    @Test
+    public void testResumedFollowerKeepsItsCheckpoint() {
+        AgentResult leaderResult = new AgentResult(1L, "Market Insights", AgentStatus.COMPLETED.name(), 1L);
+        AgentResult otherResult = new AgentResult(1L, "Clinical Trials", AgentStatus.COMPLETED.name(), 1L);
+        when(masterAgent.executeAllAgents(anyString(), anyLong())).thenReturn(Flowable.just(
+            new AgentUpdate("Market Insights", AgentStatus.COMPLETED, 100, leaderResult, null),
+            new AgentUpdate("Clinical Trials", AgentStatus.COMPLETED, 100, otherResult, null)));
+        AgentResult checkpointed = new AgentResult(2L, "Market Insights", AgentStatus.COMPLETED.name(), 1L);
+        when(resultJournal.loadCheckpoint(2L)).thenReturn(Single.just(Collections.singletonList(checkpointed)));
+
+        executor.execute("Metformin", 1L).blockingSubscribe();
+        List<AgentUpdate> updates = executor.execute("Metformin", 2L).toList().blockingGet();
+
+        assertEquals(2, updates.size());
+        assertSame(checkpointed, updates.get(0).getResult());
+        assertEquals("Clinical Trials", updates.get(1).getAgentName());
+        assertEquals(2L, updates.get(1).getResult().getQueryId());
+        // Only the agent missing from the checkpoint is copied
+        verify(resultJournal, times(1)).record(any(AgentResult.class));
+    }
+
+    @Test
+    public void testFailedAgentPoisonsRun() {
+        when(masterAgent.executeAllAgents(anyString(), anyLong()))
+            .thenReturn(Flowable.just(new AgentUpdate("Market Insights", AgentStatus.FAILED, 0)));
+
+        executor.execute("Metformin", 1L).blockingSubscribe();
+        assertEquals(0, executor.getActiveFlightCount());
+
+        executor.execute("Metformin", 2L).blockingSubscribe();
+        verify(masterAgent).executeAllAgents("Metformin", 2L);
+    }
+
+    @Test
+    public void testRetryNeverJoinsExistingRun() {
+        when(masterAgent.executeAllAgents(anyString(), anyLong()))
+            .thenReturn(Flowable.just(new AgentUpdate("Market Insights", AgentStatus.COMPLETED, 100)));
+
+        executor.execute("Metformin", 1L).blockingSubscribe();
+        executor.execute("Metformin", 1L, true).blockingSubscribe();
+
+        verify(masterAgent, times(2)).executeAllAgents("Metformin", 1L);
+    }
+
+    @Test
+    public void testRunIsDroppedAfterFreshnessWindow() throws InterruptedException {
+        executor = new SingleFlightAgentExecutor(masterAgent, resultJournal, 10);
+        when(masterAgent.executeAllAgents(anyString(), anyLong()))
+            .thenReturn(Flowable.just(new AgentUpdate("Market Insights", AgentStatus.COMPLETED, 100)));
+
+        executor.execute("Metformin", 1L).blockingSubscribe();
+        for (int i = 0; i < 100 && executor.getActiveFlightCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, executor.getActiveFlightCount());
+    }
+}
@@ -0,0 +1,69 @@
+package com.mit.bodhiq.chatbot;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for MedicationDictionary
+ */
+public class MedicationDictionaryTest {
+
+    private static final String DICTIONARY =
+        "# comment\n" +
+        "amoxicillin|Amoxil\n" +
+        "amoxicillin clavulanate|Augmentin\n" +
+        "metformin|Glucophage,Glycomet\n" +
+        "co-trimoxazole|Bactrim\n";
+
+    private static MedicationDictionary dictionary() throws IOException {
+        return MedicationDictionary.parse(new BufferedReader(new StringReader(DICTIONARY)));
+    }
+
+    @Test
+    public void testGenericAndBrandNames() throws IOException {
+        List<MedicationDictionary.Match> matches = dictionary().scan("Tab GLYCOMET 500 mg, Metformin SR");
+        assertEquals(2, matches.size());
+        assertEquals("GLYCOMET", matches.get(0).getText());
+        assertTrue(matches.get(0).isBrand());
+        assertEquals("metformin", matches.get(0).getGenericName());
+        assertFalse(matches.get(1).isBrand());
+    }
+
+    @Test
+    public void testLongestNameWins() throws IOException {
+        List<MedicationDictionary.Match> matches = dictionary().scan("Rx: Amoxicillin  Clavulanate 625");
+        assertEquals(1, matches.size());
+        assertEquals("amoxicillin clavulanate", matches.get(0).getGenericName());
+    }
+
+    @Test
+    public void testWholeWordsOnly() throws IOException {
+        assertTrue(dictionary().scan("nonmetformine").isEmpty());
+        assertEquals(1, dictionary().scan("started co-trimoxazole.").size());
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        assertEquals("amoxicillin clavulanate", dictionary().getGenericName("augmentin"));
+        assertNull(dictionary().getGenericName("augment"));
+    }
+
+    @Test
+    public void testBundledDictionary() throws IOException {
+        MedicationDictionary bundled;
+        try (BufferedReader reader = new BufferedReader(
+                new FileReader("src/main/assets/" + MedicationDictionary.ASSET_NAME))) {
+            bundled = MedicationDictionary.parse(reader);
+        }
+        assertTrue(bundled.size() > 1000);
+        assertEquals("atorvastatin", bundled.getGenericName("Lipitor"));
+        assertEquals("metformin", bundled.findFirst("Patient is on Glucophage 500mg BD").getGenericName());
+    }
+}
@@ -0,0 +1,58 @@
+package com.mit.bodhiq.data.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.mit.bodhiq.data.database.entity.LabValuePoint;
+
+import java.util.Arrays;
+
+public class LabValueSeriesTest {
+
+    private static LabValueSeries series() {
+        return LabValueSeries.of("HEMOGLOBIN", Arrays.asList(
+            new LabValuePoint("u1", "HEMOGLOBIN", "r1", 1000L, 11.0, "g/dL", "11.0", "g/dL", "LOW"),
+            new LabValuePoint("u1", "HEMOGLOBIN", "r2", 2000L, 12.5, "g/dL", "12.5", "g/dL", "NORMAL"),
+            new LabValuePoint("u1", "HEMOGLOBIN", "r3", 3000L, 13.0, "g/dL", "13.0", "g/dL", "NORMAL"),
+            new LabValuePoint("u1", "HEMOGLOBIN", "r4", 4000L, 12.0, "g/dL", "12.0", "g/dL", "NORMAL")));
+    }
+
+    @Test
+    public void testStatistics() {
+        LabValueSeries series = series();
+        assertEquals(4, series.size());
+        assertEquals("g/dL", series.getUnit());
+        assertEquals(11.0, series.getMin(), 0.0);
+        assertEquals(13.0, series.getMax(), 0.0);
+        assertEquals(12.125, series.getAverage(), 1e-9);
+        assertEquals(-1.0, series.getDelta(), 1e-9);
+        assertEquals(1.0, series.getTotalChange(), 1e-9);
+    }
+
+    @Test
+    public void testMovingAverage() {
+        double[] averages = series().getMovingAverage(2);
+        assertEquals(11.0, averages[0], 1e-9);
+        assertEquals(11.75, averages[1], 1e-9);
+        assertEquals(12.75, averages[2], 1e-9);
+        assertEquals(12.5, averages[3], 1e-9);
+    }
+
+    @Test
+    public void testSlice() {
+        LabValueSeries slice = series().slice(2000L, 3000L);
+        assertEquals(2, slice.size());
+        assertEquals(12.5, slice.getValue(0), 0.0);
+        assertEquals(13.0, slice.getLatest(), 0.0);
+        assertEquals(4, series().slice(Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertTrue(series().slice(5000L, 6000L).isEmpty());
+    }
+
+    @Test
+    public void testEmptySeries() {
+        LabValueSeries series = LabValueSeries.of("GLUCOSE", Arrays.asList());
+        assertTrue(Double.isNaN(series.getMin()));
+        assertTrue(Double.isNaN(series.getDelta()));
+        assertEquals(0, series.getMovingAverage(3).length);
+    }
+}
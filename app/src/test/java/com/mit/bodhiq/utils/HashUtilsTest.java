@@ -0,0 +1,23 @@
+package com.mit.bodhiq.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for HashUtils
+ */
+public class HashUtilsTest {
+
+    @Test
+    public void testSha256HexMatchesKnownDigest() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            HashUtils.sha256Hex("abc"));
+    }
+
+    @Test
+    public void testSha256HexOfEmptyString() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+            HashUtils.sha256Hex(""));
+    }
+}
@@ -0,0 +1,110 @@
+package com.mit.bodhiq.utils;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LabValueLexer
+ */
+public class LabValueLexerTest {
+
+    @Test
+    public void testValueAndUnit() {
+        List<LabValueLexer.LabReading> readings = LabValueLexer.scan("Hemoglobin: 12.5 g/dL");
+        assertEquals(1, readings.size());
+        assertEquals(LabTest.HEMOGLOBIN, readings.get(0).getTest());
+        assertEquals("Hemoglobin", readings.get(0).getLabel());
+        assertEquals("12.5", readings.get(0).getValue());
+        assertEquals("g/dL", readings.get(0).getUnit());
+    }
+
+    @Test
+    public void testLongestNameWins() {
+        List<LabValueLexer.LabReading> readings = LabValueLexer.scan("HDL Cholesterol 45 mg/dl\nTotal  Cholesterol 210 mg/dl");
+        assertEquals(2, readings.size());
+        assertEquals(LabTest.HDL_CHOLESTEROL, readings.get(0).getTest());
+        assertEquals(LabTest.CHOLESTEROL_TOTAL, readings.get(1).getTest());
+        assertEquals("210", readings.get(1).getValue());
+    }
+
+    @Test
+    public void testNamesDoNotSpanLines() {
+        List<LabValueLexer.LabReading> readings = LabValueLexer.scan("Total\nCholesterol 210 mg/dl");
+        assertEquals(1, readings.size());
+        assertEquals("Cholesterol", readings.get(0).getLabel());
+        assertEquals(6, readings.get(0).getStart());
+
+        readings = LabValueLexer.scan("HDL\nCholesterol 210 mg/dl");
+        assertEquals(1, readings.size());
+        assertEquals(LabTest.CHOLESTEROL_TOTAL, readings.get(0).getTest());
+        assertEquals("Cholesterol", readings.get(0).getLabel());
+    }
+
+    @Test
+    public void testNamesMatchWholeWordsOnly() {
+        assertTrue(LabValueLexer.scan("HbA1c 6.2 %").isEmpty());
+        assertTrue(LabValueLexer.scan("salt 5 g").isEmpty());
+        assertTrue(LabValueLexer.scan("T34 9").isEmpty());
+    }
+
+    @Test
+    public void testPairedValue() {
+        LabValueLexer.LabReading reading = LabValueLexer.scan("BP 120/80 mm Hg").get(0);
+        assertEquals(LabTest.BLOOD_PRESSURE, reading.getTest());
+        assertEquals("120", reading.getValue());
+        assertEquals("80", reading.getSecondValue());
+        assertEquals("mm Hg", reading.getUnit());
+    }
+
+    @Test
+    public void testReferenceRange() {
+        List<LabValueLexer.LabReading> readings = LabValueLexer.scan(
+            "Platelet Count: 250000 /μl 150000 - 450000\nCholesterol 210 mg/dL (<200)");
+        assertEquals("150000-450000", readings.get(0).getReferenceRange());
+        assertEquals("<200", readings.get(1).getReferenceRange());
+    }
+
+    @Test
+    public void testNextTestNameIsNotAUnit() {
+        List<LabValueLexer.LabReading> readings = LabValueLexer.scan("Glucose 110 RBC 4.8");
+        assertEquals(2, readings.size());
+        assertEquals("", readings.get(0).getUnit());
+        assertEquals(LabTest.RED_BLOOD_CELLS, readings.get(1).getTest());
+    }
+
+    @Test
+    public void testOcrGarbledNames() {
+        List<LabValueLexer.LabReading> readings = LabValueLexer.scan(
+            "Hem0globin 12.5 g/dL\nHaemog1obin: 11.8\nWhlte B1ood Ce11s 7500 /ul\nCreat1nine 1.1 mg/dl");
+        assertEquals(4, readings.size());
+        assertEquals(LabTest.HEMOGLOBIN, readings.get(0).getTest());
+        assertEquals(LabTest.HEMOGLOBIN, readings.get(1).getTest());
+        assertEquals(LabTest.WHITE_BLOOD_CELLS, readings.get(2).getTest());
+        assertEquals(LabTest.CREATININE, readings.get(3).getTest());
+        assertEquals("1.1", readings.get(3).getValue());
+        for (LabValueLexer.LabReading reading : readings) {
+            assertTrue(reading.getConfidence() < 1.0f);
+            assertTrue(reading.getConfidence() >= 0.5f);
+        }
+    }
+
+    @Test
+    public void testConfidenceFeedsParsedField() {
+        assertEquals(1.0f, LabValueLexer.scan("Hemoglobin 12.5").get(0).toParsedField().getConfidence(), 0.0);
+        assertEquals(0.95f, LabValueLexer.scan("Hem0globin 12.5").get(0).toParsedField().getConfidence(), 0.001);
+    }
+
+    @Test
+    public void testOrdinaryWordsAreNotCorrected() {
+        assertTrue(LabValueLexer.scan("the report shows 12 values").isEmpty());
+    }
+
+    @Test
+    public void testEmptyInput() {
+        assertTrue(LabValueLexer.scan(null).isEmpty());
+        assertTrue(LabValueLexer.scan("").isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package com.mit.bodhiq.utils;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LiveTextStabilizer
+ */
+public class LiveTextStabilizerTest {
+
+    private static final String FRAME = "Hemoglobin 13.5 g/dL\nGlucose 98 mg/dL";
+
+    @Test
+    public void testValueSettlesAfterRepeatedFrames() {
+        LiveTextStabilizer stabilizer = new LiveTextStabilizer();
+        assertFalse(stabilizer.update(FRAME));
+        assertTrue(stabilizer.getStableReadings().isEmpty());
+        assertNull(stabilizer.getStableText());
+
+        assertTrue(stabilizer.update(FRAME));
+        List<LabValueLexer.LabReading> readings = stabilizer.getStableReadings();
+        assertEquals(2, readings.size());
+        assertEquals(LabTest.HEMOGLOBIN, readings.get(0).getTest());
+        assertEquals("13.5", readings.get(0).getValue());
+        assertEquals(FRAME, stabilizer.getStableText());
+    }
+
+    @Test
+    public void testSingleMisreadIsOutvoted() {
+        LiveTextStabilizer stabilizer = new LiveTextStabilizer();
+        stabilizer.update(FRAME);
+        stabilizer.update(FRAME);
+        assertFalse(stabilizer.update("Hemoglobin 18.5 g/dL\nGlucose 98 mg/dL"));
+        assertEquals("13.5", stabilizer.getStableReadings().get(0).getValue());
+        // The misread frame disagrees with the settled value, so its text is not reused
+        assertNull(stabilizer.getStableText());
+
+        stabilizer.update(FRAME);
+        assertEquals(FRAME, stabilizer.getStableText());
+    }
+
+    @Test
+    public void testValuesExpireWhenPageChanges() {
+        LiveTextStabilizer stabilizer = new LiveTextStabilizer();
+        stabilizer.update(FRAME);
+        stabilizer.update(FRAME);
+        for (int i = 0; i < 3; i++) {
+            stabilizer.update("");
+        }
+        assertTrue(stabilizer.getStableReadings().isEmpty());
+        assertNull(stabilizer.getStableText());
+    }
+
+    @Test
+    public void testReset() {
+        LiveTextStabilizer stabilizer = new LiveTextStabilizer();
+        stabilizer.update(FRAME);
+        stabilizer.update(FRAME);
+        stabilizer.reset();
+        assertTrue(stabilizer.getStableReadings().isEmpty());
+        assertNull(stabilizer.getStableText());
+    }
+}
@@ -0,0 +1,87 @@
+package com.mit.bodhiq.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LumaOps
+ */
+public class LumaOpsTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 300;
+
+    /**
+     * White page with dark 3px text lines every 20px, descending by {@code slope} per pixel.
+     */
+    private static byte[] page(double slope) {
+        byte[] plane = new byte[WIDTH * HEIGHT];
+        Arrays.fill(plane, (byte) 230);
+        for (int line = 40; line < HEIGHT - 40; line += 20) {
+            for (int x = 20; x < WIDTH - 20; x++) {
+                int y = (int) Math.round(line + x * slope);
+                for (int t = 0; t < 3; t++) {
+                    if (y + t >= 0 && y + t < HEIGHT) {
+                        plane[(y + t) * WIDTH + x] = 20;
+                    }
+                }
+            }
+        }
+        return plane;
+    }
+
+    @Test
+    public void testSampleSize() {
+        assertEquals(4, LumaOps.sampleSizeFor(8000, 6000, 1920));  // 48 MP
+        assertEquals(2, LumaOps.sampleSizeFor(4000, 3000, 1920));  // 12 MP
+        assertEquals(1, LumaOps.sampleSizeFor(1920, 1080, 1920));
+        assertEquals(1, LumaOps.sampleSizeFor(640, 480, 1920));
+    }
+
+    @Test
+    public void testLuma() {
+        assertEquals(0, LumaOps.luma(0xFF000000));
+        assertEquals(255, LumaOps.luma(0xFFFFFFFF));
+        assertTrue(LumaOps.luma(0xFF00FF00) > LumaOps.luma(0xFFFF0000));
+    }
+
+    @Test
+    public void testNormalizeContrast() {
+        byte[] plane = new byte[1000];
+        for (int i = 0; i < plane.length; i++) {
+            plane[i] = (byte) (100 + (i % 50));
+        }
+        assertTrue(LumaOps.normalizeContrast(plane, plane.length));
+        int min = 255;
+        int max = 0;
+        for (byte b : plane) {
+            min = Math.min(min, b & 0xFF);
+            max = Math.max(max, b & 0xFF);
+        }
+        assertTrue(min <= 5);
+        assertTrue(max >= 250);
+
+        byte[] blank = new byte[1000];
+        Arrays.fill(blank, (byte) 200);
+        assertFalse(LumaOps.normalizeContrast(blank, blank.length));
+    }
+
+    @Test
+    public void testEstimateSkew() {
+        assertEquals(0.0, LumaOps.estimateSkewDegrees(page(0), WIDTH, HEIGHT), 0.3);
+        double slope = Math.tan(Math.toRadians(3));
+        assertEquals(3.0, LumaOps.estimateSkewDegrees(page(slope), WIDTH, HEIGHT), 0.3);
+        assertEquals(-3.0, LumaOps.estimateSkewDegrees(page(-slope), WIDTH, HEIGHT), 0.3);
+    }
+
+    @Test
+    public void testRotateRemovesSkew() {
+        byte[] skewed = page(Math.tan(Math.toRadians(4)));
+        byte[] straight = new byte[skewed.length];
+        LumaOps.rotate(skewed, straight, WIDTH, HEIGHT, LumaOps.estimateSkewDegrees(skewed, WIDTH, HEIGHT));
+        assertEquals(0.0, LumaOps.estimateSkewDegrees(straight, WIDTH, HEIGHT), 0.5);
+    }
+}
@@ -0,0 +1,75 @@
+package com.mit.bodhiq.utils;
+
+import com.mit.bodhiq.data.model.ParsedField;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReferenceRangeTable
+ */
+public class ReferenceRangeTableTest {
+
+    private static final int ADULT = ReferenceRangeTable.AGE_ADULT;
+    private static final int ANY_SEX = ReferenceRangeTable.SEX_UNSPECIFIED;
+
+    @Test
+    public void testAliasesResolveToOneId() {
+        int id = ReferenceRangeTable.testId("Hemoglobin");
+        assertEquals(LabTest.HEMOGLOBIN.ordinal(), id);
+        assertEquals(id, ReferenceRangeTable.testId(" HGB "));
+        assertEquals(id, ReferenceRangeTable.testId("hb"));
+        assertEquals(ReferenceRangeTable.UNKNOWN_TEST, ReferenceRangeTable.testId("vitamin q"));
+    }
+
+    @Test
+    public void testFlags() {
+        int id = ReferenceRangeTable.testId("glucose");
+        assertEquals(ParsedField.Flag.NORMAL, ReferenceRangeTable.evaluate(id, ADULT, ANY_SEX, 100));
+        assertEquals(ParsedField.Flag.BORDERLINE, ReferenceRangeTable.evaluate(id, ADULT, ANY_SEX, 72));
+        assertEquals(ParsedField.Flag.HIGH, ReferenceRangeTable.evaluate(id, ADULT, ANY_SEX, 180));
+        assertEquals(ParsedField.Flag.LOW, ReferenceRangeTable.evaluate(id, ADULT, ANY_SEX, 60));
+        assertEquals(ParsedField.Flag.CRITICAL, ReferenceRangeTable.evaluate(id, ADULT, ANY_SEX, 30));
+        assertEquals(ParsedField.Flag.UNKNOWN,
+            ReferenceRangeTable.evaluate(ReferenceRangeTable.UNKNOWN_TEST, ADULT, ANY_SEX, 30));
+    }
+
+    @Test
+    public void testAgeAndSexAdjustRanges() {
+        int id = LabTest.HEMOGLOBIN.ordinal();
+        int male = ReferenceRangeTable.sex("Male");
+        int female = ReferenceRangeTable.sex("F");
+        assertEquals("LOW", ReferenceRangeTable.getStatus(id, ADULT, male, 13.0));
+        assertEquals("NORMAL", ReferenceRangeTable.getStatus(id, ADULT, female, 13.0));
+        assertEquals("NORMAL", ReferenceRangeTable.getStatus(id, ReferenceRangeTable.ageBand("8"), ANY_SEX, 11.5));
+        assertEquals(ADULT, ReferenceRangeTable.ageBand("unknown"));
+        assertEquals(ReferenceRangeTable.AGE_SENIOR, ReferenceRangeTable.ageBand("70"));
+    }
+
+    @Test
+    public void testOneSidedRanges() {
+        int hdl = LabTest.HDL_CHOLESTEROL.ordinal();
+        assertEquals(ParsedField.Flag.NORMAL, ReferenceRangeTable.evaluate(hdl, ADULT, ANY_SEX, 90));
+        assertEquals("LOW", ReferenceRangeTable.getStatus(hdl, ADULT, ReferenceRangeTable.SEX_FEMALE, 45));
+        assertEquals(">40", ReferenceRangeTable.getRangeText(hdl, ADULT, ANY_SEX));
+        assertEquals("<200", ReferenceRangeTable.getRangeText(LabTest.CHOLESTEROL_TOTAL.ordinal(), ADULT, ANY_SEX));
+    }
+
+    @Test
+    public void testBloodPressure() {
+        assertEquals("HIGH", ReferenceRangeTable.getBloodPressureStatus(ADULT, ANY_SEX, 150, 85));
+        assertEquals("LOW", ReferenceRangeTable.getBloodPressureStatus(ADULT, ANY_SEX, 85, 70));
+        assertEquals(ParsedField.Flag.CRITICAL, ReferenceRangeTable.evaluateBloodPressure(ADULT, ANY_SEX, 120, 125));
+        assertEquals("90-140/60-90",
+            ReferenceRangeTable.getRangeText(LabTest.BLOOD_PRESSURE.ordinal(), ADULT, ANY_SEX));
+    }
+
+    @Test
+    public void testActionLevels() {
+        assertEquals(ParsedField.ActionLevel.URGENT_CARE,
+            ReferenceRangeTable.getActionLevel(ParsedField.Flag.CRITICAL));
+        assertEquals(ParsedField.ActionLevel.NONE,
+            ReferenceRangeTable.getActionLevel(ParsedField.Flag.UNKNOWN));
+    }
+}
@@ -0,0 +1,58 @@
+package com.mit.bodhiq.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for UnitConverter and LabUnit
+ */
+public class UnitConverterTest {
+
+    @Test
+    public void testSpellingsParseToSameUnit() {
+        LabUnit unit = LabUnit.parse("g/dL");
+        assertEquals(LabUnit.MASS_CONCENTRATION, unit.getDimension());
+        assertEquals(unit.getScale(), LabUnit.parse("gm/dl").getScale(), 1e-12);
+        assertEquals(unit.getScale(), LabUnit.parse("gm%").getScale(), 1e-12);
+        assertEquals(LabUnit.parse("x10³/μl").getScale(), LabUnit.parse("10^9/L").getScale(), 1e-3);
+        assertEquals(LabUnit.parse("mIU/L").getScale(), LabUnit.parse("µIU/mL").getScale(), 1e-12);
+        assertSame(unit, LabUnit.parse("g/dL"));
+        assertFalse(LabUnit.parse("fl").isKnown());
+    }
+
+    @Test
+    public void testSameDimension() {
+        assertEquals(13.5, UnitConverter.toCanonical(LabTest.HEMOGLOBIN, 135, "g/L"), 1e-9);
+        assertEquals(250000, UnitConverter.toCanonical(LabTest.PLATELETS, 2.5, "lakhs/cumm"), 1e-6);
+        assertEquals(250000, UnitConverter.toCanonical(LabTest.PLATELETS, 250, "x10³/μL"), 1e-6);
+        assertEquals(7500, UnitConverter.toCanonical(LabTest.WHITE_BLOOD_CELLS, 7.5, "10^9/L"), 1e-6);
+        assertEquals(4.8, UnitConverter.toCanonical(LabTest.RED_BLOOD_CELLS, 4.8, "mill/cumm"), 1e-9);
+    }
+
+    @Test
+    public void testMolarConversions() {
+        assertEquals(99.09, UnitConverter.toCanonical(LabTest.GLUCOSE, 5.5, "mmol/L"), 0.01);
+        assertEquals(1.0, UnitConverter.toCanonical(LabTest.CREATININE, 88.4, "µmol/L"), 0.01);
+        assertEquals(10.02, UnitConverter.toCanonical(LabTest.CALCIUM, 2.5, "mmol/L"), 0.01);
+        assertEquals(140, UnitConverter.toCanonical(LabTest.SODIUM, 140, "mmol/L"), 1e-9);
+        assertTrue(Double.isNaN(UnitConverter.toCanonical(LabTest.ALT, 30, "mmol/L")));
+    }
+
+    @Test
+    public void testUnitlessCounts() {
+        assertEquals(7500, UnitConverter.toCanonical(LabTest.WHITE_BLOOD_CELLS, 7.5, ""), 1e-6);
+        assertEquals(7500, UnitConverter.toCanonical(LabTest.WHITE_BLOOD_CELLS, 7500, null), 1e-6);
+        assertEquals(250000, UnitConverter.toCanonical(LabTest.PLATELETS, 2.5, ""), 1e-6);
+        assertEquals(12.5, UnitConverter.toCanonical(LabTest.HEMOGLOBIN, 12.5, ""), 1e-9);
+    }
+
+    @Test
+    public void testReadingsCarryCanonicalValues() {
+        LabValueLexer.LabReading reading = LabValueLexer.scan("Platelet count 2.5 lakhs").get(0);
+        assertEquals("lakhs", reading.getUnit());
+        assertEquals(250000, reading.getCanonicalValue(), 1e-6);
+        assertEquals("/μL", reading.getCanonicalUnit());
+        assertEquals(250000, reading.toParsedField().getCanonicalValue(), 1e-6);
+    }
+}